@@ -0,0 +1,132 @@
+package com.flux.entropia.admission;
+
+import com.flux.entropia.config.FluxProperties;
+import com.flux.entropia.exception.ServiceOverloadedException;
+import com.flux.entropia.metrics.FluxMetrics;
+import com.flux.entropia.websocket.FluxWebSocketHandler;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control for the HTTP API: fails fast with 503 while the service is overloaded, instead of letting
+ * requests queue for a database connection until the whole service stops responding.
+ * <p>
+ * Three signals are compared against their limits:
+ * <ul>
+ *   <li>pool load: connections in use plus threads waiting for one, relative to the size of the primary pool;</li>
+ *   <li>requests in flight behind the gate;</li>
+ *   <li>broadcast backlog: bytes queued for WebSocket sessions that cannot keep up, sampled periodically since
+ *       summing it walks every session.</li>
+ * </ul>
+ * Sheddable requests are rejected once any signal reaches {@code flux.admission.sheddable-share} of its limit,
+ * critical ones only at the limit itself, so writes and viewport loads keep the capacity polling gives up.
+ */
+@Component
+@Slf4j
+public class AdmissionGate {
+
+    public enum Priority { CRITICAL, SHEDDABLE }
+
+    static final String REASON_POOL = "pool";
+    static final String REASON_IN_FLIGHT = "in_flight";
+    static final String REASON_BACKLOG = "backlog";
+
+    private final FluxProperties fluxProperties;
+    private final FluxWebSocketHandler webSocketHandler;
+    private final FluxMetrics fluxMetrics;
+    // The primary pool, or null if the data source is not a Hikari pool; its load is then not considered.
+    private final HikariDataSource pool;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile long broadcastBacklogBytes;
+
+    public AdmissionGate(FluxProperties fluxProperties, DataSource dataSource, FluxWebSocketHandler webSocketHandler, FluxMetrics fluxMetrics) {
+        this.fluxProperties = fluxProperties;
+        this.webSocketHandler = webSocketHandler;
+        this.fluxMetrics = fluxMetrics;
+        this.pool = primaryPool(dataSource);
+        fluxMetrics.bindAdmission(inFlight::get);
+    }
+
+    private static HikariDataSource primaryPool(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class);
+            }
+        } catch (SQLException e) {
+            log.debug("Could not inspect the connection pool: {}", e.getMessage());
+        }
+        log.warn("The data source is not a Hikari pool; admission control ignores connection pool load");
+        return null;
+    }
+
+    /**
+     * Admits a request, which must be followed by {@link #release()} once it completes.
+     *
+     * @throws ServiceOverloadedException if the request is shed.
+     */
+    public void acquire(Priority priority) {
+        int current = inFlight.incrementAndGet();
+        FluxProperties.Admission limits = fluxProperties.getAdmission();
+        if (!limits.getEnabled()) {
+            return;
+        }
+        String reason = overloadReason(limits, priority == Priority.CRITICAL ? 1.0 : limits.getSheddableShare(), current);
+        if (reason != null) {
+            inFlight.decrementAndGet();
+            fluxMetrics.admissionRejected(priority.name().toLowerCase(), reason);
+            log.debug("Shed {} request: {} (in flight {}, pool load {}, backlog {} bytes)",
+                priority, reason, current, poolLoad(), broadcastBacklogBytes);
+            throw new ServiceOverloadedException("The server is busy. Please try again shortly.", limits.getRetryAfterSeconds());
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * @param share The fraction of each limit at which the request is rejected.
+     * @return The first signal over its limit, or null if the request is admitted.
+     */
+    private String overloadReason(FluxProperties.Admission limits, double share, int current) {
+        if (current > limits.getMaxInFlight() * share) {
+            return REASON_IN_FLIGHT;
+        }
+        if (poolLoad() >= limits.getMaxPoolLoad() * share) {
+            return REASON_POOL;
+        }
+        if (broadcastBacklogBytes >= limits.getMaxBroadcastBacklogBytes() * share) {
+            return REASON_BACKLOG;
+        }
+        return null;
+    }
+
+    /**
+     * @return Connections in use plus threads waiting for one, per connection of the primary pool; 0 before the
+     *         pool has started.
+     */
+    double poolLoad() {
+        HikariPoolMXBean mxBean = pool != null ? pool.getHikariPoolMXBean() : null;
+        if (mxBean == null) {
+            return 0;
+        }
+        return (double) (mxBean.getActiveConnections() + mxBean.getThreadsAwaitingConnection()) / pool.getMaximumPoolSize();
+    }
+
+    @Scheduled(fixedDelayString = "${flux.admission.sample-interval-ms:250}")
+    public void sampleBroadcastBacklog() {
+        broadcastBacklogBytes = webSocketHandler.getBufferedBytes();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,46 @@
+package com.flux.entropia.admission;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Passes every request of the guarded controllers through the {@link AdmissionGate}.
+ * Handlers annotated with {@link Sheddable}, or declared in a controller that is, get the lower priority.
+ */
+@Component
+@RequiredArgsConstructor
+public class AdmissionInterceptor implements HandlerInterceptor {
+
+    // Set on admitted requests, so a request rejected here is not released again in afterCompletion.
+    private static final String ADMITTED = AdmissionInterceptor.class.getName() + ".admitted";
+
+    private final AdmissionGate admissionGate;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        admissionGate.acquire(priority(handlerMethod));
+        request.setAttribute(ADMITTED, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(ADMITTED) != null) {
+            request.removeAttribute(ADMITTED);
+            admissionGate.release();
+        }
+    }
+
+    private static AdmissionGate.Priority priority(HandlerMethod handlerMethod) {
+        boolean sheddable = handlerMethod.hasMethodAnnotation(Sheddable.class)
+            || handlerMethod.getBeanType().isAnnotationPresent(Sheddable.class);
+        return sheddable ? AdmissionGate.Priority.SHEDDABLE : AdmissionGate.Priority.CRITICAL;
+    }
+}
@@ -0,0 +1,20 @@
+package com.flux.entropia.admission;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a controller, or a single handler method, whose requests are shed first under overload.
+ * <p>
+ * Meant for polling and other requests a client retries or simply skips, such as heatmap and stats refreshes.
+ * Everything else behind the {@link AdmissionInterceptor} - writes and the initial loads of a viewport - is
+ * critical and only rejected once the system is saturated.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Sheddable {
+}
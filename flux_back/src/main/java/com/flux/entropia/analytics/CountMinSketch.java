@@ -0,0 +1,58 @@
+package com.flux.entropia.analytics;
+
+import java.util.Arrays;
+
+/**
+ * A Count-Min sketch over 64-bit key hashes: {@code depth} rows of {@code width} counters.
+ * Estimates never undercount; with conservative update the overcount stays small for heavy keys,
+ * which are the only ones we report. Not thread-safe.
+ */
+final class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final int[] counters;
+
+    CountMinSketch(int width, int depth) {
+        this.width = width;
+        this.depth = depth;
+        this.counters = new int[width * depth];
+    }
+
+    /**
+     * Adds to the count of a key, raising each of its counters only as far as needed (conservative update).
+     *
+     * @return the new estimate for the key.
+     */
+    int add(long hash, int count) {
+        int estimate = estimate(hash) + count;
+        for (int row = 0; row < depth; row++) {
+            int index = index(hash, row);
+            if (counters[index] < estimate) {
+                counters[index] = estimate;
+            }
+        }
+        return estimate;
+    }
+
+    int estimate(long hash) {
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters[index(hash, row)]);
+        }
+        return min;
+    }
+
+    void clear() {
+        Arrays.fill(counters, 0);
+    }
+
+    /**
+     * Derives one column per row from the key hash (double hashing: h1 + row * h2).
+     */
+    private int index(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return row * width + Math.floorMod(h1 + row * h2, width);
+    }
+}
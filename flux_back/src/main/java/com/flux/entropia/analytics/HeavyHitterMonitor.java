@@ -0,0 +1,109 @@
+package com.flux.entropia.analytics;
+
+import com.flux.entropia.common.CellKey;
+import com.flux.entropia.config.FluxProperties;
+import com.flux.entropia.dto.HeavyHittersDTO;
+import com.flux.entropia.state.CanvasStateStore;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Tracks the hottest cells, heatmap chunks and client IPs over a sliding window, separately for cell writes and for
+ * editing signals relayed over the WebSocket. Fed on every event, so an admin can see who and where the load comes
+ * from while it happens rather than from the database afterwards.
+ * <p>
+ * Memory is fixed by {@code flux.heavy-hitters.*}: per key space and source, one sketch and one top-K table per
+ * window bucket.
+ */
+@Component
+public class HeavyHitterMonitor {
+
+    public enum Source {
+        WRITE, RELAY
+    }
+
+    private final FluxProperties.HeavyHitters config;
+    private final Map<Source, Trackers> trackers = new EnumMap<>(Source.class);
+
+    public HeavyHitterMonitor(FluxProperties fluxProperties) {
+        this.config = fluxProperties.getHeavyHitters();
+        for (Source source : Source.values()) {
+            trackers.put(source, new Trackers(config));
+        }
+    }
+
+    /**
+     * Records a cell write attempt, before rate limiting, so abusive clients show up too.
+     */
+    public void recordWrite(int rowIndex, int colIndex, String ipAddress) {
+        record(Source.WRITE, rowIndex, colIndex, ipAddress);
+    }
+
+    /**
+     * Records an editing signal relayed to the other sessions.
+     */
+    public void recordRelay(int rowIndex, int colIndex, String ipAddress) {
+        record(Source.RELAY, rowIndex, colIndex, ipAddress);
+    }
+
+    public HeavyHittersDTO snapshot(Source source, int limit) {
+        long now = System.currentTimeMillis();
+        Trackers sourceTrackers = trackers.get(source);
+        return new HeavyHittersDTO(
+            source.name(),
+            config.getWindowSeconds(),
+            sourceTrackers.cells.total(now),
+            toDto(sourceTrackers.cells.top(limit, now), key -> CellKey.row(key) + "," + CellKey.col(key)),
+            // Chunks use the "gridX,gridY" notation of /api/heatmap/chunks.
+            toDto(sourceTrackers.chunks.top(limit, now), key -> CellKey.col(key) + "," + CellKey.row(key)),
+            toDto(sourceTrackers.ips.top(limit, now), Function.identity()));
+    }
+
+    private void record(Source source, int rowIndex, int colIndex, String ipAddress) {
+        if (!config.getEnabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Trackers sourceTrackers = trackers.get(source);
+        sourceTrackers.cells.add(CellKey.pack(rowIndex, colIndex), now);
+        sourceTrackers.chunks.add(CellKey.pack(Math.floorDiv(rowIndex, CanvasStateStore.CHUNK_SIZE), Math.floorDiv(colIndex, CanvasStateStore.CHUNK_SIZE)), now);
+        sourceTrackers.ips.add(ipAddress != null ? ipAddress : "unknown", now);
+    }
+
+    private static <K> List<HeavyHittersDTO.HeavyHitterDTO> toDto(List<SlidingHeavyHitters.HeavyHitter<K>> hitters, Function<K, String> format) {
+        return hitters.stream()
+            .map(hitter -> new HeavyHittersDTO.HeavyHitterDTO(format.apply(hitter.key()), hitter.estimate(), hitter.guaranteed()))
+            .toList();
+    }
+
+    /**
+     * SplitMix64 finalizer; spreads packed coordinates, which differ only in a few low bits, over the sketch.
+     */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class Trackers {
+
+        private final SlidingHeavyHitters<Long> cells;
+        private final SlidingHeavyHitters<Long> chunks;
+        private final SlidingHeavyHitters<String> ips;
+
+        private Trackers(FluxProperties.HeavyHitters config) {
+            int buckets = config.getBuckets();
+            long bucketMillis = config.getWindowSeconds() * 1000L / buckets;
+            // Track more keys than are reported, so the reported ones are well above the eviction threshold.
+            int tracked = config.getTopK() * 4;
+            cells = new SlidingHeavyHitters<>(buckets, bucketMillis, tracked, config.getSketchWidth(), config.getSketchDepth(), HeavyHitterMonitor::mix);
+            chunks = new SlidingHeavyHitters<>(buckets, bucketMillis, tracked, config.getSketchWidth(), config.getSketchDepth(), HeavyHitterMonitor::mix);
+            ips = new SlidingHeavyHitters<>(buckets, bucketMillis, tracked, config.getSketchWidth(), config.getSketchDepth(), ip -> mix(ip.hashCode()));
+        }
+    }
+}
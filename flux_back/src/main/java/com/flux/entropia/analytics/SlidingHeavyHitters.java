@@ -0,0 +1,128 @@
+package com.flux.entropia.analytics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+/**
+ * Heavy hitters of one key space over a sliding window.
+ * <p>
+ * The window is a ring of buckets, each with its own {@link CountMinSketch} and {@link SpaceSaving} top-K. A bucket
+ * is cleared lazily when the ring wraps around to it, so the window slides at bucket granularity and memory is fixed
+ * by the configuration, regardless of how many distinct keys are seen.
+ * <p>
+ * Queries take the keys tracked by any live bucket as candidates and add up their per-bucket counts: the sketch
+ * (tightened by the top-K count where the key is tracked) gives an upper bound, the top-K counts minus their error a
+ * lower bound.
+ */
+public final class SlidingHeavyHitters<K> {
+
+    /**
+     * One heavy hitter.
+     *
+     * @param key        The key.
+     * @param estimate   The estimated number of events in the window; never below the true count.
+     * @param guaranteed The number of events the key is guaranteed to have had in the window.
+     */
+    public record HeavyHitter<K>(K key, long estimate, long guaranteed) {
+    }
+
+    private final Bucket<K>[] buckets;
+    private final long bucketMillis;
+    private final ToLongFunction<K> hasher;
+
+    @SuppressWarnings("unchecked")
+    public SlidingHeavyHitters(int bucketCount, long bucketMillis, int trackedKeys, int sketchWidth, int sketchDepth, ToLongFunction<K> hasher) {
+        this.buckets = new Bucket[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new Bucket<>(new CountMinSketch(sketchWidth, sketchDepth), new SpaceSaving<>(trackedKeys));
+        }
+        this.bucketMillis = bucketMillis;
+        this.hasher = hasher;
+    }
+
+    public synchronized void add(K key, long nowMillis) {
+        long epoch = nowMillis / bucketMillis;
+        Bucket<K> bucket = buckets[(int) (epoch % buckets.length)];
+        if (bucket.epoch != epoch) {
+            bucket.reset(epoch);
+        }
+        bucket.sketch.add(hasher.applyAsLong(key), 1);
+        bucket.topK.offer(key, 1);
+        bucket.total++;
+    }
+
+    /**
+     * @return up to {@code limit} keys with the highest estimated counts in the window, highest first.
+     */
+    public synchronized List<HeavyHitter<K>> top(int limit, long nowMillis) {
+        List<Bucket<K>> live = liveBuckets(nowMillis);
+        Set<K> candidates = new LinkedHashSet<>();
+        for (Bucket<K> bucket : live) {
+            for (int slot = 0; slot < bucket.topK.size(); slot++) {
+                candidates.add(bucket.topK.keyAt(slot));
+            }
+        }
+
+        List<HeavyHitter<K>> result = new ArrayList<>(candidates.size());
+        for (K key : candidates) {
+            long hash = hasher.applyAsLong(key);
+            long estimate = 0;
+            long guaranteed = 0;
+            for (Bucket<K> bucket : live) {
+                long upper = bucket.sketch.estimate(hash);
+                long tracked = bucket.topK.count(key);
+                estimate += tracked >= 0 ? Math.min(upper, tracked) : upper;
+                guaranteed += bucket.topK.guaranteed(key);
+            }
+            result.add(new HeavyHitter<>(key, estimate, guaranteed));
+        }
+        result.sort(Comparator.comparingLong((HeavyHitter<K> hitter) -> hitter.estimate()).reversed());
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    /**
+     * @return the number of events in the window.
+     */
+    public synchronized long total(long nowMillis) {
+        long total = 0;
+        for (Bucket<K> bucket : liveBuckets(nowMillis)) {
+            total += bucket.total;
+        }
+        return total;
+    }
+
+    private List<Bucket<K>> liveBuckets(long nowMillis) {
+        long oldestEpoch = nowMillis / bucketMillis - buckets.length + 1;
+        List<Bucket<K>> live = new ArrayList<>(buckets.length);
+        for (Bucket<K> bucket : buckets) {
+            if (bucket.epoch >= oldestEpoch) {
+                live.add(bucket);
+            }
+        }
+        return live;
+    }
+
+    private static final class Bucket<K> {
+
+        private final CountMinSketch sketch;
+        private final SpaceSaving<K> topK;
+        private long epoch = -1;
+        private long total;
+
+        private Bucket(CountMinSketch sketch, SpaceSaving<K> topK) {
+            this.sketch = sketch;
+            this.topK = topK;
+        }
+
+        private void reset(long epoch) {
+            sketch.clear();
+            topK.clear();
+            total = 0;
+            this.epoch = epoch;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.flux.entropia.analytics;
+
+import java.util.HashMap;
+
+/**
+ * Space-Saving top-K counter with a fixed number of slots, kept as an indexed min-heap.
+ * <p>
+ * A tracked key is incremented in place; an untracked key takes over the slot of the current minimum, inheriting
+ * its count as the error bound. Any key whose true count exceeds total/capacity is guaranteed to be tracked.
+ * Both operations are O(log capacity). Not thread-safe.
+ */
+final class SpaceSaving<K> {
+
+    private final Object[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private final HashMap<K, Integer> slots;
+    private int size;
+
+    SpaceSaving(int capacity) {
+        this.keys = new Object[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.slots = new HashMap<>(capacity * 2);
+    }
+
+    void offer(K key, long count) {
+        Integer slot = slots.get(key);
+        if (slot != null) {
+            counts[slot] += count;
+            siftDown(slot);
+            return;
+        }
+        if (size < keys.length) {
+            keys[size] = key;
+            counts[size] = count;
+            errors[size] = 0;
+            slots.put(key, size);
+            siftUp(size++);
+            return;
+        }
+        // Replace the minimum at the heap root.
+        slots.remove(keyAt(0));
+        keys[0] = key;
+        errors[0] = counts[0];
+        counts[0] += count;
+        slots.put(key, 0);
+        siftDown(0);
+    }
+
+    /**
+     * @return the (over-)estimated count of a tracked key, or -1 if it is not tracked.
+     */
+    long count(K key) {
+        Integer slot = slots.get(key);
+        return slot != null ? counts[slot] : -1;
+    }
+
+    /**
+     * @return the count the key is guaranteed to have reached, or 0 if it is not tracked.
+     */
+    long guaranteed(K key) {
+        Integer slot = slots.get(key);
+        return slot != null ? counts[slot] - errors[slot] : 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    K keyAt(int slot) {
+        @SuppressWarnings("unchecked")
+        K key = (K) keys[slot];
+        return key;
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            keys[i] = null;
+        }
+        slots.clear();
+        size = 0;
+    }
+
+    private void siftUp(int slot) {
+        while (slot > 0) {
+            int parent = (slot - 1) / 2;
+            if (counts[parent] <= counts[slot]) {
+                return;
+            }
+            swap(slot, parent);
+            slot = parent;
+        }
+    }
+
+    private void siftDown(int slot) {
+        while (true) {
+            int left = 2 * slot + 1;
+            if (left >= size) {
+                return;
+            }
+            int smallest = left + 1 < size && counts[left + 1] < counts[left] ? left + 1 : left;
+            if (counts[slot] <= counts[smallest]) {
+                return;
+            }
+            swap(slot, smallest);
+            slot = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        Object key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        long count = counts[a];
+        counts[a] = counts[b];
+        counts[b] = count;
+        long error = errors[a];
+        errors[a] = errors[b];
+        errors[b] = error;
+        slots.put(keyAt(a), a);
+        slots.put(keyAt(b), b);
+    }
+}
@@ -0,0 +1,117 @@
+package com.flux.entropia.board;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.flux.entropia.config.FluxProperties;
+import com.flux.entropia.dto.BoardDTO;
+import com.flux.entropia.dto.CreateBoardDTO;
+import com.flux.entropia.entity.Board;
+import com.flux.entropia.mapper.BoardMapper;
+import com.flux.entropia.ratelimit.IpRateLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * The boards, independent canvases with cells of their own, that requests and WebSocket sessions may address.
+ * <p>
+ * Every cell belongs to exactly one board; the canvas that existed before boards is {@value #MAIN}, which is also the
+ * board of every request that names none. Boards are never deleted, so once a board has been found it is remembered
+ * and checked without a query; {@code flux.boards.max-boards} bounds how many there are to remember.
+ */
+@Component
+@Slf4j
+public class BoardRegistry {
+
+    public static final String MAIN = "main";
+
+    private static final Pattern ID = Pattern.compile("[a-z0-9][a-z0-9-]{0,31}");
+
+    private final BoardMapper boardMapper;
+    private final FluxProperties fluxProperties;
+    private final IpRateLimiter ipRateLimiter;
+    private final Set<String> known = ConcurrentHashMap.newKeySet();
+
+    public BoardRegistry(BoardMapper boardMapper, FluxProperties fluxProperties, IpRateLimiter ipRateLimiter) {
+        this.boardMapper = boardMapper;
+        this.fluxProperties = fluxProperties;
+        this.ipRateLimiter = ipRateLimiter;
+        known.add(MAIN);
+    }
+
+    /**
+     * @return whether the board exists.
+     */
+    public boolean exists(String board) {
+        if (board == null) {
+            return false;
+        }
+        if (known.contains(board)) {
+            return true;
+        }
+        // Malformed ids cannot exist and are not worth a query.
+        if (!ID.matcher(board).matches() || boardMapper.selectById(board) == null) {
+            return false;
+        }
+        known.add(board);
+        return true;
+    }
+
+    /**
+     * @throws ResponseStatusException 404 if the board does not exist.
+     */
+    public void require(String board) {
+        if (!exists(board)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Board not found: " + board);
+        }
+    }
+
+    /**
+     * @return all boards, oldest first.
+     */
+    public List<BoardDTO> list() {
+        return boardMapper.selectList(new LambdaQueryWrapper<Board>().orderByAsc(Board::getCreatedAt)).stream()
+            .map(BoardRegistry::toDTO)
+            .toList();
+    }
+
+    /**
+     * Creates a new, empty board, charging the client's IP its whole write burst.
+     * Concurrent creations may overshoot {@code flux.boards.max-boards} by a few boards.
+     *
+     * @throws ResponseStatusException 403 if creation is disabled or the limit of boards is reached, 409 if the id
+     *                                 is taken.
+     * @throws com.flux.entropia.exception.RateLimitExceededException if the IP has not enough budget left.
+     */
+    public BoardDTO create(CreateBoardDTO dto, String ipAddress) {
+        FluxProperties.Boards config = fluxProperties.getBoards();
+        if (!config.getCreationEnabled()) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Creating boards is disabled");
+        }
+        if (boardMapper.selectCount(null) >= config.getMaxBoards()) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "No more boards can be created");
+        }
+        ipRateLimiter.acquire(ipAddress, Math.max(1, fluxProperties.getRateLimit().getBurstCells()));
+        Board board = new Board();
+        board.setId(dto.id());
+        board.setName(dto.name().trim());
+        try {
+            boardMapper.insert(board);
+        } catch (DuplicateKeyException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A board with id " + dto.id() + " already exists");
+        }
+        known.add(board.getId());
+        log.info("Created board {} ({})", board.getId(), board.getName());
+        return toDTO(boardMapper.selectById(board.getId()));
+    }
+
+    private static BoardDTO toDTO(Board board) {
+        return new BoardDTO(board.getId(), board.getName(), board.getCreatedAt());
+    }
+}
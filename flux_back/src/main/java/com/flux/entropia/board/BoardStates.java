@@ -0,0 +1,152 @@
+package com.flux.entropia.board;
+
+import com.flux.entropia.config.FluxProperties;
+import com.flux.entropia.config.WorkerThreads;
+import com.flux.entropia.entity.Message;
+import com.flux.entropia.mapper.MessageMapper;
+import com.flux.entropia.metrics.FluxMetrics;
+import com.flux.entropia.state.CanvasStateStore;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.ResultContext;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-memory {@link CanvasStateStore} of each board.
+ * <p>
+ * The main board's store is the application's {@link CanvasStateStore} bean, rebuilt at startup by the warm-up and
+ * kept for the lifetime of the process. The store of any other board is created when it is first read, loaded from
+ * the board's history on a background thread, and dropped once it has not been read for
+ * {@code flux.boards.idle-evict-ms}; until it is loaded, reads are answered as for the main board during its warm-up.
+ * Writes to a board whose store is held are applied to it, as for the main board; writes to other boards only reach
+ * MySQL, where the next load finds them.
+ */
+@Component
+@Slf4j
+public class BoardStates {
+
+    private final CanvasStateStore mainStore;
+    private final MessageMapper messageMapper;
+    private final FluxProperties fluxProperties;
+    private final ExecutorService loader;
+    private final ConcurrentHashMap<String, BoardState> boards = new ConcurrentHashMap<>();
+
+    private static final class BoardState {
+        private final CanvasStateStore store = new CanvasStateStore();
+        private volatile long lastRead = System.nanoTime();
+    }
+
+    public BoardStates(CanvasStateStore canvasStateStore, MessageMapper messageMapper, FluxProperties fluxProperties,
+                       FluxMetrics fluxMetrics, WorkerThreads workerThreads) {
+        this.mainStore = canvasStateStore;
+        this.messageMapper = messageMapper;
+        this.fluxProperties = fluxProperties;
+        this.loader = Executors.newSingleThreadExecutor(workerThreads.factory("flux-board-loader-"));
+        fluxMetrics.bindBoardsLoaded(boards::size);
+    }
+
+    /**
+     * The store of a board to read from, which starts loading it if it is not held yet; check
+     * {@link CanvasStateStore#isLoaded()} before serving from it.
+     */
+    public CanvasStateStore get(String board) {
+        if (BoardRegistry.MAIN.equals(board)) {
+            return mainStore;
+        }
+        BoardState state = boards.computeIfAbsent(board, key -> {
+            BoardState created = new BoardState();
+            loader.execute(() -> load(key, created));
+            return created;
+        });
+        state.lastRead = System.nanoTime();
+        return state.store;
+    }
+
+    /**
+     * The store of a board to apply a committed change to.
+     *
+     * @return the store, or null if the board's state is not held.
+     */
+    public CanvasStateStore find(String board) {
+        if (BoardRegistry.MAIN.equals(board)) {
+            return mainStore;
+        }
+        BoardState state = boards.get(board);
+        return state != null ? state.store : null;
+    }
+
+    /**
+     * Drops the state of a board other than the main one, e.g. after a change that cannot be applied to it; the next
+     * read loads it afresh.
+     */
+    public void evict(String board) {
+        if (!BoardRegistry.MAIN.equals(board) && boards.remove(board) != null) {
+            log.debug("Dropped the state of board {}", board);
+        }
+    }
+
+    /**
+     * Drops the states that have not been read for {@code flux.boards.idle-evict-ms}.
+     */
+    @Scheduled(fixedDelayString = "${flux.boards.evict-interval-ms:60000}")
+    public void evictIdle() {
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(fluxProperties.getBoards().getIdleEvictMs());
+        long now = System.nanoTime();
+        boards.forEach((board, state) -> {
+            if (now - state.lastRead > idleNanos && boards.remove(board, state)) {
+                log.info("Dropped the state of idle board {} ({} cells)", board, state.store.size());
+            }
+        });
+    }
+
+    /**
+     * Streams the board's history into its store, page by page. Changes committed meanwhile are applied by the write
+     * path, which sees the store as soon as it is registered.
+     */
+    private void load(String board, BoardState state) {
+        if (boards.get(board) != state) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            Long maxId = messageMapper.selectMaxId(board);
+            long untilId = maxId != null ? maxId : 0;
+            int pageSize = fluxProperties.getReplay().getPageSize();
+            long cursor = 0;
+            long[] lastId = new long[1];
+            int[] pageCount = new int[1];
+            while (cursor < untilId && boards.get(board) == state) {
+                pageCount[0] = 0;
+                messageMapper.streamChangesAfter(board, cursor, untilId, null, null, null, null, pageSize,
+                    (ResultContext<? extends Message> context) -> {
+                        Message message = context.getResultObject();
+                        state.store.apply(message);
+                        lastId[0] = message.getId();
+                        pageCount[0]++;
+                    });
+                if (pageCount[0] < pageSize) {
+                    break;
+                }
+                cursor = lastId[0];
+            }
+            state.store.markLoaded();
+            log.info("Loaded board {} into memory: {} cells in {} ms", board, state.store.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            // The next read retries.
+            boards.remove(board, state);
+            log.error("Failed to load board {} into memory", board, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+}
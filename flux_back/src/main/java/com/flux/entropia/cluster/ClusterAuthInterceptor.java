@@ -0,0 +1,38 @@
+package com.flux.entropia.cluster;
+
+import com.flux.entropia.config.FluxProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Admits requests to the {@code /internal/cluster} endpoints only if they carry the shared {@code flux.cluster.secret}.
+ * These endpoints trust the client IP forwarded in {@link ClusterClient#CLIENT_IP_HEADER}, so a client reaching them
+ * directly could otherwise pick a new IP for every write and get around the rate limit.
+ */
+@Component
+public class ClusterAuthInterceptor implements HandlerInterceptor {
+
+    private final byte[] secret;
+
+    public ClusterAuthInterceptor(FluxProperties fluxProperties) {
+        this.secret = fluxProperties.getCluster().getSecret().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String presented = request.getHeader(ClusterClient.SECRET_HEADER);
+        // A blank secret admits nobody; constant-time comparison so the secret cannot be guessed byte by byte.
+        if (secret.length == 0 || presented == null
+            || !MessageDigest.isEqual(secret, presented.getBytes(StandardCharsets.UTF_8))) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not a cluster member");
+        }
+        return true;
+    }
+}
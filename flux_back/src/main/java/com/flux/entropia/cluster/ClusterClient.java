@@ -0,0 +1,189 @@
+package com.flux.entropia.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flux.entropia.common.ApiResponse;
+import com.flux.entropia.config.FluxProperties;
+import com.flux.entropia.dto.CreateMessageDTO;
+import com.flux.entropia.dto.MessageNodeDTO;
+import com.flux.entropia.dto.PaintStrokeDTO;
+import com.flux.entropia.dto.PaintStrokeResultDTO;
+import com.flux.entropia.dto.SearchResultDTO;
+import com.flux.entropia.dto.ViewportDTO;
+import com.flux.entropia.exception.RateLimitExceededException;
+import com.flux.entropia.exception.ServiceOverloadedException;
+import com.flux.entropia.metrics.FluxMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Forwards requests to the node owning a region, through that node's {@code /internal/cluster} endpoints.
+ * <p>
+ * Error answers of the owner are rethrown as the same status and reason, including the Retry-After of a 429 or 503,
+ * so a forwarded request fails exactly as it would have on the owner. An owner that cannot be reached is reported as
+ * 503: it is either restarting or about to be dropped from the ring, and the retry will go to its successor.
+ */
+@Component
+@Slf4j
+public class ClusterClient {
+
+    public static final String BASE_PATH = "/internal/cluster";
+
+    /**
+     * The IP address of the client a forwarded write originates from, for rate limiting and the history row.
+     */
+    public static final String CLIENT_IP_HEADER = "X-Flux-Client-Ip";
+
+    /**
+     * The shared cluster secret, which {@link ClusterAuthInterceptor} checks on every forwarded request.
+     */
+    public static final String SECRET_HEADER = "X-Flux-Cluster-Secret";
+
+    static final String OP_WRITE = "write";
+    static final String OP_STROKE = "stroke";
+    static final String OP_VIEWPORT = "viewport";
+    static final String OP_SEARCH = "search";
+    static final String OP_TILE = "tile";
+
+    private final RestClient restClient;
+    private final RegionOwnership regionOwnership;
+    private final ObjectMapper objectMapper;
+    private final FluxMetrics fluxMetrics;
+
+    public ClusterClient(RestClient.Builder restClientBuilder, RegionOwnership regionOwnership, ObjectMapper objectMapper,
+                         FluxProperties fluxProperties, FluxMetrics fluxMetrics) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(fluxProperties.getCluster().getForwardTimeoutMs());
+        requestFactory.setReadTimeout(fluxProperties.getCluster().getForwardTimeoutMs());
+        this.restClient = restClientBuilder.requestFactory(requestFactory)
+            .defaultHeader(SECRET_HEADER, fluxProperties.getCluster().getSecret())
+            .build();
+        this.regionOwnership = regionOwnership;
+        this.objectMapper = objectMapper;
+        this.fluxMetrics = fluxMetrics;
+    }
+
+    public MessageNodeDTO createOrUpdateMessage(String node, CreateMessageDTO dto, String ipAddress) {
+        return call(OP_WRITE, node, client -> client.post()
+            .uri(url(node) + "/cells")
+            .header(CLIENT_IP_HEADER, ipAddress)
+            .body(dto)
+            .retrieve()
+            .body(new ParameterizedTypeReference<ApiResponse<MessageNodeDTO>>() {}));
+    }
+
+    public PaintStrokeResultDTO applyStroke(String node, List<CreateMessageDTO> cells, String ipAddress) {
+        return call(OP_STROKE, node, client -> client.post()
+            .uri(url(node) + "/stroke")
+            .header(CLIENT_IP_HEADER, ipAddress)
+            .body(new PaintStrokeDTO(cells))
+            .retrieve()
+            .body(new ParameterizedTypeReference<ApiResponse<PaintStrokeResultDTO>>() {}));
+    }
+
+    public ViewportDTO getViewport(String node, int startRow, int endRow, int startCol, int endCol, double zoom) {
+        return call(OP_VIEWPORT, node, client -> client.get()
+            .uri(url(node) + "/viewport?startRow={startRow}&endRow={endRow}&startCol={startCol}&endCol={endCol}&zoom={zoom}",
+                startRow, endRow, startCol, endCol, zoom)
+            .retrieve()
+            .body(new ParameterizedTypeReference<ApiResponse<ViewportDTO>>() {}));
+    }
+
+    public SearchResultDTO search(String node, String query, int[] region, int limit) {
+        String uri = url(node) + "/search?q={q}&limit={limit}"
+            + (region != null ? "&startRow={startRow}&endRow={endRow}&startCol={startCol}&endCol={endCol}" : "");
+        Object[] variables = region != null
+            ? new Object[]{query, limit, region[0], region[1], region[2], region[3]}
+            : new Object[]{query, limit};
+        return call(OP_SEARCH, node, client -> client.get()
+            .uri(uri, variables)
+            .retrieve()
+            .body(new ParameterizedTypeReference<ApiResponse<SearchResultDTO>>() {}));
+    }
+
+    public byte[] getTile(String node, int level, int x, int y) {
+        long start = System.nanoTime();
+        try {
+            byte[] png = restClient.get()
+                .uri(url(node) + "/tiles/{level}/{x}/{y}.png", level, x, y)
+                .retrieve()
+                .body(byte[].class);
+            fluxMetrics.recordForward(OP_TILE, "ok", start);
+            return png;
+        } catch (RuntimeException e) {
+            throw translate(OP_TILE, node, e, start);
+        }
+    }
+
+    private <T> T call(String operation, String node, Function<RestClient, ApiResponse<T>> request) {
+        long start = System.nanoTime();
+        ApiResponse<T> response;
+        try {
+            response = request.apply(restClient);
+        } catch (RuntimeException e) {
+            throw translate(operation, node, e, start);
+        }
+        fluxMetrics.recordForward(operation, "ok", start);
+        return response != null ? response.getData() : null;
+    }
+
+    private String url(String node) {
+        String url = regionOwnership.urlOf(node);
+        if (url == null) {
+            throw new ServiceOverloadedException("The node owning this region has just left the cluster. Please retry in a moment.", 1);
+        }
+        return url + BASE_PATH;
+    }
+
+    private RuntimeException translate(String operation, String node, RuntimeException e, long start) {
+        if (e instanceof RestClientResponseException response) {
+            fluxMetrics.recordForward(operation, "rejected", start);
+            String reason = reasonOf(response);
+            long retryAfter = retryAfterOf(response);
+            return switch (response.getStatusCode().value()) {
+                case 429 -> new RateLimitExceededException(reason, retryAfter);
+                case 503 -> new ServiceOverloadedException(reason, retryAfter);
+                default -> new ResponseStatusException(response.getStatusCode(), reason);
+            };
+        }
+        if (e instanceof ResourceAccessException) {
+            fluxMetrics.recordForward(operation, "unreachable", start);
+            log.warn("Cluster member {} is unreachable for {}: {}", node, operation, e.getMessage());
+            return new ServiceOverloadedException("The node owning this region is unreachable. Please retry in a moment.", 1);
+        }
+        return e;
+    }
+
+    private String reasonOf(RestClientResponseException response) {
+        try {
+            ApiResponse<?> body = objectMapper.readValue(response.getResponseBodyAsByteArray(), ApiResponse.class);
+            if (body.getMessage() != null) {
+                return body.getMessage();
+            }
+        } catch (Exception e) {
+            log.debug("Unreadable error body from a cluster member: {}", e.getMessage());
+        }
+        HttpStatus status = HttpStatus.resolve(response.getStatusCode().value());
+        return status != null ? status.getReasonPhrase() : "Request to a cluster member failed";
+    }
+
+    private static long retryAfterOf(RestClientResponseException response) {
+        HttpHeaders headers = response.getResponseHeaders();
+        String value = headers != null ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null;
+        try {
+            return value != null ? Long.parseLong(value) : 1;
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.flux.entropia.cluster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flux.entropia.board.BoardRegistry;
+import com.flux.entropia.board.BoardStates;
+import com.flux.entropia.common.Colors;
+import com.flux.entropia.dto.CellBatchDTO;
+import com.flux.entropia.dto.MessageNodeDTO;
+import com.flux.entropia.event.CellEvent;
+import com.flux.entropia.event.CellEventBus;
+import com.flux.entropia.state.CanvasStateStore;
+import com.flux.entropia.websocket.ChangeLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Relays the cell changes written by this node to the WebSocket clients of all other nodes, through the Redis
+ * channel {@value #CHANNEL}: local events are taken from the {@link CellEventBus} as one of its consumers, and events
+ * of other nodes are published into it as remote ones, for the local consumers only.
+ * <p>
+ * Every node numbers the relayed changes in its own {@link ChangeLog} alongside its local ones, so clients resume
+ * against whichever node they are connected to. Delivery is best effort, like Redis pub/sub itself: a node that
+ * misses events while disconnected from Redis leaves its clients to pick the changes up on their next chunk load.
+ * <p>
+ * Boards other than the main one are not sharded: any node writes them, and every node holding a board's state in
+ * {@link BoardStates} applies the board's relayed changes to it.
+ */
+@Component
+@ConditionalOnProperty(prefix = "flux.cluster", name = "enabled", havingValue = "true")
+@Slf4j
+public class ClusterEventRelay implements MessageListener {
+
+    static final String CHANNEL = "flux:cluster:events";
+
+    /**
+     * A relayed change; exactly one of the payloads is set.
+     *
+     * @param origin The id of the node that wrote the change.
+     * @param board  The board of the change; null from nodes predating boards, meaning the main board.
+     */
+    public record ClusterEvent(String origin, String board, MessageNodeDTO updated, MessageNodeDTO deleted, CellBatchDTO batch) {
+    }
+
+    private final RedisTemplate<String, String> redisStringTemplate;
+    private final ObjectMapper objectMapper;
+    private final ClusterMembership membership;
+    private final CellEventBus eventBus;
+    private final BoardStates boardStates;
+    private final RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+
+    public ClusterEventRelay(RedisConnectionFactory connectionFactory, RedisTemplate<String, String> redisStringTemplate,
+                             ObjectMapper objectMapper, ClusterMembership membership, CellEventBus eventBus,
+                             BoardStates boardStates) {
+        this.redisStringTemplate = redisStringTemplate;
+        this.objectMapper = objectMapper;
+        this.membership = membership;
+        this.eventBus = eventBus;
+        this.boardStates = boardStates;
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @PostConstruct
+    public void start() {
+        eventBus.subscribe("cluster-relay", (event, endOfBatch) -> relay(event));
+        container.afterPropertiesSet();
+        container.start();
+    }
+
+    @PreDestroy
+    public void stop() throws Exception {
+        container.destroy();
+    }
+
+    private void relay(CellEvent event) {
+        if (event.isRemote()) {
+            return;
+        }
+        String origin = membership.getNodeId();
+        String board = event.getBoard();
+        switch (event.getType()) {
+            case ChangeLog.CELL_UPDATED -> publish(new ClusterEvent(origin, board, event.getCell(), null, null));
+            case ChangeLog.CELL_DELETED -> publish(new ClusterEvent(origin, board, null, event.getCell(), null));
+            case ChangeLog.CELLS_BATCH -> publish(new ClusterEvent(origin, board, null, null, event.getBatch()));
+            default -> log.warn("Not relaying a cell event of unknown type {}", event.getType());
+        }
+    }
+
+    private void publish(ClusterEvent event) {
+        try {
+            redisStringTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize a cluster event: {}", e.getMessage(), e);
+        } catch (RuntimeException e) {
+            // The write itself has committed; only the other nodes' clients miss it.
+            log.warn("Failed to relay a cell change to the other nodes: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        ClusterEvent event;
+        try {
+            event = objectMapper.readValue(message.getBody(), ClusterEvent.class);
+        } catch (IOException e) {
+            log.warn("Ignoring an unreadable cluster event: {}", e.getMessage());
+            return;
+        }
+        if (membership.getNodeId().equals(event.origin())) {
+            return;
+        }
+        String board = Objects.requireNonNullElse(event.board(), BoardRegistry.MAIN);
+        if (!BoardRegistry.MAIN.equals(board)) {
+            applyToBoardState(board, event);
+        }
+        // Statistics are not relayed; every node recounts them from MySQL after the events on its bus.
+        if (event.updated() != null) {
+            eventBus.publishRemote(ChangeLog.CELL_UPDATED, board, event.updated(), null);
+        } else if (event.deleted() != null) {
+            eventBus.publishRemote(ChangeLog.CELL_DELETED, board, event.deleted(), null);
+        } else if (event.batch() != null) {
+            eventBus.publishRemote(ChangeLog.CELLS_BATCH, board, null, event.batch());
+        }
+    }
+
+    /**
+     * Mirrors another node's write to a board in this node's state of it, if held. A deletion exposes the cell's
+     * previous version, which the event does not carry, so the state is dropped and reloaded instead.
+     */
+    private void applyToBoardState(String board, ClusterEvent event) {
+        CanvasStateStore store = boardStates.find(board);
+        if (store == null) {
+            return;
+        }
+        if (event.deleted() != null || event.batch() != null && !event.batch().deleted().isEmpty()) {
+            boardStates.evict(board);
+            return;
+        }
+        List<MessageNodeDTO> updated = event.updated() != null ? List.of(event.updated())
+            : event.batch() != null ? event.batch().updated() : List.of();
+        for (MessageNodeDTO cell : updated) {
+            store.apply(cell.id(), cell.rowIndex(), cell.colIndex(), cell.content(), Colors.unbox(cell.bgColor()));
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.flux.entropia.cluster;
+
+import com.flux.entropia.config.FluxProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The nodes of a sharded deployment, as registered in Redis, and the {@link HashRing} built from them.
+ * <p>
+ * Every node writes a heartbeat into the sorted set {@value #HEARTBEATS_KEY}, scored with the Redis server's clock,
+ * and its advertised URL into the hash {@value #NODES_KEY}. Members are the nodes heard from within
+ * {@code flux.cluster.node-timeout-ms}; older entries are pruned by whichever node notices them first. A node leaving
+ * cleanly removes itself at shutdown, so its regions move at once rather than after the timeout.
+ * <p>
+ * If Redis cannot be reached, the last known ring is kept. Inert unless {@code flux.cluster.enabled} is set.
+ */
+@Component
+@Slf4j
+public class ClusterMembership {
+
+    static final String NODES_KEY = "flux:cluster:nodes";
+    static final String HEARTBEATS_KEY = "flux:cluster:heartbeats";
+
+    /**
+     * Notified on the heartbeat thread whenever the members change.
+     */
+    interface Listener {
+        void ringChanged(HashRing ring);
+    }
+
+    private final RedisTemplate<String, String> redisStringTemplate;
+    private final FluxProperties.Cluster properties;
+    private final String nodeId;
+
+    private volatile HashRing ring = HashRing.EMPTY;
+    private volatile Map<String, String> urls = Map.of();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    public ClusterMembership(RedisTemplate<String, String> redisStringTemplate, FluxProperties fluxProperties) {
+        this.redisStringTemplate = redisStringTemplate;
+        this.properties = fluxProperties.getCluster();
+        this.nodeId = properties.getNodeId().isBlank() ? UUID.randomUUID().toString() : properties.getNodeId();
+    }
+
+    @PostConstruct
+    public void join() {
+        if (!isEnabled()) {
+            return;
+        }
+        if (properties.getAdvertisedUrl().isBlank()) {
+            throw new IllegalStateException("flux.cluster.advertised-url must be set when flux.cluster.enabled is true");
+        }
+        if (properties.getSecret().isBlank()) {
+            throw new IllegalStateException("flux.cluster.secret must be set when flux.cluster.enabled is true");
+        }
+        // Fail startup rather than run with a ring that lacks this node.
+        beat();
+        log.info("Joined the cluster as {} ({}), members: {}", nodeId, properties.getAdvertisedUrl(), ring.nodes());
+    }
+
+    @Scheduled(fixedDelayString = "${flux.cluster.heartbeat-interval-ms:1000}")
+    public void heartbeat() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            beat();
+        } catch (RuntimeException e) {
+            log.warn("Cluster heartbeat failed, keeping the last known members {}: {}", ring.nodes(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void leave() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            redisStringTemplate.opsForZSet().remove(HEARTBEATS_KEY, nodeId);
+            redisStringTemplate.opsForHash().delete(NODES_KEY, nodeId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to leave the cluster; the other nodes drop {} after the timeout: {}", nodeId, e.getMessage());
+        }
+    }
+
+    private void beat() {
+        Long now = redisStringTemplate.execute((RedisCallback<Long>) connection -> connection.serverCommands().time());
+        if (now == null) {
+            throw new IllegalStateException("Redis did not return its time");
+        }
+        long cutoff = now - properties.getNodeTimeoutMs();
+        redisStringTemplate.opsForHash().put(NODES_KEY, nodeId, properties.getAdvertisedUrl());
+        redisStringTemplate.opsForZSet().add(HEARTBEATS_KEY, nodeId, now);
+
+        Set<String> expired = redisStringTemplate.opsForZSet().rangeByScore(HEARTBEATS_KEY, Double.NEGATIVE_INFINITY, cutoff);
+        if (expired != null && !expired.isEmpty()) {
+            redisStringTemplate.opsForZSet().remove(HEARTBEATS_KEY, expired.toArray());
+            redisStringTemplate.opsForHash().delete(NODES_KEY, expired.toArray());
+            log.info("Dropped cluster members without a heartbeat for {} ms: {}", properties.getNodeTimeoutMs(), expired);
+        }
+
+        Set<String> live = redisStringTemplate.opsForZSet().rangeByScore(HEARTBEATS_KEY, cutoff, Double.POSITIVE_INFINITY);
+        Map<String, String> liveUrls = new HashMap<>();
+        redisStringTemplate.<String, String>opsForHash().entries(NODES_KEY).forEach((node, url) -> {
+            if (live != null && live.contains(node)) {
+                liveUrls.put(node, url);
+            }
+        });
+        urls = Map.copyOf(liveUrls);
+        if (!liveUrls.keySet().equals(ring.nodes())) {
+            HashRing next = new HashRing(liveUrls.keySet(), properties.getVirtualNodes());
+            log.info("Cluster members changed from {} to {}", ring.nodes(), next.nodes());
+            ring = next;
+            for (Listener listener : listeners) {
+                listener.ringChanged(next);
+            }
+        }
+    }
+
+    void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public boolean isEnabled() {
+        return properties.getEnabled();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    HashRing getRing() {
+        return ring;
+    }
+
+    /**
+     * @return the advertised URL of a member, or null if it is not (or no longer) a member.
+     */
+    String urlOf(String node) {
+        return urls.get(node);
+    }
+
+    /**
+     * @return the ids of the current members.
+     */
+    public Set<String> getMembers() {
+        return ring.nodes();
+    }
+}
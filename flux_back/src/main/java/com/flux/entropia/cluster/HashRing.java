@@ -0,0 +1,75 @@
+package com.flux.entropia.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Consistent hash ring assigning regions to nodes.
+ * <p>
+ * Every node is placed at a number of pseudo-random points on a 64-bit ring, and a region belongs to the node at the
+ * first point at or after the region's own hash. When a node joins or leaves, only the regions next to its points
+ * change owner, about 1/n of them. Hashes depend on nothing but the node ids and the region key, so every node
+ * computes the same owners from the same members. Immutable.
+ */
+final class HashRing {
+
+    static final HashRing EMPTY = new HashRing(Set.of(), 0);
+
+    private final Set<String> nodes;
+    private final NavigableMap<Long, String> points = new TreeMap<>();
+
+    HashRing(Collection<String> nodes, int virtualNodes) {
+        this.nodes = Set.copyOf(new TreeSet<>(nodes));
+        for (String node : this.nodes) {
+            for (int i = 0; i < virtualNodes; i++) {
+                // On the (unlikely) collision of two points, the lower node id wins on every node alike.
+                points.merge(hash(node + '#' + i), node, (a, b) -> a.compareTo(b) <= 0 ? a : b);
+            }
+        }
+    }
+
+    /**
+     * @param regionKey the packed region coordinate.
+     * @return the id of the node owning the region, or null if the ring has no nodes.
+     */
+    String owner(long regionKey) {
+        if (points.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> point = points.ceilingEntry(mix(regionKey));
+        return (point != null ? point : points.firstEntry()).getValue();
+    }
+
+    Set<String> nodes() {
+        return nodes;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes, finished with {@link #mix} to spread the points over the whole ring.
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * The 64-bit finalizer of MurmurHash3: neighbouring regions land far apart on the ring.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
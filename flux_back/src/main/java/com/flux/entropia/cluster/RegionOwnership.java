@@ -0,0 +1,225 @@
+package com.flux.entropia.cluster;
+
+import com.flux.entropia.board.BoardRegistry;
+import com.flux.entropia.common.CellKey;
+import com.flux.entropia.config.FluxProperties;
+import com.flux.entropia.entity.Message;
+import com.flux.entropia.exception.ServiceOverloadedException;
+import com.flux.entropia.mapper.MessageMapper;
+import com.flux.entropia.state.CanvasStateStore;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Maps cells to the regions they belong to and regions to their owner node, and keeps {@link CanvasStateStore}
+ * holding exactly the cells of the regions this node owns.
+ * <p>
+ * A region is a square of {@code flux.cluster.region-chunks} heat grid chunks, so chunk summaries never span two
+ * owners. Whenever the members change, a rebalance on a single background thread first drops the cells of the
+ * regions lost, then waits {@code flux.cluster.handoff-delay-ms} for writes still in flight at the previous owners
+ * and loads the painted regions gained from MySQL. Until a gained region is loaded, writes to it are answered with
+ * 503. At startup the same rebalance, from owning nothing, replaces the snapshot and history warm-up.
+ */
+@Component
+@Slf4j
+public class RegionOwnership implements ClusterMembership.Listener {
+
+    private final ClusterMembership membership;
+    private final CanvasStateStore canvasStateStore;
+    private final MessageMapper messageMapper;
+    private final FluxProperties.Cluster properties;
+    private final int regionSize;
+
+    // Regions this node owns but has not loaded yet.
+    private final Set<Long> acquiring = ConcurrentHashMap.newKeySet();
+    // The ring the store fully reflects; only touched by the rebalance thread.
+    private HashRing applied = HashRing.EMPTY;
+    private volatile boolean started;
+    private final ExecutorService rebalancer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cluster-rebalance");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RegionOwnership(ClusterMembership membership, CanvasStateStore canvasStateStore, MessageMapper messageMapper,
+                           FluxProperties fluxProperties) {
+        this.membership = membership;
+        this.canvasStateStore = canvasStateStore;
+        this.messageMapper = messageMapper;
+        this.properties = fluxProperties.getCluster();
+        this.regionSize = properties.getRegionChunks() * CanvasStateStore.CHUNK_SIZE;
+        if (isEnabled()) {
+            membership.addListener(this);
+        }
+    }
+
+    /**
+     * Loads the regions this node owns, blocking until done. Called once by the warm-up instead of the full load.
+     */
+    public void start() {
+        started = true;
+        try {
+            rebalancer.submit(this::rebalance).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Loading the owned regions was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Loading the owned regions failed", e.getCause());
+        }
+    }
+
+    @Override
+    public void ringChanged(HashRing ring) {
+        if (started) {
+            rebalancer.submit(this::rebalanceOrRetry);
+        }
+    }
+
+    private void rebalanceOrRetry() {
+        try {
+            rebalance();
+        } catch (RuntimeException e) {
+            log.error("Rebalancing onto members {} failed, retrying", membership.getRing().nodes(), e);
+            try {
+                Thread.sleep(properties.getHeartbeatIntervalMs());
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            rebalancer.submit(this::rebalanceOrRetry);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebalancer.shutdownNow();
+    }
+
+    private void rebalance() {
+        HashRing target = membership.getRing();
+        if (target == applied) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        String self = membership.getNodeId();
+        List<Long> gained = new ArrayList<>();
+        for (long region : messageMapper.selectPaintedRegions(BoardRegistry.MAIN, properties.getRegionChunks())) {
+            if (self.equals(target.owner(region)) && !self.equals(applied.owner(region))) {
+                gained.add(region);
+            }
+        }
+        // Regions still pending from an interrupted rebalance are gained again, unless they moved on meanwhile.
+        acquiring.retainAll(gained);
+        acquiring.addAll(gained);
+        int before = canvasStateStore.size();
+        canvasStateStore.retain((rowIndex, colIndex) -> self.equals(target.owner(regionOf(rowIndex, colIndex))));
+        int dropped = before - canvasStateStore.size();
+
+        if (!gained.isEmpty()) {
+            try {
+                Thread.sleep(properties.getHandoffDelayMs());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        long loaded = 0;
+        for (long region : gained) {
+            int startRow = CellKey.row(region) * regionSize;
+            int startCol = CellKey.col(region) * regionSize;
+            // Rows are read from the primary: a replica could still miss the previous owner's last writes.
+            for (Message message : messageMapper.selectLatestInGrid(BoardRegistry.MAIN, startRow, startRow + regionSize - 1,
+                    startCol, startCol + regionSize - 1)) {
+                canvasStateStore.apply(message);
+                loaded++;
+            }
+            acquiring.remove(region);
+        }
+        applied = target;
+        log.info("Rebalanced onto members {} in {} ms: {} cells dropped, {} regions with {} cells loaded, {} cells held",
+            target.nodes(), System.currentTimeMillis() - start, dropped, gained.size(), loaded, canvasStateStore.size());
+    }
+
+    public boolean isEnabled() {
+        return membership.isEnabled();
+    }
+
+    /**
+     * @return the packed coordinate of the region containing the cell.
+     */
+    public long regionOf(int rowIndex, int colIndex) {
+        return CellKey.pack(Math.floorDiv(rowIndex, regionSize), Math.floorDiv(colIndex, regionSize));
+    }
+
+    /**
+     * @return the id of the node owning the cell's region, or null if no node is known.
+     */
+    public String ownerOf(int rowIndex, int colIndex) {
+        return membership.getRing().owner(regionOf(rowIndex, colIndex));
+    }
+
+    /**
+     * @return the ids of the nodes owning the regions that intersect the given area, in region order.
+     */
+    public Set<String> ownersOf(long startRow, long endRow, long startCol, long endCol) {
+        HashRing ring = membership.getRing();
+        Set<String> owners = new LinkedHashSet<>();
+        for (long regionY = Math.floorDiv(startRow, regionSize); regionY <= Math.floorDiv(endRow, regionSize); regionY++) {
+            for (long regionX = Math.floorDiv(startCol, regionSize); regionX <= Math.floorDiv(endCol, regionSize); regionX++) {
+                String owner = ring.owner(CellKey.pack((int) regionY, (int) regionX));
+                if (owner != null) {
+                    owners.add(owner);
+                }
+                if (owners.size() == ring.nodes().size()) {
+                    return owners;
+                }
+            }
+        }
+        return owners;
+    }
+
+    public boolean isLocal(String node) {
+        return membership.getNodeId().equals(node);
+    }
+
+    /**
+     * @return the advertised URL of a member, or null if it is no longer one.
+     */
+    public String urlOf(String node) {
+        return membership.urlOf(node);
+    }
+
+    /**
+     * Checks that this node may write the cell now.
+     *
+     * @throws ServiceOverloadedException if the cell's region belongs to another node or is still being loaded;
+     *                                    the client retries once the ring and the handoff have settled.
+     */
+    public void checkWritable(int rowIndex, int colIndex) {
+        long region = regionOf(rowIndex, colIndex);
+        if (!isLocal(membership.getRing().owner(region))) {
+            throw new ServiceOverloadedException("This region has just moved to another node. Please retry in a moment.", 1);
+        }
+        if (!canvasStateStore.isLoaded() || acquiring.contains(region)) {
+            throw new ServiceOverloadedException("This region is still being loaded. Please retry in a moment.",
+                Math.max(1, properties.getHandoffDelayMs() / 1000));
+        }
+    }
+
+    /**
+     * @return the number of owned regions that are not loaded yet.
+     */
+    public int getAcquiringCount() {
+        return acquiring.size();
+    }
+}
@@ -0,0 +1,37 @@
+package com.flux.entropia.common;
+
+/**
+ * Packs a (row, column) grid coordinate into a single long and back.
+ * Used wherever cells need to be keyed in maps without allocating coordinate objects.
+ */
+public final class CellKey {
+
+    private CellKey() {
+    }
+
+    /**
+     * Packs a coordinate into a long: the row in the high 32 bits, the column in the low 32 bits.
+     * @param rowIndex the row index of the cell.
+     * @param colIndex the column index of the cell.
+     * @return the packed cell key.
+     */
+    public static long pack(int rowIndex, int colIndex) {
+        return ((long) rowIndex << 32) | (colIndex & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @param key a packed cell key.
+     * @return the row index stored in the key.
+     */
+    public static int row(long key) {
+        return (int) (key >> 32);
+    }
+
+    /**
+     * @param key a packed cell key.
+     * @return the column index stored in the key.
+     */
+    public static int col(long key) {
+        return (int) key;
+    }
+}
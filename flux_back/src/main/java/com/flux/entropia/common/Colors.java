@@ -0,0 +1,120 @@
+package com.flux.entropia.common;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+
+/**
+ * Cell colors packed into the low 24 bits of an int as 0xRRGGBB, the form they are stored in (an INT UNSIGNED
+ * column) and held in memory. Hex strings only exist at the edge: they are parsed once when a request is read and
+ * formatted again when a response is written, see {@link HexColor}.
+ */
+public final class Colors {
+
+    /**
+     * Stands for "no color" wherever a color is held as a primitive int.
+     */
+    public static final int NONE = -1;
+
+    private static final int RGB_MASK = 0xFFFFFF;
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private Colors() {
+    }
+
+    /**
+     * Parses a "#RRGGBB" color, in either case.
+     *
+     * @throws IllegalArgumentException if the color is not in that form.
+     */
+    public static int parse(String hex) {
+        if (hex.length() != 7 || hex.charAt(0) != '#') {
+            throw new IllegalArgumentException("Color must be in #RRGGBB format: " + hex);
+        }
+        int rgb = 0;
+        for (int i = 1; i < 7; i++) {
+            int digit = Character.digit(hex.charAt(i), 16);
+            if (digit < 0) {
+                throw new IllegalArgumentException("Color must be in #RRGGBB format: " + hex);
+            }
+            rgb = rgb << 4 | digit;
+        }
+        return rgb;
+    }
+
+    /**
+     * @return The color as "#RRGGBB" with upper-case digits.
+     */
+    public static String format(int rgb) {
+        char[] chars = new char[7];
+        chars[0] = '#';
+        for (int i = 6; i > 0; i--) {
+            chars[i] = HEX_DIGITS[rgb & 0xF];
+            rgb >>>= 4;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * @return The packed color, or {@link #NONE} for null.
+     */
+    public static int unbox(Integer rgb) {
+        return rgb != null ? rgb : NONE;
+    }
+
+    /**
+     * @return The packed color, or null for {@link #NONE}.
+     */
+    public static Integer box(int rgb) {
+        return rgb != NONE ? rgb : null;
+    }
+
+    static boolean isValid(long rgb) {
+        return (rgb & ~RGB_MASK) == 0;
+    }
+
+    /**
+     * Writes a packed color as "#RRGGBB".
+     */
+    public static final class HexSerializer extends JsonSerializer<Integer> {
+        @Override
+        public void serialize(Integer rgb, JsonGenerator generator, SerializerProvider serializers) throws IOException {
+            generator.writeString(format(rgb));
+        }
+    }
+
+    /**
+     * Reads "#RRGGBB" into a packed color; an empty string means no color.
+     * A plain number in 0..0xFFFFFF is taken as already packed.
+     */
+    public static final class HexDeserializer extends JsonDeserializer<Integer> {
+        @Override
+        public Integer deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+                long rgb = parser.getLongValue();
+                if (!isValid(rgb)) {
+                    return (Integer) context.handleWeirdNumberValue(Integer.class, rgb, "Color must be between 0 and 0xFFFFFF");
+                }
+                return (int) rgb;
+            }
+            String hex = parser.getValueAsString();
+            if (hex == null) {
+                return (Integer) context.handleUnexpectedToken(Integer.class, parser);
+            }
+            if (hex.isBlank()) {
+                return null;
+            }
+            try {
+                return parse(hex.trim());
+            } catch (IllegalArgumentException e) {
+                return (Integer) context.handleWeirdStringValue(Integer.class, hex, e.getMessage());
+            }
+        }
+    }
+}
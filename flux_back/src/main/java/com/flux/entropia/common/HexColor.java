@@ -0,0 +1,24 @@
+package com.flux.entropia.common;
+
+import com.fasterxml.jackson.annotation.JacksonAnnotationsInside;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a packed {@link Colors color} field or record component that is "#RRGGBB" in JSON.
+ * Clients keep sending and receiving hex strings while the server only ever handles ints.
+ */
+@Target({ElementType.FIELD, ElementType.METHOD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@JacksonAnnotationsInside
+@JsonSerialize(using = Colors.HexSerializer.class)
+@JsonDeserialize(using = Colors.HexDeserializer.class)
+public @interface HexColor {
+}
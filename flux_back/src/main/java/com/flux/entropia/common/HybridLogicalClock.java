@@ -0,0 +1,61 @@
+package com.flux.entropia.common;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A hybrid logical clock: timestamps that follow the wall clock, yet never go backwards and always order after every
+ * timestamp this node has observed, even one written by a node whose clock runs ahead.
+ * <p>
+ * A timestamp packs the wall clock in milliseconds into the high 48 bits and a counter into the low 16 bits, which
+ * orders events within the same millisecond, or while the wall clock lags behind an observed timestamp. Timestamps
+ * compare as plain longs.
+ */
+@Component
+public class HybridLogicalClock {
+
+    private static final int LOGICAL_BITS = 16;
+
+    private final AtomicLong last = new AtomicLong();
+
+    /**
+     * @return a timestamp later than any returned or observed before.
+     */
+    public long now() {
+        return tick(0);
+    }
+
+    /**
+     * Advances the clock past a timestamp read from elsewhere, e.g. stored with a cell by another node.
+     *
+     * @param observed a timestamp of this clock, or 0 for none.
+     * @return a timestamp later than the observed one and than any returned or observed before.
+     */
+    public long tick(long observed) {
+        long wall = System.currentTimeMillis() << LOGICAL_BITS;
+        while (true) {
+            long previous = last.get();
+            long next = Math.max(wall, Math.max(previous, observed) + 1);
+            if (last.compareAndSet(previous, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Advances the clock past a timestamp read from elsewhere without taking a new one.
+     *
+     * @param observed a timestamp of this clock, or 0 for none.
+     */
+    public void observe(long observed) {
+        last.accumulateAndGet(observed, Math::max);
+    }
+
+    /**
+     * @return the wall clock milliseconds of a timestamp.
+     */
+    public static long physicalMillis(long timestamp) {
+        return timestamp >>> LOGICAL_BITS;
+    }
+}
@@ -0,0 +1,95 @@
+package com.flux.entropia.config;
+
+import com.flux.entropia.datasource.ReadOnlyRoute;
+import com.flux.entropia.datasource.ReadOnlyRouteInterceptor;
+import com.flux.entropia.datasource.ReplicaDataSource;
+import com.flux.entropia.datasource.ReplicaLagMonitor;
+import com.flux.entropia.datasource.RoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configures read/write splitting between the primary MySQL and one or more read replicas.
+ * Enabled with {@code flux.datasource.routing.enabled=true}; otherwise Spring Boot's single auto-configured
+ * pool is used unchanged.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "flux.datasource.routing", name = "enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    /**
+     * The primary pool, built from the regular {@code spring.datasource.*} properties.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Routes between the primary and the replica pools configured under {@code flux.datasource.routing.replicas}.
+     */
+    @Bean
+    public RoutingDataSource routingDataSource(HikariDataSource primaryDataSource, FluxProperties fluxProperties, MeterRegistry meterRegistry) {
+        List<ReplicaDataSource> replicas = new ArrayList<>();
+        List<FluxProperties.Replica> configured = fluxProperties.getDatasource().getRouting().getReplicas();
+        for (int i = 0; i < configured.size(); i++) {
+            FluxProperties.Replica replica = configured.get(i);
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("FluxReplicaPool-" + i);
+            dataSource.setJdbcUrl(replica.getUrl());
+            dataSource.setUsername(replica.getUsername());
+            dataSource.setPassword(replica.getPassword());
+            dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+            dataSource.setConnectionTimeout(replica.getConnectionTimeoutMs());
+            dataSource.setReadOnly(true);
+            // Do not block startup on a replica that is down; the lag monitor keeps it out of rotation.
+            dataSource.setInitializationFailTimeout(-1);
+            // Replica pools are not beans, so Spring Boot does not bind their hikaricp.* meters; the primary's are.
+            dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(new ReplicaDataSource(dataSource.getPoolName(), dataSource));
+        }
+        return new RoutingDataSource(primaryDataSource, replicas);
+    }
+
+    /**
+     * The application-wide data source. The lazy proxy defers connection acquisition to the first statement,
+     * after the transaction's read-only flag is known.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(RoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(RoutingDataSource routingDataSource, FluxProperties fluxProperties) {
+        return new ReplicaLagMonitor(routingDataSource.getReplicas(), fluxProperties.getDatasource().getRouting().getMaxReplicaLagSeconds());
+    }
+
+    /**
+     * Applies {@link ReadOnlyRoute} to mapper and service methods. Registered as an infrastructure advisor so it is
+     * picked up by the auto-proxy creator that already handles {@code @Transactional}.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static DefaultPointcutAdvisor readOnlyRouteAdvisor() {
+        return new DefaultPointcutAdvisor(AnnotationMatchingPointcut.forMethodAnnotation(ReadOnlyRoute.class), new ReadOnlyRouteInterceptor());
+    }
+}
@@ -6,6 +6,9 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.annotation.Validated;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Maps all custom application properties from application.yml under the 'flux' prefix.
  * This provides a type-safe way to access configuration.
@@ -22,12 +25,657 @@ public class FluxProperties {
     @NotNull
     private RateLimit rateLimit = new RateLimit();
 
+    /**
+     * Configuration for the bulk paint-stroke endpoint.
+     */
+    @NotNull
+    private Stroke stroke = new Stroke();
+
+    /**
+     * Configuration for the history replay endpoint.
+     */
+    @NotNull
+    private Replay replay = new Replay();
+
+    /**
+     * Configuration for the on-disk snapshot of the in-memory canvas state.
+     */
+    @NotNull
+    private Snapshot snapshot = new Snapshot();
+
+    /**
+     * Configuration for the startup warm-up of the in-memory canvas state.
+     */
+    @NotNull
+    private Warmup warmup = new Warmup();
+
+    /**
+     * Configuration for read/write splitting across MySQL replicas.
+     */
+    @NotNull
+    private Datasource datasource = new Datasource();
+
+    /**
+     * Configuration for outgoing WebSocket traffic.
+     */
+    @NotNull
+    private WebSocket websocket = new WebSocket();
+
+    /**
+     * Configuration for the streaming heavy-hitter detection of hot cells, chunks and IPs.
+     */
+    @NotNull
+    private HeavyHitters heavyHitters = new HeavyHitters();
+
+    /**
+     * Configuration for the sequence-numbered change log that reconnecting clients resume from.
+     */
+    @NotNull
+    private ChangeLog changeLog = new ChangeLog();
+
+    /**
+     * Configuration for admission control and load shedding of the HTTP API.
+     */
+    @NotNull
+    private Admission admission = new Admission();
+
+    /**
+     * Configuration for the raster overview tiles of zoomed-out views.
+     */
+    @NotNull
+    private Tiles tiles = new Tiles();
+
+    /**
+     * Configuration for the zoom-dependent level of detail of viewport reads.
+     */
+    @NotNull
+    private Lod lod = new Lod();
+
+    /**
+     * Configuration for the in-memory full-text index over cell contents.
+     */
+    @NotNull
+    private Search search = new Search();
+
+    /**
+     * Configuration for sharding the canvas across backend nodes by region.
+     */
+    @NotNull
+    private Cluster cluster = new Cluster();
+
+    /**
+     * How concurrent edits of the same cell are reconciled.
+     */
+    @NotNull
+    private Merge merge = new Merge();
+
+    /**
+     * The ring that hands committed cell changes to the broadcast and other side effects.
+     */
+    @NotNull
+    private EventBus eventBus = new EventBus();
+
+    /**
+     * The lease electing the one node that runs cluster-wide background jobs.
+     */
+    @NotNull
+    private Leader leader = new Leader();
+
+    /**
+     * The optional expiry of cells some time after their last change.
+     */
+    @NotNull
+    private Decay decay = new Decay();
+
+    /**
+     * Independent canvases besides the main one.
+     */
+    @NotNull
+    private Boards boards = new Boards();
+
     @Data
     public static class RateLimit {
         /**
-         * The duration in milliseconds for which a user (by IP) is blocked after a request.
+         * The average interval in milliseconds between two cell writes from one IP. 0 disables rate limiting.
          */
         @NotNull
         private Long durationMs;
+
+        /**
+         * The number of cells one IP may write back to back before the interval applies.
+         * Must be at least flux.stroke.max-cells, or the largest strokes are always rejected.
+         */
+        @NotNull
+        private Integer burstCells = 256;
+    }
+
+    @Data
+    public static class Stroke {
+        /**
+         * The maximum number of cells in one paint stroke request.
+         */
+        @NotNull
+        private Integer maxCells = 256;
+    }
+
+    @Data
+    public static class Replay {
+        /**
+         * The number of history rows read per keyset page.
+         */
+        @NotNull
+        private Integer pageSize = 1000;
+    }
+
+    @Data
+    public static class Snapshot {
+        /**
+         * Whether the canvas state is snapshotted to disk and loaded from it at startup.
+         */
+        @NotNull
+        private Boolean enabled = true;
+
+        /**
+         * The location of the snapshot file.
+         */
+        @NotNull
+        private String path = "data/canvas.snapshot";
+
+        /**
+         * The interval in milliseconds between two snapshots.
+         */
+        @NotNull
+        private Long intervalMs = 300000L;
+
+        /**
+         * How long deleted cell versions are kept in the deletion log, which a restart from a snapshot replays.
+         * Snapshots older than this are not loaded.
+         */
+        @NotNull
+        private Long deletionRetentionMs = 604800000L;
+    }
+
+    @Data
+    public static class Warmup {
+        /**
+         * The number of partitions loaded concurrently. Defaults to the number of cores,
+         * and is always capped below the size of the connection pool.
+         */
+        private Integer parallelism;
+    }
+
+    @Data
+    public static class Datasource {
+        @NotNull
+        private Routing routing = new Routing();
+    }
+
+    @Data
+    public static class Routing {
+        /**
+         * Whether read-only work is routed to the replicas below.
+         */
+        @NotNull
+        private Boolean enabled = false;
+
+        /**
+         * Replicas further behind the primary than this are taken out of the read rotation.
+         */
+        @NotNull
+        private Long maxReplicaLagSeconds = 5L;
+
+        /**
+         * The interval in milliseconds between two replication lag checks.
+         */
+        @NotNull
+        private Long healthCheckIntervalMs = 2000L;
+
+        @NotNull
+        private List<Replica> replicas = new ArrayList<>();
+    }
+
+    @Data
+    public static class Replica {
+        @NotNull
+        private String url;
+        private String username;
+        private String password;
+
+        @NotNull
+        private Integer maximumPoolSize = 10;
+
+        /**
+         * Kept short so an unreachable replica fails fast instead of stalling the lag check.
+         */
+        @NotNull
+        private Long connectionTimeoutMs = 2000L;
+    }
+
+    @Data
+    public static class WebSocket {
+        /**
+         * A session whose current send has been blocked for longer than this is closed as a slow consumer.
+         */
+        @NotNull
+        private Integer sendTimeLimitMs = 5000;
+
+        /**
+         * Outgoing messages buffered per session while a send is in progress; a session exceeding it is closed.
+         */
+        @NotNull
+        private Integer bufferSizeLimitBytes = 512 * 1024;
+
+        /**
+         * Worker threads executing CELL_WRITE commands received over the WebSocket.
+         */
+        @NotNull
+        private Integer commandThreads = 8;
+
+        /**
+         * CELL_WRITE commands queued for a worker; beyond this, commands are answered with RATE_LIMITED.
+         */
+        @NotNull
+        private Integer commandQueueCapacity = 1000;
+    }
+
+    @Data
+    public static class HeavyHitters {
+        /**
+         * Whether write and relay events are fed into the sketches.
+         */
+        @NotNull
+        private Boolean enabled = true;
+
+        /**
+         * The length of the sliding window.
+         */
+        @NotNull
+        private Integer windowSeconds = 60;
+
+        /**
+         * The number of buckets the window is divided into; the window slides one bucket at a time.
+         */
+        @NotNull
+        private Integer buckets = 6;
+
+        /**
+         * The maximum number of heavy hitters reported per key space.
+         */
+        @NotNull
+        private Integer topK = 20;
+
+        /**
+         * Counters per row of each Count-Min sketch.
+         */
+        @NotNull
+        private Integer sketchWidth = 1024;
+
+        /**
+         * Rows (hash functions) of each Count-Min sketch.
+         */
+        @NotNull
+        private Integer sketchDepth = 4;
+    }
+
+    @Data
+    public static class ChangeLog {
+        /**
+         * Cell change events kept in memory; a client missing no more than this many is resumed from memory alone.
+         */
+        @NotNull
+        private Integer capacity = 4096;
+
+        /**
+         * Deleted cells remembered for resumes beyond the in-memory events, which are otherwise read from the database.
+         */
+        @NotNull
+        private Integer deleteCapacity = 65536;
+
+        /**
+         * History rows a single resume may read from the database; beyond this, the client is told to resync fully.
+         */
+        @NotNull
+        private Integer maxFallbackRows = 2000;
+    }
+
+    @Data
+    public static class Admission {
+        /**
+         * Whether overloaded requests are rejected with 503; when disabled, they queue as before.
+         */
+        @NotNull
+        private Boolean enabled = true;
+
+        /**
+         * Requests processed at once behind the gate. Kept below the servlet container's thread count,
+         * so WebSocket traffic and health probes still get a thread. With virtual threads, there is no such thread
+         * count, and this is the only limit on concurrent requests.
+         */
+        @NotNull
+        private Integer maxInFlight = 150;
+
+        /**
+         * Connections in use plus threads waiting for one, per connection of the primary pool.
+         * 2.0 means the pool is busy and as many requests again are queued for it.
+         */
+        @NotNull
+        private Double maxPoolLoad = 2.0;
+
+        /**
+         * Bytes queued for slow WebSocket sessions across all sessions.
+         */
+        @NotNull
+        private Long maxBroadcastBacklogBytes = 32L * 1024 * 1024;
+
+        /**
+         * The fraction of each limit above at which @Sheddable requests (heatmap and stats polling) are rejected.
+         */
+        @NotNull
+        private Double sheddableShare = 0.5;
+
+        /**
+         * The Retry-After sent with a 503.
+         */
+        @NotNull
+        private Long retryAfterSeconds = 1L;
+
+        /**
+         * The interval in milliseconds between two samples of the broadcast backlog.
+         */
+        @NotNull
+        private Long sampleIntervalMs = 250L;
+    }
+
+    @Data
+    public static class Tiles {
+        /**
+         * The coarsest zoom level served; a pixel of level n covers 2^n x 2^n cells.
+         */
+        @NotNull
+        private Integer maxLevel = 4;
+
+        /**
+         * Rendered tiles kept in memory, where they are re-rendered pixel by pixel as cells change. A non-empty tile
+         * takes 256 KiB.
+         */
+        @NotNull
+        private Integer memoryCapacity = 128;
+
+        /**
+         * Directory that tiles evicted from memory are written to; blank keeps tiles in memory only.
+         * Cleared at startup, since the canvas may have changed while the service was down.
+         */
+        @NotNull
+        private String diskPath = "data/tiles";
+
+        /**
+         * Tiles kept on disk; beyond it, the files written first are deleted. Empty tiles are never written.
+         */
+        @NotNull
+        private Integer diskCapacity = 16384;
+    }
+
+    @Data
+    public static class Lod {
+        /**
+         * Viewports zoomed out below this factor get per-chunk summaries instead of cells.
+         */
+        @NotNull
+        private Double summaryBelowZoom = 0.3;
+
+        /**
+         * Chunks a single summary request may span.
+         */
+        @NotNull
+        private Integer maxChunks = 4096;
+    }
+
+    @Data
+    public static class Search {
+        /**
+         * Whether cell contents are indexed; the index takes memory in proportion to the text on the canvas.
+         */
+        @NotNull
+        private Boolean enabled = true;
+
+        /**
+         * The most cells a single search returns.
+         */
+        @NotNull
+        private Integer maxResults = 200;
+    }
+
+    @Data
+    public static class Cluster {
+        /**
+         * Whether regions of the canvas are owned by the nodes registered in Redis, each holding and writing only its
+         * own. When disabled, every node holds the whole canvas. Snapshots are not used in this mode.
+         */
+        @NotNull
+        private Boolean enabled = false;
+
+        /**
+         * This node's id in the membership table; blank picks a random one at startup.
+         */
+        @NotNull
+        private String nodeId = "";
+
+        /**
+         * The base URL other nodes forward requests to, e.g. http://10.0.0.5:8080. Required when enabled.
+         */
+        @NotNull
+        private String advertisedUrl = "";
+
+        /**
+         * The secret shared by all nodes, sent with every forwarded request; the /internal/cluster endpoints reject
+         * requests without it. Required when enabled.
+         */
+        @NotNull
+        private String secret = "";
+
+        /**
+         * Edge length of a region, the unit of ownership, in heat grid chunks.
+         */
+        @NotNull
+        private Integer regionChunks = 16;
+
+        /**
+         * Points per node on the consistent hash ring; more points spread regions more evenly.
+         */
+        @NotNull
+        private Integer virtualNodes = 128;
+
+        /**
+         * The interval in milliseconds between two heartbeats, which also refresh this node's view of the members.
+         */
+        @NotNull
+        private Long heartbeatIntervalMs = 1000L;
+
+        /**
+         * A node without a heartbeat for this long is dropped from the ring and its regions move to the others.
+         */
+        @NotNull
+        private Long nodeTimeoutMs = 5000L;
+
+        /**
+         * How long a node waits before loading the regions it gained, so writes still in flight at the previous owner
+         * commit first. Writes to these regions are answered with 503 meanwhile.
+         */
+        @NotNull
+        private Long handoffDelayMs = 3000L;
+
+        /**
+         * The connect and read timeout of a request forwarded to another node.
+         */
+        @NotNull
+        private Integer forwardTimeoutMs = 2000;
+    }
+
+    @Data
+    public static class EventBus {
+        /**
+         * Cell change events in flight between the writes and the slowest consumer; rounded up to a power of two.
+         * Writes wait once the slowest consumer is this many events behind.
+         */
+        @NotNull
+        private Integer capacity = 4096;
+
+        /**
+         * The most events a consumer takes at once; statistics are recounted once per batch.
+         */
+        @NotNull
+        private Integer maxBatch = 256;
+    }
+
+    @Data
+    public static class Merge {
+        /**
+         * STRICT rejects an edit based on an outdated version with 409, and the client refetches and retries.
+         * LWW accepts it: each field the edit changes relative to its base version overwrites that field, and
+         * the fields it left alone keep the values written since, so concurrent edits of the content and the color
+         * both survive. Of two edits of the same field, the one with the later hybrid logical clock timestamp wins,
+         * whichever node handles it and in whatever order they commit.
+         */
+        @NotNull
+        private Mode mode = Mode.STRICT;
+
+        /**
+         * How long an LWW write, or any write of a cluster node to its own regions, waits for earlier writes of the
+         * same cells on this node to commit before it is answered with 503. Waits for writes of other nodes end with
+         * the database's lock wait timeout.
+         */
+        @NotNull
+        private Long lockTimeoutMs = 2000L;
+
+        public enum Mode {
+            STRICT, LWW
+        }
+    }
+
+    @Data
+    public static class Leader {
+        /**
+         * Off, every node runs the cluster-wide jobs, which suits a single node only.
+         */
+        @NotNull
+        private Boolean enabled = true;
+
+        /**
+         * How long the lease lasts without renewal, and so how long the jobs stop when the leader fails.
+         */
+        @NotNull
+        private Long leaseMs = 15000L;
+
+        /**
+         * How often the leader renews the lease, and the other nodes try to take it; well below {@code leaseMs}.
+         */
+        @NotNull
+        private Long renewIntervalMs = 5000L;
+    }
+
+    @Data
+    public static class Boards {
+        /**
+         * Whether clients may create boards through {@code POST /api/boards}; boards can always be added in MySQL.
+         * Creating a board costs the client's IP its whole write burst, see {@code flux.rate-limit.burst-cells}.
+         */
+        @NotNull
+        private Boolean creationEnabled = false;
+
+        /**
+         * The most boards, including the main one, that may be created through the API.
+         */
+        @NotNull
+        private Integer maxBoards = 100;
+
+        /**
+         * The change log of each board other than the main one that has connected clients.
+         */
+        @NotNull
+        private ChangeLog changeLog = boardChangeLog();
+
+        /**
+         * How long the in-memory state of a board other than the main one is kept after it was last read.
+         */
+        @NotNull
+        private Long idleEvictMs = 600000L;
+
+        /**
+         * How often idle board states are looked for.
+         */
+        @NotNull
+        private Long evictIntervalMs = 60000L;
+
+        private static ChangeLog boardChangeLog() {
+            ChangeLog changeLog = new ChangeLog();
+            changeLog.setCapacity(512);
+            changeLog.setDeleteCapacity(4096);
+            return changeLog;
+        }
+    }
+
+    @Data
+    public static class Decay {
+        /**
+         * Whether cells expire at all.
+         */
+        @NotNull
+        private Boolean enabled = false;
+
+        /**
+         * How long a cell lives after its last change, unless a rule below matches it. 0 keeps it forever.
+         */
+        @NotNull
+        private Long lifetimeMs = 7L * 24 * 60 * 60 * 1000;
+
+        /**
+         * Lifetimes of particular regions or colors; the first matching rule applies.
+         */
+        @NotNull
+        private List<DecayRule> rules = new ArrayList<>();
+
+        /**
+         * DELETE removes the history rows of an expired cell. ARCHIVE moves them to messages_expired first.
+         */
+        @NotNull
+        private Mode mode = Mode.DELETE;
+
+        /**
+         * The resolution of the expiry times, and how often expired cells are collected.
+         */
+        @NotNull
+        private Long tickMs = 1000L;
+
+        /**
+         * The most cells expired in one transaction and broadcast in one CELLS_BATCH event.
+         */
+        @NotNull
+        private Integer batchSize = 500;
+
+        public enum Mode {
+            DELETE, ARCHIVE
+        }
+    }
+
+    @Data
+    public static class DecayRule {
+        /**
+         * The region the rule applies to; a bound left out is open.
+         */
+        private Integer startRow;
+        private Integer endRow;
+        private Integer startCol;
+        private Integer endCol;
+
+        /**
+         * The background color (#RRGGBB) the rule applies to, or any if left out.
+         */
+        private String color;
+
+        /**
+         * How long the matching cells live after their last change. 0 keeps them forever.
+         */
+        @NotNull
+        private Long lifetimeMs;
     }
 }
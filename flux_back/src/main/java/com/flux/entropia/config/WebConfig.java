@@ -1,12 +1,21 @@
 package com.flux.entropia.config;
 
+import com.flux.entropia.admission.AdmissionInterceptor;
+import com.flux.entropia.cluster.ClusterAuthInterceptor;
+import com.flux.entropia.cluster.ClusterClient;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
+@RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
 
+    private final AdmissionInterceptor admissionInterceptor;
+    private final ClusterAuthInterceptor clusterAuthInterceptor;
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
@@ -14,4 +23,17 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*");
     }
+
+    /**
+     * Puts the public canvas API, and the requests other nodes forward to it, behind admission control;
+     * admin, replay and actuator endpoints are never shed. Forwarded requests are authenticated before they are admitted.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(clusterAuthInterceptor)
+                .addPathPatterns(ClusterClient.BASE_PATH + "/**");
+        registry.addInterceptor(admissionInterceptor)
+                .addPathPatterns("/api/messages/**", "/api/heatmap/**", "/api/stats/**", "/api/canvas/**", "/api/search/**",
+                        "/internal/cluster/**");
+    }
 }
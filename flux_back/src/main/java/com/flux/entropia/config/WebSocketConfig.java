@@ -1,5 +1,6 @@
 package com.flux.entropia.config;
 
+import com.flux.entropia.websocket.BoardHandshakeInterceptor;
 import com.flux.entropia.websocket.FluxWebSocketHandler;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
@@ -16,6 +17,7 @@ import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry
 public class WebSocketConfig implements WebSocketConfigurer {
 
     private final FluxWebSocketHandler fluxWebSocketHandler;
+    private final BoardHandshakeInterceptor boardHandshakeInterceptor;
 
     /**
      * Registers the WebSocket handler to a specific path.
@@ -24,6 +26,7 @@ public class WebSocketConfig implements WebSocketConfigurer {
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
         registry.addHandler(fluxWebSocketHandler, "/ws/flux")
+                .addInterceptors(boardHandshakeInterceptor)
                 .setAllowedOrigins("*"); // Allow all origins for simplicity
     }
 }
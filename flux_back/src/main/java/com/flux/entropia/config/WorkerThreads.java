@@ -0,0 +1,54 @@
+package com.flux.entropia.config;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the threads the application starts itself, of the same kind Spring Boot uses for requests and
+ * {@code @Scheduled} tasks: virtual threads when {@code spring.threads.virtual.enabled} is set and the JVM is 21 or
+ * later, platform threads otherwise.
+ */
+@Component
+public class WorkerThreads {
+
+    private final boolean virtual;
+
+    public WorkerThreads(Environment environment) {
+        this.virtual = Threading.VIRTUAL.isActive(environment);
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * @param prefix The thread name prefix; a counter is appended.
+     * @return A factory of virtual threads, or of daemon platform threads.
+     */
+    public ThreadFactory factory(String prefix) {
+        if (virtual) {
+            return new VirtualThreadTaskExecutor(prefix).getVirtualThreadFactory();
+        }
+        AtomicInteger threadCounter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * An executor starting a new virtual thread per task; only to be used when {@link #isVirtual()}.
+     *
+     * @param prefix The thread name prefix; a counter is appended.
+     */
+    public Executor perTaskExecutor(String prefix) {
+        return new VirtualThreadTaskExecutor(prefix);
+    }
+}
@@ -1,11 +1,19 @@
 package com.flux.entropia.controller;
 
-import com.flux.entropia.dto.CanvasInitialPositionDTO;
+import com.flux.entropia.board.BoardRegistry;
+import com.flux.entropia.common.ApiResponse;
+import com.flux.entropia.dto.WarmupStatusDTO;
+import com.flux.entropia.service.CanvasService;
+import com.flux.entropia.state.CanvasStateStore;
+import com.flux.entropia.state.WarmupProgress;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -18,18 +26,28 @@ import org.springframework.web.bind.annotation.RestController;
 public class AdminController {
 
     private final RedisTemplate<String, String> redisStringTemplate;
+    private final WarmupProgress warmupProgress;
+    private final CanvasStateStore canvasStateStore;
 
     /**
-     * Clear the golden spawn point cache.
+     * Clear the golden spawn point cache of a board, the main board by default.
      */
     @PostMapping("/cache/clear")
-    public String clearCache() {
+    public String clearCache(@RequestParam(defaultValue = BoardRegistry.MAIN) String board) {
         try {
-            redisStringTemplate.delete("golden_spawn_point");
+            redisStringTemplate.delete(CanvasService.spawnPointKey(board));
             return "Cache cleared successfully";
         } catch (Exception e) {
             log.error("Failed to clear cache", e);
             return "Failed to clear cache: " + e.getMessage();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Get the progress of the in-memory canvas state warm-up.
+     */
+    @GetMapping("/warmup")
+    public ResponseEntity<ApiResponse<WarmupStatusDTO>> getWarmupStatus() {
+        return ResponseEntity.ok(ApiResponse.success(warmupProgress.toStatus(canvasStateStore.size())));
+    }
+}
@@ -0,0 +1,48 @@
+package com.flux.entropia.controller;
+
+import com.flux.entropia.board.BoardRegistry;
+import com.flux.entropia.common.ApiResponse;
+import com.flux.entropia.dto.BoardDTO;
+import com.flux.entropia.dto.CreateBoardDTO;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller for listing and creating boards.
+ * The other endpoints select a board with their {@code board} parameter.
+ */
+@RestController
+@RequestMapping("/api/boards")
+@RequiredArgsConstructor
+public class BoardController {
+
+    private final BoardRegistry boardRegistry;
+
+    /**
+     * GET /api/boards : List all boards, oldest first.
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<BoardDTO>>> listBoards() {
+        return ResponseEntity.ok(ApiResponse.success(boardRegistry.list()));
+    }
+
+    /**
+     * POST /api/boards : Create a new, empty board, if enabled by flux.boards.creation-enabled.
+     */
+    @PostMapping
+    public ResponseEntity<ApiResponse<BoardDTO>> createBoard(@RequestBody @Valid CreateBoardDTO createBoardDTO,
+                                                             HttpServletRequest request) {
+        BoardDTO board = boardRegistry.create(createBoardDTO, request.getRemoteAddr());
+        return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success(board));
+    }
+}
@@ -1,12 +1,20 @@
 package com.flux.entropia.controller;
 
+import com.flux.entropia.admission.Sheddable;
+import com.flux.entropia.board.BoardRegistry;
 import com.flux.entropia.common.ApiResponse;
 import com.flux.entropia.dto.CanvasInitialPositionDTO;
+import com.flux.entropia.dto.TileImageDTO;
 import com.flux.entropia.service.CanvasService;
+import com.flux.entropia.service.TileService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -19,14 +27,34 @@ import org.springframework.web.bind.annotation.RestController;
 public class CanvasController {
 
     private final CanvasService canvasService;
+    private final TileService tileService;
+    private final BoardRegistry boardRegistry;
 
     /**
      * GET /api/canvas/initial-position : Get the intelligent initial position for new users.
-     * Returns the optimal "hotspot" location based on recent activity and content density.
+     * Returns the optimal "hotspot" location of the board based on recent activity and content density.
      */
     @GetMapping("/initial-position")
-    public ResponseEntity<ApiResponse<CanvasInitialPositionDTO>> getInitialPosition() {
-        CanvasInitialPositionDTO position = canvasService.getInitialPosition();
+    public ResponseEntity<ApiResponse<CanvasInitialPositionDTO>> getInitialPosition(
+            @RequestParam(defaultValue = BoardRegistry.MAIN) String board) {
+        boardRegistry.require(board);
+        CanvasInitialPositionDTO position = canvasService.getInitialPosition(board);
         return ResponseEntity.ok(ApiResponse.success(position));
     }
-}
\ No newline at end of file
+
+    /**
+     * GET /api/canvas/tiles/{level}/{x}/{y}.png : Get a raster overview tile of the latest canvas state.
+     * At level 0 a tile is 256x256 cells, one pixel per cell; each level up halves the resolution. Main board only.
+     * Tiles carry a strong ETag and must be revalidated, which costs a 304 while the tile is unchanged.
+     */
+    @Sheddable
+    @GetMapping("/tiles/{level}/{x}/{y}.png")
+    public ResponseEntity<byte[]> getTile(@PathVariable int level, @PathVariable int x, @PathVariable int y) {
+        TileImageDTO tile = tileService.getTile(level, x, y);
+        return ResponseEntity.ok()
+            .contentType(MediaType.IMAGE_PNG)
+            .cacheControl(CacheControl.noCache())
+            .eTag(tile.etag())
+            .body(tile.png());
+    }
+}
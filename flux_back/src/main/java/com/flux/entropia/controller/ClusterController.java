@@ -0,0 +1,80 @@
+package com.flux.entropia.controller;
+
+import com.flux.entropia.cluster.ClusterClient;
+import com.flux.entropia.common.ApiResponse;
+import com.flux.entropia.config.FluxProperties;
+import com.flux.entropia.dto.CreateMessageDTO;
+import com.flux.entropia.dto.MessageNodeDTO;
+import com.flux.entropia.dto.PaintStrokeDTO;
+import com.flux.entropia.dto.PaintStrokeResultDTO;
+import com.flux.entropia.dto.SearchResultDTO;
+import com.flux.entropia.dto.TileImageDTO;
+import com.flux.entropia.dto.ViewportDTO;
+import com.flux.entropia.service.impl.SearchServiceImpl;
+import com.flux.entropia.service.impl.ShardedMessageServiceImpl;
+import com.flux.entropia.service.impl.ShardedTileServiceImpl;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Endpoints other nodes of a sharded deployment forward requests to, see {@link ClusterClient}.
+ * They act on this node's own regions only and never forward again; a request for a region this node no longer owns
+ * is answered with 503. Requests must carry the cluster secret, see
+ * {@link com.flux.entropia.cluster.ClusterAuthInterceptor}.
+ */
+@RestController
+@RequestMapping(ClusterClient.BASE_PATH)
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "flux.cluster", name = "enabled", havingValue = "true")
+public class ClusterController {
+
+    private final ShardedMessageServiceImpl messageService;
+    private final ShardedTileServiceImpl tileService;
+    private final SearchServiceImpl searchService;
+    private final FluxProperties fluxProperties;
+
+    @PostMapping("/cells")
+    public ResponseEntity<ApiResponse<MessageNodeDTO>> createOrUpdateMessage(@RequestBody @Valid CreateMessageDTO createMessageDTO,
+                                                                             @RequestHeader(ClusterClient.CLIENT_IP_HEADER) String ipAddress) {
+        return ResponseEntity.ok(ApiResponse.success(messageService.createOrUpdateMessageLocally(createMessageDTO, ipAddress)));
+    }
+
+    @PostMapping("/stroke")
+    public ResponseEntity<ApiResponse<PaintStrokeResultDTO>> applyStroke(@RequestBody @Valid PaintStrokeDTO paintStrokeDTO,
+                                                                         @RequestHeader(ClusterClient.CLIENT_IP_HEADER) String ipAddress) {
+        int maxCells = fluxProperties.getStroke().getMaxCells();
+        if (paintStrokeDTO.cells().size() > maxCells) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("A stroke must not exceed " + maxCells + " cells"));
+        }
+        return ResponseEntity.ok(ApiResponse.success(messageService.applyStrokeLocally(paintStrokeDTO.cells(), ipAddress)));
+    }
+
+    @GetMapping("/viewport")
+    public ResponseEntity<ApiResponse<ViewportDTO>> getViewport(@RequestParam int startRow, @RequestParam int endRow,
+                                                                @RequestParam int startCol, @RequestParam int endCol,
+                                                                @RequestParam double zoom) {
+        return ResponseEntity.ok(ApiResponse.success(messageService.getViewportLocally(startRow, endRow, startCol, endCol, zoom)));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<SearchResultDTO>> search(@RequestParam String q,
+                                                               @RequestParam(required = false) Integer startRow,
+                                                               @RequestParam(required = false) Integer endRow,
+                                                               @RequestParam(required = false) Integer startCol,
+                                                               @RequestParam(required = false) Integer endCol,
+                                                               @RequestParam int limit) {
+        // The forwarding node has validated the region and the limit.
+        int[] region = startRow != null ? new int[]{startRow, endRow, startCol, endCol} : null;
+        return ResponseEntity.ok(ApiResponse.success(searchService.search(q, region, limit)));
+    }
+
+    @GetMapping("/tiles/{level}/{x}/{y}.png")
+    public ResponseEntity<byte[]> getTile(@PathVariable int level, @PathVariable int x, @PathVariable int y) {
+        TileImageDTO tile = tileService.getTileLocally(level, x, y);
+        return ResponseEntity.ok().contentType(MediaType.IMAGE_PNG).body(tile.png());
+    }
+}
@@ -1,5 +1,7 @@
 package com.flux.entropia.controller;
 
+import com.flux.entropia.admission.Sheddable;
+import com.flux.entropia.board.BoardRegistry;
 import com.flux.entropia.common.ApiResponse;
 import com.flux.entropia.dto.HeatmapChunkDTO;
 import com.flux.entropia.service.HeatmapService;
@@ -15,6 +17,7 @@ import org.springframework.web.bind.annotation.RestController;
  * REST controller for handling heatmap-related API requests.
  * Provides dynamic chunk-based heatmap functionality.
  */
+@Sheddable
 @RestController
 @RequestMapping("/api/heatmap")
 @RequiredArgsConstructor
@@ -22,20 +25,24 @@ import org.springframework.web.bind.annotation.RestController;
 public class HeatmapController {
 
     private final HeatmapService heatmapService;
+    private final BoardRegistry boardRegistry;
 
     /**
      * GET /api/heatmap/chunks : Get heatmap data for specified chunks.
      * Returns heat values for chunks containing recent message activity.
      *
+     * @param board The board to read, the main board by default
      * @param chunks A semicolon-separated string of chunk IDs (format: "gridX,gridY")
      * @return Heatmap data for the requested chunks
      */
     @GetMapping("/chunks")
     public ResponseEntity<ApiResponse<HeatmapChunkDTO>> getHeatmapChunks(
+            @RequestParam(defaultValue = BoardRegistry.MAIN) String board,
             @RequestParam String chunks) {
+        boardRegistry.require(board);
         try {
-            log.info("Received heatmap chunks request: {}", chunks);
-            HeatmapChunkDTO result = heatmapService.getHeatmapChunks(chunks);
+            log.info("Received heatmap chunks request for board {}: {}", board, chunks);
+            HeatmapChunkDTO result = heatmapService.getHeatmapChunks(board, chunks);
             return ResponseEntity.ok(ApiResponse.success(result));
         } catch (Exception e) {
             log.error("Failed to get heatmap chunks", e);
@@ -0,0 +1,51 @@
+package com.flux.entropia.controller;
+
+import com.flux.entropia.analytics.HeavyHitterMonitor;
+import com.flux.entropia.common.ApiResponse;
+import com.flux.entropia.config.FluxProperties;
+import com.flux.entropia.dto.HeavyHittersDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Locale;
+
+/**
+ * Admin controller exposing the heavy hitters of the write path and the WebSocket relay.
+ */
+@RestController
+@RequestMapping("/api/admin/heavy-hitters")
+@RequiredArgsConstructor
+public class HeavyHitterController {
+
+    private final HeavyHitterMonitor heavyHitterMonitor;
+    private final FluxProperties fluxProperties;
+
+    /**
+     * GET /api/admin/heavy-hitters : Get the hottest cells, chunks and IPs over the sliding window.
+     *
+     * @param source "write" for cell writes, "relay" for editing signals relayed over the WebSocket.
+     * @param limit  The number of entries per list, at most flux.heavy-hitters.top-k.
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<HeavyHittersDTO>> getHeavyHitters(
+            @RequestParam(defaultValue = "write") String source,
+            @RequestParam(defaultValue = "10") int limit) {
+        HeavyHitterMonitor.Source parsedSource;
+        try {
+            parsedSource = HeavyHitterMonitor.Source.valueOf(source.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "source must be 'write' or 'relay'");
+        }
+        if (limit <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be positive");
+        }
+        int cappedLimit = Math.min(limit, fluxProperties.getHeavyHitters().getTopK());
+        return ResponseEntity.ok(ApiResponse.success(heavyHitterMonitor.snapshot(parsedSource, cappedLimit)));
+    }
+}
@@ -1,9 +1,15 @@
 package com.flux.entropia.controller;
 
+import com.flux.entropia.admission.Sheddable;
+import com.flux.entropia.board.BoardRegistry;
 import com.flux.entropia.common.ApiResponse;
+import com.flux.entropia.config.FluxProperties;
 import com.flux.entropia.dto.CreateMessageDTO;
 import com.flux.entropia.dto.MessageDetailDTO;
 import com.flux.entropia.dto.MessageNodeDTO;
+import com.flux.entropia.dto.PaintStrokeDTO;
+import com.flux.entropia.dto.PaintStrokeResultDTO;
+import com.flux.entropia.dto.ViewportDTO;
 import com.flux.entropia.service.MessageService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -18,6 +24,7 @@ import java.util.List;
 /**
  * REST controller for handling message-related API requests.
  * (Based on Task B-3)
+ * Every endpoint acts on the board given by the {@code board} parameter, the main board by default.
  */
 @RestController
 @RequestMapping("/api/messages")
@@ -25,27 +32,51 @@ import java.util.List;
 public class MessageController {
 
     private final MessageService messageService;
+    private final FluxProperties fluxProperties;
+    private final BoardRegistry boardRegistry;
 
     /**
      * GET /api/messages : Get all message cells within a specific grid area.
      */
     @GetMapping
     public ResponseEntity<ApiResponse<List<MessageNodeDTO>>> getMessagesInGrid(
+        @RequestParam(defaultValue = BoardRegistry.MAIN) String board,
         @RequestParam int startRow,
         @RequestParam int endRow,
         @RequestParam int startCol,
         @RequestParam int endCol
     ) {
-        List<MessageNodeDTO> nodes = messageService.getMessagesInGrid(startRow, endRow, startCol, endCol);
+        boardRegistry.require(board);
+        List<MessageNodeDTO> nodes = messageService.getMessagesInGrid(board, startRow, endRow, startCol, endCol);
         return ResponseEntity.ok(ApiResponse.success(nodes));
     }
 
+    /**
+     * GET /api/messages/viewport : Get the contents of a grid area at the level of detail of the given zoom.
+     * Zoomed out below flux.lod.summary-below-zoom, returns per-chunk summaries instead of the cells.
+     */
+    @GetMapping("/viewport")
+    public ResponseEntity<ApiResponse<ViewportDTO>> getViewport(
+        @RequestParam(defaultValue = BoardRegistry.MAIN) String board,
+        @RequestParam int startRow,
+        @RequestParam int endRow,
+        @RequestParam int startCol,
+        @RequestParam int endCol,
+        @RequestParam double zoom
+    ) {
+        boardRegistry.require(board);
+        ViewportDTO viewport = messageService.getViewport(board, startRow, endRow, startCol, endCol, zoom);
+        return ResponseEntity.ok(ApiResponse.success(viewport));
+    }
+
     /**
      * GET /api/messages/{id} : Get the detailed information for a single node.
      */
+    @Sheddable // Hover details; the cell itself is already on screen.
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<MessageDetailDTO>> getMessageDetail(@PathVariable Long id) {
-        MessageDetailDTO detail = messageService.getMessageDetailById(id)
+    public ResponseEntity<ApiResponse<MessageDetailDTO>> getMessageDetail(@RequestParam(defaultValue = BoardRegistry.MAIN) String board,
+                                                                        @PathVariable Long id) {
+        MessageDetailDTO detail = messageService.getMessageDetailById(board, id)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Message node not found with id: " + id));
         return ResponseEntity.ok(ApiResponse.success(detail));
     }
@@ -54,7 +85,9 @@ public class MessageController {
      * POST /api/messages : Create a new message node.
      */
     @PostMapping
-    public ResponseEntity<ApiResponse<MessageNodeDTO>> createOrUpdateMessage(@RequestBody @Valid CreateMessageDTO createMessageDTO, HttpServletRequest request) {
+    public ResponseEntity<ApiResponse<MessageNodeDTO>> createOrUpdateMessage(@RequestParam(defaultValue = BoardRegistry.MAIN) String board,
+                                                                             @RequestBody @Valid CreateMessageDTO createMessageDTO, HttpServletRequest request) {
+        boardRegistry.require(board);
         // Allow deletion of content if baseVersionId is provided (update operation)
         // Only reject if it's a new creation (baseVersionId is null) with no content and no color
         if (createMessageDTO.baseVersionId() == null && 
@@ -64,10 +97,28 @@ public class MessageController {
         }
         
         String ipAddress = request.getRemoteAddr();
-        MessageNodeDTO newNode = messageService.createOrUpdateMessage(createMessageDTO, ipAddress);
+        MessageNodeDTO newNode = messageService.createOrUpdateMessage(board, createMessageDTO, ipAddress);
         return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success(newNode));
     }
 
+    /**
+     * POST /api/messages/stroke : Apply a paint stroke, i.e. many cell edits at once.
+     * Cells are checked individually; conflicting cells are reported in the result instead of failing the request.
+     */
+    @PostMapping("/stroke")
+    public ResponseEntity<ApiResponse<PaintStrokeResultDTO>> applyStroke(@RequestParam(defaultValue = BoardRegistry.MAIN) String board,
+                                                                         @RequestBody @Valid PaintStrokeDTO paintStrokeDTO, HttpServletRequest request) {
+        boardRegistry.require(board);
+        int maxCells = fluxProperties.getStroke().getMaxCells();
+        if (paintStrokeDTO.cells().size() > maxCells) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("A stroke must not exceed " + maxCells + " cells"));
+        }
+
+        String ipAddress = request.getRemoteAddr();
+        PaintStrokeResultDTO result = messageService.applyStroke(board, paintStrokeDTO.cells(), ipAddress);
+        return ResponseEntity.ok(ApiResponse.success(result));
+    }
+
     /**
      * Utility method to extract the client's IP address from the request,
      * considering common proxy headers like X-Forwarded-For.
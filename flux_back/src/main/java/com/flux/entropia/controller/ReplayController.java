@@ -0,0 +1,76 @@
+package com.flux.entropia.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.flux.entropia.dto.ReplayRequestDTO;
+import com.flux.entropia.service.ReplayService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+
+/**
+ * REST controller for replaying the canvas history.
+ * Streams change events as newline-delimited JSON so time-lapses of any length can be consumed incrementally.
+ */
+@RestController
+@RequestMapping("/api/replay")
+@RequiredArgsConstructor
+public class ReplayController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ReplayService replayService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * GET /api/replay : Stream the change events of the canvas in id order.
+     *
+     * @param from         Only replay changes made at or after this time (ISO-8601).
+     * @param afterId      Only replay changes with an id greater than this, e.g. to resume an interrupted replay.
+     * @param frameSeconds When greater than zero, keep only the last change per cell within each frame of this many seconds.
+     */
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> replay(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) Integer startRow,
+            @RequestParam(required = false) Integer endRow,
+            @RequestParam(required = false) Integer startCol,
+            @RequestParam(required = false) Integer endCol,
+            @RequestParam(defaultValue = "0") int frameSeconds) {
+        if (frameSeconds < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "frameSeconds must not be negative");
+        }
+        ReplayRequestDTO request = new ReplayRequestDTO(from, afterId, startRow, endRow, startCol, endCol, frameSeconds);
+        ObjectWriter writer = objectMapper.writer();
+
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream);
+            replayService.streamChanges(request, event -> {
+                try {
+                    out.write(writer.writeValueAsBytes(event));
+                    out.write('\n');
+                } catch (IOException e) {
+                    // The client went away; abort the replay instead of reading the rest of the history.
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+}
@@ -0,0 +1,58 @@
+package com.flux.entropia.controller;
+
+import com.flux.entropia.admission.Sheddable;
+import com.flux.entropia.common.ApiResponse;
+import com.flux.entropia.config.FluxProperties;
+import com.flux.entropia.dto.SearchResultDTO;
+import com.flux.entropia.service.SearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * REST controller for searching the contents of the canvas.
+ */
+@Sheddable
+@RestController
+@RequestMapping("/api/search")
+@RequiredArgsConstructor
+public class SearchController {
+
+    private final SearchService searchService;
+    private final FluxProperties fluxProperties;
+
+    /**
+     * GET /api/search : Find the cells whose current content contains every word of the query.
+     * Chinese, Japanese and Korean text is matched by character bigrams, so it needs no spaces.
+     *
+     * @param q     The search text.
+     * @param limit The number of cells to return, at most flux.search.max-results.
+     * The optional startRow, endRow, startCol and endCol restrict the search to a region; all four must be given.
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<SearchResultDTO>> search(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer startRow,
+            @RequestParam(required = false) Integer endRow,
+            @RequestParam(required = false) Integer startCol,
+            @RequestParam(required = false) Integer endCol,
+            @RequestParam(defaultValue = "50") int limit) {
+        if (limit <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be positive");
+        }
+        int[] region = null;
+        if (startRow != null || endRow != null || startCol != null || endCol != null) {
+            if (startRow == null || endRow == null || startCol == null || endCol == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "startRow, endRow, startCol and endCol must be given together");
+            }
+            region = new int[]{startRow, endRow, startCol, endCol};
+        }
+        int cappedLimit = Math.min(limit, fluxProperties.getSearch().getMaxResults());
+        return ResponseEntity.ok(ApiResponse.success(searchService.search(q, region, cappedLimit)));
+    }
+}
@@ -1,5 +1,7 @@
 package com.flux.entropia.controller;
 
+import com.flux.entropia.admission.Sheddable;
+import com.flux.entropia.board.BoardRegistry;
 import com.flux.entropia.common.ApiResponse;
 import com.flux.entropia.dto.StatsDTO;
 import com.flux.entropia.service.MessageService;
@@ -11,6 +13,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+@Sheddable
 @RestController
 @RequestMapping("/api/stats")
 @RequiredArgsConstructor
@@ -18,23 +21,27 @@ public class StatsController {
 
     private final MessageService messageService;
     private final FluxWebSocketHandler webSocketHandler;
+    private final BoardRegistry boardRegistry;
 
     @GetMapping
-    public ResponseEntity<ApiResponse<StatsDTO>> getStats() {
-        long totalMessages = messageService.getTotalMessageCount();
-        int onlineUsers = webSocketHandler.getOnlineUserCount();
-        long visibleMessages = messageService.getVisibleMessageCount();
+    public ResponseEntity<ApiResponse<StatsDTO>> getStats(@RequestParam(defaultValue = BoardRegistry.MAIN) String board) {
+        boardRegistry.require(board);
+        long totalMessages = messageService.getTotalMessageCount(board);
+        int onlineUsers = webSocketHandler.getOnlineUserCount(board);
+        long visibleMessages = messageService.getVisibleMessageCount(board);
         StatsDTO stats = new StatsDTO(totalMessages, onlineUsers, visibleMessages);
         return ResponseEntity.ok(ApiResponse.success(stats));
     }
 
     @GetMapping("/viewport")
     public ResponseEntity<ApiResponse<Long>> getViewportStats(
+            @RequestParam(defaultValue = BoardRegistry.MAIN) String board,
             @RequestParam int startRow,
             @RequestParam int endRow,
             @RequestParam int startCol,
             @RequestParam int endCol) {
-        long count = messageService.countDistinctCoordinatesInGrid(startRow, endRow, startCol, endCol);
+        boardRegistry.require(board);
+        long count = messageService.countDistinctCoordinatesInGrid(board, startRow, endRow, startCol, endCol);
         return ResponseEntity.ok(ApiResponse.success(count));
     }
 }
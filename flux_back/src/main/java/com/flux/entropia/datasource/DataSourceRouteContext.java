@@ -0,0 +1,41 @@
+package com.flux.entropia.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Thread-bound routing hint for {@link RoutingDataSource}.
+ * Set by {@link ReadOnlyRouteInterceptor} for the duration of a {@link ReadOnlyRoute} call.
+ */
+public final class DataSourceRouteContext {
+
+    private static final ThreadLocal<Boolean> READ_ONLY = new ThreadLocal<>();
+
+    private DataSourceRouteContext() {
+    }
+
+    /**
+     * Marks the current thread as read-only routed.
+     * @return the previous value, to be passed to {@link #restore(Boolean)}.
+     */
+    static Boolean enterReadOnly() {
+        Boolean previous = READ_ONLY.get();
+        READ_ONLY.set(Boolean.TRUE);
+        return previous;
+    }
+
+    static void restore(Boolean previous) {
+        if (previous == null) {
+            READ_ONLY.remove();
+        } else {
+            READ_ONLY.set(previous);
+        }
+    }
+
+    /**
+     * @return true if connections acquired now may come from a replica: either inside a {@link ReadOnlyRoute}
+     * call or inside a read-only transaction.
+     */
+    public static boolean isReadOnly() {
+        return Boolean.TRUE.equals(READ_ONLY.get()) || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+}
@@ -0,0 +1,20 @@
+package com.flux.entropia.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a mapper or service method whose queries may be served by a read replica.
+ * <p>
+ * Only takes effect for connections acquired inside the annotated call. Within an already running read-write
+ * transaction the connection is bound to the primary, so the annotation never breaks read-your-writes.
+ * Read-only transactions ({@code @Transactional(readOnly = true)}) are routed to replicas without it.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReadOnlyRoute {
+}
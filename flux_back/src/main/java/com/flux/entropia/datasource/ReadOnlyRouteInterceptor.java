@@ -0,0 +1,20 @@
+package com.flux.entropia.datasource;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Applies the {@link ReadOnlyRoute} hint around the annotated method call.
+ */
+public class ReadOnlyRouteInterceptor implements MethodInterceptor {
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Boolean previous = DataSourceRouteContext.enterReadOnly();
+        try {
+            return invocation.proceed();
+        } finally {
+            DataSourceRouteContext.restore(previous);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.flux.entropia.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+
+/**
+ * A replica connection pool together with its last observed replication health.
+ */
+@Getter
+public class ReplicaDataSource {
+
+    private final String name;
+    private final HikariDataSource dataSource;
+
+    // Seconds the replica is behind its source, or -1 if unknown (not checked yet, broken or unreachable).
+    private volatile long lagSeconds = -1;
+    private volatile boolean healthy;
+
+    public ReplicaDataSource(String name, HikariDataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    void update(long lagSeconds, boolean healthy) {
+        this.lagSeconds = lagSeconds;
+        this.healthy = healthy;
+    }
+}
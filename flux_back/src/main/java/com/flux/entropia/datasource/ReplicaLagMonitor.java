@@ -0,0 +1,71 @@
+package com.flux.entropia.datasource;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Periodically checks how far each read replica is behind the primary.
+ * A replica is taken out of the read rotation when its lag exceeds the configured maximum, when replication is
+ * stopped or broken ({@code Seconds_Behind_Source} is NULL), or when it cannot be reached at all.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ReplicaLagMonitor {
+
+    private final List<ReplicaDataSource> replicas;
+    private final long maxLagSeconds;
+
+    @Scheduled(fixedDelayString = "${flux.datasource.routing.health-check-interval-ms:2000}")
+    public void checkReplicas() {
+        for (ReplicaDataSource replica : replicas) {
+            boolean wasHealthy = replica.isHealthy();
+            long lag = readLagSeconds(replica);
+            boolean healthy = lag >= 0 && lag <= maxLagSeconds;
+            replica.update(lag, healthy);
+            if (wasHealthy != healthy) {
+                if (healthy) {
+                    log.info("Read replica {} is back in rotation (lag {}s)", replica.getName(), lag);
+                } else {
+                    log.warn("Read replica {} removed from rotation (lag {}s, max {}s); reads fall back to the primary",
+                        replica.getName(), lag, maxLagSeconds);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the replication lag in seconds, or -1 if it is unknown.
+     */
+    private long readLagSeconds(ReplicaDataSource replica) {
+        try (Connection connection = replica.getDataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            try {
+                return readLag(statement, "SHOW REPLICA STATUS", "Seconds_Behind_Source");
+            } catch (SQLException e) {
+                // MySQL before 8.0.22 only knows the old syntax.
+                return readLag(statement, "SHOW SLAVE STATUS", "Seconds_Behind_Master");
+            }
+        } catch (SQLException e) {
+            log.debug("Failed to read replication status of replica {}: {}", replica.getName(), e.getMessage());
+            return -1;
+        }
+    }
+
+    private long readLag(Statement statement, String sql, String column) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+            if (!resultSet.next()) {
+                // Not configured as a replica: its data cannot be trusted to follow the primary.
+                return -1;
+            }
+            long lag = resultSet.getLong(column);
+            return resultSet.wasNull() ? -1 : lag;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.flux.entropia.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes connections to the primary or to one of the healthy read replicas.
+ * <p>
+ * Read-only work (see {@link DataSourceRouteContext#isReadOnly()}) is spread round-robin over the replicas that
+ * {@link ReplicaLagMonitor} currently considers healthy; everything else, and all reads while no replica is healthy,
+ * goes to the primary. Must be wrapped in a {@code LazyConnectionDataSourceProxy} so that the decision is taken when
+ * the first statement runs, i.e. after the transaction manager has published the read-only flag.
+ */
+public class RoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private final DataSource primary;
+    private final List<ReplicaDataSource> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public RoutingDataSource(DataSource primary, List<ReplicaDataSource> replicas) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+    }
+
+    public List<ReplicaDataSource> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return determineTargetDataSource().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return determineTargetDataSource().getConnection(username, password);
+    }
+
+    /**
+     * @return a healthy replica for read-only work, otherwise the primary.
+     */
+    DataSource determineTargetDataSource() {
+        if (replicas.isEmpty() || !DataSourceRouteContext.isReadOnly()) {
+            return primary;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            ReplicaDataSource replica = replicas.get((start + i) % size);
+            if (replica.isHealthy()) {
+                return replica.getDataSource();
+            }
+        }
+        return primary;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return (T) this;
+        }
+        return primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    /**
+     * Closes the replica pools. The primary pool is a bean of its own and closed by the container.
+     */
+    @Override
+    public void close() {
+        for (ReplicaDataSource replica : replicas) {
+            replica.getDataSource().close();
+        }
+    }
+}
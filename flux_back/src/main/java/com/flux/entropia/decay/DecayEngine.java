@@ -0,0 +1,309 @@
+package com.flux.entropia.decay;
+
+import com.flux.entropia.board.BoardRegistry;
+import com.flux.entropia.common.CellKey;
+import com.flux.entropia.common.Colors;
+import com.flux.entropia.config.FluxProperties;
+import com.flux.entropia.config.WorkerThreads;
+import com.flux.entropia.dto.CreateMessageDTO;
+import com.flux.entropia.entity.Message;
+import com.flux.entropia.mapper.MessageMapper;
+import com.flux.entropia.metrics.FluxMetrics;
+import com.flux.entropia.service.impl.MessageServiceImpl;
+import com.flux.entropia.state.CanvasStateStore;
+import com.flux.entropia.state.CellChangeListener;
+import com.flux.entropia.state.CellState;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.ResultContext;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Expires cells once they have gone unchanged for their lifetime, see {@code flux.decay}.
+ * <p>
+ * Instead of scanning the table for old rows, the engine keeps the expiry of every cell in a {@link TimingWheel}:
+ * a change of a cell schedules its new expiry, and the entry of the version it replaced is dropped when it comes due.
+ * Once the canvas is loaded, the expiries of the cells loaded are scheduled from the time of their latest row, and
+ * loaded cells whose version has no row any more, e.g. one restored from a snapshot, are set back to their latest
+ * row, or expired right away if none is left. Every
+ * {@code tick-ms} the cells that have come due are removed through {@link MessageServiceImpl#expireCells}, up to
+ * {@code batch-size} cells per transaction and CELLS_BATCH event.
+ * <p>
+ * The engine follows the main board's {@link CanvasStateStore}; other boards do not decay. In a sharded deployment
+ * every node expires the cells of the regions it owns; a region taken over starts its cells' lifetimes afresh.
+ */
+@Component
+@ConditionalOnProperty(prefix = "flux.decay", name = "enabled", havingValue = "true")
+@Slf4j
+public class DecayEngine implements CellChangeListener {
+
+    /**
+     * How long cells whose expiry failed wait for the next attempt.
+     */
+    private static final long RETRY_DELAY_MS = 30_000;
+
+    private final CanvasStateStore canvasStateStore;
+    private final MessageMapper messageMapper;
+    private final MessageServiceImpl messageService;
+    private final FluxProperties fluxProperties;
+    private final FluxMetrics fluxMetrics;
+    private final WorkerThreads workerThreads;
+    private final FluxProperties.Decay config;
+    private final List<Rule> rules = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final TimingWheel wheel;
+    private ScheduledExecutorService ticker;
+
+    /**
+     * A {@link FluxProperties.DecayRule} with its color parsed.
+     */
+    private record Rule(int startRow, int endRow, int startCol, int endCol, Integer color, long lifetimeMs) {
+
+        boolean matches(int rowIndex, int colIndex, int bgColor) {
+            return rowIndex >= startRow && rowIndex <= endRow && colIndex >= startCol && colIndex <= endCol
+                && (color == null || color == bgColor);
+        }
+    }
+
+    public DecayEngine(CanvasStateStore canvasStateStore, MessageMapper messageMapper, MessageServiceImpl messageService,
+                       FluxProperties fluxProperties, FluxMetrics fluxMetrics, WorkerThreads workerThreads) {
+        this.canvasStateStore = canvasStateStore;
+        this.messageMapper = messageMapper;
+        this.messageService = messageService;
+        this.fluxProperties = fluxProperties;
+        this.fluxMetrics = fluxMetrics;
+        this.workerThreads = workerThreads;
+        this.config = fluxProperties.getDecay();
+        for (FluxProperties.DecayRule rule : config.getRules()) {
+            rules.add(new Rule(
+                rule.getStartRow() != null ? rule.getStartRow() : Integer.MIN_VALUE,
+                rule.getEndRow() != null ? rule.getEndRow() : Integer.MAX_VALUE,
+                rule.getStartCol() != null ? rule.getStartCol() : Integer.MIN_VALUE,
+                rule.getEndCol() != null ? rule.getEndCol() : Integer.MAX_VALUE,
+                rule.getColor() != null ? Colors.parse(rule.getColor()) : null,
+                rule.getLifetimeMs()));
+        }
+        this.wheel = new TimingWheel(System.currentTimeMillis() / config.getTickMs());
+    }
+
+    @PostConstruct
+    public void start() {
+        canvasStateStore.addListener(this);
+        fluxMetrics.bindDecayPending(this::pending);
+        ticker = Executors.newSingleThreadScheduledExecutor(workerThreads.factory("flux-decay-"));
+        ticker.scheduleWithFixedDelay(this::tick, config.getTickMs(), config.getTickMs(), TimeUnit.MILLISECONDS);
+        log.info("Entropy decay enabled: cells expire after {} ms by default, {} rules, {} mode",
+            config.getLifetimeMs(), rules.size(), config.getMode());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        ticker.shutdown();
+        ticker.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void cellChanged(int rowIndex, int colIndex) {
+        CellState cell = canvasStateStore.get(rowIndex, colIndex);
+        if (cell != null) {
+            schedule(rowIndex, colIndex, cell, System.currentTimeMillis());
+        }
+    }
+
+    @Override
+    public void storeLoaded() {
+        // Reads the whole history once, on the ticker thread so the warm-up is not held up by it.
+        ticker.execute(() -> {
+            try {
+                scheduleLoadedCells();
+            } catch (RuntimeException e) {
+                log.error("Failed to schedule the expiry of the loaded cells; they expire after their next change only", e);
+            }
+        });
+    }
+
+    /**
+     * Schedules the expiry of every cell in the store from the creation time of its latest row, and reconciles the
+     * cells whose version has no row.
+     */
+    private void scheduleLoadedCells() {
+        long untilId = canvasStateStore.getHighWaterMark();
+        int pageSize = fluxProperties.getReplay().getPageSize();
+        ZoneId zone = ZoneId.systemDefault();
+        long cursor = 0;
+        long[] lastId = new long[1];
+        int[] pageCount = new int[1];
+        int[] scheduled = new int[1];
+        // Keys of the cells whose version was found, sorted afterwards for lookups.
+        long[][] found = {new long[Math.max(16, canvasStateStore.size())]};
+        while (cursor < untilId) {
+            pageCount[0] = 0;
+            messageMapper.streamChangesAfter(BoardRegistry.MAIN, cursor, untilId, null, null, null, null, pageSize,
+                (ResultContext<? extends Message> context) -> {
+                    Message message = context.getResultObject();
+                    CellState cell = canvasStateStore.get(message.getRowIndex(), message.getColIndex());
+                    if (cell != null && cell.id() == message.getId()) {
+                        schedule(message.getRowIndex(), message.getColIndex(), cell,
+                            message.getCreatedAt().atZone(zone).toInstant().toEpochMilli());
+                        if (scheduled[0] == found[0].length) {
+                            found[0] = Arrays.copyOf(found[0], found[0].length * 2);
+                        }
+                        found[0][scheduled[0]++] = CellKey.pack(message.getRowIndex(), message.getColIndex());
+                    }
+                    lastId[0] = message.getId();
+                    pageCount[0]++;
+                });
+            if (pageCount[0] < pageSize) {
+                break;
+            }
+            cursor = lastId[0];
+        }
+        log.info("Scheduled the expiry of {} loaded cells", scheduled[0]);
+
+        long[] foundKeys = Arrays.copyOf(found[0], scheduled[0]);
+        Arrays.sort(foundKeys);
+        List<Message> stale = new ArrayList<>();
+        canvasStateStore.forEach((key, cell) -> {
+            // Versions above the mark were written after the scan started.
+            if (cell.id() <= untilId && Arrays.binarySearch(foundKeys, key) < 0) {
+                Message message = new Message();
+                message.setId(cell.id());
+                message.setRowIndex(CellKey.row(key));
+                message.setColIndex(CellKey.col(key));
+                stale.add(message);
+            }
+        });
+        if (!stale.isEmpty()) {
+            log.warn("{} loaded cells hold a version that no longer exists in MySQL", stale.size());
+            for (int from = 0; from < stale.size(); from += config.getBatchSize()) {
+                reconcile(stale.subList(from, Math.min(stale.size(), from + config.getBatchSize())));
+            }
+        }
+    }
+
+    /**
+     * Sets cells holding a deleted version back to their latest row, and expires those without any row left, so the
+     * store agrees with MySQL again; otherwise these cells would never expire.
+     */
+    private void reconcile(List<Message> stale) {
+        List<CreateMessageDTO> cells = stale.stream()
+            .map(cell -> new CreateMessageDTO(null, null, cell.getRowIndex(), cell.getColIndex(), null))
+            .toList();
+        Map<Long, Message> surviving = new HashMap<>();
+        for (Message message : messageMapper.selectLatestForCells(BoardRegistry.MAIN, cells)) {
+            surviving.put(CellKey.pack(message.getRowIndex(), message.getColIndex()), message);
+        }
+        List<Message> orphans = new ArrayList<>();
+        for (Message cell : stale) {
+            Message latest = surviving.get(CellKey.pack(cell.getRowIndex(), cell.getColIndex()));
+            if (latest == null) {
+                orphans.add(cell);
+            } else if (canvasStateStore.remove(cell.getRowIndex(), cell.getColIndex(), cell.getId())) {
+                // Scheduled again through cellChanged.
+                canvasStateStore.apply(latest);
+            }
+        }
+        if (!orphans.isEmpty()) {
+            expire(orphans, System.currentTimeMillis() / config.getTickMs());
+        }
+    }
+
+    private void schedule(int rowIndex, int colIndex, CellState cell, long changedAtMillis) {
+        long lifetimeMs = lifetimeOf(rowIndex, colIndex, cell.bgColor());
+        if (lifetimeMs <= 0) {
+            return;
+        }
+        long deadline = Math.floorDiv(changedAtMillis + lifetimeMs + config.getTickMs() - 1, config.getTickMs());
+        lock.lock();
+        try {
+            wheel.schedule(CellKey.pack(rowIndex, colIndex), cell.id(), deadline);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long lifetimeOf(int rowIndex, int colIndex, int bgColor) {
+        for (Rule rule : rules) {
+            if (rule.matches(rowIndex, colIndex, bgColor)) {
+                return rule.lifetimeMs();
+            }
+        }
+        return config.getLifetimeMs();
+    }
+
+    /**
+     * Expires the cells that have come due and have not changed since their expiry was scheduled.
+     */
+    private void tick() {
+        long now = System.currentTimeMillis() / config.getTickMs();
+        // By cell, since the same version may have been scheduled twice around the initial load.
+        Map<Long, Message> due = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            wheel.advance(now, (key, id, deadline) -> {
+                CellState cell = canvasStateStore.get(CellKey.row(key), CellKey.col(key));
+                if (cell != null && cell.id() == id) {
+                    Message message = new Message();
+                    message.setId(id);
+                    message.setRowIndex(CellKey.row(key));
+                    message.setColIndex(CellKey.col(key));
+                    due.put(key, message);
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+        List<Message> batch = new ArrayList<>(Math.min(due.size(), config.getBatchSize()));
+        for (Message message : due.values()) {
+            batch.add(message);
+            if (batch.size() == config.getBatchSize()) {
+                expire(batch, now);
+                batch = new ArrayList<>(config.getBatchSize());
+            }
+        }
+        if (!batch.isEmpty()) {
+            expire(batch, now);
+        }
+    }
+
+    private void expire(List<Message> batch, long now) {
+        try {
+            messageService.expireCells(BoardRegistry.MAIN, batch);
+            fluxMetrics.decayExpired(batch.size());
+        } catch (RuntimeException e) {
+            log.warn("Failed to expire {} cells, retrying in {} ms: {}", batch.size(), RETRY_DELAY_MS, e.getMessage());
+            long retry = now + Math.max(1, RETRY_DELAY_MS / config.getTickMs());
+            lock.lock();
+            try {
+                for (Message message : batch) {
+                    wheel.schedule(CellKey.pack(message.getRowIndex(), message.getColIndex()), message.getId(), retry);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private int pending() {
+        lock.lock();
+        try {
+            return wheel.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.flux.entropia.decay;
+
+/**
+ * Hierarchical timing wheel holding the pending expiry of each cell: {@value #LEVELS} wheels of {@value #SLOTS}
+ * slots, the first one tick per slot, each further one {@value #SLOTS} times coarser, which covers 2^36 ticks.
+ * <p>
+ * Scheduling appends the entry to the slot of its deadline at the finest level that still distinguishes it from the
+ * current tick, so it costs the same for millions of pending entries. When the current tick enters the range of a
+ * coarser slot, its entries are cascaded into finer slots; every entry is moved at most once per level. Entries are
+ * kept as three longs in growable arrays rather than as objects. Cancelling is left to the caller, which drops stale
+ * entries when they come due.
+ * <p>
+ * Not thread-safe.
+ */
+final class TimingWheel {
+
+    static final int LEVELS = 6;
+    static final int SLOTS = 64;
+    private static final int BITS = 6;
+    private static final long MAX_SPAN = (1L << (LEVELS * BITS)) - 1;
+
+    /**
+     * Receives the entries that have come due.
+     */
+    @FunctionalInterface
+    interface DueHandler {
+        void due(long key, long id, long deadline);
+    }
+
+    private final Slot[][] wheels = new Slot[LEVELS][SLOTS];
+    // Entries scheduled at or before the current tick, handed out by the next advance.
+    // Also those due beyond the range of the wheels while the current tick is its last one.
+    private final Slot overdue = new Slot();
+    private long currentTick;
+    private int size;
+
+    TimingWheel(long startTick) {
+        this.currentTick = startTick;
+        for (Slot[] wheel : wheels) {
+            for (int i = 0; i < SLOTS; i++) {
+                wheel[i] = new Slot();
+            }
+        }
+    }
+
+    /**
+     * @param key      identifies the entry to the handler, e.g. a packed cell key.
+     * @param id       further data handed back with it, e.g. the version the deadline applies to.
+     * @param deadline the tick at which the entry comes due.
+     */
+    void schedule(long key, long id, long deadline) {
+        place(key, id, deadline);
+        size++;
+    }
+
+    private void place(long key, long id, long deadline) {
+        // Beyond the range of the wheels, the entry is parked at its last tick and placed again from there.
+        long slotTick = Math.min(deadline, currentTick | MAX_SPAN);
+        if (slotTick <= currentTick) {
+            overdue.add(key, id, deadline);
+            return;
+        }
+        long diff = slotTick ^ currentTick;
+        int level = (63 - Long.numberOfLeadingZeros(diff)) / BITS;
+        wheels[level][(int) (slotTick >>> (level * BITS)) & (SLOTS - 1)].add(key, id, deadline);
+    }
+
+    /**
+     * Moves the wheels forward tick by tick, handing every entry due by the given tick to the handler, in deadline
+     * order except for entries scheduled in the past.
+     */
+    void advance(long toTick, DueHandler handler) {
+        drain(overdue, handler);
+        while (currentTick < toTick) {
+            long tick = ++currentTick;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((tick & ((1L << (level * BITS)) - 1)) == 0) {
+                    Slot slot = wheels[level][(int) (tick >>> (level * BITS)) & (SLOTS - 1)];
+                    long[] entries = slot.entries;
+                    int length = slot.length;
+                    slot.clear();
+                    for (int i = 0; i < length; i += 3) {
+                        place(entries[i], entries[i + 1], entries[i + 2]);
+                    }
+                }
+            }
+            // Cascading puts the entries due right now among the overdue ones.
+            drain(overdue, handler);
+            drain(wheels[0][(int) tick & (SLOTS - 1)], handler);
+        }
+    }
+
+    private void drain(Slot slot, DueHandler handler) {
+        long[] entries = slot.entries;
+        int length = slot.length;
+        slot.clear();
+        for (int i = 0; i < length; i += 3) {
+            if (entries[i + 2] > currentTick) {
+                place(entries[i], entries[i + 1], entries[i + 2]);
+            } else {
+                size--;
+                handler.due(entries[i], entries[i + 1], entries[i + 2]);
+            }
+        }
+    }
+
+    long currentTick() {
+        return currentTick;
+    }
+
+    /**
+     * @return the number of pending entries, including stale ones.
+     */
+    int size() {
+        return size;
+    }
+
+    private static final class Slot {
+
+        private static final long[] EMPTY = new long[0];
+
+        private long[] entries = EMPTY;
+        private int length;
+
+        void add(long key, long id, long deadline) {
+            if (length + 3 > entries.length) {
+                long[] grown = new long[Math.max(12, entries.length * 2)];
+                System.arraycopy(entries, 0, grown, 0, length);
+                entries = grown;
+            }
+            entries[length++] = key;
+            entries[length++] = id;
+            entries[length++] = deadline;
+        }
+
+        /**
+         * Empties the slot; the entries array is given up, so a slot that once held many entries does not keep
+         * holding the memory.
+         */
+        void clear() {
+            entries = EMPTY;
+            length = 0;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.flux.entropia.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO describing a board, an independent canvas.
+ */
+public record BoardDTO(
+    String id,
+    String name,
+    LocalDateTime createdAt
+) {
+}
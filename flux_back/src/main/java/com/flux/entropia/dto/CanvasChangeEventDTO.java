@@ -0,0 +1,18 @@
+package com.flux.entropia.dto;
+
+import com.flux.entropia.common.HexColor;
+import java.time.LocalDateTime;
+
+/**
+ * DTO for a single change event in the canvas history.
+ * Used by the replay endpoint to stream how the canvas evolved over time.
+ */
+public record CanvasChangeEventDTO(
+    Long id,
+    Integer rowIndex,
+    Integer colIndex,
+    String content,
+    @HexColor Integer bgColor,
+    LocalDateTime createdAt
+) {
+}
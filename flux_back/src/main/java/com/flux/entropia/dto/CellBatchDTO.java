@@ -0,0 +1,13 @@
+package com.flux.entropia.dto;
+
+import java.util.List;
+
+/**
+ * DTO for the CELLS_BATCH WebSocket event, which carries the cells changed by one request in a single frame.
+ * Equivalent to a CELL_UPDATED event per updated cell followed by a CELL_DELETED event per deleted cell.
+ */
+public record CellBatchDTO(
+    List<MessageNodeDTO> updated,
+    List<MessageNodeDTO> deleted
+) {
+}
@@ -0,0 +1,16 @@
+package com.flux.entropia.dto;
+
+/**
+ * DTO for the reply to a CELL_WRITE WebSocket command (ACK, CONFLICT, RATE_LIMITED or ERROR).
+ */
+public record CellWriteReplyDTO(
+    // The client's correlation id, echoed back unchanged.
+    String correlationId,
+    // ACK only: the new state of the cell, or null if the write was a no-op.
+    MessageNodeDTO cell,
+    // CONFLICT, RATE_LIMITED and ERROR: the message shown to the user.
+    String reason,
+    // RATE_LIMITED only: seconds until the write would be accepted.
+    Long retryAfterSeconds
+) {
+}
@@ -0,0 +1,11 @@
+package com.flux.entropia.dto;
+
+/**
+ * DTO for a position in the change log, sent as CHANGELOG_POSITION on connect and with FULL_RESYNC.
+ * Clients keep the last one they are up to date with and send it back in a RESUME command after reconnecting.
+ */
+public record ChangeLogPositionDTO(
+    long epoch,
+    long seq
+) {
+}
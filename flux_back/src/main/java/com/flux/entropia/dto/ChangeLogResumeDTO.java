@@ -0,0 +1,16 @@
+package com.flux.entropia.dto;
+
+import com.flux.entropia.websocket.WebSocketMessage;
+
+import java.util.List;
+
+/**
+ * DTO for the RESUMED WebSocket event, which carries the cell changes a reconnecting client missed.
+ * Applying the events in order brings the client up to date with {@code seq}; live events up to it can be dropped.
+ */
+public record ChangeLogResumeDTO(
+    long epoch,
+    long seq,
+    List<WebSocketMessage<?>> events
+) {
+}
@@ -0,0 +1,22 @@
+package com.flux.entropia.dto;
+
+import com.flux.entropia.common.HexColor;
+
+/**
+ * DTO summarizing the painted cells of one 9x9 chunk, returned instead of the cells themselves at low zoom.
+ *
+ * @param gridY         The chunk row, i.e. the row index of its cells divided by 9 (rounding down).
+ * @param gridX         The chunk column.
+ * @param count         The number of painted cells.
+ * @param dominantColor The most frequent background color, or null if no cell has one.
+ * @param occupancy     A base64 bitmap of the painted cells: cell (r, c) within the chunk is bit r * 9 + c,
+ *                      least significant bit of the first byte first.
+ */
+public record ChunkSummaryDTO(
+    int gridY,
+    int gridX,
+    int count,
+    @HexColor Integer dominantColor,
+    String occupancy
+) {
+}
@@ -0,0 +1,21 @@
+package com.flux.entropia.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+/**
+ * DTO for receiving a request to create a new board.
+ */
+public record CreateBoardDTO(
+    // Used in URLs as ?board=<id>.
+    @NotNull(message = "Board id cannot be null")
+    @Pattern(regexp = "[a-z0-9][a-z0-9-]{0,31}", message = "Board id must be 1-32 lowercase letters, digits or dashes")
+    String id,
+
+    @NotBlank(message = "Board name cannot be blank")
+    @Size(max = 100, message = "Board name must not exceed 100 characters")
+    String name
+) {
+}
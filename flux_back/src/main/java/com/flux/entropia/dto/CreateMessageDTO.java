@@ -1,5 +1,6 @@
 package com.flux.entropia.dto;
 
+import com.flux.entropia.common.HexColor;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
@@ -21,6 +22,8 @@ public record CreateMessageDTO(
     @NotNull(message = "Column index cannot be null")
     Integer colIndex,
 
-    String bgColor
+    // "#RRGGBB" in JSON, parsed into a packed color as the request is read.
+    @HexColor
+    Integer bgColor
 ) {
 }
\ No newline at end of file
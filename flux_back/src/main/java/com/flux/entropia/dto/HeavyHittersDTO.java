@@ -0,0 +1,25 @@
+package com.flux.entropia.dto;
+
+import java.util.List;
+
+/**
+ * DTO listing the hottest cells, chunks and client IPs of one event source over the sliding window.
+ */
+public record HeavyHittersDTO(
+    String source,
+    int windowSeconds,
+    long totalEvents,
+    List<HeavyHitterDTO> cells,
+    List<HeavyHitterDTO> chunks,
+    List<HeavyHitterDTO> ips
+) {
+    /**
+     * One heavy hitter. Counts are approximate: the true count lies between guaranteed and estimate.
+     */
+    public record HeavyHitterDTO(
+        String key,
+        long estimate,
+        long guaranteed
+    ) {
+    }
+}
@@ -1,5 +1,6 @@
 package com.flux.entropia.dto;
 
+import com.flux.entropia.common.HexColor;
 /**
  * DTO for returning the data of a message cell.
  * Used for displaying cells in the grid.
@@ -10,6 +11,6 @@ public record MessageNodeDTO(
     Integer rowIndex,
     Integer colIndex,
     String content,
-    String bgColor
+    @HexColor Integer bgColor
 ) {
 }
@@ -0,0 +1,17 @@
+package com.flux.entropia.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * DTO for receiving a paint stroke: many cell edits applied in one request.
+ * Each edit has the same semantics as a single {@link CreateMessageDTO}, including its base version.
+ */
+public record PaintStrokeDTO(
+    @NotEmpty(message = "A stroke must contain at least one cell")
+    List<@NotNull @Valid CreateMessageDTO> cells
+) {
+}
@@ -0,0 +1,29 @@
+package com.flux.entropia.dto;
+
+import java.util.List;
+
+/**
+ * DTO for returning the outcome of a paint stroke.
+ * Cells are applied independently: a conflict on one cell does not reject the others.
+ */
+public record PaintStrokeResultDTO(
+    // The new state of every written cell.
+    List<MessageNodeDTO> updated,
+    // Cells that were cleared; content and bgColor are null.
+    List<MessageNodeDTO> deleted,
+    // Cells whose base version no longer matched; the client should refetch them.
+    List<CellConflictDTO> conflicts
+) {
+    /**
+     * A cell edit rejected by the optimistic version check.
+     */
+    public record CellConflictDTO(
+        Integer rowIndex,
+        Integer colIndex,
+        Long baseVersionId,
+        // The cell's latest version, or null if it is empty.
+        Long currentVersionId,
+        String reason
+    ) {
+    }
+}
@@ -0,0 +1,31 @@
+package com.flux.entropia.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO describing which part of the canvas history should be replayed.
+ * All region bounds are optional; when any of them is null the whole canvas is replayed.
+ */
+public record ReplayRequestDTO(
+    // Replay starts with the first change made at or after this time. Can be null.
+    LocalDateTime from,
+
+    // Replay starts strictly after this message id (keyset cursor). Can be null.
+    Long afterId,
+
+    Integer startRow,
+    Integer endRow,
+    Integer startCol,
+    Integer endCol,
+
+    // When greater than zero, changes are coalesced into one frame per this many seconds.
+    int frameSeconds
+) {
+
+    /**
+     * @return true if all four region bounds are present.
+     */
+    public boolean hasRegion() {
+        return startRow != null && endRow != null && startCol != null && endCol != null;
+    }
+}
@@ -0,0 +1,15 @@
+package com.flux.entropia.dto;
+
+import java.util.List;
+
+/**
+ * DTO for the result of a content search.
+ *
+ * @param total The number of matching cells, of which at most the requested limit are returned.
+ * @param cells The latest state of the matching cells, most recently edited first.
+ */
+public record SearchResultDTO(
+    int total,
+    List<MessageNodeDTO> cells
+) {
+}
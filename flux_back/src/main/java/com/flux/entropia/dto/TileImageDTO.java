@@ -0,0 +1,13 @@
+package com.flux.entropia.dto;
+
+/**
+ * An encoded overview tile.
+ *
+ * @param png  The PNG image.
+ * @param etag A strong entity tag derived from the image bytes (unquoted).
+ */
+public record TileImageDTO(
+    byte[] png,
+    String etag
+) {
+}
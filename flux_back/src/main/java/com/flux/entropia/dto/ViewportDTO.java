@@ -0,0 +1,25 @@
+package com.flux.entropia.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * DTO for the zoom-dependent contents of a viewport: the cells themselves when zoomed in, or per-chunk summaries
+ * when zoomed out too far to show text. Only the list matching the detail level is present.
+ *
+ * @param detail    "cells" or "summary".
+ * @param chunkSize The edge length of a summarized chunk, in cells.
+ * @param cells     The latest state of each painted cell, in "cells" detail.
+ * @param chunks    The summaries of the chunks with painted cells, in "summary" detail.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ViewportDTO(
+    String detail,
+    int chunkSize,
+    List<MessageNodeDTO> cells,
+    List<ChunkSummaryDTO> chunks
+) {
+    public static final String DETAIL_CELLS = "cells";
+    public static final String DETAIL_SUMMARY = "summary";
+}
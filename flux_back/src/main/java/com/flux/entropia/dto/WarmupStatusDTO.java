@@ -0,0 +1,17 @@
+package com.flux.entropia.dto;
+
+/**
+ * DTO describing the progress of the startup warm-up of the in-memory canvas state.
+ */
+public record WarmupStatusDTO(
+    String phase,
+    int snapshotCells,
+    long idRange,
+    long rowsLoaded,
+    int partitionsDone,
+    int partitionsTotal,
+    int workers,
+    int cellsInMemory,
+    long elapsedMillis
+) {
+}
@@ -0,0 +1,35 @@
+package com.flux.entropia.entity;
+
+import com.baomidou.mybatisplus.annotation.FieldStrategy;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents the `boards` table: an independent canvas with its own cells.
+ */
+@Data
+@TableName("boards")
+public class Board {
+
+    /**
+     * The board's id as used in URLs, e.g. "main".
+     */
+    @TableId(type = IdType.INPUT)
+    private String id;
+
+    /**
+     * The display name of the board.
+     */
+    private String name;
+
+    /**
+     * The timestamp when the board was created.
+     */
+    @TableField(value = "created_at", insertStrategy = FieldStrategy.NEVER)
+    private LocalDateTime createdAt;
+}
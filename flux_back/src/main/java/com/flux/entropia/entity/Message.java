@@ -21,16 +21,22 @@ public class Message {
     @TableId(type = IdType.AUTO)
     private Long id;
 
+    /**
+     * The board the cell belongs to, see {@link com.flux.entropia.board.BoardRegistry}.
+     */
+    @TableField("board_id")
+    private String boardId;
+
     /**
      * The text content of the message cell.
      */
     private String content;
 
     /**
-     * The background color of the cell.
+     * The background color of the cell, packed as 0xRRGGBB (see {@link com.flux.entropia.common.Colors}).
      */
     @TableField("bg_color")
-    private String bgColor;
+    private Integer bgColor;
 
     /**
      * The row index of the cell in the grid.
@@ -50,6 +56,18 @@ public class Message {
     @TableField("ip_address")
     private String ipAddress;
 
+    /**
+     * The {@link com.flux.entropia.common.HybridLogicalClock} timestamp of the write that set the content.
+     */
+    @TableField("content_hlc")
+    private Long contentHlc;
+
+    /**
+     * The {@link com.flux.entropia.common.HybridLogicalClock} timestamp of the write that set the background color.
+     */
+    @TableField("color_hlc")
+    private Long colorHlc;
+
     /**
      * The timestamp when the message was created.
      */
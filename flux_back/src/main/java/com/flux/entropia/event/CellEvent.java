@@ -0,0 +1,64 @@
+package com.flux.entropia.event;
+
+import com.flux.entropia.dto.CellBatchDTO;
+import com.flux.entropia.dto.MessageNodeDTO;
+import com.flux.entropia.websocket.ChangeLog;
+
+/**
+ * A committed cell change, as passed to the {@link CellEventHandler}s of the {@link CellEventBus}.
+ * <p>
+ * Instances are the preallocated slots of the bus's ring and are reused once every handler has seen them, so
+ * handlers must not keep a reference to the event itself beyond {@link CellEventHandler#onEvent}; the payloads
+ * are immutable and may be kept.
+ */
+public final class CellEvent {
+
+    private String type;
+    private String board;
+    private MessageNodeDTO cell;
+    private CellBatchDTO batch;
+    private boolean remote;
+
+    void set(String type, String board, MessageNodeDTO cell, CellBatchDTO batch, boolean remote) {
+        this.type = type;
+        this.board = board;
+        this.cell = cell;
+        this.batch = batch;
+        this.remote = remote;
+    }
+
+    /**
+     * @return {@link ChangeLog#CELL_UPDATED}, {@link ChangeLog#CELL_DELETED} or {@link ChangeLog#CELLS_BATCH}.
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * @return the board of the changed cells.
+     */
+    public String getBoard() {
+        return board;
+    }
+
+    /**
+     * @return the changed cell of a CELL_UPDATED or CELL_DELETED event; a deleted cell carries the deleted version's id.
+     */
+    public MessageNodeDTO getCell() {
+        return cell;
+    }
+
+    /**
+     * @return the changed cells of a CELLS_BATCH event.
+     */
+    public CellBatchDTO getBatch() {
+        return batch;
+    }
+
+    /**
+     * @return whether the change was written by another node of a sharded deployment and relayed to this one.
+     */
+    public boolean isRemote() {
+        return remote;
+    }
+}
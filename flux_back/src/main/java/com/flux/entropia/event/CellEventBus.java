@@ -0,0 +1,238 @@
+package com.flux.entropia.event;
+
+import com.flux.entropia.config.FluxProperties;
+import com.flux.entropia.config.WorkerThreads;
+import com.flux.entropia.dto.CellBatchDTO;
+import com.flux.entropia.dto.MessageNodeDTO;
+import com.flux.entropia.metrics.FluxMetrics;
+import com.flux.entropia.websocket.ChangeLog;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands committed cell changes from the write path to the side effects that follow them - WebSocket fan-out,
+ * statistics, the cluster relay - so a write returns once it has committed and updated the in-memory state.
+ * <p>
+ * Events are written into a ring of preallocated slots. A writer claims the next sequence number with a single
+ * atomic increment, fills the slot and marks it published; there is no lock and no allocation beyond the payload.
+ * Every subscribed {@link CellEventHandler} runs on its own thread and reads the ring at its own pace, taking all
+ * events published since its last pass as one batch, so a slow consumer neither delays the writes nor the other
+ * consumers. Only when the slowest consumer is a whole ring behind do writers wait for it to free a slot; that is
+ * counted, and the ring should then be enlarged.
+ * <p>
+ * Events are delivered to every consumer in sequence order, which for a single cell is its commit order.
+ */
+@Component
+@Slf4j
+public class CellEventBus {
+
+    private static final int SPINS_BEFORE_PARK = 64;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final FluxMetrics fluxMetrics;
+    private final WorkerThreads workerThreads;
+    private final int maxBatch;
+    private final int mask;
+    private final CellEvent[] slots;
+    /**
+     * The sequence number last published into each slot; a consumer may read a slot once it holds the number it expects.
+     */
+    private final AtomicLongArray published;
+    /**
+     * The highest sequence number claimed by a writer.
+     */
+    private final AtomicLong cursor = new AtomicLong(-1);
+    /**
+     * The lowest sequence number processed by all consumers, as last seen by a writer; saves re-reading every
+     * consumer's position on each write.
+     */
+    private final AtomicLong gatingCache = new AtomicLong(-1);
+    private final List<Consumer> consumers = new CopyOnWriteArrayList<>();
+    private volatile boolean running = true;
+
+    public CellEventBus(FluxProperties fluxProperties, FluxMetrics fluxMetrics, WorkerThreads workerThreads) {
+        FluxProperties.EventBus config = fluxProperties.getEventBus();
+        int capacity = Integer.highestOneBit(Math.max(2, config.getCapacity() - 1)) << 1;
+        this.fluxMetrics = fluxMetrics;
+        this.workerThreads = workerThreads;
+        this.maxBatch = Math.max(1, config.getMaxBatch());
+        this.mask = capacity - 1;
+        this.slots = new CellEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new CellEvent();
+        }
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * Starts a consumer thread calling the given handler with every event published from now on.
+     *
+     * @param name names the thread and the consumer's meters, e.g. "broadcast".
+     */
+    public void subscribe(String name, CellEventHandler handler) {
+        Consumer consumer = new Consumer(name, handler, cursor.get());
+        consumers.add(consumer);
+        fluxMetrics.bindEventConsumer(name, () -> cursor.get() - consumer.sequence.get());
+        consumer.thread.start();
+        log.info("Event bus consumer '{}' subscribed", name);
+    }
+
+    public void publishUpdated(String board, MessageNodeDTO cell) {
+        publish(ChangeLog.CELL_UPDATED, board, cell, null, false);
+    }
+
+    public void publishDeleted(String board, MessageNodeDTO cell) {
+        publish(ChangeLog.CELL_DELETED, board, cell, null, false);
+    }
+
+    public void publishBatch(String board, CellBatchDTO batch) {
+        publish(ChangeLog.CELLS_BATCH, board, null, batch, false);
+    }
+
+    /**
+     * Publishes a change written by another node of a sharded deployment.
+     *
+     * @param type  {@link ChangeLog#CELL_UPDATED}, {@link ChangeLog#CELL_DELETED} or {@link ChangeLog#CELLS_BATCH}.
+     * @param board the board of the changed cells.
+     * @param cell  the cell of an update or deletion.
+     * @param batch the cells of a batch.
+     */
+    public void publishRemote(String type, String board, MessageNodeDTO cell, CellBatchDTO batch) {
+        publish(type, board, cell, batch, true);
+    }
+
+    private void publish(String type, String board, MessageNodeDTO cell, CellBatchDTO batch, boolean remote) {
+        if (!running) {
+            log.debug("Dropping a {} event published during shutdown", type);
+            return;
+        }
+        long sequence = cursor.incrementAndGet();
+        awaitSlot(sequence);
+        int index = (int) sequence & mask;
+        slots[index].set(type, board, cell, batch, remote);
+        // The volatile write makes the slot's contents visible to consumers reading the sequence number.
+        published.set(index, sequence);
+        for (Consumer consumer : consumers) {
+            if (consumer.sleeping) {
+                LockSupport.unpark(consumer.thread);
+            }
+        }
+    }
+
+    /**
+     * Waits until every consumer has processed the event that previously occupied the slot of the given sequence.
+     */
+    private void awaitSlot(long sequence) {
+        long wrapPoint = sequence - slots.length;
+        if (wrapPoint <= gatingCache.get()) {
+            return;
+        }
+        boolean waited = false;
+        long minimum;
+        while (wrapPoint > (minimum = minimumSequence(sequence - 1))) {
+            if (!waited) {
+                waited = true;
+                fluxMetrics.eventBusFull();
+            }
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+        gatingCache.set(minimum);
+    }
+
+    private long minimumSequence(long ceiling) {
+        long minimum = ceiling;
+        for (Consumer consumer : consumers) {
+            minimum = Math.min(minimum, consumer.sequence.get());
+        }
+        return minimum;
+    }
+
+    /**
+     * Stops accepting events and lets every consumer finish the events already published.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Consumer consumer : consumers) {
+            LockSupport.unpark(consumer.thread);
+        }
+        for (Consumer consumer : consumers) {
+            consumer.thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private final class Consumer implements Runnable {
+
+        private final String name;
+        private final CellEventHandler handler;
+        /**
+         * The highest sequence number this consumer has processed; the slots up to it may be reused.
+         */
+        private final AtomicLong sequence;
+        private final Thread thread;
+        private volatile boolean sleeping;
+
+        private Consumer(String name, CellEventHandler handler, long sequence) {
+            this.name = name;
+            this.handler = handler;
+            this.sequence = new AtomicLong(sequence);
+            this.thread = workerThreads.factory("flux-events-" + name + "-").newThread(this);
+        }
+
+        @Override
+        public void run() {
+            int idle = 0;
+            while (true) {
+                long next = sequence.get() + 1;
+                long last = next - 1;
+                // A writer may still be filling a lower slot than another; stop at the first gap.
+                while (last - next + 1 < maxBatch && isPublished(last + 1)) {
+                    last++;
+                }
+                if (last >= next) {
+                    for (long s = next; s <= last; s++) {
+                        handle(slots[(int) s & mask], s == last);
+                    }
+                    sequence.set(last);
+                    idle = 0;
+                } else if (!running && next > cursor.get()) {
+                    return;
+                } else if (idle++ < SPINS_BEFORE_PARK) {
+                    Thread.onSpinWait();
+                } else {
+                    sleeping = true;
+                    // Re-check after announcing the sleep, so a writer that missed the flag has published already.
+                    if (running && !isPublished(next)) {
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    }
+                    sleeping = false;
+                }
+            }
+        }
+
+        private boolean isPublished(long s) {
+            return published.get((int) s & mask) == s;
+        }
+
+        private void handle(CellEvent event, boolean endOfBatch) {
+            try {
+                handler.onEvent(event, endOfBatch);
+            } catch (RuntimeException e) {
+                fluxMetrics.eventHandlerFailed(name);
+                log.error("Event bus consumer '{}' failed on a {} event: {}", name, event.getType(), e.getMessage(), e);
+            }
+        }
+    }
+}
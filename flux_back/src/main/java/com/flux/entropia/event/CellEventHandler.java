@@ -0,0 +1,18 @@
+package com.flux.entropia.event;
+
+/**
+ * A consumer of the {@link CellEventBus}, called on its own thread with every event in order.
+ */
+@FunctionalInterface
+public interface CellEventHandler {
+
+    /**
+     * Handles one event. An exception is logged and counted, and the handler carries on with the next event.
+     *
+     * @param event      the event; only valid during this call.
+     * @param endOfBatch whether no further event is available right now. Handlers that can combine work, such as
+     *                   recounting statistics, do it once at the end of a batch: the more the handler falls behind,
+     *                   the larger its batches get.
+     */
+    void onEvent(CellEvent event, boolean endOfBatch);
+}
@@ -2,8 +2,11 @@ package com.flux.entropia.exception;
 
 import com.flux.entropia.common.ApiResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
@@ -30,13 +33,36 @@ public class GlobalExceptionHandler {
     /**
      * Handles exceptions thrown for RESTful services, like rate limiting.
      * @param ex The exception containing the HTTP status and reason.
-     * @return A ResponseEntity with the specific status and error message.
+     * @return A ResponseEntity with the specific status, headers (e.g. Retry-After) and error message.
      */
     @ExceptionHandler(org.springframework.web.server.ResponseStatusException.class)
     public ResponseEntity<ApiResponse<Object>> handleResponseStatusException(org.springframework.web.server.ResponseStatusException ex) {
         log.warn("ResponseStatusException caught: Status={}, Reason={}", ex.getStatusCode(), ex.getReason());
         ApiResponse<Object> errorResponse = ApiResponse.error(ex.getReason());
-        return new ResponseEntity<>(errorResponse, ex.getStatusCode());
+        return new ResponseEntity<>(errorResponse, ex.getHeaders(), ex.getStatusCode());
+    }
+
+    /**
+     * Handles lock waits the database gave up on, e.g. two merge-mode strokes locking the same cells in turn.
+     * The transaction has been rolled back, so the client can simply retry.
+     */
+    @ExceptionHandler(PessimisticLockingFailureException.class)
+    public ResponseEntity<ApiResponse<Object>> handlePessimisticLockingFailureException(PessimisticLockingFailureException ex) {
+        log.warn("Lock wait failed: {}", ex.getMessage());
+        ApiResponse<Object> errorResponse = ApiResponse.error("The cell is busy. Please retry in a moment.");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(errorResponse);
+    }
+
+    /**
+     * Handles request bodies that cannot be read, e.g. malformed JSON or a color that is not #RRGGBB.
+     * @param ex The exception thrown while reading the body.
+     * @return A 400 ResponseEntity with an error message.
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ApiResponse<Object>> handleHttpMessageNotReadableException(HttpMessageNotReadableException ex) {
+        log.warn("Unreadable request body: {}", ex.getMessage());
+        ApiResponse<Object> errorResponse = ApiResponse.error("Malformed request body.");
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
     // You can add more specific exception handlers here, for example:
@@ -0,0 +1,12 @@
+package com.flux.entropia.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.flux.entropia.entity.Board;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * Mapper interface for the Board entity; BaseMapper covers everything boards need.
+ */
+@Mapper
+public interface BoardMapper extends BaseMapper<Board> {
+}
@@ -1,5 +1,6 @@
 package com.flux.entropia.mapper;
 
+import com.flux.entropia.datasource.ReadOnlyRoute;
 import com.flux.entropia.dto.HeatmapChunkDTO;
 import com.flux.entropia.service.impl.HeatmapServiceImpl;
 import org.apache.ibatis.annotations.Mapper;
@@ -18,10 +19,13 @@ public interface HeatmapMapper {
      * Get heatmap data for specified chunks using optimized SQL query.
      * Implements the "on-demand chunk loading" architecture from the design specification.
      *
+     * @param board The board to read
      * @param chunkCoordinates List of chunk coordinates to query
      * @return List of heatmap data points with heat values
      */
+    @ReadOnlyRoute
     List<HeatmapChunkDTO.HeatmapDataDTO> getHeatmapChunks(
+            @Param("board") String board,
             @Param("chunkCoordinates") List<HeatmapServiceImpl.ChunkCoordinate> chunkCoordinates
     );
 }
\ No newline at end of file
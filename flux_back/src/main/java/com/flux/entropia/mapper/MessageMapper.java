@@ -1,10 +1,16 @@
 package com.flux.entropia.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.flux.entropia.datasource.ReadOnlyRoute;
 import com.flux.entropia.dto.CanvasInitialPositionDTO;
+import com.flux.entropia.dto.CreateMessageDTO;
 import com.flux.entropia.entity.Message;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Mapper interface for the Message entity.
@@ -24,37 +30,180 @@ public interface MessageMapper extends BaseMapper<Message> {
     /**
      * Selects the single latest version of a message for a given cell coordinate.
      *
+     * @param board The board of the cell.
      * @param rowIndex The row index of the cell.
      * @param colIndex The column index of the cell.
      * @return The latest Message entity, or null if none exists.
      */
-    Message selectLatestForCell(@Param("rowIndex") int rowIndex, @Param("colIndex") int colIndex);
+    Message selectLatestForCell(@Param("board") String board, @Param("rowIndex") int rowIndex, @Param("colIndex") int colIndex);
+
+    /**
+     * Selects the latest version of each of the given cells in one query.
+     *
+     * @param board The board of the cells.
+     * @param cells The cells to look up; only their row and column indexes are used.
+     * @return The latest Message entity of each non-empty cell, in no particular order.
+     */
+    List<Message> selectLatestForCells(@Param("board") String board, @Param("cells") List<CreateMessageDTO> cells);
+
+    /**
+     * Same as {@link #selectLatestForCell}, but locks the cell until the transaction completes: other locking reads
+     * and inserts of the cell wait, even if it has no version yet.
+     */
+    Message selectLatestForCellForUpdate(@Param("board") String board, @Param("rowIndex") int rowIndex, @Param("colIndex") int colIndex);
+
+    /**
+     * Same as {@link #selectLatestForCells}, but locks the cells until the transaction completes.
+     */
+    List<Message> selectLatestForCellsForUpdate(@Param("board") String board, @Param("cells") List<CreateMessageDTO> cells);
+
+    /**
+     * Inserts all given messages with one multi-row INSERT and sets their generated ids.
+     *
+     * @param messages The messages to insert, each with its board set; must not be empty.
+     * @return The number of inserted rows.
+     */
+    int insertBatch(@Param("messages") List<Message> messages);
+
+    /**
+     * Copies the history rows of expired cells to messages_expired, stamped with the current time.
+     *
+     * @param board The board of the cells.
+     * @param cells Each expired cell with the id of its version that expired; later versions are left out.
+     * @return The number of copied rows.
+     */
+    int archiveExpired(@Param("board") String board, @Param("cells") List<Message> cells);
+
+    /**
+     * Deletes the history rows of expired cells.
+     *
+     * @param board The board of the cells.
+     * @param cells Each expired cell with the id of its version that expired; later versions are kept.
+     * @return The number of deleted rows.
+     */
+    int deleteExpired(@Param("board") String board, @Param("cells") List<Message> cells);
+
+    /**
+     * Logs deleted cell versions, so a restart from a snapshot that still holds them can find them.
+     *
+     * @param board The board of the cells.
+     * @param cells Each cell with the id of its deleted version; must not be empty.
+     * @return The number of logged deletions.
+     */
+    int insertDeletions(@Param("board") String board, @Param("cells") List<Message> cells);
+
+    /**
+     * Selects the highest id of the deletion log.
+     *
+     * @return The maximum id, or null if the log is empty.
+     */
+    Long selectMaxDeletionId();
+
+    /**
+     * Streams the cells of a board with a deletion logged after the given log id to the given handler.
+     *
+     * @param board   The board to read.
+     * @param afterId Only deletions with a log id strictly greater than this are considered.
+     * @param handler The handler receiving each cell with the id of its newest deleted version.
+     */
+    void streamDeletedCellsAfter(@Param("board") String board, @Param("afterId") long afterId, ResultHandler<Message> handler);
+
+    /**
+     * Deletes the deletion log entries older than the given time.
+     *
+     * @param before The upper time bound (exclusive).
+     * @return The number of purged entries.
+     */
+    int purgeDeletionsBefore(@Param("before") LocalDateTime before);
+
+    /**
+     * Selects the latest version of every cell within a given grid range.
+     *
+     * @param board The board to read.
+     * @param startRow The starting row index.
+     * @param endRow The ending row index.
+     * @param startCol The starting column index.
+     * @param endCol The ending column index.
+     * @return The latest Message entity of each cell in the range, ordered by id.
+     */
+    List<Message> selectLatestInGrid(@Param("board") String board, @Param("startRow") int startRow, @Param("endRow") int endRow, @Param("startCol") int startCol, @Param("endCol") int endCol);
+
+    /**
+     * Selects the regions of regionChunks x regionChunks heat grid chunks that contain at least one history row.
+     *
+     * @param board The board to read.
+     * @param regionChunks The edge length of a region, in chunks.
+     * @return The regions, each packed like {@link com.flux.entropia.common.CellKey#pack} (region row, region column).
+     */
+    List<Long> selectPaintedRegions(@Param("board") String board, @Param("regionChunks") int regionChunks);
 
     /**
      * Counts the number of distinct coordinates (cells) that have messages.
      *
+     * @param board The board to count.
      * @return The total count of distinct cells.
      */
-    long countDistinctCoordinates();
+    @ReadOnlyRoute
+    long countDistinctCoordinates(@Param("board") String board);
 
     /**
      * Counts the number of distinct coordinates within a given grid range.
      *
+     * @param board The board to count.
      * @param startRow The starting row index.
      * @param endRow The ending row index.
      * @param startCol The starting column index.
      * @param endCol The ending column index.
      * @return The count of distinct coordinates in the range.
      */
-    long countDistinctCoordinatesInGrid(@Param("startRow") int startRow, @Param("endRow") int endRow, @Param("startCol") int startCol, @Param("endCol") int endCol);
+    @ReadOnlyRoute
+    long countDistinctCoordinatesInGrid(@Param("board") String board, @Param("startRow") int startRow, @Param("endRow") int endRow, @Param("startCol") int startCol, @Param("endCol") int endCol);
 
     /**
      * Calculates the optimal hotspot position using grid-based aggregation.
      * Implements the optimized SQL query from the design specification.
      *
+     * @param board The board to analyze.
      * @param gridSize The size of the grid cells for aggregation.
      * @param timeWindowDays The time window in days to consider for recent activity.
      * @return The calculated hotspot position, or null if no suitable position found.
      */
-    CanvasInitialPositionDTO calculateHotspotPosition(@Param("gridSize") int gridSize, @Param("timeWindowDays") int timeWindowDays);
+    @ReadOnlyRoute
+    CanvasInitialPositionDTO calculateHotspotPosition(@Param("board") String board, @Param("gridSize") int gridSize, @Param("timeWindowDays") int timeWindowDays);
+
+    /**
+     * Selects the highest message id currently stored for a board.
+     *
+     * @param board The board to read.
+     * @return The maximum id, or null if the table is empty.
+     */
+    Long selectMaxId(@Param("board") String board);
+
+    /**
+     * Selects the id of the first message of a board created at or after the given time.
+     *
+     * @param board The board to read.
+     * @param from The lower time bound (inclusive).
+     * @return The smallest matching id, or null if no message was created since then.
+     */
+    Long selectFirstIdSince(@Param("board") String board, @Param("from") LocalDateTime from);
+
+    /**
+     * Streams one keyset page of a board's history rows in id order to the given handler.
+     * Rows are fetched with a streaming cursor, so a page is never materialized as a list.
+     *
+     * @param board    The board to read.
+     * @param afterId  Only rows with an id strictly greater than this are returned.
+     * @param untilId  Only rows with an id less than or equal to this are returned.
+     * @param startRow The starting row index of the region, or null for the whole canvas.
+     * @param endRow   The ending row index of the region, or null for the whole canvas.
+     * @param startCol The starting column index of the region, or null for the whole canvas.
+     * @param endCol   The ending column index of the region, or null for the whole canvas.
+     * @param limit    The maximum number of rows in this page.
+     * @param handler  The handler receiving each row as it is read.
+     */
+    void streamChangesAfter(@Param("board") String board, @Param("afterId") long afterId, @Param("untilId") long untilId,
+                            @Param("startRow") Integer startRow, @Param("endRow") Integer endRow,
+                            @Param("startCol") Integer startCol, @Param("endCol") Integer endCol,
+                            @Param("limit") int limit, ResultHandler<Message> handler);
 }
@@ -0,0 +1,328 @@
+package com.flux.entropia.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The application's own meters for the write path, WebSocket fan-out and expensive queries.
+ * Connection pools (hikaricp.*), Lettuce (lettuce.*), HTTP (http.server.requests) and JVM meters are registered
+ * by Spring Boot; everything here is prefixed with {@code flux.}.
+ */
+@Component
+public class FluxMetrics {
+
+    public static final String PHASE_RATE_CHECK = "rate_check";
+    public static final String PHASE_LATEST_LOOKUP = "latest_lookup";
+    public static final String PHASE_INSERT = "insert";
+
+    public static final String QUERY_HEATMAP_CHUNKS = "heatmap_chunks";
+    public static final String QUERY_HOTSPOT_POSITION = "hotspot_position";
+    public static final String QUERY_SEARCH = "search";
+
+    private final MeterRegistry registry;
+    private final Counter rateLimited;
+    private final Counter conflicts;
+    private final Timer sessionSend;
+    private final Counter sessionOverflows;
+    private final Counter eventBusFull;
+    private final Counter decayExpired;
+    private final ConcurrentHashMap<String, Timer> writePhases = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Timer> broadcasts = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, DistributionSummary> recipients = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Timer> queries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Timer> commands = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> resumes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> shed = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Timer> tiles = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Timer> forwards = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> eventFailures = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Timer> jobs = new ConcurrentHashMap<>();
+
+    public FluxMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.rateLimited = Counter.builder("flux.message.write.rejected")
+            .description("Cell writes rejected before reaching the database")
+            .tag("reason", "rate_limited")
+            .register(registry);
+        this.conflicts = Counter.builder("flux.message.write.rejected")
+            .description("Cell writes rejected before reaching the database")
+            .tag("reason", "conflict")
+            .register(registry);
+        this.sessionSend = Timer.builder("flux.ws.session.send")
+            .description("Time to hand one message to a WebSocket session, including the socket write when not queued")
+            .register(registry);
+        this.sessionOverflows = Counter.builder("flux.ws.session.overflow")
+            .description("Sessions closed because they could not keep up with outgoing messages")
+            .register(registry);
+        this.eventBusFull = Counter.builder("flux.events.full")
+            .description("Cell writes that waited for the slowest event bus consumer to free a slot")
+            .register(registry);
+        this.decayExpired = Counter.builder("flux.decay.expired")
+            .description("Cells removed by the entropy decay after their lifetime")
+            .register(registry);
+    }
+
+    /**
+     * Records one phase of {@code createOrUpdateMessage}.
+     *
+     * @return the current time, to be passed as the start of the next phase.
+     */
+    public long recordWritePhase(String phase, long startNanos) {
+        long now = System.nanoTime();
+        writePhases.computeIfAbsent(phase, name -> Timer.builder("flux.message.write.phase")
+                .description("Duration of each phase of a cell write")
+                .tag("phase", name)
+                .register(registry))
+            .record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    public void rateLimited() {
+        rateLimited.increment();
+    }
+
+    public void conflict() {
+        conflicts.increment();
+    }
+
+    /**
+     * Records one broadcast: serialization plus the send loop over all sessions.
+     */
+    public void recordBroadcast(String type, long startNanos, int recipientCount) {
+        broadcasts.computeIfAbsent(type, name -> Timer.builder("flux.ws.broadcast")
+                .description("Duration of a broadcast to all sessions")
+                .tag("type", name)
+                .register(registry))
+            .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        recipients.computeIfAbsent(type, name -> DistributionSummary.builder("flux.ws.broadcast.recipients")
+                .description("Sessions reached by a broadcast")
+                .tag("type", name)
+                .register(registry))
+            .record(recipientCount);
+    }
+
+    public void recordSessionSend(long startNanos) {
+        sessionSend.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void sessionOverflow() {
+        sessionOverflows.increment();
+    }
+
+    /**
+     * Records a WebSocket command from receipt to reply, including the time queued for a worker.
+     *
+     * @param outcome the reply type, e.g. ACK or CONFLICT.
+     */
+    public void recordCommand(String command, String outcome, long startNanos) {
+        commands.computeIfAbsent(command + ':' + outcome, key -> Timer.builder("flux.ws.command")
+                .description("WebSocket commands from receipt to reply")
+                .tag("command", command)
+                .tag("outcome", outcome)
+                .register(registry))
+            .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts one RESUME command of a reconnecting client.
+     *
+     * @param outcome "memory" or "database" for where the missed events came from, or "full_resync".
+     */
+    public void recordResume(String outcome) {
+        resumes.computeIfAbsent(outcome, name -> Counter.builder("flux.ws.resume")
+                .description("Reconnecting clients by how their missed cell changes were replayed")
+                .tag("outcome", name)
+                .register(registry))
+            .increment();
+    }
+
+    /**
+     * Counts one request rejected by admission control.
+     *
+     * @param priority "critical" or "sheddable".
+     * @param reason   the overloaded signal: "pool", "in_flight" or "backlog".
+     */
+    public void admissionRejected(String priority, String reason) {
+        shed.computeIfAbsent(priority + ':' + reason, key -> Counter.builder("flux.admission.rejected")
+                .description("Requests rejected with 503 by admission control")
+                .tag("priority", priority)
+                .tag("reason", reason)
+                .register(registry))
+            .increment();
+    }
+
+    /**
+     * Records serving one overview tile.
+     *
+     * @param source "memory" if cached and unchanged, "patched" if re-rendered pixel by pixel, "disk" or "rendered".
+     */
+    public void recordTile(String source, long startNanos) {
+        tiles.computeIfAbsent(source, name -> Timer.builder("flux.tiles.served")
+                .description("Time to produce an overview tile, by where it came from")
+                .tag("source", name)
+                .register(registry))
+            .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records one request forwarded to the node owning a region.
+     *
+     * @param operation e.g. "write", "stroke" or "tile".
+     * @param outcome   "ok", "rejected" for an error answer of the owner, or "unreachable".
+     */
+    public void recordForward(String operation, String outcome, long startNanos) {
+        forwards.computeIfAbsent(operation + ':' + outcome, key -> Timer.builder("flux.cluster.forward")
+                .description("Requests forwarded to the node owning a region")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(registry))
+            .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Registers the lag of one event bus consumer: events published that it has not processed yet.
+     */
+    public void bindEventConsumer(String consumer, Supplier<Number> lag) {
+        Gauge.builder("flux.events.lag", lag)
+            .description("Cell change events published but not yet processed, per event bus consumer")
+            .tag("consumer", consumer)
+            .register(registry);
+    }
+
+    public void eventBusFull() {
+        eventBusFull.increment();
+    }
+
+    /**
+     * Counts one event an event bus consumer failed on; the consumer carries on with the next one.
+     */
+    public void eventHandlerFailed(String consumer) {
+        eventFailures.computeIfAbsent(consumer, name -> Counter.builder("flux.events.failed")
+                .description("Cell change events an event bus consumer failed to process")
+                .tag("consumer", name)
+                .register(registry))
+            .increment();
+    }
+
+    /**
+     * Registers whether this node holds the lease for the cluster-wide background jobs, as 1 or 0.
+     */
+    public void bindLeader(Supplier<Number> leader) {
+        Gauge.builder("flux.leader", leader)
+            .description("Whether this node is the leader running the cluster-wide background jobs")
+            .register(registry);
+    }
+
+    /**
+     * Records one run of a cluster-wide background job by the leader.
+     *
+     * @param outcome "ok", "failed", or "fenced" when a newer leader had written its result already.
+     */
+    public void recordJob(String job, String outcome, long startNanos) {
+        jobs.computeIfAbsent(job + ':' + outcome, key -> Timer.builder("flux.jobs.run")
+                .description("Runs of cluster-wide background jobs on the leader")
+                .tag("job", job)
+                .tag("outcome", outcome)
+                .register(registry))
+            .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Registers the time of the last successful run of a job on this node, in seconds since the epoch.
+     */
+    public void bindJobLastSuccess(String job, Supplier<Number> epochSeconds) {
+        Gauge.builder("flux.jobs.last_success", epochSeconds)
+            .description("When this node last completed a cluster-wide background job, 0 if never")
+            .baseUnit("seconds")
+            .tag("job", job)
+            .register(registry);
+    }
+
+    /**
+     * Registers the number of expiries waiting in the entropy decay's timing wheel, including those of cells
+     * changed since, which are dropped when they come due.
+     */
+    public void bindDecayPending(Supplier<Number> pending) {
+        Gauge.builder("flux.decay.pending", pending)
+            .description("Cell expiries scheduled by the entropy decay")
+            .register(registry);
+    }
+
+    public void decayExpired(int cells) {
+        decayExpired.increment(cells);
+    }
+
+    /**
+     * Registers the number of boards other than the main one whose state is held in memory, loaded or loading.
+     */
+    public void bindBoardsLoaded(Supplier<Number> loaded) {
+        Gauge.builder("flux.boards.loaded", loaded)
+            .description("Boards besides the main one held in memory")
+            .register(registry);
+    }
+
+    public void bindAdmission(Supplier<Number> inFlight) {
+        Gauge.builder("flux.admission.in_flight", inFlight)
+            .description("Requests admitted and not yet completed")
+            .register(registry);
+    }
+
+    /**
+     * Registers pool size, queue and task timing meters (executor.*) for the given executor.
+     *
+     * @return the executor to submit to, so task execution is timed.
+     */
+    public ExecutorService monitorExecutor(ExecutorService executor, String name) {
+        return ExecutorServiceMetrics.monitor(registry, executor, name);
+    }
+
+    public <T> T timeQuery(String query, Supplier<T> supplier) {
+        return queries.computeIfAbsent(query, name -> Timer.builder("flux.query")
+                .description("Duration of expensive read queries")
+                .tag("query", name)
+                .register(registry))
+            .record(supplier);
+    }
+
+    /**
+     * Registers gauges over the outgoing queues of the given sessions.
+     * Sessions are expected to be {@link ConcurrentWebSocketSessionDecorator}s; others count as empty.
+     */
+    public void bindSessions(Supplier<Collection<WebSocketSession>> sessions) {
+        Gauge.builder("flux.ws.sessions", () -> sessions.get().size())
+            .description("Open WebSocket sessions")
+            .register(registry);
+        Gauge.builder("flux.ws.session.buffered", () -> sessions.get().stream().mapToLong(FluxMetrics::bufferSize).sum())
+            .description("Bytes queued for all sessions behind an in-progress send")
+            .baseUnit("bytes")
+            .register(registry);
+        Gauge.builder("flux.ws.session.buffered.max", () -> sessions.get().stream().mapToLong(FluxMetrics::bufferSize).max().orElse(0))
+            .description("Bytes queued for the slowest session")
+            .baseUnit("bytes")
+            .register(registry);
+        Gauge.builder("flux.ws.session.sending", () -> sessions.get().stream().filter(FluxMetrics::isSending).count())
+            .description("Sessions with a send in progress, i.e. with a non-empty outgoing queue or a blocked socket write")
+            .register(registry);
+    }
+
+    private static long bufferSize(WebSocketSession session) {
+        return session instanceof ConcurrentWebSocketSessionDecorator decorator ? decorator.getBufferSize() : 0;
+    }
+
+    private static boolean isSending(WebSocketSession session) {
+        return session instanceof ConcurrentWebSocketSessionDecorator decorator && decorator.getTimeSinceSendStarted() > 0;
+    }
+}
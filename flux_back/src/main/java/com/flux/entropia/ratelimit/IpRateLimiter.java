@@ -0,0 +1,96 @@
+package com.flux.entropia.ratelimit;
+
+import com.flux.entropia.config.FluxProperties;
+import com.flux.entropia.exception.RateLimitExceededException;
+import com.flux.entropia.metrics.FluxMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-IP rate limiter charging by cell count, using the generic cell rate algorithm (GCRA).
+ * <p>
+ * Each IP has a theoretical arrival time (TAT): the time at which its budget would be fully replenished.
+ * Writing n cells pushes the TAT forward by n emission intervals ({@code flux.rate-limit.duration-ms}), and a
+ * write is allowed as long as the TAT stays within {@code flux.rate-limit.burst-cells} intervals of now.
+ * A 200-cell stroke thus costs the same as 200 single-cell requests, whichever endpoint it arrives on.
+ * <p>
+ * The TAT is advanced with a compare-and-set, so concurrent requests from one IP are serialized without a lock and
+ * never see each other's state half-written.
+ */
+@Component
+@RequiredArgsConstructor
+public class IpRateLimiter {
+
+    // Sentinel for "no budget used"; Math.max(NONE, now) is always now.
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final FluxProperties fluxProperties;
+    private final FluxMetrics fluxMetrics;
+
+    // Theoretical arrival time per IP, on the System.nanoTime() clock.
+    private final ConcurrentHashMap<String, AtomicLong> arrivalTimes = new ConcurrentHashMap<>();
+
+    /**
+     * Charges the given number of cells to an IP address.
+     *
+     * @param ipAddress The IP address to charge.
+     * @param cells     The number of cells written.
+     * @throws RateLimitExceededException if the IP has not enough budget left; nothing is charged in that case.
+     */
+    public void acquire(String ipAddress, int cells) {
+        long waitNanos = tryAcquire(ipAddress, cells, System.nanoTime());
+        if (waitNanos > 0) {
+            fluxMetrics.rateLimited();
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            throw new RateLimitExceededException("You are posting too frequently. Please wait a moment.", retryAfterSeconds);
+        }
+    }
+
+    /**
+     * @return 0 if the cells were charged, otherwise the time in nanoseconds until they would fit.
+     */
+    long tryAcquire(String ipAddress, int cells, long nowNanos) {
+        FluxProperties.RateLimit config = fluxProperties.getRateLimit();
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(config.getDurationMs());
+        if (intervalNanos <= 0) {
+            return 0;
+        }
+        long tolerance = intervalNanos * Math.max(1, config.getBurstCells());
+        long cost = intervalNanos * cells;
+        AtomicLong arrivalTime = arrivalTimes.computeIfAbsent(ipAddress, ip -> new AtomicLong(NONE));
+        while (true) {
+            long current = arrivalTime.get();
+            long next = Math.max(current, nowNanos) + cost;
+            long excess = next - nowNanos - tolerance;
+            if (excess > 0) {
+                return excess;
+            }
+            if (arrivalTime.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drops IPs whose budget is fully replenished; they behave exactly like IPs never seen before.
+     * A request racing with the removal may be charged to the dropped entry and lost, which only ever errs in the
+     * client's favour by one request.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdle() {
+        long now = System.nanoTime();
+        arrivalTimes.values().removeIf(arrivalTime -> arrivalTime.get() - now <= 0);
+    }
+
+    /**
+     * @return the number of IPs currently holding rate-limit state.
+     */
+    public int trackedIpCount() {
+        return arrivalTimes.size();
+    }
+}
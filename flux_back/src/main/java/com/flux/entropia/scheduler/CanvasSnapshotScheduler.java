@@ -0,0 +1,99 @@
+package com.flux.entropia.scheduler;
+
+import com.flux.entropia.config.FluxProperties;
+import com.flux.entropia.mapper.MessageMapper;
+import com.flux.entropia.state.CanvasSnapshotFile;
+import com.flux.entropia.state.CanvasStateStore;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Scheduled task that periodically writes the in-memory canvas state to a binary snapshot file.
+ * The snapshot lets the next startup skip replaying the history it already covers.
+ * Also purges the deletion log entries that no loadable snapshot can need any more.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CanvasSnapshotScheduler {
+
+    private final CanvasStateStore canvasStateStore;
+    private final FluxProperties fluxProperties;
+    private final MessageMapper messageMapper;
+
+    // Serializes the scheduled and the shutdown snapshot; not a monitor, since it is held across the file write.
+    private final ReentrantLock lock = new ReentrantLock();
+    // Store version captured by the last successful snapshot. Guarded by lock.
+    private long lastSnapshotVersion = -1;
+
+    /**
+     * Writes a new snapshot if the canvas changed since the previous one.
+     */
+    @Scheduled(fixedDelayString = "${flux.snapshot.interval-ms:300000}", initialDelayString = "${flux.snapshot.interval-ms:300000}")
+    public void writeSnapshot() {
+        lock.lock();
+        try {
+            write();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write() {
+        FluxProperties.Snapshot snapshot = fluxProperties.getSnapshot();
+        // Never persist a store that is still being rebuilt: it would hide the missing cells from the next startup.
+        // A sharded node holds only its regions, which may belong to another node by its next startup.
+        if (!snapshot.getEnabled() || fluxProperties.getCluster().getEnabled() || !canvasStateStore.isLoaded()) {
+            return;
+        }
+        long version = canvasStateStore.getVersion();
+        if (version == lastSnapshotVersion) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            // Read before the store is captured, so a deletion missing from the snapshot is above the mark.
+            Long deletionMark = messageMapper.selectMaxDeletionId();
+            CanvasSnapshotFile.SnapshotInfo info = CanvasSnapshotFile.write(canvasStateStore,
+                deletionMark != null ? deletionMark : 0, Path.of(snapshot.getPath()));
+            lastSnapshotVersion = version;
+            log.info("Wrote canvas snapshot with {} cells (high-water mark {}) in {} ms",
+                info.cellCount(), info.highWaterMark(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to write canvas snapshot", e);
+        }
+    }
+
+    /**
+     * Purges the deletion log entries older than {@code flux.snapshot.deletion-retention-ms}; the snapshots that
+     * would need them are not loaded any more. Runs on every node, as the purge is idempotent.
+     */
+    @Scheduled(fixedDelayString = "${flux.snapshot.interval-ms:300000}", initialDelayString = "${flux.snapshot.interval-ms:300000}")
+    public void purgeDeletionLog() {
+        try {
+            int purged = messageMapper.purgeDeletionsBefore(
+                LocalDateTime.now().minus(Duration.ofMillis(fluxProperties.getSnapshot().getDeletionRetentionMs())));
+            if (purged > 0) {
+                log.info("Purged {} expired entries of the deletion log", purged);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to purge the deletion log: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Writes a final snapshot on graceful shutdown so the next startup replays as little as possible.
+     */
+    @PreDestroy
+    public void writeSnapshotOnShutdown() {
+        writeSnapshot();
+    }
+}
@@ -0,0 +1,230 @@
+package com.flux.entropia.scheduler;
+
+import com.flux.entropia.cluster.ClusterMembership;
+import com.flux.entropia.config.FluxProperties;
+import com.flux.entropia.metrics.FluxMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Elects one node to run the background jobs that must run once per deployment rather than once per node, such as
+ * {@link HotspotAnalyzer}, through a lease in Redis.
+ * <p>
+ * The leader holds the hash {@value #LEASE_KEY} with a TTL and renews it every {@code flux.leader.renew-interval-ms};
+ * when it stops renewing, any node takes the lease over once it has expired. Every acquisition draws a new fencing
+ * token from the counter {@value #TOKEN_KEY}. A leader paused for longer than its lease may still believe it leads,
+ * so jobs write their results through {@link #writeFenced}, which rejects a token lower than the last one written.
+ * <p>
+ * With {@code flux.leader.enabled} off, every node considers itself the leader, as for a single node. If Redis cannot
+ * be reached, no node leads, and the jobs are skipped until it can.
+ */
+@Component
+@Slf4j
+public class LeaderLease {
+
+    static final String LEASE_KEY = "flux:leader:lease";
+    static final String TOKEN_KEY = "flux:leader:token";
+
+    /**
+     * Renews the lease if this node holds it, takes it if nobody does, and returns the holder's token, or -1 if another
+     * node holds it.
+     */
+    private static final RedisScript<Long> ACQUIRE = new DefaultRedisScript<>("""
+        local node = redis.call('HGET', KEYS[1], 'node')
+        if node == ARGV[1] then
+            redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            return tonumber(redis.call('HGET', KEYS[1], 'token'))
+        end
+        if node then
+            return -1
+        end
+        local token = redis.call('INCR', KEYS[2])
+        redis.call('HSET', KEYS[1], 'node', ARGV[1], 'token', token)
+        redis.call('PEXPIRE', KEYS[1], ARGV[2])
+        return token
+        """, Long.class);
+
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>("""
+        if redis.call('HGET', KEYS[1], 'node') == ARGV[1] then
+            return redis.call('DEL', KEYS[1])
+        end
+        return 0
+        """, Long.class);
+
+    /**
+     * Sets KEYS[1] unless a higher token than ARGV[1] has been recorded in KEYS[2] by an earlier write.
+     */
+    private static final RedisScript<Long> WRITE_FENCED = new DefaultRedisScript<>("""
+        local last = tonumber(redis.call('GET', KEYS[2]) or '0')
+        if tonumber(ARGV[1]) < last then
+            return 0
+        end
+        redis.call('SET', KEYS[2], ARGV[1])
+        redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])
+        return 1
+        """, Long.class);
+
+    /**
+     * A job run by the leader only.
+     */
+    @FunctionalInterface
+    public interface Job {
+        /**
+         * @param fencingToken The token to pass to {@link #writeFenced}.
+         */
+        void run(long fencingToken);
+    }
+
+    /**
+     * Thrown by {@link #writeFenced} when a leader elected later has already written.
+     */
+    public static class FencedOutException extends IllegalStateException {
+        public FencedOutException(String key, long token) {
+            super("Write to " + key + " with fencing token " + token + " was rejected: a newer leader has written it");
+        }
+    }
+
+    private final RedisTemplate<String, String> redisStringTemplate;
+    private final ClusterMembership membership;
+    private final FluxProperties.Leader properties;
+    private final FluxMetrics fluxMetrics;
+
+    private volatile long token = -1;
+    // System.nanoTime() until which this node may act as the leader without renewing.
+    private volatile long validUntil;
+    private final Map<String, Long> lastSuccess = new ConcurrentHashMap<>();
+
+    public LeaderLease(RedisTemplate<String, String> redisStringTemplate, ClusterMembership membership,
+                       FluxProperties fluxProperties, FluxMetrics fluxMetrics) {
+        this.redisStringTemplate = redisStringTemplate;
+        this.membership = membership;
+        this.properties = fluxProperties.getLeader();
+        this.fluxMetrics = fluxMetrics;
+    }
+
+    @PostConstruct
+    public void bindMetrics() {
+        fluxMetrics.bindLeader(() -> isLeader() ? 1 : 0);
+    }
+
+    /**
+     * Renews or acquires the lease.
+     */
+    @Scheduled(fixedDelayString = "${flux.leader.renew-interval-ms:5000}")
+    public void renew() {
+        if (!properties.getEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        Long acquired;
+        try {
+            acquired = redisStringTemplate.execute(ACQUIRE, List.of(LEASE_KEY, TOKEN_KEY),
+                membership.getNodeId(), Long.toString(properties.getLeaseMs()));
+        } catch (RuntimeException e) {
+            // The lease may expire meanwhile; stop leading once it would have.
+            log.warn("Failed to renew the leader lease: {}", e.getMessage());
+            return;
+        }
+        long previous = token;
+        if (acquired == null || acquired < 0) {
+            token = -1;
+            validUntil = start;
+            if (previous >= 0) {
+                log.info("Lost the leader lease");
+            }
+            return;
+        }
+        token = acquired;
+        // Measured from before the call, and ending short of the lease, to allow for clock drift against Redis.
+        validUntil = start + TimeUnit.MILLISECONDS.toNanos(properties.getLeaseMs() * 9 / 10);
+        if (previous != acquired) {
+            log.info("Acquired the leader lease as {} with fencing token {}", membership.getNodeId(), acquired);
+        }
+    }
+
+    /**
+     * @return Whether this node holds a lease that has not expired by its own clock.
+     */
+    public boolean isLeader() {
+        return !properties.getEnabled() || token >= 0 && System.nanoTime() - validUntil < 0;
+    }
+
+    /**
+     * Runs the job if this node is the leader, and records the outcome.
+     *
+     * @param name Names the job in logs and meters, e.g. "hotspot".
+     */
+    public void runIfLeader(String name, Job job) {
+        if (!isLeader()) {
+            // Before the first scheduled renewal, or after a missed one.
+            renew();
+        }
+        if (!isLeader()) {
+            log.debug("Skipping job {}: another node is the leader", name);
+            return;
+        }
+        lastSuccess.computeIfAbsent(name, key -> {
+            fluxMetrics.bindJobLastSuccess(key, () -> lastSuccess.getOrDefault(key, 0L));
+            return 0L;
+        });
+        long start = System.nanoTime();
+        try {
+            job.run(properties.getEnabled() ? token : 0);
+            fluxMetrics.recordJob(name, "ok", start);
+            lastSuccess.put(name, System.currentTimeMillis() / 1000);
+        } catch (FencedOutException e) {
+            fluxMetrics.recordJob(name, "fenced", start);
+            token = -1;
+            log.warn("Job {} stopped: {}", name, e.getMessage());
+        } catch (RuntimeException e) {
+            fluxMetrics.recordJob(name, "failed", start);
+            log.error("Job {} failed", name, e);
+        }
+    }
+
+    /**
+     * Sets a key holding a job's result, unless a leader elected later has set it already. The highest token written
+     * so far is kept under the key suffixed with {@code :fence}. Without the lease, the key is set unconditionally.
+     *
+     * @throws FencedOutException if the write was rejected.
+     */
+    public void writeFenced(String key, String value, Duration ttl, long fencingToken) {
+        if (!properties.getEnabled()) {
+            redisStringTemplate.opsForValue().set(key, value, ttl);
+            return;
+        }
+        Long written = redisStringTemplate.execute(WRITE_FENCED, List.of(key, key + ":fence"),
+            Long.toString(fencingToken), value, Long.toString(ttl.toMillis()));
+        if (written == null || written == 0) {
+            throw new FencedOutException(key, fencingToken);
+        }
+    }
+
+    /**
+     * Hands the lease over at shutdown, so another node takes over on its next renewal instead of after the TTL.
+     */
+    @PreDestroy
+    public void release() {
+        if (!properties.getEnabled() || token < 0) {
+            return;
+        }
+        try {
+            redisStringTemplate.execute(RELEASE, List.of(LEASE_KEY), membership.getNodeId());
+        } catch (RuntimeException e) {
+            log.warn("Failed to release the leader lease: {}", e.getMessage());
+        }
+        token = -1;
+    }
+}
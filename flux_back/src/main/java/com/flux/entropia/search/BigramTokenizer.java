@@ -0,0 +1,81 @@
+package com.flux.entropia.search;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits cell content into search terms.
+ * <p>
+ * Text is NFKC-normalized (so full-width forms match their ASCII counterparts) and lower-cased. Runs of CJK
+ * characters, which are not separated by spaces, become overlapping bigrams plus single characters; runs of other
+ * letters and digits become whole words. Everything else separates terms.
+ * <p>
+ * Documents are indexed with the single characters too, so a one-character query still finds them. A query only
+ * uses the bigrams of its longer CJK runs: they imply the single characters and select far fewer cells.
+ */
+public final class BigramTokenizer {
+
+    /**
+     * Longer words are cut to this many characters, in documents and queries alike.
+     */
+    static final int MAX_WORD_LENGTH = 32;
+
+    private BigramTokenizer() {
+    }
+
+    public static Set<String> tokenizeDocument(String text) {
+        return tokenize(text, true);
+    }
+
+    public static Set<String> tokenizeQuery(String text) {
+        return tokenize(text, false);
+    }
+
+    private static Set<String> tokenize(String text, boolean document) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        int[] codePoints = normalized.codePoints().toArray();
+        int i = 0;
+        while (i < codePoints.length) {
+            int start = i;
+            if (isCjk(codePoints[i])) {
+                while (i < codePoints.length && isCjk(codePoints[i])) {
+                    i++;
+                }
+                addCjkRun(codePoints, start, i, document, terms);
+            } else if (Character.isLetterOrDigit(codePoints[i])) {
+                while (i < codePoints.length && Character.isLetterOrDigit(codePoints[i]) && !isCjk(codePoints[i])) {
+                    i++;
+                }
+                terms.add(new String(codePoints, start, Math.min(i - start, MAX_WORD_LENGTH)));
+            } else {
+                i++;
+            }
+        }
+        return terms;
+    }
+
+    private static void addCjkRun(int[] codePoints, int start, int end, boolean document, Set<String> terms) {
+        if (end - start == 1 || document) {
+            for (int i = start; i < end; i++) {
+                terms.add(new String(codePoints, i, 1));
+            }
+        }
+        for (int i = start; i + 1 < end; i++) {
+            terms.add(new String(codePoints, i, 2));
+        }
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+            || script == Character.UnicodeScript.HIRAGANA
+            || script == Character.UnicodeScript.KATAKANA
+            || script == Character.UnicodeScript.HANGUL;
+    }
+}
@@ -0,0 +1,213 @@
+package com.flux.entropia.search;
+
+import com.flux.entropia.common.CellKey;
+import com.flux.entropia.common.Colors;
+import com.flux.entropia.config.FluxProperties;
+import com.flux.entropia.dto.MessageNodeDTO;
+import com.flux.entropia.dto.SearchResultDTO;
+import com.flux.entropia.exception.ServiceOverloadedException;
+import com.flux.entropia.metrics.FluxMetrics;
+import com.flux.entropia.state.CanvasStateStore;
+import com.flux.entropia.state.CellChangeListener;
+import com.flux.entropia.state.CellState;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.text.StringEscapeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory inverted index over the latest content of every cell, mapping each {@link BigramTokenizer} term to the
+ * {@link Postings} of the cells containing it.
+ * <p>
+ * The index follows {@link CanvasStateStore}: it is rebuilt from the store on a background thread once the startup
+ * warm-up is done, and every later change of a cell - an edit through {@code createOrUpdateMessage}, a paint stroke
+ * or a deletion - re-indexes that cell from its current state. Re-indexing is idempotent and serialized per cell, so
+ * the rebuild and live changes can overlap.
+ */
+@Component
+@Slf4j
+public class CellSearchIndex implements CellChangeListener {
+
+    private final CanvasStateStore canvasStateStore;
+    private final FluxMetrics fluxMetrics;
+    private final boolean enabled;
+
+    private final ConcurrentHashMap<String, Postings> postings = new ConcurrentHashMap<>();
+    // The indexed version of each cell with searchable content, keyed by CellKey.
+    private final ConcurrentHashMap<Long, IndexedCell> cells = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    public CellSearchIndex(CanvasStateStore canvasStateStore, FluxProperties fluxProperties, FluxMetrics fluxMetrics) {
+        this.canvasStateStore = canvasStateStore;
+        this.fluxMetrics = fluxMetrics;
+        this.enabled = fluxProperties.getSearch().getEnabled();
+        if (enabled) {
+            canvasStateStore.addListener(this);
+        }
+    }
+
+    @Override
+    public void storeLoaded() {
+        Thread rebuild = new Thread(this::rebuild, "search-index-rebuild");
+        rebuild.setDaemon(true);
+        rebuild.start();
+    }
+
+    @Override
+    public void cellChanged(int rowIndex, int colIndex) {
+        reindex(CellKey.pack(rowIndex, colIndex));
+    }
+
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        canvasStateStore.forEach((key, cell) -> reindex(key));
+        ready = true;
+        log.info("Search index rebuilt in {} ms: {} cells, {} terms", System.currentTimeMillis() - start, cells.size(), postings.size());
+    }
+
+    /**
+     * Brings the index entry of a cell up to date with the store.
+     * The store is read under the cell's entry lock, so whichever call comes last indexes the latest state.
+     */
+    private void reindex(long cellKey) {
+        cells.compute(cellKey, (key, indexed) -> {
+            CellState cell = canvasStateStore.get(CellKey.row(key), CellKey.col(key));
+            if (cell != null && indexed != null && indexed.id() == cell.id()) {
+                return indexed;
+            }
+            Set<String> terms = cell != null && cell.content() != null
+                ? BigramTokenizer.tokenizeDocument(StringEscapeUtils.unescapeHtml4(cell.content()))
+                : Set.of();
+            Set<String> previous = indexed != null ? Set.of(indexed.terms()) : Set.of();
+            for (String term : previous) {
+                if (!terms.contains(term)) {
+                    postings.computeIfPresent(term, (t, list) -> {
+                        list.remove(key);
+                        return list.isEmpty() ? null : list;
+                    });
+                }
+            }
+            for (String term : terms) {
+                if (!previous.contains(term)) {
+                    postings.compute(term, (t, list) -> {
+                        Postings target = list != null ? list : new Postings();
+                        target.add(key);
+                        return target;
+                    });
+                }
+            }
+            return terms.isEmpty() ? null : new IndexedCell(cell.id(), terms.toArray(String[]::new));
+        });
+    }
+
+    /**
+     * Finds the cells whose content contains every term of the query.
+     *
+     * @param query  The search text.
+     * @param region The inclusive {@code {startRow, endRow, startCol, endCol}} to search in, or null for the whole canvas.
+     * @param limit  The maximum number of cells to return.
+     * @return The matching cells, most recently edited first.
+     */
+    public SearchResultDTO search(String query, int[] region, int limit) {
+        if (!enabled) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Search is disabled");
+        }
+        if (!ready) {
+            throw new ServiceOverloadedException("The search index is still being built. Please retry in a moment.", 5);
+        }
+        Set<String> terms = BigramTokenizer.tokenizeQuery(query);
+        if (terms.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The query must contain at least one letter or digit");
+        }
+        return fluxMetrics.timeQuery(FluxMetrics.QUERY_SEARCH, () -> find(terms, region, limit));
+    }
+
+    private SearchResultDTO find(Set<String> terms, int[] region, int limit) {
+        List<long[]> lists = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            Postings list = postings.get(term);
+            if (list == null) {
+                return new SearchResultDTO(0, List.of());
+            }
+            lists.add(list.toArray());
+        }
+        // Intersect the shortest lists first, so the candidates shrink as fast as possible.
+        lists.sort(Comparator.comparingInt(list -> list.length));
+        long[] matches = lists.get(0);
+        for (int i = 1; i < lists.size() && matches.length > 0; i++) {
+            matches = intersect(matches, lists.get(i));
+        }
+
+        // Keep the most recent cells: a min-heap by history id, holding at most "limit" cells.
+        PriorityQueue<Match> top = new PriorityQueue<>(Comparator.comparingLong(match -> match.cell().id()));
+        int total = 0;
+        for (long key : matches) {
+            int row = CellKey.row(key);
+            int col = CellKey.col(key);
+            if (region != null && (row < region[0] || row > region[1] || col < region[2] || col > region[3])) {
+                continue;
+            }
+            CellState cell = canvasStateStore.get(row, col);
+            if (cell == null) {
+                continue;
+            }
+            total++;
+            top.add(new Match(key, cell));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<MessageNodeDTO> result = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            Match match = top.poll();
+            result.add(new MessageNodeDTO(match.cell().id(), CellKey.row(match.key()), CellKey.col(match.key()),
+                match.cell().content(), Colors.box(match.cell().bgColor())));
+        }
+        result.sort(Comparator.comparingLong(MessageNodeDTO::id).reversed());
+        return new SearchResultDTO(total, result);
+    }
+
+    private static long[] intersect(long[] a, long[] b) {
+        long[] result = new long[Math.min(a.length, b.length)];
+        int count = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int getTermCount() {
+        return postings.size();
+    }
+
+    public int getCellCount() {
+        return cells.size();
+    }
+
+    private record IndexedCell(long id, String[] terms) {
+    }
+
+    private record Match(long key, CellState cell) {
+    }
+}
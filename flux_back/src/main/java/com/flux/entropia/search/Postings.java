@@ -0,0 +1,127 @@
+package com.flux.entropia.search;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The set of cells containing one term, as packed {@link com.flux.entropia.common.CellKey}s.
+ * <p>
+ * The bulk is kept sorted and compressed: the first key zigzag-encoded, then the gap to each next key, all as
+ * variable-length integers. Neighbours in a row take a byte or two each, a jump to another row about five. Changes are
+ * collected in two small sets and folded into the compressed form once they amount to a quarter of it.
+ * All methods are thread-safe.
+ */
+final class Postings {
+
+    private static final int MIN_PENDING_BEFORE_COMPACTION = 64;
+
+    private byte[] packed = new byte[0];
+    private int packedCount;
+    // Keys added to or removed from the packed keys since the last compaction; disjoint from each other.
+    private final Set<Long> added = new HashSet<>();
+    private final Set<Long> removed = new HashSet<>();
+
+    /**
+     * Adds a cell that does not contain the term yet.
+     */
+    synchronized void add(long cellKey) {
+        if (!removed.remove(cellKey)) {
+            added.add(cellKey);
+        }
+        compactIfNeeded();
+    }
+
+    /**
+     * Removes a cell that contains the term.
+     */
+    synchronized void remove(long cellKey) {
+        if (!added.remove(cellKey)) {
+            removed.add(cellKey);
+        }
+        compactIfNeeded();
+    }
+
+    synchronized int size() {
+        return packedCount + added.size() - removed.size();
+    }
+
+    synchronized boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return the cell keys, sorted ascending.
+     */
+    synchronized long[] toArray() {
+        long[] keys = decode();
+        if (added.isEmpty() && removed.isEmpty()) {
+            return keys;
+        }
+        long[] merged = new long[keys.length + added.size()];
+        int count = 0;
+        for (long key : keys) {
+            if (!removed.contains(key)) {
+                merged[count++] = key;
+            }
+        }
+        for (long key : added) {
+            merged[count++] = key;
+        }
+        Arrays.sort(merged, 0, count);
+        return count == merged.length ? merged : Arrays.copyOf(merged, count);
+    }
+
+    /**
+     * @return the bytes taken by the compressed keys.
+     */
+    synchronized int packedBytes() {
+        return packed.length;
+    }
+
+    private void compactIfNeeded() {
+        int pending = added.size() + removed.size();
+        if (pending >= MIN_PENDING_BEFORE_COMPACTION && pending * 4 >= packedCount) {
+            long[] keys = toArray();
+            packed = encode(keys);
+            packedCount = keys.length;
+            added.clear();
+            removed.clear();
+        }
+    }
+
+    private static byte[] encode(long[] sortedKeys) {
+        byte[] buffer = new byte[sortedKeys.length * 10];
+        int position = 0;
+        long previous = 0;
+        for (int i = 0; i < sortedKeys.length; i++) {
+            long value = i == 0 ? (sortedKeys[0] << 1) ^ (sortedKeys[0] >> 63) : sortedKeys[i] - previous;
+            previous = sortedKeys[i];
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private long[] decode() {
+        long[] keys = new long[packedCount];
+        int position = 0;
+        long previous = 0;
+        for (int i = 0; i < packedCount; i++) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = packed[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            previous = i == 0 ? (value >>> 1) ^ -(value & 1) : previous + value;
+            keys[i] = previous;
+        }
+        return keys;
+    }
+}
@@ -2,7 +2,9 @@ package com.flux.entropia.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flux.entropia.board.BoardRegistry;
 import com.flux.entropia.dto.CanvasInitialPositionDTO;
+import com.flux.entropia.scheduler.LeaderLease;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -25,12 +27,16 @@ public class CanvasService {
     private final MessageService messageService;
     private final RedisTemplate<String, String> redisStringTemplate;
     private final ObjectMapper objectMapper;
+    private final LeaderLease leaderLease;
     
-    // Redis key for storing the golden spawn point
+    // Redis key for storing the golden spawn point of the main board; other boards append their id
     private static final String GOLDEN_SPAWN_POINT_KEY = "golden_spawn_point";
     
     // Cache expiration time (5 minutes)
     private static final Duration CACHE_EXPIRATION = Duration.ofMinutes(5);
+
+    // Expiration of the point written by the hotspot analyzer, outlasting one missed run
+    private static final Duration GOLDEN_SPAWN_POINT_EXPIRATION = Duration.ofMinutes(12);
     
     // Configuration parameters (should be moved to application.yml)
     @Value("${canvas.hotspot.grid-size:200}")
@@ -40,14 +46,22 @@ public class CanvasService {
     private int timeWindowDays;
 
     /**
-     * Get the initial position for new users.
-     * Implements cache-aside pattern with fallback logic.
+     * @return the Redis key of a board's golden spawn point.
+     */
+    public static String spawnPointKey(String board) {
+        return BoardRegistry.MAIN.equals(board) ? GOLDEN_SPAWN_POINT_KEY : GOLDEN_SPAWN_POINT_KEY + ":" + board;
+    }
+
+    /**
+     * Get the initial position on a board for new users.
+     * Implements cache-aside pattern with fallback logic; only the main board's point is also refreshed by the
+     * hotspot analyzer.
      */
     @Transactional(readOnly = true)
-    public CanvasInitialPositionDTO getInitialPosition() {
+    public CanvasInitialPositionDTO getInitialPosition(String board) {
         try {
             // Try to get from cache first
-            Optional<CanvasInitialPositionDTO> cachedPosition = getFromCache();
+            Optional<CanvasInitialPositionDTO> cachedPosition = getFromCache(board);
             if (cachedPosition.isPresent()) {
                 log.debug("Retrieved initial position from cache: {}", cachedPosition.get());
                 return cachedPosition.get();
@@ -55,10 +69,10 @@ public class CanvasService {
             
             // Fallback: calculate in real-time
             log.info("Cache miss, calculating initial position in real-time");
-            CanvasInitialPositionDTO calculatedPosition = calculateHotspotPosition();
+            CanvasInitialPositionDTO calculatedPosition = calculateHotspotPosition(board);
             
             // Cache the result for future requests
-            cachePosition(calculatedPosition);
+            cachePosition(board, calculatedPosition);
             
             return calculatedPosition;
             
@@ -71,9 +85,9 @@ public class CanvasService {
     /**
      * Get the golden spawn point from Redis cache.
      */
-    private Optional<CanvasInitialPositionDTO> getFromCache() {
+    private Optional<CanvasInitialPositionDTO> getFromCache(String board) {
         try {
-            String cachedJson = redisStringTemplate.opsForValue().get(GOLDEN_SPAWN_POINT_KEY);
+            String cachedJson = redisStringTemplate.opsForValue().get(spawnPointKey(board));
             
             if (cachedJson != null) {
                 CanvasInitialPositionDTO position = objectMapper.readValue(cachedJson, CanvasInitialPositionDTO.class);
@@ -91,10 +105,10 @@ public class CanvasService {
     /**
      * Cache the calculated position.
      */
-    private void cachePosition(CanvasInitialPositionDTO position) {
+    private void cachePosition(String board, CanvasInitialPositionDTO position) {
         try {
             String json = objectMapper.writeValueAsString(position);
-            redisStringTemplate.opsForValue().set(GOLDEN_SPAWN_POINT_KEY, json, CACHE_EXPIRATION);
+            redisStringTemplate.opsForValue().set(spawnPointKey(board), json, CACHE_EXPIRATION);
             log.debug("Cached initial position: {}", position);
             
         } catch (JsonProcessingException e) {
@@ -108,9 +122,9 @@ public class CanvasService {
      * Calculate the hotspot position using optimized SQL query.
      * This is the fallback logic when cache is not available.
      */
-    private CanvasInitialPositionDTO calculateHotspotPosition() {
+    private CanvasInitialPositionDTO calculateHotspotPosition(String board) {
         try {
-            return messageService.calculateHotspotPosition(globalGridSize, timeWindowDays);
+            return messageService.calculateHotspotPosition(board, globalGridSize, timeWindowDays);
         } catch (Exception e) {
             log.error("Failed to calculate hotspot position", e);
             return CanvasInitialPositionDTO.defaultPosition();
@@ -118,16 +132,22 @@ public class CanvasService {
     }
 
     /**
-     * Update the golden spawn point.
-     * This method is called by the scheduled hotspot analyzer.
+     * Recalculate the main board's golden spawn point and store it, bypassing the cache.
+     * This method is called by the scheduled hotspot analyzer on the leader.
+     *
+     * @param fencingToken the leader's token; the write is rejected if a newer leader has written already.
+     * @throws LeaderLease.FencedOutException if it was rejected.
      */
-    public void updateGoldenSpawnPoint(CanvasInitialPositionDTO position) {
+    public CanvasInitialPositionDTO updateGoldenSpawnPoint(long fencingToken) {
+        CanvasInitialPositionDTO position = messageService.calculateHotspotPosition(BoardRegistry.MAIN, globalGridSize,
+            timeWindowDays);
         try {
-            cachePosition(position);
-            log.info("Updated golden spawn point: {}", position);
-        } catch (Exception e) {
-            log.error("Failed to update golden spawn point", e);
+            leaderLease.writeFenced(GOLDEN_SPAWN_POINT_KEY, objectMapper.writeValueAsString(position),
+                GOLDEN_SPAWN_POINT_EXPIRATION, fencingToken);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize golden spawn point to JSON", e);
         }
+        log.info("Updated golden spawn point: {}", position);
+        return position;
     }
-
-    }
\ No newline at end of file
+}
@@ -12,8 +12,9 @@ public interface HeatmapService {
      * Get heatmap data for specified chunks.
      * Implements the "on-demand chunk loading" architecture.
      *
+     * @param board The board to read
      * @param chunks A semicolon-separated string of chunk IDs (format: "gridX,gridY")
      * @return Heatmap data for the requested chunks
      */
-    HeatmapChunkDTO getHeatmapChunks(String chunks);
+    HeatmapChunkDTO getHeatmapChunks(String board, String chunks);
 }
\ No newline at end of file
@@ -4,6 +4,8 @@ import com.flux.entropia.dto.CanvasInitialPositionDTO;
 import com.flux.entropia.dto.CreateMessageDTO;
 import com.flux.entropia.dto.MessageDetailDTO;
 import com.flux.entropia.dto.MessageNodeDTO;
+import com.flux.entropia.dto.PaintStrokeResultDTO;
+import com.flux.entropia.dto.ViewportDTO;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,61 +13,94 @@ import java.util.Optional;
 /**
  * Service interface for message-related business logic.
  * (Adapted for grid system)
+ * <p>
+ * Every operation acts on one board, see {@link com.flux.entropia.board.BoardRegistry}; callers check that it exists.
  */
 public interface MessageService {
 
     /**
      * Retrieves all message cells within a given rectangular grid area.
      *
+     * @param board    The board to read.
      * @param startRow The starting row index of the grid area.
      * @param endRow   The ending row index of the grid area.
      * @param startCol The starting column index of the grid area.
      * @param endCol   The ending column index of the grid area.
      * @return A list of {@link MessageNodeDTO} objects within the area.
      */
-    List<MessageNodeDTO> getMessagesInGrid(int startRow, int endRow, int startCol, int endCol);
+    List<MessageNodeDTO> getMessagesInGrid(String board, int startRow, int endRow, int startCol, int endCol);
+
+    /**
+     * Retrieves the contents of a viewport at a level of detail suited to the zoom: the cells themselves, or below
+     * {@code flux.lod.summary-below-zoom} a summary of each chunk, read from the in-memory canvas state.
+     *
+     * @param board    The board to read.
+     * @param startRow The starting row index of the grid area.
+     * @param endRow   The ending row index of the grid area.
+     * @param startCol The starting column index of the grid area.
+     * @param endCol   The ending column index of the grid area.
+     * @param zoom     The zoom factor of the client's viewport.
+     * @return The cells or chunk summaries within the area.
+     */
+    ViewportDTO getViewport(String board, int startRow, int endRow, int startCol, int endCol, double zoom);
 
     /**
      * Retrieves the detailed information for a single message cell.
      *
+     * @param board The board the message belongs to.
      * @param id The ID of the message.
      * @return An {@link Optional} containing the {@link MessageDetailDTO} if found, otherwise empty.
      */
-    Optional<MessageDetailDTO> getMessageDetailById(Long id);
+    Optional<MessageDetailDTO> getMessageDetailById(String board, Long id);
 
     /**
      * Creates a new message cell, performs validation, and persists it.
      *
+     * @param board     The board of the cell.
      * @param dto       The DTO containing the new message data.
      * @param ipAddress The IP address of the creator.
      * @return The DTO of the newly created cell, to be broadcasted.
      */
-    MessageNodeDTO createOrUpdateMessage(CreateMessageDTO dto, String ipAddress);
+    MessageNodeDTO createOrUpdateMessage(String board, CreateMessageDTO dto, String ipAddress);
+
+    /**
+     * Applies a paint stroke: many cell edits validated with one query, written with one insert
+     * and broadcast as a single CELLS_BATCH event. Rate limiting is charged per cell.
+     *
+     * @param board     The board of the cells.
+     * @param cells     The cell edits, each with the semantics of {@link #createOrUpdateMessage}.
+     * @param ipAddress The IP address of the creator.
+     * @return The applied cells and the cells rejected by the version check.
+     */
+    PaintStrokeResultDTO applyStroke(String board, List<CreateMessageDTO> cells, String ipAddress);
 
     /**
-     * Gets the total number of messages in the database.
+     * Gets the total number of messages on a board.
      *
+     * @param board The board to count.
      * @return The total message count.
      */
-    long getTotalMessageCount();
+    long getTotalMessageCount(String board);
 
-    long countDistinctCoordinatesInGrid(int startRow, int endRow, int startCol, int endCol);
+    long countDistinctCoordinatesInGrid(String board, int startRow, int endRow, int startCol, int endCol);
 
     /**
-     * Gets the total number of messages in the database.
+     * Gets the total number of messages on a board.
      *
+     * @param board The board to count.
      * @return The total message count.
      */
-    long getVisibleMessageCount();
+    long getVisibleMessageCount(String board);
 
     /**
      * Calculates the optimal hotspot position for new user initial positioning.
      * Uses the optimized SQL query with grid-based aggregation for performance.
      *
+     * @param board The board to analyze.
      * @param gridSize The size of the grid cells for aggregation (recommended: 200)
      * @param timeWindowDays The time window in days to consider for recent activity (recommended: 7)
      * @return The calculated hotspot position
      */
-    CanvasInitialPositionDTO calculateHotspotPosition(int gridSize, int timeWindowDays);
+    CanvasInitialPositionDTO calculateHotspotPosition(String board, int gridSize, int timeWindowDays);
 
 }
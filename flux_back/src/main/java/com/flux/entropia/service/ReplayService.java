@@ -0,0 +1,23 @@
+package com.flux.entropia.service;
+
+import com.flux.entropia.dto.CanvasChangeEventDTO;
+import com.flux.entropia.dto.ReplayRequestDTO;
+
+import java.util.function.Consumer;
+
+/**
+ * Service interface for replaying the canvas history.
+ * Used to build time-lapses and to audit how a region evolved.
+ */
+public interface ReplayService {
+
+    /**
+     * Streams change events in id order to the given sink.
+     * The history is read page by page, so memory use does not grow with the size of the table.
+     *
+     * @param request The replay parameters (start point, optional region and frame length).
+     * @param sink    The consumer receiving each event as soon as it is read.
+     * @return The number of events delivered to the sink.
+     */
+    long streamChanges(ReplayRequestDTO request, Consumer<CanvasChangeEventDTO> sink);
+}
@@ -0,0 +1,19 @@
+package com.flux.entropia.service;
+
+import com.flux.entropia.dto.SearchResultDTO;
+
+/**
+ * Service interface for searching the current contents of the canvas.
+ */
+public interface SearchService {
+
+    /**
+     * Finds the cells whose content contains every term of the query.
+     *
+     * @param query  The search text.
+     * @param region The inclusive {@code {startRow, endRow, startCol, endCol}} to search in, or null for the whole canvas.
+     * @param limit  The maximum number of cells to return.
+     * @return The number of matches and the most recently edited of them, newest first.
+     */
+    SearchResultDTO search(String query, int[] region, int limit);
+}
@@ -0,0 +1,19 @@
+package com.flux.entropia.service;
+
+import com.flux.entropia.dto.TileImageDTO;
+
+/**
+ * Service interface for the raster overview tiles shown in zoomed-out views.
+ */
+public interface TileService {
+
+    /**
+     * Get the current image of an overview tile.
+     *
+     * @param level The zoom level; a pixel covers 2^level x 2^level cells.
+     * @param x     The tile column.
+     * @param y     The tile row.
+     * @return The encoded tile.
+     */
+    TileImageDTO getTile(int level, int x, int y);
+}
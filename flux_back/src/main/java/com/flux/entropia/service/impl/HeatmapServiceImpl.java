@@ -2,6 +2,7 @@ package com.flux.entropia.service.impl;
 
 import com.flux.entropia.dto.HeatmapChunkDTO;
 import com.flux.entropia.mapper.HeatmapMapper;
+import com.flux.entropia.metrics.FluxMetrics;
 import com.flux.entropia.service.HeatmapService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,10 +22,11 @@ import java.util.stream.Collectors;
 public class HeatmapServiceImpl implements HeatmapService {
 
     private final HeatmapMapper heatmapMapper;
+    private final FluxMetrics fluxMetrics;
     private static final int CHUNK_SIZE = 9;
 
     @Override
-    public HeatmapChunkDTO getHeatmapChunks(String chunks) {
+    public HeatmapChunkDTO getHeatmapChunks(String board, String chunks) {
         try {
             // Parse the chunks parameter
             List<ChunkCoordinate> chunkCoordinates = parseChunksParameter(chunks);
@@ -37,7 +39,8 @@ public class HeatmapServiceImpl implements HeatmapService {
             log.info("Requesting heatmap data for {} chunks: {}", chunkCoordinates.size(), chunks);
             
             // Get heatmap data from database
-            List<HeatmapChunkDTO.HeatmapDataDTO> heatmapData = heatmapMapper.getHeatmapChunks(chunkCoordinates);
+            List<HeatmapChunkDTO.HeatmapDataDTO> heatmapData = fluxMetrics.timeQuery(FluxMetrics.QUERY_HEATMAP_CHUNKS,
+                    () -> heatmapMapper.getHeatmapChunks(board, chunkCoordinates));
             
             log.info("Retrieved heatmap data for {} chunks", heatmapData.size());
             
@@ -52,8 +55,9 @@ public class HeatmapServiceImpl implements HeatmapService {
     /**
      * Parse the chunks parameter string into a list of ChunkCoordinate objects.
      * Format: "gridX,gridY;gridX,gridY;..."
+     * Package-private for the benchmarks in flux_bench.
      */
-    private List<ChunkCoordinate> parseChunksParameter(String chunks) {
+    List<ChunkCoordinate> parseChunksParameter(String chunks) {
         if (chunks == null || chunks.trim().isEmpty()) {
             return List.of();
         }
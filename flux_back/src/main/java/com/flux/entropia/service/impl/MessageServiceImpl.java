@@ -1,196 +1,425 @@
 package com.flux.entropia.service.impl;
 
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.flux.entropia.analytics.HeavyHitterMonitor;
+import com.flux.entropia.board.BoardStates;
+import com.flux.entropia.common.CellKey;
+import com.flux.entropia.common.HybridLogicalClock;
 import com.flux.entropia.config.FluxProperties;
+import com.flux.entropia.datasource.ReadOnlyRoute;
 import com.flux.entropia.dto.CanvasInitialPositionDTO;
+import com.flux.entropia.dto.CellBatchDTO;
+import com.flux.entropia.dto.ChunkSummaryDTO;
 import com.flux.entropia.dto.CreateMessageDTO;
 import com.flux.entropia.dto.MessageDetailDTO;
 import com.flux.entropia.dto.MessageNodeDTO;
+import com.flux.entropia.dto.PaintStrokeResultDTO;
+import com.flux.entropia.dto.ViewportDTO;
 import com.flux.entropia.entity.Message;
+import com.flux.entropia.event.CellEventBus;
+import com.flux.entropia.exception.ServiceOverloadedException;
 import com.flux.entropia.mapper.MessageMapper;
+import com.flux.entropia.metrics.FluxMetrics;
+import com.flux.entropia.ratelimit.IpRateLimiter;
 import com.flux.entropia.service.MessageService;
-import com.flux.entropia.websocket.FluxWebSocketHandler;
-import com.flux.entropia.websocket.WebSocketMessage;
+import com.flux.entropia.state.CanvasStateStore;
 import org.apache.commons.text.StringEscapeUtils;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.time.Duration;
-import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class MessageServiceImpl implements MessageService {
 
+    /**
+     * Locks shared by all cells for serializing merge-mode writes; a power of two.
+     */
+    private static final int CELL_LOCK_STRIPES = 1024;
+
+    // Orders colors for resolving edits with equal timestamps; no color first.
+    private static final Comparator<Integer> COLOR_ORDER = Comparator.nullsFirst(Integer::compare);
+
     private final MessageMapper messageMapper;
-    private final FluxWebSocketHandler webSocketHandler;
     private final FluxProperties fluxProperties;
+    private final BoardStates boardStates;
+    private final FluxMetrics fluxMetrics;
+    private final HeavyHitterMonitor heavyHitterMonitor;
+    private final IpRateLimiter ipRateLimiter;
+    private final CellEventBus eventBus;
+    private final HybridLogicalClock hybridLogicalClock;
+    private final ReentrantLock[] cellLocks = new ReentrantLock[CELL_LOCK_STRIPES];
 
-    // A simple in-memory store for IP rate limiting.
-    private final ConcurrentHashMap<String, Instant> ipRequestTimestamps = new ConcurrentHashMap<>();
-
-    // Use @Lazy to break the circular dependency: Service -> Handler -> Service
-    public MessageServiceImpl(MessageMapper messageMapper, @Lazy FluxWebSocketHandler webSocketHandler, FluxProperties fluxProperties) {
+    public MessageServiceImpl(MessageMapper messageMapper, FluxProperties fluxProperties, BoardStates boardStates,
+                              FluxMetrics fluxMetrics, HeavyHitterMonitor heavyHitterMonitor, IpRateLimiter ipRateLimiter,
+                              CellEventBus eventBus, HybridLogicalClock hybridLogicalClock) {
         this.messageMapper = messageMapper;
-        this.webSocketHandler = webSocketHandler;
         this.fluxProperties = fluxProperties;
+        this.boardStates = boardStates;
+        this.fluxMetrics = fluxMetrics;
+        this.heavyHitterMonitor = heavyHitterMonitor;
+        this.ipRateLimiter = ipRateLimiter;
+        this.eventBus = eventBus;
+        this.hybridLogicalClock = hybridLogicalClock;
+        for (int i = 0; i < cellLocks.length; i++) {
+            cellLocks[i] = new ReentrantLock();
+        }
     }
 
     @Override
-    public List<MessageNodeDTO> getMessagesInGrid(int startRow, int endRow, int startCol, int endCol) {
-        LambdaQueryWrapper<Message> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper
-            .ge(Message::getRowIndex, startRow)
-            .le(Message::getRowIndex, endRow)
-            .ge(Message::getColIndex, startCol)
-            .le(Message::getColIndex, endCol);
-
-        return messageMapper.selectList(queryWrapper).stream()
+    @ReadOnlyRoute
+    public List<MessageNodeDTO> getMessagesInGrid(String board, int startRow, int endRow, int startCol, int endCol) {
+        // Only the latest version of each cell is returned; older history rows are never rendered.
+        return messageMapper.selectLatestInGrid(board, startRow, endRow, startCol, endCol).stream()
             .map(msg -> new MessageNodeDTO(msg.getId(), msg.getRowIndex(), msg.getColIndex(), msg.getContent(), msg.getBgColor()))
             .collect(Collectors.toList());
     }
 
     @Override
-    public Optional<MessageDetailDTO> getMessageDetailById(Long id) {
+    @ReadOnlyRoute
+    public ViewportDTO getViewport(String board, int startRow, int endRow, int startCol, int endCol, double zoom) {
+        FluxProperties.Lod lod = fluxProperties.getLod();
+        if (zoom >= lod.getSummaryBelowZoom()) {
+            return new ViewportDTO(ViewportDTO.DETAIL_CELLS, CanvasStateStore.CHUNK_SIZE, getMessagesInGrid(board, startRow, endRow, startCol, endCol), null);
+        }
+
+        // Summaries are maintained by the write path, so this costs a map lookup per chunk and no query.
+        CanvasStateStore canvasStateStore = boardStates.get(board);
+        if (!canvasStateStore.isLoaded()) {
+            throw new ServiceOverloadedException("The canvas is still loading. Please retry in a moment.", 5);
+        }
+        int startY = Math.floorDiv(startRow, CanvasStateStore.CHUNK_SIZE);
+        int endY = Math.floorDiv(endRow, CanvasStateStore.CHUNK_SIZE);
+        int startX = Math.floorDiv(startCol, CanvasStateStore.CHUNK_SIZE);
+        int endX = Math.floorDiv(endCol, CanvasStateStore.CHUNK_SIZE);
+        long chunkCount = Math.max(0, endY - startY + 1L) * Math.max(0, endX - startX + 1L);
+        if (chunkCount > lod.getMaxChunks()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A viewport must not span more than " + lod.getMaxChunks() + " chunks");
+        }
+        List<ChunkSummaryDTO> chunks = new ArrayList<>();
+        for (int gridY = startY; gridY <= endY; gridY++) {
+            for (int gridX = startX; gridX <= endX; gridX++) {
+                ChunkSummaryDTO summary = canvasStateStore.getChunkSummary(gridY, gridX);
+                if (summary != null) {
+                    chunks.add(summary);
+                }
+            }
+        }
+        return new ViewportDTO(ViewportDTO.DETAIL_SUMMARY, CanvasStateStore.CHUNK_SIZE, null, chunks);
+    }
+
+    @Override
+    @ReadOnlyRoute
+    public Optional<MessageDetailDTO> getMessageDetailById(String board, Long id) {
         Message message = messageMapper.selectById(id);
         return Optional.ofNullable(message)
+            .filter(msg -> board.equals(msg.getBoardId()))
             .map(msg -> new MessageDetailDTO(msg.getContent(), msg.getCreatedAt()));
     }
 
     @Override
     @Transactional
-    public MessageNodeDTO createOrUpdateMessage(CreateMessageDTO dto, String ipAddress) {
-        checkIpRateLimit(ipAddress);
+    public MessageNodeDTO createOrUpdateMessage(String board, CreateMessageDTO dto, String ipAddress) {
+        return createOrUpdateMessage(board, dto, ipAddress, false);
+    }
+
+    /**
+     * Writes a cell of a region this node owns in a sharded deployment. Unlike {@link #createOrUpdateMessage}, the
+     * write is serialized with the other writes of the cell in strict mode too, so two edits based on the same version
+     * cannot both pass the version check. It is not charged to the rate limiter: the node that received the request
+     * has done that once for all the owners it touches.
+     */
+    @Transactional
+    public MessageNodeDTO createOrUpdateOwnedMessage(String board, CreateMessageDTO dto, String ipAddress) {
+        return createOrUpdateMessage(board, dto, ipAddress, true);
+    }
 
-        Message existingMessage = messageMapper.selectLatestForCell(dto.rowIndex(), dto.colIndex());
+    private MessageNodeDTO createOrUpdateMessage(String board, CreateMessageDTO dto, String ipAddress, boolean owned) {
+        long phaseStart = System.nanoTime();
+        heavyHitterMonitor.recordWrite(dto.rowIndex(), dto.colIndex(), ipAddress);
+        if (!owned) {
+            ipRateLimiter.acquire(ipAddress, 1);
+        }
+        phaseStart = fluxMetrics.recordWritePhase(FluxMetrics.PHASE_RATE_CHECK, phaseStart);
 
-        Message messageToSave;
+        boolean merge = isMergeMode();
+        // The edit is stamped when it arrives, so waiting for the lock does not make it later than another one.
+        long stamp = merge ? hybridLogicalClock.now() : 0;
+        if (merge || owned) {
+            lockCellsUntilCompletion(board, List.of(CellKey.pack(dto.rowIndex(), dto.colIndex())));
+        }
+        Message existingMessage;
+        if (merge) {
+            existingMessage = messageMapper.selectLatestForCellForUpdate(board, dto.rowIndex(), dto.colIndex());
+        } else {
+            existingMessage = messageMapper.selectLatestForCell(board, dto.rowIndex(), dto.colIndex());
+        }
+        phaseStart = fluxMetrics.recordWritePhase(FluxMetrics.PHASE_LATEST_LOOKUP, phaseStart);
 
-        // Case 1: This is an UPDATE request for an existing cell
-        if (dto.baseVersionId() != null) {
-            if (existingMessage == null) {
-                // The cell the user was editing was deleted by someone else.
-                throw new ResponseStatusException(HttpStatus.CONFLICT, "The cell you are trying to edit no longer exists.");
+        String sanitizedContent = sanitize(dto.content());
+        Message newMessage;
+        boolean cleared;
+        if (merge) {
+            // Concurrent edits are merged field by field instead of rejected.
+            newMessage = mergeEdit(board, dto, sanitizedContent, existingMessage, baseVersion(board, dto, existingMessage), stamp, ipAddress);
+            if (existingMessage != null && sameState(newMessage, existingMessage)) {
+                // Nothing left to change, e.g. the same edit was already applied by someone else.
+                return toNode(existingMessage);
             }
-            if (!Objects.equals(existingMessage.getId(), dto.baseVersionId())) {
-                // The cell was updated by someone else. Optimistic lock fails.
-                throw new ResponseStatusException(HttpStatus.CONFLICT, "The cell has been updated by another user.");
-            }
-            // It's a valid update.
-            messageToSave = existingMessage;
-        }
-        // Case 2: This is a CREATE request for a new cell
-        else {
-            if (existingMessage != null) {
-                // Someone else created a cell here while the user was typing.
-                throw new ResponseStatusException(HttpStatus.CONFLICT, "Another user has just created a cell at this position.");
+            cleared = newMessage.getContent().isEmpty() && newMessage.getBgColor() == null;
+        } else {
+            String conflictReason = checkBaseVersion(dto, existingMessage);
+            if (conflictReason != null) {
+                throw conflict(conflictReason);
             }
-            // It's a valid creation.
-            messageToSave = new Message();
-            messageToSave.setRowIndex(dto.rowIndex());
-            messageToSave.setColIndex(dto.colIndex());
+            newMessage = replaceEdit(board, dto, sanitizedContent, existingMessage, ipAddress);
+            cleared = sanitizedContent.isEmpty() && dto.bgColor() == null;
         }
 
-        // Apply changes and save
-        // Sanitize content to prevent XSS
-        String sanitizedContent = (dto.content() != null) ? StringEscapeUtils.escapeHtml4(dto.content()) : "";
-        messageToSave.setContent(sanitizedContent);
-        messageToSave.setBgColor(dto.bgColor());
-        messageToSave.setIpAddress(ipAddress);
-
         // Handle empty content creation (should be treated as deletion)
-        if (messageToSave.getId() == null && sanitizedContent.isEmpty() && dto.bgColor() == null) {
+        if (existingMessage == null && cleared) {
             // Don't create empty cells
             return null;
         }
 
-        if (messageToSave.getId() == null) {
-            // This is a new cell creation
-            messageMapper.insert(messageToSave);
-            
-            // Broadcast the new state
-            MessageNodeDTO newCellState = new MessageNodeDTO(messageToSave.getId(), messageToSave.getRowIndex(), messageToSave.getColIndex(), messageToSave.getContent(), messageToSave.getBgColor());
-            webSocketHandler.broadcast(new WebSocketMessage<>("CELL_UPDATED", newCellState));
-            
-            // Broadcast updated statistics
-            webSocketHandler.broadcastSystemStats();
-            
-            return newCellState;
+        if (existingMessage != null && cleared) {
+            // If both content and color are cleared, delete the cell
+            messageMapper.deleteById(existingMessage.getId());
+            messageMapper.insertDeletions(board, List.of(existingMessage));
+            // Deleting the latest version exposes the previous one as the cell's latest row; mirror that in memory.
+            Message previousVersion = messageMapper.selectLatestForCell(board, dto.rowIndex(), dto.colIndex());
+            MessageNodeDTO deletedCell = new MessageNodeDTO(existingMessage.getId(), dto.rowIndex(), dto.colIndex(), null, null);
+            afterCommit(() -> {
+                CanvasStateStore canvasStateStore = boardStates.find(board);
+                if (canvasStateStore != null) {
+                    canvasStateStore.remove(dto.rowIndex(), dto.colIndex());
+                    if (previousVersion != null) {
+                        canvasStateStore.apply(previousVersion);
+                    }
+                }
+                eventBus.publishDeleted(board, deletedCell);
+            });
+            fluxMetrics.recordWritePhase(FluxMetrics.PHASE_INSERT, phaseStart);
+
+            return deletedCell;
+        }
+
+        // Updates insert a new record to preserve history
+        messageMapper.insert(newMessage);
+        MessageNodeDTO newCellState = toNode(newMessage);
+        afterCommit(() -> {
+            CanvasStateStore canvasStateStore = boardStates.find(board);
+            if (canvasStateStore != null) {
+                canvasStateStore.apply(newMessage);
+            }
+            // Broadcast and statistics follow on the event bus threads
+            eventBus.publishUpdated(board, newCellState);
+        });
+        fluxMetrics.recordWritePhase(FluxMetrics.PHASE_INSERT, phaseStart);
+
+        return newCellState;
+    }
+
+    @Override
+    @Transactional
+    public PaintStrokeResultDTO applyStroke(String board, List<CreateMessageDTO> cells, String ipAddress) {
+        return applyStroke(board, cells, ipAddress, false);
+    }
+
+    /**
+     * Applies a stroke within the regions this node owns in a sharded deployment, serialized with the other writes of
+     * its cells in both modes, see {@link #createOrUpdateOwnedMessage}.
+     */
+    @Transactional
+    public PaintStrokeResultDTO applyOwnedStroke(String board, List<CreateMessageDTO> cells, String ipAddress) {
+        return applyStroke(board, cells, ipAddress, true);
+    }
+
+    private PaintStrokeResultDTO applyStroke(String board, List<CreateMessageDTO> cells, String ipAddress, boolean owned) {
+        long phaseStart = System.nanoTime();
+        // A stroke can cross the same cell more than once; only the last edit of each cell is applied.
+        Map<Long, CreateMessageDTO> edits = new LinkedHashMap<>();
+        for (CreateMessageDTO cell : cells) {
+            edits.put(CellKey.pack(cell.rowIndex(), cell.colIndex()), cell);
+            heavyHitterMonitor.recordWrite(cell.rowIndex(), cell.colIndex(), ipAddress);
+        }
+        if (!owned) {
+            ipRateLimiter.acquire(ipAddress, edits.size());
+        }
+        phaseStart = fluxMetrics.recordWritePhase(FluxMetrics.PHASE_RATE_CHECK, phaseStart);
+
+        boolean merge = isMergeMode();
+        long stamp = merge ? hybridLogicalClock.now() : 0;
+        if (merge || owned) {
+            lockCellsUntilCompletion(board, edits.keySet());
+        }
+        List<Message> latest;
+        if (merge) {
+            latest = messageMapper.selectLatestForCellsForUpdate(board, new ArrayList<>(edits.values()));
         } else {
-            // Handle case where content is cleared but color might be set
-            if (sanitizedContent.isEmpty() && dto.bgColor() == null) {
-                // If both content and color are cleared, delete the cell
-                messageMapper.deleteById(messageToSave.getId());
-                
-                // Broadcast deletion
-                webSocketHandler.broadcast(new WebSocketMessage<>("CELL_DELETED", new MessageNodeDTO(messageToSave.getId(), dto.rowIndex(), dto.colIndex(), null, null)));
-                
-                // Broadcast updated statistics
-                webSocketHandler.broadcastSystemStats();
-                
-                return new MessageNodeDTO(messageToSave.getId(), dto.rowIndex(), dto.colIndex(), null, null);
+            latest = messageMapper.selectLatestForCells(board, new ArrayList<>(edits.values()));
+        }
+        Map<Long, Message> latestByCell = new HashMap<>();
+        for (Message message : latest) {
+            latestByCell.put(CellKey.pack(message.getRowIndex(), message.getColIndex()), message);
+        }
+        Map<Long, Message> baseVersions = merge ? baseVersions(board, edits.values(), latestByCell) : Map.of();
+        phaseStart = fluxMetrics.recordWritePhase(FluxMetrics.PHASE_LATEST_LOOKUP, phaseStart);
+
+        List<Message> inserts = new ArrayList<>();
+        List<Message> deletedVersions = new ArrayList<>();
+        List<CreateMessageDTO> deletedCells = new ArrayList<>();
+        List<PaintStrokeResultDTO.CellConflictDTO> conflicts = new ArrayList<>();
+        for (Map.Entry<Long, CreateMessageDTO> entry : edits.entrySet()) {
+            CreateMessageDTO dto = entry.getValue();
+            Message existingMessage = latestByCell.get(entry.getKey());
+            String sanitizedContent = sanitize(dto.content());
+            Message newMessage;
+            boolean cleared;
+            if (merge) {
+                Message baseVersion = dto.baseVersionId() != null ? baseVersions.get(dto.baseVersionId()) : null;
+                newMessage = mergeEdit(board, dto, sanitizedContent, existingMessage, baseVersion, stamp, ipAddress);
+                if (existingMessage != null && sameState(newMessage, existingMessage)) {
+                    continue;
+                }
+                cleared = newMessage.getContent().isEmpty() && newMessage.getBgColor() == null;
             } else {
-                // For updates, create a new record to preserve history
-                Message newMessage = new Message();
-                newMessage.setRowIndex(dto.rowIndex());
-                newMessage.setColIndex(dto.colIndex());
-                newMessage.setContent(sanitizedContent);
-                // Preserve existing background color if new one is not provided
-                newMessage.setBgColor(dto.bgColor() != null ? dto.bgColor() : existingMessage.getBgColor());
-                newMessage.setIpAddress(ipAddress);
-                
-                messageMapper.insert(newMessage);
-                
-                // Broadcast the new state
-                MessageNodeDTO newCellState = new MessageNodeDTO(newMessage.getId(), newMessage.getRowIndex(), newMessage.getColIndex(), newMessage.getContent(), newMessage.getBgColor());
-                webSocketHandler.broadcast(new WebSocketMessage<>("CELL_UPDATED", newCellState));
-                
-                // Broadcast updated statistics
-                webSocketHandler.broadcastSystemStats();
-                
-                return newCellState;
+                String conflictReason = checkBaseVersion(dto, existingMessage);
+                if (conflictReason != null) {
+                    fluxMetrics.conflict();
+                    conflicts.add(new PaintStrokeResultDTO.CellConflictDTO(dto.rowIndex(), dto.colIndex(), dto.baseVersionId(),
+                        existingMessage != null ? existingMessage.getId() : null, conflictReason));
+                    continue;
+                }
+                newMessage = replaceEdit(board, dto, sanitizedContent, existingMessage, ipAddress);
+                cleared = sanitizedContent.isEmpty() && dto.bgColor() == null;
             }
+
+            // Same rules as createOrUpdateMessage: empty new cells are skipped, cleared cells are deleted,
+            // and an update without a color keeps the cell's current one.
+            if (existingMessage == null && cleared) {
+                continue;
+            }
+            if (existingMessage != null && cleared) {
+                deletedVersions.add(existingMessage);
+                deletedCells.add(dto);
+                continue;
+            }
+            inserts.add(newMessage);
+        }
+
+        if (!inserts.isEmpty()) {
+            messageMapper.insertBatch(inserts);
         }
+        List<Message> previousVersions = List.of();
+        if (!deletedVersions.isEmpty()) {
+            messageMapper.deleteBatchIds(deletedVersions.stream().map(Message::getId).toList());
+            messageMapper.insertDeletions(board, deletedVersions);
+            // Deleting the latest versions exposes the previous ones as the cells' latest rows; mirror that in memory.
+            previousVersions = messageMapper.selectLatestForCells(board, deletedCells);
+        }
+        List<Message> restoredVersions = previousVersions;
+        List<MessageNodeDTO> updated = inserts.stream()
+            .map(MessageServiceImpl::toNode)
+            .toList();
+        List<MessageNodeDTO> deleted = deletedVersions.stream()
+            .map(msg -> new MessageNodeDTO(msg.getId(), msg.getRowIndex(), msg.getColIndex(), null, null))
+            .toList();
+        afterCommit(() -> {
+            CanvasStateStore canvasStateStore = boardStates.find(board);
+            if (canvasStateStore != null) {
+                inserts.forEach(canvasStateStore::apply);
+                deletedVersions.forEach(message -> canvasStateStore.remove(message.getRowIndex(), message.getColIndex()));
+                restoredVersions.forEach(canvasStateStore::apply);
+            }
+            if (!updated.isEmpty() || !deleted.isEmpty()) {
+                // One event, and so one frame, for the whole stroke instead of one per cell.
+                eventBus.publishBatch(board, new CellBatchDTO(updated, deleted));
+            }
+        });
+        fluxMetrics.recordWritePhase(FluxMetrics.PHASE_INSERT, phaseStart);
+
+        log.debug("Applied stroke of {} cells on board {} from {}: {} updated, {} deleted, {} conflicts",
+            edits.size(), board, ipAddress, updated.size(), deleted.size(), conflicts.size());
+        return new PaintStrokeResultDTO(updated, deleted, conflicts);
+    }
+
+    /**
+     * Removes cells whose lifetime has passed, see {@link com.flux.entropia.decay.DecayEngine}, and broadcasts them
+     * as deleted in one CELLS_BATCH event. A cell changed again since the version that expired keeps that change.
+     *
+     * @param board   the board of the cells.
+     * @param expired each cell with the id of its version that expired.
+     */
+    @Transactional
+    public void expireCells(String board, List<Message> expired) {
+        if (fluxProperties.getDecay().getMode() == FluxProperties.Decay.Mode.ARCHIVE) {
+            messageMapper.archiveExpired(board, expired);
+        }
+        messageMapper.deleteExpired(board, expired);
+        messageMapper.insertDeletions(board, expired);
+        afterCommit(() -> {
+            CanvasStateStore canvasStateStore = boardStates.find(board);
+            List<MessageNodeDTO> deleted = new ArrayList<>(expired.size());
+            for (Message message : expired) {
+                if (canvasStateStore == null || canvasStateStore.remove(message.getRowIndex(), message.getColIndex(), message.getId())) {
+                    deleted.add(new MessageNodeDTO(message.getId(), message.getRowIndex(), message.getColIndex(), null, null));
+                }
+            }
+            if (!deleted.isEmpty()) {
+                eventBus.publishBatch(board, new CellBatchDTO(List.of(), deleted));
+            }
+        });
     }
 
     @Override
-    public long getTotalMessageCount() {
-        return messageMapper.countDistinctCoordinates();
+    public long getTotalMessageCount(String board) {
+        return messageMapper.countDistinctCoordinates(board);
     }
 
     @Override
-    public long countDistinctCoordinatesInGrid(int startRow, int endRow, int startCol, int endCol) {
-        return messageMapper.countDistinctCoordinatesInGrid(startRow, endRow, startCol, endCol);
+    public long countDistinctCoordinatesInGrid(String board, int startRow, int endRow, int startCol, int endCol) {
+        return messageMapper.countDistinctCoordinatesInGrid(board, startRow, endRow, startCol, endCol);
     }
 
     @Override
-    public long getVisibleMessageCount() {
-        return messageMapper.countDistinctCoordinates();
+    public long getVisibleMessageCount(String board) {
+        return messageMapper.countDistinctCoordinates(board);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public CanvasInitialPositionDTO calculateHotspotPosition(int gridSize, int timeWindowDays) {
+    public CanvasInitialPositionDTO calculateHotspotPosition(String board, int gridSize, int timeWindowDays) {
         try {
             // Log input parameters
-            log.info("Calculating hotspot position with gridSize={}, timeWindowDays={}", gridSize, timeWindowDays);
+            log.info("Calculating hotspot position of board {} with gridSize={}, timeWindowDays={}", board, gridSize, timeWindowDays);
             
             // Get total message count for debugging
-            long totalMessages = getTotalMessageCount();
+            long totalMessages = getTotalMessageCount(board);
             log.info("Total messages in database: {}", totalMessages);
             
             // Use the optimized SQL query to calculate hotspot position
-            CanvasInitialPositionDTO result = messageMapper.calculateHotspotPosition(gridSize, timeWindowDays);
+            CanvasInitialPositionDTO result = fluxMetrics.timeQuery(FluxMetrics.QUERY_HOTSPOT_POSITION,
+                () -> messageMapper.calculateHotspotPosition(board, gridSize, timeWindowDays));
             
             if (result == null) {
                 log.info("No hotspot found, returning default position (0,0)");
@@ -207,18 +436,242 @@ public class MessageServiceImpl implements MessageService {
     }
 
     /**
-     * Checks if a given IP address is allowed to post.
-     * Throws an exception if the rate limit is exceeded.
-     * @param ipAddress The IP address to check.
+     * Creates the 409 response for a failed optimistic version check and counts it.
+     * @param reason The message shown to the user.
+     * @return The exception to throw.
+     */
+    private ResponseStatusException conflict(String reason) {
+        fluxMetrics.conflict();
+        return new ResponseStatusException(HttpStatus.CONFLICT, reason);
+    }
+
+    /**
+     * Optimistic version check of an edit against the cell's latest version.
+     * @param dto The edit.
+     * @param existingMessage The latest version of the cell, or null if it is empty.
+     * @return The conflict message shown to the user, or null if the edit may be applied.
+     */
+    private String checkBaseVersion(CreateMessageDTO dto, Message existingMessage) {
+        // Case 1: This is an UPDATE request for an existing cell
+        if (dto.baseVersionId() != null) {
+            if (existingMessage == null) {
+                // The cell the user was editing was deleted by someone else.
+                return "The cell you are trying to edit no longer exists.";
+            }
+            if (!Objects.equals(existingMessage.getId(), dto.baseVersionId())) {
+                // The cell was updated by someone else. Optimistic lock fails.
+                return "The cell has been updated by another user.";
+            }
+            return null;
+        }
+        // Case 2: This is a CREATE request for a new cell
+        if (existingMessage != null) {
+            // Someone else created a cell here while the user was typing.
+            return "Another user has just created a cell at this position.";
+        }
+        return null;
+    }
+
+    private boolean isMergeMode() {
+        return fluxProperties.getMerge().getMode() == FluxProperties.Merge.Mode.LWW;
+    }
+
+    /**
+     * Builds the new version of a cell in strict mode: the edit replaces the content, and the color unless it has none.
+     * @param dto The edit, already checked against the cell's latest version.
+     * @param sanitizedContent The edit's sanitized content.
+     * @param existingMessage The latest version of the cell, or null if it is empty.
+     * @return The version to insert.
      */
-    private void checkIpRateLimit(String ipAddress) {
-        Instant now = Instant.now();
-        Instant lastRequest = ipRequestTimestamps.get(ipAddress);
-        Duration rateLimitDuration = Duration.ofMillis(fluxProperties.getRateLimit().getDurationMs());
+    private Message replaceEdit(String board, CreateMessageDTO dto, String sanitizedContent, Message existingMessage, String ipAddress) {
+        long now = hybridLogicalClock.tick(latestStamp(existingMessage));
+        boolean keepColor = dto.bgColor() == null && existingMessage != null;
+        Message newMessage = new Message();
+        newMessage.setBoardId(board);
+        newMessage.setRowIndex(dto.rowIndex());
+        newMessage.setColIndex(dto.colIndex());
+        newMessage.setContent(sanitizedContent);
+        newMessage.setContentHlc(now);
+        // Preserve existing background color if new one is not provided
+        newMessage.setBgColor(keepColor ? existingMessage.getBgColor() : dto.bgColor());
+        newMessage.setColorHlc(keepColor ? existingMessage.getColorHlc() : now);
+        newMessage.setIpAddress(ipAddress);
+        return newMessage;
+    }
 
-        if (lastRequest != null && Duration.between(lastRequest, now).compareTo(rateLimitDuration) < 0) {
-            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "You are posting too frequently. Please wait a moment.");
+    /**
+     * Builds the new version of a cell in merge mode. A field is taken from the edit if the edit changed it relative
+     * to the version it is based on, and the edit's timestamp is later than the one stored with the field; otherwise
+     * the field keeps the cell's latest value. The outcome therefore depends on the timestamps alone, not on which
+     * write reaches the cell first. Equal timestamps, taken on two nodes in the same instant, are resolved by the
+     * greater value. As in strict mode, a missing color only clears the color of an edit that also clears the content.
+     * @param dto The edit.
+     * @param sanitizedContent The edit's sanitized content.
+     * @param existingMessage The latest version of the cell, read under its row lock, or null if it is empty.
+     * @param baseVersion The version the edit is based on, or null if the client saw an empty cell or that version
+     *                    has since been deleted.
+     * @param stamp The clock timestamp taken when the edit arrived.
+     * @return The merged version, to be inserted unless it equals the latest one.
+     */
+    private Message mergeEdit(String board, CreateMessageDTO dto, String sanitizedContent, Message existingMessage,
+                              Message baseVersion, long stamp, String ipAddress) {
+        // Later stamps of this node then order after the stored ones, even those of a node whose clock runs ahead.
+        hybridLogicalClock.observe(latestStamp(existingMessage));
+        String baseContent = baseVersion != null && baseVersion.getContent() != null ? baseVersion.getContent() : "";
+        Integer baseColor = baseVersion != null ? baseVersion.getBgColor() : null;
+        String existingContent = existingMessage != null ? Objects.requireNonNullElse(existingMessage.getContent(), "") : "";
+        boolean takeContent = existingMessage == null
+            || !sanitizedContent.equals(baseContent)
+            && isLater(stamp, existingMessage.getContentHlc(), sanitizedContent.compareTo(existingContent));
+        boolean takeColor = existingMessage == null
+            || !Objects.equals(dto.bgColor(), baseColor) && (dto.bgColor() != null || sanitizedContent.isEmpty())
+            && isLater(stamp, existingMessage.getColorHlc(), COLOR_ORDER.compare(dto.bgColor(), existingMessage.getBgColor()));
+        Message merged = new Message();
+        merged.setBoardId(board);
+        merged.setRowIndex(dto.rowIndex());
+        merged.setColIndex(dto.colIndex());
+        merged.setContent(takeContent ? sanitizedContent : existingContent);
+        merged.setContentHlc(takeContent ? stamp : existingMessage.getContentHlc());
+        merged.setBgColor(takeColor ? dto.bgColor() : existingMessage.getBgColor());
+        merged.setColorHlc(takeColor ? stamp : existingMessage.getColorHlc());
+        merged.setIpAddress(ipAddress);
+        return merged;
+    }
+
+    /**
+     * @param stored The timestamp stored with a field, or null if it was written before fields had timestamps.
+     * @param valueOrder The comparison of the new value with the stored one, deciding between equal timestamps.
+     * @return Whether a write stamped {@code stamp} overwrites the field.
+     */
+    private static boolean isLater(long stamp, Long stored, int valueOrder) {
+        long storedStamp = Objects.requireNonNullElse(stored, 0L);
+        return stamp > storedStamp || stamp == storedStamp && valueOrder > 0;
+    }
+
+    private static long latestStamp(Message message) {
+        if (message == null) {
+            return 0;
+        }
+        return Math.max(Objects.requireNonNullElse(message.getContentHlc(), 0L), Objects.requireNonNullElse(message.getColorHlc(), 0L));
+    }
+
+    private static boolean sameState(Message merged, Message existingMessage) {
+        return merged.getContent().equals(Objects.requireNonNullElse(existingMessage.getContent(), ""))
+            && Objects.equals(merged.getBgColor(), existingMessage.getBgColor());
+    }
+
+    /**
+     * @return The version the edit is based on, or null if it has none or that version no longer exists.
+     */
+    private Message baseVersion(String board, CreateMessageDTO dto, Message existingMessage) {
+        if (dto.baseVersionId() == null) {
+            return null;
+        }
+        if (existingMessage != null && dto.baseVersionId().equals(existingMessage.getId())) {
+            return existingMessage;
+        }
+        Message version = messageMapper.selectById(dto.baseVersionId());
+        return version != null && board.equals(version.getBoardId()) ? version : null;
+    }
+
+    /**
+     * @return The versions the edits are based on by id, reading only those that are not the cells' latest.
+     */
+    private Map<Long, Message> baseVersions(String board, Collection<CreateMessageDTO> edits, Map<Long, Message> latestByCell) {
+        Map<Long, Message> versions = new HashMap<>();
+        List<Long> outdated = new ArrayList<>();
+        for (CreateMessageDTO dto : edits) {
+            if (dto.baseVersionId() == null) {
+                continue;
+            }
+            Message latest = latestByCell.get(CellKey.pack(dto.rowIndex(), dto.colIndex()));
+            if (latest != null && dto.baseVersionId().equals(latest.getId())) {
+                versions.put(latest.getId(), latest);
+            } else {
+                outdated.add(dto.baseVersionId());
+            }
+        }
+        if (!outdated.isEmpty()) {
+            for (Message message : messageMapper.selectBatchIds(outdated)) {
+                if (board.equals(message.getBoardId())) {
+                    versions.put(message.getId(), message);
+                }
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * Serializes writes of the given cells on this node until the current transaction completes. For merge-mode
+     * writes, the row locks of the merge's read already serialize them across nodes; this keeps the writes of one node
+     * queueing here instead of in the database, where a lock wait holds a connection. For writes to regions this node
+     * owns, the node is the only writer of the cells, so these locks alone keep strict-mode version checks from
+     * racing. Cells of all boards share a fixed set of locks, taken in index order so that two strokes never wait for
+     * each other in a cycle. Without a transaction, nothing is locked.
+     *
+     * @throws ServiceOverloadedException if the cells stay busy for longer than the configured timeout.
+     */
+    private void lockCellsUntilCompletion(String board, Collection<Long> cellKeys) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        long boardHash = board.hashCode();
+        SortedSet<Integer> stripes = new TreeSet<>();
+        for (long key : cellKeys) {
+            stripes.add(Long.hashCode((key ^ boardHash) * 0x9E3779B97F4A7C15L) & (cellLocks.length - 1));
+        }
+        List<ReentrantLock> held = new ArrayList<>(stripes.size());
+        try {
+            for (int stripe : stripes) {
+                ReentrantLock lock = cellLocks[stripe];
+                if (!lock.tryLock(fluxProperties.getMerge().getLockTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                    throw new ServiceOverloadedException("The cell is busy. Please retry in a moment.", 1);
+                }
+                held.add(lock);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            held.forEach(ReentrantLock::unlock);
+            throw new ServiceOverloadedException("The cell is busy. Please retry in a moment.", 1);
+        } catch (RuntimeException e) {
+            held.forEach(ReentrantLock::unlock);
+            throw e;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                held.forEach(ReentrantLock::unlock);
+            }
+        });
+    }
+
+    private static MessageNodeDTO toNode(Message message) {
+        return new MessageNodeDTO(message.getId(), message.getRowIndex(), message.getColIndex(), message.getContent(), message.getBgColor());
+    }
+
+    /**
+     * Sanitizes content to prevent XSS.
+     * @return The escaped content, or an empty string for null.
+     */
+    private static String sanitize(String content) {
+        return content != null ? StringEscapeUtils.escapeHtml4(content) : "";
+    }
+
+    /**
+     * Runs the given action once the current transaction has committed, or immediately if there is none.
+     * Keeps in-memory state and clients from observing writes that are later rolled back.
+     * @param action The action to run.
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
         }
-        ipRequestTimestamps.put(ipAddress, now);
     }
 }
@@ -0,0 +1,159 @@
+package com.flux.entropia.service.impl;
+
+import com.flux.entropia.board.BoardRegistry;
+import com.flux.entropia.common.CellKey;
+import com.flux.entropia.config.FluxProperties;
+import com.flux.entropia.datasource.ReadOnlyRoute;
+import com.flux.entropia.dto.CanvasChangeEventDTO;
+import com.flux.entropia.dto.ReplayRequestDTO;
+import com.flux.entropia.entity.Message;
+import com.flux.entropia.mapper.MessageMapper;
+import com.flux.entropia.service.ReplayService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Service implementation for replaying the canvas history.
+ * Reads the history rows written by {@link MessageServiceImpl} with keyset pagination
+ * ({@code WHERE id > cursor ORDER BY id LIMIT n}), so every page is an index range scan on the primary key
+ * and no connection is held between pages. Replays are served by a read replica when routing is enabled.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReplayServiceImpl implements ReplayService {
+
+    private final MessageMapper messageMapper;
+    private final FluxProperties fluxProperties;
+
+    @Override
+    @ReadOnlyRoute
+    public long streamChanges(ReplayRequestDTO request, Consumer<CanvasChangeEventDTO> sink) {
+        // Pin the upper bound up front so the replay terminates even while new edits keep arriving.
+        Long untilId = messageMapper.selectMaxId(BoardRegistry.MAIN);
+        if (untilId == null) {
+            return 0;
+        }
+
+        long cursor = resolveStartCursor(request);
+        int pageSize = fluxProperties.getReplay().getPageSize();
+        Integer startRow = request.hasRegion() ? request.startRow() : null;
+        Integer endRow = request.hasRegion() ? request.endRow() : null;
+        Integer startCol = request.hasRegion() ? request.startCol() : null;
+        Integer endCol = request.hasRegion() ? request.endCol() : null;
+
+        FrameCoalescer coalescer = new FrameCoalescer(request.frameSeconds(), sink);
+        PageHandler page = new PageHandler(coalescer);
+        while (cursor < untilId) {
+            page.reset();
+            messageMapper.streamChangesAfter(BoardRegistry.MAIN, cursor, untilId, startRow, endRow, startCol, endCol, pageSize, page);
+            if (page.count == 0) {
+                break;
+            }
+            cursor = page.lastId;
+            if (page.count < pageSize) {
+                break;
+            }
+        }
+        coalescer.flush();
+
+        log.info("Replayed {} change events (frameSeconds={}, region={})", coalescer.emitted, request.frameSeconds(), request.hasRegion());
+        return coalescer.emitted;
+    }
+
+    /**
+     * Resolves the exclusive keyset cursor the replay starts from.
+     * When both a start time and an id are given, the later of the two wins.
+     */
+    private long resolveStartCursor(ReplayRequestDTO request) {
+        long cursor = request.afterId() != null ? request.afterId() : 0L;
+        if (request.from() != null) {
+            Long firstId = messageMapper.selectFirstIdSince(BoardRegistry.MAIN, request.from());
+            // Nothing was written since 'from': start past the end so the loop exits immediately.
+            long fromCursor = firstId != null ? firstId - 1 : Long.MAX_VALUE;
+            cursor = Math.max(cursor, fromCursor);
+        }
+        return cursor;
+    }
+
+    /**
+     * Receives rows from the streaming cursor and forwards them without buffering the page.
+     */
+    private static final class PageHandler implements ResultHandler<Message> {
+
+        private final FrameCoalescer coalescer;
+        private int count;
+        private long lastId;
+
+        private PageHandler(FrameCoalescer coalescer) {
+            this.coalescer = coalescer;
+        }
+
+        private void reset() {
+            count = 0;
+        }
+
+        @Override
+        public void handleResult(ResultContext<? extends Message> context) {
+            Message msg = context.getResultObject();
+            count++;
+            lastId = msg.getId();
+            coalescer.accept(new CanvasChangeEventDTO(msg.getId(), msg.getRowIndex(), msg.getColIndex(), msg.getContent(), msg.getBgColor(), msg.getCreatedAt()));
+        }
+    }
+
+    /**
+     * Downsamples the event stream to one frame per N seconds.
+     * Within a frame only the last change of each cell is kept; frames are emitted in order as soon as
+     * a later frame starts, so memory is bounded by the number of cells touched within one frame.
+     */
+    private static final class FrameCoalescer {
+
+        private final long frameSeconds;
+        private final Consumer<CanvasChangeEventDTO> sink;
+        private final Map<Long, CanvasChangeEventDTO> pending = new LinkedHashMap<>();
+        private long currentFrame = Long.MIN_VALUE;
+        private long emitted;
+
+        private FrameCoalescer(int frameSeconds, Consumer<CanvasChangeEventDTO> sink) {
+            this.frameSeconds = frameSeconds;
+            this.sink = sink;
+        }
+
+        private void accept(CanvasChangeEventDTO event) {
+            if (frameSeconds <= 0 || event.createdAt() == null) {
+                emit(event);
+                return;
+            }
+            long frame = event.createdAt().toEpochSecond(ZoneOffset.UTC) / frameSeconds;
+            if (frame != currentFrame) {
+                flush();
+                currentFrame = frame;
+            }
+            long key = CellKey.pack(event.rowIndex(), event.colIndex());
+            // Remove first so the map stays ordered by each cell's last change (i.e. by id).
+            pending.remove(key);
+            pending.put(key, event);
+        }
+
+        private void flush() {
+            for (CanvasChangeEventDTO event : pending.values()) {
+                emit(event);
+            }
+            pending.clear();
+        }
+
+        private void emit(CanvasChangeEventDTO event) {
+            sink.accept(event);
+            emitted++;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.flux.entropia.service.impl;
+
+import com.flux.entropia.dto.SearchResultDTO;
+import com.flux.entropia.search.CellSearchIndex;
+import com.flux.entropia.service.SearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Searches the in-memory {@link CellSearchIndex} of this node.
+ */
+@Service
+@RequiredArgsConstructor
+public class SearchServiceImpl implements SearchService {
+
+    private final CellSearchIndex cellSearchIndex;
+
+    @Override
+    public SearchResultDTO search(String query, int[] region, int limit) {
+        return cellSearchIndex.search(query, region, limit);
+    }
+}
@@ -0,0 +1,204 @@
+package com.flux.entropia.service.impl;
+
+import com.flux.entropia.board.BoardRegistry;
+import com.flux.entropia.cluster.ClusterClient;
+import com.flux.entropia.cluster.RegionOwnership;
+import com.flux.entropia.common.CellKey;
+import com.flux.entropia.config.FluxProperties;
+import com.flux.entropia.dto.CanvasInitialPositionDTO;
+import com.flux.entropia.dto.ChunkSummaryDTO;
+import com.flux.entropia.dto.CreateMessageDTO;
+import com.flux.entropia.dto.MessageDetailDTO;
+import com.flux.entropia.dto.MessageNodeDTO;
+import com.flux.entropia.dto.PaintStrokeResultDTO;
+import com.flux.entropia.dto.ViewportDTO;
+import com.flux.entropia.exception.ServiceOverloadedException;
+import com.flux.entropia.ratelimit.IpRateLimiter;
+import com.flux.entropia.service.MessageService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * {@link MessageService} of a sharded deployment: routes every operation on the in-memory state of a region to the
+ * node owning it, see {@link RegionOwnership}.
+ * <p>
+ * Writes of a cell are executed by its owner, locally or forwarded through {@link ClusterClient}, which serializes them
+ * per cell; a stroke is split by owner, and the parts already applied stay applied if a later part fails. Zoomed-out viewports gather the chunk
+ * summaries from every owner of the area. Everything answered from MySQL alone - cells of zoomed-in viewports, details,
+ * counts - is served by any node, since all nodes share the database.
+ * <p>
+ * Writes are charged to the client's IP once, by the node receiving them, before they are split by owner; the owners
+ * do not charge them again. Each node limits the clients it receives on its own, as a single node does.
+ * <p>
+ * Changes written here are relayed to the clients of the other nodes through {@link com.flux.entropia.cluster.ClusterEventRelay}.
+ * <p>
+ * Only the main board is sharded. Other boards are served entirely by the node receiving the request, each node
+ * holding its own copy of a board's state; see {@link com.flux.entropia.board.BoardStates}.
+ */
+@Slf4j
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "flux.cluster", name = "enabled", havingValue = "true")
+public class ShardedMessageServiceImpl implements MessageService {
+
+    private final MessageServiceImpl delegate;
+    private final RegionOwnership regionOwnership;
+    private final ClusterClient clusterClient;
+    private final FluxProperties fluxProperties;
+    private final IpRateLimiter ipRateLimiter;
+
+    public ShardedMessageServiceImpl(MessageServiceImpl delegate, RegionOwnership regionOwnership, ClusterClient clusterClient,
+                                     FluxProperties fluxProperties, IpRateLimiter ipRateLimiter) {
+        this.delegate = delegate;
+        this.regionOwnership = regionOwnership;
+        this.clusterClient = clusterClient;
+        this.fluxProperties = fluxProperties;
+        this.ipRateLimiter = ipRateLimiter;
+    }
+
+    @Override
+    public List<MessageNodeDTO> getMessagesInGrid(String board, int startRow, int endRow, int startCol, int endCol) {
+        return delegate.getMessagesInGrid(board, startRow, endRow, startCol, endCol);
+    }
+
+    @Override
+    public ViewportDTO getViewport(String board, int startRow, int endRow, int startCol, int endCol, double zoom) {
+        // Also validates the size of the area before any other node is asked.
+        ViewportDTO local = delegate.getViewport(board, startRow, endRow, startCol, endCol, zoom);
+        if (!isSharded(board) || zoom >= fluxProperties.getLod().getSummaryBelowZoom()) {
+            return local;
+        }
+        List<ChunkSummaryDTO> chunks = new ArrayList<>(local.chunks());
+        for (String owner : regionOwnership.ownersOf(startRow, endRow, startCol, endCol)) {
+            if (!regionOwnership.isLocal(owner)) {
+                chunks.addAll(clusterClient.getViewport(owner, startRow, endRow, startCol, endCol, zoom).chunks());
+            }
+        }
+        return new ViewportDTO(local.detail(), local.chunkSize(), null, chunks);
+    }
+
+    /**
+     * The chunk summaries this node holds for an area of the main board, for another node gathering a viewport.
+     */
+    public ViewportDTO getViewportLocally(int startRow, int endRow, int startCol, int endCol, double zoom) {
+        return delegate.getViewport(BoardRegistry.MAIN, startRow, endRow, startCol, endCol, zoom);
+    }
+
+    @Override
+    public Optional<MessageDetailDTO> getMessageDetailById(String board, Long id) {
+        return delegate.getMessageDetailById(board, id);
+    }
+
+    @Override
+    public MessageNodeDTO createOrUpdateMessage(String board, CreateMessageDTO dto, String ipAddress) {
+        if (!isSharded(board)) {
+            return delegate.createOrUpdateMessage(board, dto, ipAddress);
+        }
+        String owner = owner(dto);
+        ipRateLimiter.acquire(ipAddress, 1);
+        if (regionOwnership.isLocal(owner)) {
+            return createOrUpdateMessageLocally(dto, ipAddress);
+        }
+        return clusterClient.createOrUpdateMessage(owner, dto, ipAddress);
+    }
+
+    /**
+     * Writes a cell of a region of the main board this node owns, already charged to the rate limiter.
+     *
+     * @throws ServiceOverloadedException if the region is not (or not yet) writable here.
+     */
+    public MessageNodeDTO createOrUpdateMessageLocally(CreateMessageDTO dto, String ipAddress) {
+        regionOwnership.checkWritable(dto.rowIndex(), dto.colIndex());
+        return delegate.createOrUpdateOwnedMessage(BoardRegistry.MAIN, dto, ipAddress);
+    }
+
+    @Override
+    public PaintStrokeResultDTO applyStroke(String board, List<CreateMessageDTO> cells, String ipAddress) {
+        if (!isSharded(board)) {
+            return delegate.applyStroke(board, cells, ipAddress);
+        }
+        Map<String, List<CreateMessageDTO>> byOwner = new LinkedHashMap<>();
+        Set<Long> distinctCells = new HashSet<>();
+        for (CreateMessageDTO cell : cells) {
+            byOwner.computeIfAbsent(owner(cell), key -> new ArrayList<>()).add(cell);
+            distinctCells.add(CellKey.pack(cell.rowIndex(), cell.colIndex()));
+        }
+        // Charged as a whole, as on a single node, whichever owners the parts go to.
+        ipRateLimiter.acquire(ipAddress, distinctCells.size());
+        if (byOwner.size() == 1) {
+            Map.Entry<String, List<CreateMessageDTO>> only = byOwner.entrySet().iterator().next();
+            return applyStrokePart(only.getKey(), only.getValue(), ipAddress);
+        }
+        List<MessageNodeDTO> updated = new ArrayList<>();
+        List<MessageNodeDTO> deleted = new ArrayList<>();
+        List<PaintStrokeResultDTO.CellConflictDTO> conflicts = new ArrayList<>();
+        for (Map.Entry<String, List<CreateMessageDTO>> part : byOwner.entrySet()) {
+            PaintStrokeResultDTO result = applyStrokePart(part.getKey(), part.getValue(), ipAddress);
+            updated.addAll(result.updated());
+            deleted.addAll(result.deleted());
+            conflicts.addAll(result.conflicts());
+        }
+        return new PaintStrokeResultDTO(updated, deleted, conflicts);
+    }
+
+    private PaintStrokeResultDTO applyStrokePart(String owner, List<CreateMessageDTO> cells, String ipAddress) {
+        return regionOwnership.isLocal(owner)
+            ? applyStrokeLocally(cells, ipAddress)
+            : clusterClient.applyStroke(owner, cells, ipAddress);
+    }
+
+    /**
+     * Applies the part of a stroke within the regions of the main board this node owns, already charged to the rate
+     * limiter.
+     *
+     * @throws ServiceOverloadedException if any of the cells is not (or not yet) writable here.
+     */
+    public PaintStrokeResultDTO applyStrokeLocally(List<CreateMessageDTO> cells, String ipAddress) {
+        for (CreateMessageDTO cell : cells) {
+            regionOwnership.checkWritable(cell.rowIndex(), cell.colIndex());
+        }
+        return delegate.applyOwnedStroke(BoardRegistry.MAIN, cells, ipAddress);
+    }
+
+    @Override
+    public long getTotalMessageCount(String board) {
+        return delegate.getTotalMessageCount(board);
+    }
+
+    @Override
+    public long countDistinctCoordinatesInGrid(String board, int startRow, int endRow, int startCol, int endCol) {
+        return delegate.countDistinctCoordinatesInGrid(board, startRow, endRow, startCol, endCol);
+    }
+
+    @Override
+    public long getVisibleMessageCount(String board) {
+        return delegate.getVisibleMessageCount(board);
+    }
+
+    @Override
+    public CanvasInitialPositionDTO calculateHotspotPosition(String board, int gridSize, int timeWindowDays) {
+        return delegate.calculateHotspotPosition(board, gridSize, timeWindowDays);
+    }
+
+    private static boolean isSharded(String board) {
+        return BoardRegistry.MAIN.equals(board);
+    }
+
+    private String owner(CreateMessageDTO cell) {
+        String owner = regionOwnership.ownerOf(cell.rowIndex(), cell.colIndex());
+        if (owner == null) {
+            throw new ServiceOverloadedException("The cluster has no members yet. Please retry in a moment.", 1);
+        }
+        return owner;
+    }
+}
@@ -0,0 +1,50 @@
+package com.flux.entropia.service.impl;
+
+import com.flux.entropia.cluster.ClusterClient;
+import com.flux.entropia.cluster.ClusterMembership;
+import com.flux.entropia.dto.MessageNodeDTO;
+import com.flux.entropia.dto.SearchResultDTO;
+import com.flux.entropia.service.SearchService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * {@link SearchService} of a sharded deployment. Each node indexes only the cells it holds, so a search asks every
+ * member for its newest matches and keeps the newest of all; the totals add up since the members hold disjoint cells.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "flux.cluster", name = "enabled", havingValue = "true")
+public class ShardedSearchServiceImpl implements SearchService {
+
+    private final SearchServiceImpl delegate;
+    private final ClusterMembership membership;
+    private final ClusterClient clusterClient;
+
+    public ShardedSearchServiceImpl(SearchServiceImpl delegate, ClusterMembership membership, ClusterClient clusterClient) {
+        this.delegate = delegate;
+        this.membership = membership;
+        this.clusterClient = clusterClient;
+    }
+
+    @Override
+    public SearchResultDTO search(String query, int[] region, int limit) {
+        SearchResultDTO local = delegate.search(query, region, limit);
+        int total = local.total();
+        List<MessageNodeDTO> cells = new ArrayList<>(local.cells());
+        for (String member : membership.getMembers()) {
+            if (!member.equals(membership.getNodeId())) {
+                SearchResultDTO remote = clusterClient.search(member, query, region, limit);
+                total += remote.total();
+                cells.addAll(remote.cells());
+            }
+        }
+        cells.sort(Comparator.comparingLong(MessageNodeDTO::id).reversed());
+        return new SearchResultDTO(total, cells.size() > limit ? List.copyOf(cells.subList(0, limit)) : cells);
+    }
+}
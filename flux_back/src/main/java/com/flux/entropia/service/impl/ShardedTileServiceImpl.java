@@ -0,0 +1,72 @@
+package com.flux.entropia.service.impl;
+
+import com.flux.entropia.cluster.ClusterClient;
+import com.flux.entropia.cluster.RegionOwnership;
+import com.flux.entropia.dto.TileImageDTO;
+import com.flux.entropia.service.TileService;
+import com.flux.entropia.state.TileRasterizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link TileService} of a sharded deployment. Every owner of a region under the tile renders the tile from its own
+ * cells, with its own caches; the parts are then merged by {@link TileRasterizer#composite}. A tile within the
+ * regions of a single node is passed through unchanged.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "flux.cluster", name = "enabled", havingValue = "true")
+public class ShardedTileServiceImpl implements TileService {
+
+    private final TileServiceImpl delegate;
+    private final RegionOwnership regionOwnership;
+    private final ClusterClient clusterClient;
+
+    public ShardedTileServiceImpl(TileServiceImpl delegate, RegionOwnership regionOwnership, ClusterClient clusterClient) {
+        this.delegate = delegate;
+        this.regionOwnership = regionOwnership;
+        this.clusterClient = clusterClient;
+    }
+
+    @Override
+    public TileImageDTO getTile(int level, int x, int y) {
+        // Also validates the tile coordinates before any other node is asked.
+        TileImageDTO local = delegate.getTile(level, x, y);
+        long cellsPerSide = (long) TileRasterizer.TILE_SIZE << level;
+        Set<String> owners = regionOwnership.ownersOf(y * cellsPerSide, (y + 1) * cellsPerSide - 1,
+            x * cellsPerSide, (x + 1) * cellsPerSide - 1);
+        List<byte[]> parts = new ArrayList<>(owners.size());
+        for (String owner : owners) {
+            parts.add(regionOwnership.isLocal(owner) ? local.png() : clusterClient.getTile(owner, level, x, y));
+        }
+        if (parts.size() == 1) {
+            byte[] png = parts.get(0);
+            return png == local.png() ? local : new TileImageDTO(png, DigestUtils.md5DigestAsHex(png));
+        }
+        try {
+            List<int[]> layers = new ArrayList<>(parts.size());
+            for (byte[] png : parts) {
+                layers.add(TileRasterizer.decode(png));
+            }
+            byte[] png = TileRasterizer.encode(TileRasterizer.composite(layers));
+            return new TileImageDTO(png, DigestUtils.md5DigestAsHex(png));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to merge the parts of a tile", e);
+        }
+    }
+
+    /**
+     * The tile rendered from the cells this node holds, for another node merging it.
+     */
+    public TileImageDTO getTileLocally(int level, int x, int y) {
+        return delegate.getTile(level, x, y);
+    }
+}
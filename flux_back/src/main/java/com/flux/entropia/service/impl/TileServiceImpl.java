@@ -0,0 +1,303 @@
+package com.flux.entropia.service.impl;
+
+import com.flux.entropia.config.FluxProperties;
+import com.flux.entropia.dto.TileImageDTO;
+import com.flux.entropia.exception.ServiceOverloadedException;
+import com.flux.entropia.metrics.FluxMetrics;
+import com.flux.entropia.service.TileService;
+import com.flux.entropia.state.CanvasStateStore;
+import com.flux.entropia.state.TileRasterizer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.imageio.ImageIO;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serves overview tiles rendered from the in-memory canvas state by {@link TileRasterizer}.
+ * <p>
+ * Rendered tiles are kept in memory together with their pixels. Every cell change marks the pixel covering it dirty
+ * in the cached tiles of each level, and the next request for such a tile recomputes only its dirty pixels before
+ * re-encoding it; tiles nobody looks at cost nothing but the marking. The least recently used tiles beyond the memory
+ * capacity are written to disk and dropped from memory; a change to a tile on disk discards that copy. Empty tiles are
+ * not written, since rendering one again costs no more than reading it, and the disk holds at most a fixed number of
+ * tiles, dropping those written first.
+ * <p>
+ * Each image is tagged with a strong ETag over its bytes, so clients revalidating an unchanged tile get a 304.
+ */
+@Service
+@Slf4j
+public class TileServiceImpl implements TileService {
+
+    private static final String SOURCE_MEMORY = "memory";
+    private static final String SOURCE_PATCHED = "patched";
+    private static final String SOURCE_DISK = "disk";
+    private static final String SOURCE_RENDERED = "rendered";
+
+    private final CanvasStateStore canvasStateStore;
+    private final FluxMetrics fluxMetrics;
+    private final int maxLevel;
+    private final int memoryCapacity;
+    private final int diskCapacity;
+    // Null when the disk tier is disabled.
+    private final Path diskDirectory;
+
+    private final ConcurrentHashMap<TileKey, Tile> memory = new ConcurrentHashMap<>();
+    // Tiles whose file on disk is up to date.
+    private final Set<TileKey> onDisk = ConcurrentHashMap.newKeySet();
+    // Tiles that have a file on disk, current or not, in the order the files were created.
+    private final Set<TileKey> diskFiles = ConcurrentHashMap.newKeySet();
+    private final Queue<TileKey> diskFileOrder = new ConcurrentLinkedQueue<>();
+    private final TileImageDTO emptyImage;
+
+    public TileServiceImpl(CanvasStateStore canvasStateStore, FluxProperties fluxProperties, FluxMetrics fluxMetrics) {
+        FluxProperties.Tiles properties = fluxProperties.getTiles();
+        this.canvasStateStore = canvasStateStore;
+        this.fluxMetrics = fluxMetrics;
+        this.maxLevel = properties.getMaxLevel();
+        this.memoryCapacity = properties.getMemoryCapacity();
+        this.diskCapacity = properties.getDiskCapacity();
+        this.diskDirectory = properties.getDiskPath().isBlank() ? null : Path.of(properties.getDiskPath());
+        // Encode in memory rather than through ImageIO's temporary files.
+        ImageIO.setUseCache(false);
+        this.emptyImage = image(encode(null));
+        canvasStateStore.addListener(this::cellChanged);
+    }
+
+    @PostConstruct
+    public void clearDisk() {
+        if (diskDirectory == null) {
+            return;
+        }
+        try {
+            FileSystemUtils.deleteRecursively(diskDirectory);
+        } catch (IOException e) {
+            log.warn("Failed to clear the tile directory {}", diskDirectory.toAbsolutePath(), e);
+        }
+    }
+
+    @Override
+    public TileImageDTO getTile(int level, int x, int y) {
+        if (level < 0 || level > maxLevel) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tile level must be between 0 and " + maxLevel);
+        }
+        int minTile = Math.floorDiv(Integer.MIN_VALUE >> level, TileRasterizer.TILE_SIZE);
+        int maxTile = Math.floorDiv(Integer.MAX_VALUE >> level, TileRasterizer.TILE_SIZE);
+        if (x < minTile || x > maxTile || y < minTile || y > maxTile) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tile is outside the canvas");
+        }
+        if (!canvasStateStore.isLoaded()) {
+            throw new ServiceOverloadedException("The canvas is still loading. Please retry in a moment.", 5);
+        }
+
+        long start = System.nanoTime();
+        TileKey key = new TileKey(level, x, y);
+        Tile tile = memory.get(key);
+        if (tile == null) {
+            Tile created = new Tile();
+            tile = memory.putIfAbsent(key, created);
+            if (tile == null) {
+                tile = created;
+                evictIfFull();
+            }
+        }
+        tile.lastAccess = System.nanoTime();
+
+        String source;
+        TileImageDTO image;
+        tile.lock.lock();
+        try {
+            source = tile.image == null ? load(key, tile) : SOURCE_MEMORY;
+            if (!tile.dirty.isEmpty() && patch(key, tile) && source.equals(SOURCE_MEMORY)) {
+                source = SOURCE_PATCHED;
+            }
+            image = tile.image;
+        } finally {
+            tile.lock.unlock();
+        }
+        fluxMetrics.recordTile(source, start);
+        return image;
+    }
+
+    /**
+     * Marks the pixel covering the cell dirty in every cached tile containing it.
+     * The store is updated before listeners run, so a tile rendered concurrently either sees the change or is patched.
+     */
+    private void cellChanged(int rowIndex, int colIndex) {
+        for (int level = 0; level <= maxLevel; level++) {
+            int[] location = TileRasterizer.locate(level, rowIndex, colIndex);
+            TileKey key = new TileKey(level, location[0], location[1]);
+            Tile tile = memory.get(key);
+            if (tile != null) {
+                tile.dirty.add(location[2]);
+            }
+            onDisk.remove(key);
+        }
+    }
+
+    /**
+     * Fills a tile that has just been put in memory, from disk if its file there is current.
+     * Must hold the tile's lock.
+     */
+    private String load(TileKey key, Tile tile) {
+        if (onDisk.remove(key)) {
+            try {
+                byte[] png = Files.readAllBytes(path(key));
+                tile.pixels = TileRasterizer.decode(png);
+                tile.image = image(png);
+                return SOURCE_DISK;
+            } catch (IOException e) {
+                log.warn("Failed to read tile {} from disk, rendering it again", key, e);
+            }
+        }
+        // Changes from here on are rendered or patched; the ones before are already in the store.
+        tile.dirty.clear();
+        tile.pixels = TileRasterizer.render(canvasStateStore, key.level(), key.x(), key.y());
+        tile.image = tile.pixels != null ? image(encode(tile.pixels)) : emptyImage;
+        return SOURCE_RENDERED;
+    }
+
+    /**
+     * Recomputes the dirty pixels of a tile and re-encodes it if any of them changed.
+     * Must hold the tile's lock.
+     *
+     * @return true if the image changed.
+     */
+    private boolean patch(TileKey key, Tile tile) {
+        int[] pixels = tile.pixels;
+        boolean changed = false;
+        for (Iterator<Integer> it = tile.dirty.iterator(); it.hasNext(); ) {
+            int index = it.next();
+            it.remove();
+            int pixel = TileRasterizer.renderPixel(canvasStateStore, key.level(), key.x(), key.y(), index);
+            if (pixel != (pixels != null ? pixels[index] : 0)) {
+                if (pixels == null) {
+                    pixels = new int[TileRasterizer.TILE_SIZE * TileRasterizer.TILE_SIZE];
+                }
+                pixels[index] = pixel;
+                changed = true;
+            }
+        }
+        if (!changed) {
+            return false;
+        }
+        tile.pixels = TileRasterizer.isEmpty(pixels) ? null : pixels;
+        tile.image = tile.pixels != null ? image(encode(tile.pixels)) : emptyImage;
+        return true;
+    }
+
+    private void evictIfFull() {
+        while (memory.size() > memoryCapacity) {
+            Map.Entry<TileKey, Tile> oldest = null;
+            for (Map.Entry<TileKey, Tile> entry : memory.entrySet()) {
+                if (oldest == null || entry.getValue().lastAccess < oldest.getValue().lastAccess) {
+                    oldest = entry;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            evict(oldest.getKey(), oldest.getValue());
+        }
+    }
+
+    /**
+     * Drops a tile from memory, writing it to disk first if it is rendered, clean and not empty.
+     * The file is only marked current before the tile leaves memory, and unmarked again if the tile turned dirty
+     * meanwhile, so a change racing with the eviction is never lost.
+     */
+    private void evict(TileKey key, Tile tile) {
+        tile.lock.lock();
+        try {
+            if (diskDirectory != null && tile.image != null && tile.pixels != null && tile.dirty.isEmpty()) {
+                try {
+                    Path path = path(key);
+                    Files.createDirectories(path.getParent());
+                    Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+                    Files.write(tmp, tile.image.png());
+                    Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    if (diskFiles.add(key)) {
+                        diskFileOrder.add(key);
+                    }
+                    onDisk.add(key);
+                } catch (IOException e) {
+                    log.warn("Failed to write tile {} to disk", key, e);
+                }
+            }
+            memory.remove(key, tile);
+            if (!tile.dirty.isEmpty()) {
+                onDisk.remove(key);
+            }
+        } finally {
+            tile.lock.unlock();
+        }
+        trimDisk();
+    }
+
+    /**
+     * Deletes the oldest files while the disk holds more tiles than its capacity. A tile whose file is deleted while
+     * it is being read is rendered again.
+     */
+    private void trimDisk() {
+        while (diskFiles.size() > diskCapacity) {
+            TileKey oldest = diskFileOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            onDisk.remove(oldest);
+            diskFiles.remove(oldest);
+            try {
+                Files.deleteIfExists(path(oldest));
+            } catch (IOException e) {
+                log.warn("Failed to delete tile {} from disk", oldest, e);
+            }
+        }
+    }
+
+    private Path path(TileKey key) {
+        return diskDirectory.resolve(Integer.toString(key.level())).resolve(key.x() + "_" + key.y() + ".png");
+    }
+
+    private static byte[] encode(int[] pixels) {
+        try {
+            return TileRasterizer.encode(pixels);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode a tile", e);
+        }
+    }
+
+    private static TileImageDTO image(byte[] png) {
+        return new TileImageDTO(png, DigestUtils.md5DigestAsHex(png));
+    }
+
+    private record TileKey(int level, int x, int y) {
+    }
+
+    private static final class Tile {
+        // Indexes of the pixels whose cells changed since the tile was last brought up to date.
+        final Set<Integer> dirty = ConcurrentHashMap.newKeySet();
+        volatile long lastAccess = System.nanoTime();
+        // Not a monitor: it is held across disk I/O, which would pin a virtual thread to its carrier.
+        final ReentrantLock lock = new ReentrantLock();
+
+        // Guarded by lock; the image is null until the tile is first loaded, the pixels are null while it is empty.
+        int[] pixels;
+        TileImageDTO image;
+    }
+}
@@ -0,0 +1,234 @@
+package com.flux.entropia.state;
+
+import com.flux.entropia.common.Colors;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+/**
+ * Reads and writes the compact binary snapshot of {@link CanvasStateStore}.
+ * <p>
+ * Layout (big-endian):
+ * <pre>
+ * header : int magic "FLXS" | int version | long highWaterMark | long deletionMark | long writtenAt (epoch millis)
+ *          | int cellCount
+ * record : int row | int col | long id | int color (0xRRGGBB, -1 = none)
+ *          | int contentLength (-1 = null) | UTF-8 content bytes
+ * </pre>
+ * Version 2 files, without the deletion mark and the time of writing, are still loaded with a deletion mark of 0 and
+ * the file's modification time; so are version 1 files, which also stored the color as a length-prefixed "#RRGGBB"
+ * string.
+ * Files are written to a temporary sibling and atomically moved into place, so a crash never leaves a
+ * half-written snapshot behind. Loading maps the file with a {@link MappedByteBuffer}, which lets the OS page
+ * it in without copying it through the Java heap.
+ */
+@Slf4j
+public final class CanvasSnapshotFile {
+
+    private static final int MAGIC = 0x464C5853; // "FLXS"
+    private static final int FORMAT_VERSION = 3;
+    private static final int FORMAT_VERSION_NO_DELETION_MARK = 2;
+    private static final int FORMAT_VERSION_STRING_COLORS = 1;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 8 + 4;
+    private static final int HEADER_SIZE_NO_DELETION_MARK = 4 + 4 + 8 + 4;
+    // Row, column and id of a record, before its color.
+    private static final int RECORD_KEY_SIZE = 4 + 4 + 8;
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private CanvasSnapshotFile() {
+    }
+
+    /**
+     * Summary of a written or loaded snapshot.
+     *
+     * @param highWaterMark The highest history id contained in the snapshot.
+     * @param deletionMark  The highest id of the deletion log when the snapshot was started.
+     * @param writtenAt     When the snapshot was written, in epoch milliseconds.
+     * @param cellCount     The number of cells in the snapshot.
+     */
+    public record SnapshotInfo(long highWaterMark, long deletionMark, long writtenAt, int cellCount) {
+    }
+
+    /**
+     * Writes the current store contents to the given path.
+     * The high-water mark is captured before iterating, so any row written concurrently is either in the
+     * snapshot or above the mark and replayed on the next load; the caller reads the deletion mark before that.
+     * Both marks can miss changes applied out of id order, see {@link CanvasStateStore#ID_REORDER_MARGIN}.
+     *
+     * @param deletionMark the highest id of the deletion log, read before calling.
+     */
+    public static SnapshotInfo write(CanvasStateStore store, long deletionMark, Path path) throws IOException {
+        long highWaterMark = store.getHighWaterMark();
+        long writtenAt = System.currentTimeMillis();
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        int[] count = {0};
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            // Reserve the header; the cell count is only known once iteration is done.
+            buffer.position(HEADER_SIZE);
+
+            IOException[] failure = {null};
+            store.forEach((key, cell) -> {
+                if (failure[0] != null) {
+                    return;
+                }
+                try {
+                    writeRecord(channel, buffer, key, cell);
+                    count[0]++;
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            drain(channel, buffer);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(highWaterMark).putLong(deletionMark).putLong(writtenAt)
+                .putInt(count[0]).flip();
+            channel.write(header, 0);
+            channel.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new SnapshotInfo(highWaterMark, deletionMark, writtenAt, count[0]);
+    }
+
+    /**
+     * Loads a snapshot into the store, unless it was written before the given time.
+     *
+     * @param notBefore the oldest acceptable time of writing, in epoch milliseconds.
+     * @return the snapshot summary, or null if the file does not exist, is not a valid snapshot or is too old.
+     * @throws IOException if the file cannot be read, or turns out truncated or corrupt after cells have been loaded
+     *                     from it.
+     */
+    public static SnapshotInfo load(Path path, CanvasStateStore store, long notBefore) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE_NO_DELETION_MARK || size > Integer.MAX_VALUE) {
+                log.warn("Ignoring canvas snapshot {} with unexpected size {}", path, size);
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int magic = buffer.getInt();
+            int version = buffer.getInt();
+            if (magic != MAGIC || version < FORMAT_VERSION_STRING_COLORS || version > FORMAT_VERSION
+                || (version == FORMAT_VERSION && size < HEADER_SIZE)) {
+                log.warn("Ignoring canvas snapshot {} with unknown format", path);
+                return null;
+            }
+            long highWaterMark = buffer.getLong();
+            long deletionMark = 0;
+            long writtenAt;
+            if (version == FORMAT_VERSION) {
+                deletionMark = buffer.getLong();
+                writtenAt = buffer.getLong();
+            } else {
+                writtenAt = Files.getLastModifiedTime(path).toMillis();
+            }
+            if (writtenAt < notBefore) {
+                log.warn("Ignoring canvas snapshot {} written at {}, older than the retained deletion log", path,
+                    Instant.ofEpochMilli(writtenAt));
+                return null;
+            }
+            int cellCount = buffer.getInt();
+            if (cellCount < 0) {
+                throw new IOException("Negative cell count " + cellCount);
+            }
+            for (int i = 0; i < cellCount; i++) {
+                require(buffer, RECORD_KEY_SIZE, i);
+                int row = buffer.getInt();
+                int col = buffer.getInt();
+                long id = buffer.getLong();
+                int bgColor;
+                if (version != FORMAT_VERSION_STRING_COLORS) {
+                    require(buffer, 4, i);
+                    bgColor = buffer.getInt();
+                } else {
+                    require(buffer, 2, i);
+                    bgColor = readStringColor(buffer, i);
+                }
+                require(buffer, 4, i);
+                String content = readString(buffer, buffer.getInt(), i);
+                store.apply(id, row, col, content, bgColor);
+            }
+            return new SnapshotInfo(highWaterMark, deletionMark, writtenAt, cellCount);
+        }
+    }
+
+    private static void writeRecord(FileChannel channel, ByteBuffer buffer, long key, CellState cell) throws IOException {
+        byte[] content = cell.content() != null ? cell.content().getBytes(StandardCharsets.UTF_8) : null;
+        int recordSize = 8 + 8 + 4 + 4 + (content != null ? content.length : 0);
+        if (recordSize > buffer.capacity()) {
+            throw new IOException("Cell record of " + recordSize + " bytes exceeds the snapshot buffer");
+        }
+        if (buffer.remaining() < recordSize) {
+            drain(channel, buffer);
+        }
+        buffer.putLong(key);
+        buffer.putLong(cell.id());
+        buffer.putInt(cell.bgColor());
+        buffer.putInt(content != null ? content.length : -1);
+        if (content != null) {
+            buffer.put(content);
+        }
+    }
+
+    /**
+     * Checks that the file holds the next bytes of a record, so a truncated or corrupt file is rejected rather than
+     * read past its end or into a huge allocation.
+     */
+    private static void require(ByteBuffer buffer, int bytes, int record) throws IOException {
+        if (buffer.remaining() < bytes) {
+            throw new IOException("Snapshot is truncated or corrupt at record " + record + ": " + bytes
+                + " bytes needed, " + buffer.remaining() + " left");
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static int readStringColor(ByteBuffer buffer, int record) throws IOException {
+        String color = readString(buffer, buffer.getShort(), record);
+        try {
+            return color != null ? Colors.parse(color) : Colors.NONE;
+        } catch (IllegalArgumentException e) {
+            return Colors.NONE;
+        }
+    }
+
+    private static String readString(ByteBuffer buffer, int length, int record) throws IOException {
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0) {
+            throw new IOException("Record " + record + " has a negative string length " + length);
+        }
+        require(buffer, length, record);
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
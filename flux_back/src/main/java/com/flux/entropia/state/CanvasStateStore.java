@@ -0,0 +1,253 @@
+package com.flux.entropia.state;
+
+import com.flux.entropia.common.CellKey;
+import com.flux.entropia.common.Colors;
+import com.flux.entropia.dto.ChunkSummaryDTO;
+import com.flux.entropia.entity.Message;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * In-memory view of the latest state of every painted cell.
+ * Keyed by {@link CellKey}; a cell only ever moves forward to a higher history id, so rows can be applied
+ * in any order (snapshot, replay and live writes) and the store still converges to the database's latest state.
+ * This also makes it safe for several warm-up partitions to load into it concurrently.
+ * <p>
+ * Alongside the cells it maintains a {@link ChunkSummary} per chunk, using the same chunk size as the heatmap:
+ * the painted cells, their number and their colors. Summaries are updated under the cell's map entry lock, so
+ * concurrent changes of a cell reach its summary in the same order as the cell itself.
+ * <p>
+ * When the canvas is sharded across nodes, an {@link Ownership} limits the store to the cells of this node's regions.
+ */
+@Component
+public class CanvasStateStore {
+
+    /**
+     * Edge length of a heat grid chunk, in cells. Matches {@code HeatmapServiceImpl.CHUNK_SIZE}.
+     */
+    public static final int CHUNK_SIZE = 9;
+
+    /**
+     * Ids are assigned at insert but applied after commit, so a slow transaction can apply a lower id after a higher
+     * one. Replays that start from an applied id start this many ids earlier to cover those.
+     */
+    public static final long ID_REORDER_MARGIN = 4096;
+
+    private final ConcurrentHashMap<Long, CellState> cells = new ConcurrentHashMap<>();
+
+    // Summaries of the painted cells per chunk, keyed by CellKey.pack(gridY, gridX). Chunks drop out when they become empty.
+    private final ConcurrentHashMap<Long, ChunkSummary> chunks = new ConcurrentHashMap<>();
+
+    // Highest history id applied so far; rows above it are replayed from MySQL on startup.
+    private final AtomicLong highWaterMark = new AtomicLong();
+
+    // Bumped on every mutation so the snapshot writer can skip unchanged canvases.
+    private final AtomicLong version = new AtomicLong();
+
+    // Set once the startup warm-up has rebuilt the store from the snapshot and MySQL.
+    private volatile boolean loaded;
+
+    private final List<CellChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Cells outside of it are not held; everything by default.
+    private volatile Ownership ownership = (rowIndex, colIndex) -> true;
+
+    /**
+     * Decides which cells the store holds.
+     */
+    @FunctionalInterface
+    public interface Ownership {
+        boolean owns(int rowIndex, int colIndex);
+    }
+
+    /**
+     * Applies a history row to the store.
+     * @param message the history row.
+     */
+    public void apply(Message message) {
+        apply(message.getId(), message.getRowIndex(), message.getColIndex(), message.getContent(), Colors.unbox(message.getBgColor()));
+    }
+
+    /**
+     * Applies a cell state unless the store already holds a newer one for the same cell.
+     * @param bgColor the packed color, or {@link Colors#NONE}.
+     * @return true if the stored state changed.
+     */
+    public boolean apply(long id, int rowIndex, int colIndex, String content, int bgColor) {
+        if (!ownership.owns(rowIndex, colIndex)) {
+            highWaterMark.accumulateAndGet(id, Math::max);
+            return false;
+        }
+        CellState incoming = new CellState(id, content, bgColor);
+        CellState result = cells.compute(CellKey.pack(rowIndex, colIndex), (key, current) -> {
+            if (current != null && incoming.id() <= current.id()) {
+                return current;
+            }
+            updateChunk(rowIndex, colIndex, current, incoming);
+            return incoming;
+        });
+        highWaterMark.accumulateAndGet(id, Math::max);
+        if (result == incoming) {
+            version.incrementAndGet();
+            notifyChanged(rowIndex, colIndex);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes a cell from the store.
+     * @param rowIndex the row index of the cell.
+     * @param colIndex the column index of the cell.
+     */
+    public void remove(int rowIndex, int colIndex) {
+        boolean[] removed = new boolean[1];
+        cells.computeIfPresent(CellKey.pack(rowIndex, colIndex), (key, current) -> {
+            updateChunk(rowIndex, colIndex, current, null);
+            removed[0] = true;
+            return null;
+        });
+        if (removed[0]) {
+            version.incrementAndGet();
+            notifyChanged(rowIndex, colIndex);
+        }
+    }
+
+    /**
+     * Removes a cell from the store unless it has changed since the given version.
+     * @param id the id of the history row the cell is removed as of.
+     * @return true if the cell was removed.
+     */
+    public boolean remove(int rowIndex, int colIndex, long id) {
+        boolean[] removed = new boolean[1];
+        cells.computeIfPresent(CellKey.pack(rowIndex, colIndex), (key, current) -> {
+            if (current.id() > id) {
+                return current;
+            }
+            updateChunk(rowIndex, colIndex, current, null);
+            removed[0] = true;
+            return null;
+        });
+        if (removed[0]) {
+            version.incrementAndGet();
+            notifyChanged(rowIndex, colIndex);
+        }
+        return removed[0];
+    }
+
+    /**
+     * Restricts the store to the cells the given ownership accepts: later rows for other cells are ignored, and the
+     * cells already held for them are removed.
+     */
+    public void retain(Ownership ownership) {
+        this.ownership = ownership;
+        cells.forEach((key, cell) -> {
+            if (!ownership.owns(CellKey.row(key), CellKey.col(key))) {
+                remove(CellKey.row(key), CellKey.col(key));
+            }
+        });
+    }
+
+    /**
+     * Removes all cells, e.g. those read from a snapshot that failed to load halfway.
+     */
+    public void clear() {
+        cells.forEach((key, cell) -> remove(CellKey.row(key), CellKey.col(key)));
+    }
+
+    /**
+     * Registers a listener for changes made after the store is loaded; the warm-up itself is not reported.
+     */
+    public void addListener(CellChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    private void notifyChanged(int rowIndex, int colIndex) {
+        if (!loaded) {
+            return;
+        }
+        for (CellChangeListener listener : listeners) {
+            listener.cellChanged(rowIndex, colIndex);
+        }
+    }
+
+    /**
+     * @return the number of painted cells in the given heat grid chunk.
+     */
+    public int getChunkCount(int gridY, int gridX) {
+        ChunkSummary summary = chunks.get(CellKey.pack(gridY, gridX));
+        return summary != null ? summary.count() : 0;
+    }
+
+    /**
+     * @return the summary of the given heat grid chunk, or null if it has no painted cell.
+     */
+    public ChunkSummaryDTO getChunkSummary(int gridY, int gridX) {
+        ChunkSummary summary = chunks.get(CellKey.pack(gridY, gridX));
+        return summary != null ? summary.toDTO(gridY, gridX) : null;
+    }
+
+    /**
+     * @return the number of chunks that contain at least one painted cell.
+     */
+    public int getPaintedChunkCount() {
+        return chunks.size();
+    }
+
+    // Called with the cell's entry locked, which serializes the updates of each cell.
+    private void updateChunk(int rowIndex, int colIndex, CellState before, CellState after) {
+        long chunkKey = CellKey.pack(Math.floorDiv(rowIndex, CHUNK_SIZE), Math.floorDiv(colIndex, CHUNK_SIZE));
+        int index = Math.floorMod(rowIndex, CHUNK_SIZE) * CHUNK_SIZE + Math.floorMod(colIndex, CHUNK_SIZE);
+        chunks.compute(chunkKey, (key, summary) -> {
+            ChunkSummary target = summary != null ? summary : new ChunkSummary();
+            target.update(index, before, after);
+            return target.isEmpty() ? null : target;
+        });
+    }
+
+    /**
+     * @return the latest state of the cell, or null if it is empty.
+     */
+    public CellState get(int rowIndex, int colIndex) {
+        return cells.get(CellKey.pack(rowIndex, colIndex));
+    }
+
+    /**
+     * Iterates over all cells. The iteration is weakly consistent with concurrent writes.
+     * @param action receives the packed cell key and its state.
+     */
+    public void forEach(BiConsumer<Long, CellState> action) {
+        cells.forEach(action);
+    }
+
+    /**
+     * Marks the store as fully rebuilt. Until then it must not be persisted or served from.
+     */
+    public void markLoaded() {
+        this.loaded = true;
+        for (CellChangeListener listener : listeners) {
+            listener.storeLoaded();
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public int size() {
+        return cells.size();
+    }
+
+    public long getHighWaterMark() {
+        return highWaterMark.get();
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+}
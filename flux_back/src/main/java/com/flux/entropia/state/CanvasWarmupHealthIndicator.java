@@ -0,0 +1,33 @@
+package com.flux.entropia.state;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports OUT_OF_SERVICE until the canvas state warm-up has finished.
+ * Included in the readiness group, so load balancers keep the instance out of rotation while it is still loading.
+ */
+@Component
+@RequiredArgsConstructor
+public class CanvasWarmupHealthIndicator implements HealthIndicator {
+
+    private final WarmupProgress progress;
+    private final CanvasStateStore canvasStateStore;
+
+    @Override
+    public Health health() {
+        Health.Builder builder = switch (progress.getPhase()) {
+            case READY -> Health.up();
+            case FAILED -> Health.down();
+            default -> Health.outOfService();
+        };
+        return builder
+            .withDetail("phase", progress.getPhase())
+            .withDetail("rowsLoaded", progress.getRowsLoaded())
+            .withDetail("partitions", progress.getPartitionsDone() + "/" + progress.getPartitionsTotal())
+            .withDetail("cells", canvasStateStore.size())
+            .build();
+    }
+}
@@ -0,0 +1,164 @@
+package com.flux.entropia.state;
+
+import com.flux.entropia.board.BoardRegistry;
+import com.flux.entropia.config.FluxProperties;
+import com.flux.entropia.entity.Message;
+import com.flux.entropia.mapper.MessageMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.ResultContext;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads history rows into {@link CanvasStateStore} in parallel.
+ * The id range to load is split into partitions that are read concurrently, each with its own keyset-paginated
+ * streaming cursor. Because the store keeps the highest id per cell, partitions can be merged in any order.
+ * <p>
+ * Concurrency is bounded both by configuration and by the Hikari pool, leaving headroom for live traffic.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CanvasWarmupLoader {
+
+    // Connections left untouched for request handling while the warm-up runs.
+    private static final int RESERVED_CONNECTIONS = 2;
+
+    // Partitions per worker, so a slow (dense) id range does not leave the other workers idle.
+    private static final int PARTITIONS_PER_WORKER = 4;
+
+    private final MessageMapper messageMapper;
+    private final CanvasStateStore canvasStateStore;
+    private final FluxProperties fluxProperties;
+    private final DataSource dataSource;
+    private final WarmupProgress progress;
+
+    /**
+     * Loads all history rows with an id in (fromId, toId] into the store.
+     *
+     * @return the number of rows loaded.
+     */
+    public long load(long fromId, long toId) {
+        if (toId <= fromId) {
+            progress.begin(0, 0, 0);
+            return 0;
+        }
+        int workers = resolveParallelism();
+        List<long[]> partitions = split(fromId, toId, workers * PARTITIONS_PER_WORKER);
+        progress.begin(toId - fromId, partitions.size(), workers);
+        log.info("Loading canvas history ids ({}, {}] in {} partitions on {} workers", fromId, toId, partitions.size(), workers);
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "canvas-warmup-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "canvas-warmup-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(this::logProgress, 5, 5, TimeUnit.SECONDS);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>(partitions.size());
+            for (long[] partition : partitions) {
+                futures.add(executor.submit(() -> loadPartition(partition[0], partition[1])));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Canvas warm-up was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Canvas warm-up partition failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            reporter.shutdownNow();
+        }
+        return progress.getRowsLoaded();
+    }
+
+    /**
+     * Streams one partition (fromId, toId] into the store, page by page.
+     */
+    private void loadPartition(long fromId, long toId) {
+        int pageSize = fluxProperties.getReplay().getPageSize();
+        long cursor = fromId;
+        long[] lastId = new long[1];
+        int[] pageCount = new int[1];
+        while (cursor < toId) {
+            pageCount[0] = 0;
+            messageMapper.streamChangesAfter(BoardRegistry.MAIN, cursor, toId, null, null, null, null, pageSize,
+                (ResultContext<? extends Message> context) -> {
+                    Message message = context.getResultObject();
+                    canvasStateStore.apply(message);
+                    lastId[0] = message.getId();
+                    pageCount[0]++;
+                });
+            progress.addRows(pageCount[0]);
+            if (pageCount[0] < pageSize) {
+                break;
+            }
+            cursor = lastId[0];
+        }
+        progress.partitionDone();
+    }
+
+    /**
+     * Resolves the number of concurrent workers: the configured value (or the number of cores), capped so that
+     * the warm-up never takes more than the pool can spare. The warm-up always reads from the primary pool, since a
+     * lagging replica could miss rows below the high-water mark.
+     */
+    private int resolveParallelism() {
+        Integer configured = fluxProperties.getWarmup().getParallelism();
+        int workers = configured != null && configured > 0 ? configured : Runtime.getRuntime().availableProcessors();
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+                workers = Math.min(workers, hikari.getMaximumPoolSize() - RESERVED_CONNECTIONS);
+            }
+        } catch (SQLException e) {
+            log.debug("Could not inspect the connection pool size: {}", e.getMessage());
+        }
+        return Math.max(1, workers);
+    }
+
+    /**
+     * Splits (fromId, toId] into contiguous, non-overlapping ranges of roughly equal width.
+     */
+    static List<long[]> split(long fromId, long toId, int partitions) {
+        long span = toId - fromId;
+        int count = (int) Math.max(1, Math.min(partitions, span));
+        long width = span / count;
+        List<long[]> ranges = new ArrayList<>(count);
+        long lower = fromId;
+        for (int i = 0; i < count; i++) {
+            long upper = i == count - 1 ? toId : lower + width;
+            ranges.add(new long[]{lower, upper});
+            lower = upper;
+        }
+        return ranges;
+    }
+
+    private void logProgress() {
+        log.info("Canvas warm-up progress: {}/{} partitions, {} rows loaded ({}% of id range), {} cells in memory",
+            progress.getPartitionsDone(), progress.getPartitionsTotal(), progress.getRowsLoaded(),
+            progress.getPercentOfRange(), canvasStateStore.size());
+    }
+}
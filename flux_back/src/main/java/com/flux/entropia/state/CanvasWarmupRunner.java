@@ -0,0 +1,160 @@
+package com.flux.entropia.state;
+
+import com.flux.entropia.board.BoardRegistry;
+import com.flux.entropia.cluster.RegionOwnership;
+import com.flux.entropia.config.FluxProperties;
+import com.flux.entropia.dto.CreateMessageDTO;
+import com.flux.entropia.entity.Message;
+import com.flux.entropia.mapper.MessageMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.ResultContext;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rebuilds {@link CanvasStateStore} when the application starts.
+ * Loads the latest binary snapshot (if any) and then replays only the history rows above its high-water mark
+ * through the parallel {@link CanvasWarmupLoader}, so startup cost depends on the number of edits since the last
+ * snapshot and on the number of cores rather than on the size of the table. Both the rows and the deletion log are
+ * replayed from {@link CanvasStateStore#ID_REORDER_MARGIN} ids below the snapshot's marks, since the store may have
+ * applied a higher id before a lower one committed; the cells deleted since the snapshot are then re-read from MySQL.
+ * Without a snapshot, the deletion log is replayed from where it stood before the history was streamed: live writes
+ * reach the store during the warm-up, and a cell deleted meanwhile would otherwise come back with a row streamed
+ * from a read view older than the deletion.
+ * <p>
+ * Runs as an {@link ApplicationRunner}: Spring Boot only reports the readiness probe as ACCEPTING_TRAFFIC once
+ * all runners have completed, and {@link CanvasWarmupHealthIndicator} keeps the readiness group OUT_OF_SERVICE
+ * until the store is loaded.
+ * <p>
+ * In a sharded deployment the node instead loads the regions it owns through {@link RegionOwnership}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CanvasWarmupRunner implements ApplicationRunner {
+
+    private final CanvasStateStore canvasStateStore;
+    private final CanvasWarmupLoader canvasWarmupLoader;
+    private final WarmupProgress progress;
+    private final MessageMapper messageMapper;
+    private final FluxProperties fluxProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RegionOwnership regionOwnership;
+
+    // Cells re-read from MySQL per query when reconciling deletions.
+    private static final int RECONCILE_BATCH_SIZE = 500;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        progress.start();
+        try {
+            if (regionOwnership.isEnabled()) {
+                // Sharded: only the regions this node owns are loaded, straight from MySQL.
+                progress.begin(0, 0, 0);
+                regionOwnership.start();
+                canvasStateStore.markLoaded();
+                progress.finish(true);
+                log.info("Canvas state warm-up finished in {} ms: {} cells of owned regions in memory",
+                    progress.getElapsedMillis(), canvasStateStore.size());
+                return;
+            }
+            Long deletionMark = messageMapper.selectMaxDeletionId();
+            CanvasSnapshotFile.SnapshotInfo snapshot = loadSnapshot();
+            long fromId = snapshot != null ? Math.max(0, snapshot.highWaterMark() - CanvasStateStore.ID_REORDER_MARGIN) : 0;
+            Long maxId = messageMapper.selectMaxId(BoardRegistry.MAIN);
+            long replayed = canvasWarmupLoader.load(fromId, maxId != null ? maxId : fromId);
+            // A snapshot's mark is older than the one read before streaming, so it covers the streaming too.
+            long replayDeletionsFrom = snapshot != null ? snapshot.deletionMark() : deletionMark != null ? deletionMark : 0;
+            long reconciled = reconcileDeletions(Math.max(0, replayDeletionsFrom - CanvasStateStore.ID_REORDER_MARGIN));
+            canvasStateStore.markLoaded();
+            progress.finish(true);
+
+            log.info("Canvas state warm-up finished in {} ms: {} rows replayed, {} deleted cells reconciled, {} cells in memory",
+                progress.getElapsedMillis(), replayed, reconciled, canvasStateStore.size());
+        } catch (RuntimeException e) {
+            progress.finish(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Loads the snapshot file into the store.
+     *
+     * @return the loaded snapshot, or null if the full history has to be replayed.
+     */
+    private CanvasSnapshotFile.SnapshotInfo loadSnapshot() {
+        FluxProperties.Snapshot snapshot = fluxProperties.getSnapshot();
+        if (!snapshot.getEnabled()) {
+            return null;
+        }
+        Path path = Path.of(snapshot.getPath());
+        try {
+            // Older snapshots may miss deletions that have been purged from the log.
+            long notBefore = System.currentTimeMillis() - snapshot.getDeletionRetentionMs();
+            CanvasSnapshotFile.SnapshotInfo info = CanvasSnapshotFile.load(path, canvasStateStore, notBefore);
+            if (info == null) {
+                log.info("No usable canvas snapshot at {}, rebuilding from the full history", path);
+                return null;
+            }
+            progress.snapshotLoaded(info.cellCount());
+            log.info("Loaded canvas snapshot {} with {} cells (high-water mark {}, deletion mark {})", path,
+                info.cellCount(), info.highWaterMark(), info.deletionMark());
+            return info;
+        } catch (IOException | RuntimeException e) {
+            // Cells read before the failure may have been deleted since; start over from the full history.
+            log.warn("Failed to load canvas snapshot {}, rebuilding from the full history", path, e);
+            canvasStateStore.clear();
+            return null;
+        }
+    }
+
+    /**
+     * Brings the cells with a deletion logged after the given id back in line with MySQL: a version the store holds
+     * that has been deleted is replaced by the cell's latest surviving row, or dropped if there is none. Versions
+     * written after the deletion are kept.
+     *
+     * @return the number of cells checked.
+     */
+    private long reconcileDeletions(long afterId) {
+        List<Message> batch = new ArrayList<>(RECONCILE_BATCH_SIZE);
+        long[] count = new long[1];
+        messageMapper.streamDeletedCellsAfter(BoardRegistry.MAIN, afterId, (ResultContext<? extends Message> context) -> {
+            batch.add(context.getResultObject());
+            count[0]++;
+            if (batch.size() == RECONCILE_BATCH_SIZE) {
+                reconcile(batch);
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            reconcile(batch);
+        }
+        return count[0];
+    }
+
+    /**
+     * @param deleted each cell with the id of its newest deleted version.
+     */
+    private void reconcile(List<Message> deleted) {
+        List<CreateMessageDTO> cells = deleted.stream()
+            .map(cell -> new CreateMessageDTO(null, null, cell.getRowIndex(), cell.getColIndex(), null))
+            .toList();
+        List<Message> surviving = messageMapper.selectLatestForCells(BoardRegistry.MAIN, cells);
+        for (Message cell : deleted) {
+            canvasStateStore.remove(cell.getRowIndex(), cell.getColIndex(), cell.getId());
+        }
+        // Rows older than a version written meanwhile are ignored by the store.
+        surviving.forEach(canvasStateStore::apply);
+    }
+}
@@ -0,0 +1,17 @@
+package com.flux.entropia.state;
+
+/**
+ * Notified by {@link CanvasStateStore} whenever the latest state of a cell changes, once the store is loaded.
+ * Called on the writing thread, so implementations must be cheap and thread-safe.
+ */
+@FunctionalInterface
+public interface CellChangeListener {
+
+    void cellChanged(int rowIndex, int colIndex);
+
+    /**
+     * Called once the startup warm-up has rebuilt the store, on the warm-up thread; changes are reported from then on.
+     */
+    default void storeLoaded() {
+    }
+}
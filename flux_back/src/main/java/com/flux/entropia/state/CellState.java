@@ -0,0 +1,17 @@
+package com.flux.entropia.state;
+
+import com.flux.entropia.common.Colors;
+
+/**
+ * The latest state of a single painted cell, as held in memory by {@link CanvasStateStore}.
+ *
+ * @param id      The id of the history row that produced this state.
+ * @param content The text content of the cell.
+ * @param bgColor The background color of the cell, packed as 0xRRGGBB, or {@link Colors#NONE}.
+ */
+public record CellState(
+    long id,
+    String content,
+    int bgColor
+) {
+}
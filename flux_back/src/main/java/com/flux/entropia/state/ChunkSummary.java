@@ -0,0 +1,90 @@
+package com.flux.entropia.state;
+
+import com.flux.entropia.common.Colors;
+import com.flux.entropia.dto.ChunkSummaryDTO;
+
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Aggregate of the painted cells of one heat grid chunk, kept up to date by {@link CanvasStateStore} as cells change:
+ * which cells are painted, how many, and how many have each background color.
+ * <p>
+ * Cell {@code (r, c)} of the chunk, counted from its top-left corner, is bit {@code r * CHUNK_SIZE + c} of the
+ * occupancy bitmap.
+ */
+final class ChunkSummary {
+
+    private static final int CELLS = CanvasStateStore.CHUNK_SIZE * CanvasStateStore.CHUNK_SIZE;
+
+    private final long[] occupancy = new long[(CELLS + 63) / 64];
+    private int count;
+    // Painted cells per background color; cells with text only are counted under Colors.NONE.
+    private final Map<Integer, Integer> colors = new HashMap<>();
+
+    /**
+     * Replaces the state of one cell in the summary.
+     *
+     * @param index  the bit index of the cell.
+     * @param before the previous state, or null if the cell was empty.
+     * @param after  the new state, or null if the cell is now empty.
+     */
+    synchronized void update(int index, CellState before, CellState after) {
+        if (before != null) {
+            colors.merge(before.bgColor(), -1, (current, delta) -> current + delta == 0 ? null : current + delta);
+        }
+        if (after != null) {
+            colors.merge(after.bgColor(), 1, Integer::sum);
+        }
+        if (before == null && after != null) {
+            occupancy[index >>> 6] |= 1L << index;
+            count++;
+        } else if (before != null && after == null) {
+            occupancy[index >>> 6] &= ~(1L << index);
+            count--;
+        }
+    }
+
+    synchronized int count() {
+        return count;
+    }
+
+    synchronized boolean isEmpty() {
+        return count == 0;
+    }
+
+    synchronized ChunkSummaryDTO toDTO(int gridY, int gridX) {
+        return new ChunkSummaryDTO(gridY, gridX, count, dominantColor(), encodeOccupancy());
+    }
+
+    /**
+     * @return the most frequent background color (the lowest one on a tie), or null if no cell has one.
+     */
+    private Integer dominantColor() {
+        int best = Colors.NONE;
+        int bestCount = 0;
+        for (Map.Entry<Integer, Integer> entry : colors.entrySet()) {
+            int color = entry.getKey();
+            if (color == Colors.NONE) {
+                continue;
+            }
+            if (entry.getValue() > bestCount || entry.getValue() == bestCount && color < best) {
+                best = color;
+                bestCount = entry.getValue();
+            }
+        }
+        return Colors.box(best);
+    }
+
+    /**
+     * @return the occupancy bitmap as base64, least significant bit of the first byte first.
+     */
+    private String encodeOccupancy() {
+        byte[] bytes = new byte[(CELLS + 7) / 8];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (occupancy[i >>> 3] >>> ((i & 7) * 8));
+        }
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,207 @@
+package com.flux.entropia.state;
+
+import com.flux.entropia.common.CellKey;
+import com.flux.entropia.common.Colors;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Rasterizes square regions of {@link CanvasStateStore} into overview tiles of {@link #TILE_SIZE} pixels per side.
+ * <p>
+ * At level 0 a tile has one pixel per cell; every further level halves the resolution, so a pixel of level {@code n}
+ * covers {@code 2^n x 2^n} cells. Tile (x, y) of a level covers the cells whose column and row, divided by the
+ * cells per pixel and then by the tile size (rounding down), are x and y.
+ * <p>
+ * A pixel is the box-filtered average of its cells: the mean color of its painted cells, with an alpha equal to the
+ * painted share of the pixel. Cells with text but no background color are drawn in {@link #TEXT_COLOR}.
+ * Pixels are packed as ARGB ints, as used by {@link BufferedImage#TYPE_INT_ARGB}.
+ */
+public final class TileRasterizer {
+
+    public static final int TILE_SIZE = 256;
+
+    /**
+     * The color of cells that have text but no background color.
+     */
+    public static final int TEXT_COLOR = 0xC8C8C8;
+
+    private TileRasterizer() {
+    }
+
+    /**
+     * Renders a whole tile.
+     *
+     * @return the ARGB pixels of the tile, or null if it has no painted cell.
+     */
+    public static int[] render(CanvasStateStore store, int level, int tileX, int tileY) {
+        long cellsPerSide = (long) TILE_SIZE << level;
+        int[] pixels;
+        // Scanning every covered cell only pays off while the tile covers fewer cells than the store holds.
+        if (cellsPerSide * cellsPerSide <= store.size()) {
+            pixels = new int[TILE_SIZE * TILE_SIZE];
+            for (int i = 0; i < pixels.length; i++) {
+                pixels[i] = renderPixel(store, level, tileX, tileY, i);
+            }
+        } else {
+            pixels = renderFromCells(store, level, tileX, tileY);
+        }
+        return isEmpty(pixels) ? null : pixels;
+    }
+
+    /**
+     * Renders a single pixel of a tile by looking up each of the cells it covers.
+     *
+     * @param index the pixel index, {@code y * TILE_SIZE + x}.
+     * @return the ARGB pixel.
+     */
+    public static int renderPixel(CanvasStateStore store, int level, int tileX, int tileY, int index) {
+        int scale = 1 << level;
+        long firstRow = ((long) tileY * TILE_SIZE + index / TILE_SIZE) * scale;
+        long firstCol = ((long) tileX * TILE_SIZE + index % TILE_SIZE) * scale;
+        long red = 0;
+        long green = 0;
+        long blue = 0;
+        int painted = 0;
+        for (long row = firstRow; row < firstRow + scale; row++) {
+            for (long col = firstCol; col < firstCol + scale; col++) {
+                CellState cell = store.get((int) row, (int) col);
+                if (cell != null) {
+                    int color = colorOf(cell);
+                    red += color >>> 16;
+                    green += color >>> 8 & 0xFF;
+                    blue += color & 0xFF;
+                    painted++;
+                }
+            }
+        }
+        return average(red, green, blue, painted, scale * scale);
+    }
+
+    /**
+     * Renders a tile by iterating over all cells of the store, for tiles covering more cells than the store holds.
+     */
+    private static int[] renderFromCells(CanvasStateStore store, int level, int tileX, int tileY) {
+        int pixelCount = TILE_SIZE * TILE_SIZE;
+        long[] red = new long[pixelCount];
+        long[] green = new long[pixelCount];
+        long[] blue = new long[pixelCount];
+        int[] painted = new int[pixelCount];
+        store.forEach((key, cell) -> {
+            int pixelY = CellKey.row(key) >> level;
+            int pixelX = CellKey.col(key) >> level;
+            if (Math.floorDiv(pixelY, TILE_SIZE) != tileY || Math.floorDiv(pixelX, TILE_SIZE) != tileX) {
+                return;
+            }
+            int index = Math.floorMod(pixelY, TILE_SIZE) * TILE_SIZE + Math.floorMod(pixelX, TILE_SIZE);
+            int color = colorOf(cell);
+            red[index] += color >>> 16;
+            green[index] += color >>> 8 & 0xFF;
+            blue[index] += color & 0xFF;
+            painted[index]++;
+        });
+        int cellsPerPixel = 1 << (2 * level);
+        int[] pixels = new int[pixelCount];
+        for (int i = 0; i < pixelCount; i++) {
+            pixels[i] = average(red[i], green[i], blue[i], painted[i], cellsPerPixel);
+        }
+        return pixels;
+    }
+
+    /**
+     * @return the tile and pixel index covering the given cell at the given level, as {@code {tileX, tileY, index}}.
+     */
+    public static int[] locate(int level, int rowIndex, int colIndex) {
+        int pixelY = rowIndex >> level;
+        int pixelX = colIndex >> level;
+        return new int[]{
+            Math.floorDiv(pixelX, TILE_SIZE),
+            Math.floorDiv(pixelY, TILE_SIZE),
+            Math.floorMod(pixelY, TILE_SIZE) * TILE_SIZE + Math.floorMod(pixelX, TILE_SIZE)
+        };
+    }
+
+    /**
+     * Merges tiles rendered from disjoint sets of cells - the regions of different nodes - into the tile of all their
+     * cells: painted shares (alphas) add up, and colors are averaged weighted by them.
+     *
+     * @param layers the ARGB pixels of each tile; null for an empty one.
+     * @return the merged pixels, or null if all tiles are empty.
+     */
+    public static int[] composite(List<int[]> layers) {
+        int[] pixels = new int[TILE_SIZE * TILE_SIZE];
+        for (int i = 0; i < pixels.length; i++) {
+            long alpha = 0;
+            long red = 0;
+            long green = 0;
+            long blue = 0;
+            for (int[] layer : layers) {
+                if (layer == null) {
+                    continue;
+                }
+                int pixel = layer[i];
+                int weight = pixel >>> 24;
+                alpha += weight;
+                red += (long) weight * (pixel >>> 16 & 0xFF);
+                green += (long) weight * (pixel >>> 8 & 0xFF);
+                blue += (long) weight * (pixel & 0xFF);
+            }
+            if (alpha > 0) {
+                pixels[i] = (int) Math.min(255, alpha) << 24 | (int) (red / alpha) << 16 | (int) (green / alpha) << 8 | (int) (blue / alpha);
+            }
+        }
+        return isEmpty(pixels) ? null : pixels;
+    }
+
+    public static boolean isEmpty(int[] pixels) {
+        for (int pixel : pixels) {
+            if (pixel != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Encodes tile pixels as a PNG; null pixels give a fully transparent tile.
+     */
+    public static byte[] encode(int[] pixels) throws IOException {
+        BufferedImage image = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_ARGB);
+        if (pixels != null) {
+            image.setRGB(0, 0, TILE_SIZE, TILE_SIZE, pixels, 0, TILE_SIZE);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(pixels != null ? 16 * 1024 : 1024);
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a PNG written by {@link #encode}.
+     *
+     * @return the ARGB pixels, or null if the tile is fully transparent.
+     */
+    public static int[] decode(byte[] png) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        if (image == null || image.getWidth() != TILE_SIZE || image.getHeight() != TILE_SIZE) {
+            throw new IOException("Not a " + TILE_SIZE + "x" + TILE_SIZE + " tile image");
+        }
+        int[] pixels = image.getRGB(0, 0, TILE_SIZE, TILE_SIZE, null, 0, TILE_SIZE);
+        return isEmpty(pixels) ? null : pixels;
+    }
+
+    private static int colorOf(CellState cell) {
+        return cell.bgColor() != Colors.NONE ? cell.bgColor() : TEXT_COLOR;
+    }
+
+    private static int average(long red, long green, long blue, int painted, int cellsPerPixel) {
+        if (painted == 0) {
+            return 0;
+        }
+        int alpha = Math.max(1, (int) ((255L * painted + cellsPerPixel / 2) / cellsPerPixel));
+        return alpha << 24 | (int) (red / painted) << 16 | (int) (green / painted) << 8 | (int) (blue / painted);
+    }
+}
@@ -0,0 +1,117 @@
+package com.flux.entropia.state;
+
+import com.flux.entropia.dto.WarmupStatusDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the progress of the startup warm-up of {@link CanvasStateStore}.
+ * Read by the readiness health indicator, the admin endpoint and the {@code flux.warmup.*} gauges.
+ */
+@Component
+public class WarmupProgress {
+
+    public enum Phase {
+        PENDING, LOADING_SNAPSHOT, LOADING_HISTORY, READY, FAILED
+    }
+
+    private volatile Phase phase = Phase.PENDING;
+    private volatile long startedAtMillis;
+    private volatile long finishedAtMillis;
+    private volatile long idRange;
+    private volatile int partitionsTotal;
+    private volatile int workers;
+    private volatile int snapshotCells;
+    private final AtomicLong rowsLoaded = new AtomicLong();
+    private final AtomicInteger partitionsDone = new AtomicInteger();
+
+    public WarmupProgress(MeterRegistry meterRegistry) {
+        Gauge.builder("flux.warmup.rows.loaded", rowsLoaded, AtomicLong::get)
+            .description("History rows replayed into the in-memory canvas state at startup")
+            .register(meterRegistry);
+        Gauge.builder("flux.warmup.duration", this, progress -> progress.getElapsedMillis() / 1000.0)
+            .description("Elapsed time of the canvas state warm-up")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+        Gauge.builder("flux.warmup.ready", this, progress -> progress.phase == Phase.READY ? 1 : 0)
+            .description("Whether the canvas state warm-up has finished")
+            .register(meterRegistry);
+    }
+
+    void start() {
+        startedAtMillis = System.currentTimeMillis();
+        phase = Phase.LOADING_SNAPSHOT;
+    }
+
+    void snapshotLoaded(int cells) {
+        snapshotCells = cells;
+    }
+
+    void begin(long idRange, int partitionsTotal, int workers) {
+        this.idRange = idRange;
+        this.partitionsTotal = partitionsTotal;
+        this.workers = workers;
+        phase = Phase.LOADING_HISTORY;
+    }
+
+    void addRows(int rows) {
+        rowsLoaded.addAndGet(rows);
+    }
+
+    void partitionDone() {
+        partitionsDone.incrementAndGet();
+    }
+
+    void finish(boolean success) {
+        finishedAtMillis = System.currentTimeMillis();
+        phase = success ? Phase.READY : Phase.FAILED;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    public boolean isReady() {
+        return phase == Phase.READY;
+    }
+
+    public long getRowsLoaded() {
+        return rowsLoaded.get();
+    }
+
+    public int getPartitionsDone() {
+        return partitionsDone.get();
+    }
+
+    public int getPartitionsTotal() {
+        return partitionsTotal;
+    }
+
+    /**
+     * @return the share of the id range covered by finished partitions. Ids are not dense, so this is an estimate.
+     */
+    public int getPercentOfRange() {
+        int total = partitionsTotal;
+        return total == 0 ? 100 : partitionsDone.get() * 100 / total;
+    }
+
+    public long getElapsedMillis() {
+        if (startedAtMillis == 0) {
+            return 0;
+        }
+        long end = finishedAtMillis != 0 ? finishedAtMillis : System.currentTimeMillis();
+        return end - startedAtMillis;
+    }
+
+    /**
+     * @return a point-in-time view of the warm-up for the admin API.
+     */
+    public WarmupStatusDTO toStatus(int cellsInMemory) {
+        return new WarmupStatusDTO(phase.name(), snapshotCells, idRange, rowsLoaded.get(),
+            partitionsDone.get(), partitionsTotal, workers, cellsInMemory, getElapsedMillis());
+    }
+}
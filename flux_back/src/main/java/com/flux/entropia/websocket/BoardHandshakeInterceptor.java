@@ -0,0 +1,47 @@
+package com.flux.entropia.websocket;
+
+import com.flux.entropia.board.BoardRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+/**
+ * Subscribes a WebSocket session to the board named by the {@code board} query parameter of the handshake,
+ * {@code /ws/flux?board=<id>}, or to the main board without one. The handshake of an unknown board fails with 404.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BoardHandshakeInterceptor implements HandshakeInterceptor {
+
+    private final BoardRegistry boardRegistry;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response, WebSocketHandler wsHandler,
+                                   Map<String, Object> attributes) {
+        String board = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("board");
+        if (board == null || board.isEmpty()) {
+            board = BoardRegistry.MAIN;
+        }
+        if (!boardRegistry.exists(board)) {
+            log.debug("Rejected a WebSocket handshake for unknown board {}", board);
+            response.setStatusCode(HttpStatus.NOT_FOUND);
+            return false;
+        }
+        attributes.put(FluxWebSocketHandler.BOARD_ATTRIBUTE, board);
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response, WebSocketHandler wsHandler,
+                               Exception exception) {
+    }
+}
@@ -0,0 +1,41 @@
+package com.flux.entropia.websocket;
+
+import com.flux.entropia.event.CellEvent;
+import com.flux.entropia.event.CellEventBus;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Broadcasts every committed cell change, local or relayed from another node, to the WebSocket clients of its board.
+ * <p>
+ * Runs on its own {@link CellEventBus} consumer thread, so the changes are numbered by the board's {@link ChangeLog} and
+ * sent in the order they were published. Changes of boards without clients are dropped.
+ */
+@Component
+@RequiredArgsConstructor
+public class CellChangeBroadcaster {
+
+    private final CellEventBus eventBus;
+    private final FluxWebSocketHandler webSocketHandler;
+    private final ChangeLogs changeLogs;
+
+    @PostConstruct
+    public void subscribe() {
+        eventBus.subscribe("broadcast", (event, endOfBatch) -> {
+            ChangeLog changeLog = changeLogs.find(event.getBoard());
+            if (changeLog != null) {
+                webSocketHandler.broadcast(event.getBoard(), toMessage(changeLog, event));
+            }
+        });
+    }
+
+    private static WebSocketMessage<?> toMessage(ChangeLog changeLog, CellEvent event) {
+        return switch (event.getType()) {
+            case ChangeLog.CELL_UPDATED -> changeLog.cellUpdated(event.getCell());
+            case ChangeLog.CELL_DELETED -> changeLog.cellDeleted(event.getCell());
+            case ChangeLog.CELLS_BATCH -> changeLog.cellsBatch(event.getBatch());
+            default -> throw new IllegalArgumentException("Unknown cell event type: " + event.getType());
+        };
+    }
+}
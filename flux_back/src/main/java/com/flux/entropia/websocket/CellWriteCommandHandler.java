@@ -0,0 +1,196 @@
+package com.flux.entropia.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flux.entropia.config.FluxProperties;
+import com.flux.entropia.config.WorkerThreads;
+import com.flux.entropia.dto.CellWriteReplyDTO;
+import com.flux.entropia.dto.CreateMessageDTO;
+import com.flux.entropia.dto.MessageNodeDTO;
+import com.flux.entropia.exception.RateLimitExceededException;
+import com.flux.entropia.exception.ServiceOverloadedException;
+import com.flux.entropia.metrics.FluxMetrics;
+import com.flux.entropia.service.MessageService;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Executes CELL_WRITE commands received over the WebSocket, so an edit needs no HTTP request of its own.
+ * <p>
+ * A command carries a client-chosen correlation id and a {@link CreateMessageDTO} payload, and goes through the same
+ * validation, rate limiting and optimistic version check as {@code POST /api/messages}. It runs on a bounded worker
+ * pool rather than the WebSocket I/O thread, or with virtual threads on a virtual thread of its own, up to as many
+ * commands at once as the pool would run and queue; the reply echoes the correlation id:
+ * <ul>
+ *   <li>ACK: written; carries the new cell state (as also broadcast in CELL_UPDATED / CELL_DELETED).</li>
+ *   <li>CONFLICT: the base version is stale; the client should refetch the cell.</li>
+ *   <li>RATE_LIMITED: the IP is over its budget, the worker queue is full or the cell's region is moving between
+ *   nodes; retry after the given delay.</li>
+ *   <li>ERROR: the command was invalid or failed.</li>
+ * </ul>
+ * Commands from one session may complete out of order; edits of the same cell are still ordered by their base version.
+ */
+@Component
+@Slf4j
+public class CellWriteCommandHandler {
+
+    public static final String CELL_WRITE = "CELL_WRITE";
+
+    static final String ACK = "ACK";
+    static final String CONFLICT = "CONFLICT";
+    static final String RATE_LIMITED = "RATE_LIMITED";
+    static final String ERROR = "ERROR";
+
+    private final MessageService messageService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final FluxMetrics fluxMetrics;
+    // Null with virtual threads, which are not pooled.
+    private final ThreadPoolExecutor pool;
+    private final Executor executor;
+
+    public CellWriteCommandHandler(MessageService messageService, ObjectMapper objectMapper, Validator validator,
+                                   FluxProperties fluxProperties, FluxMetrics fluxMetrics, WorkerThreads workerThreads) {
+        this.messageService = messageService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.fluxMetrics = fluxMetrics;
+        FluxProperties.WebSocket config = fluxProperties.getWebsocket();
+        if (workerThreads.isVirtual()) {
+            // The connection pool limits the writes reaching MySQL; the permits only bound the commands waiting for it.
+            this.pool = null;
+            Semaphore permits = new Semaphore(config.getCommandThreads() + config.getCommandQueueCapacity());
+            Executor perTask = workerThreads.perTaskExecutor("ws-command-");
+            this.executor = task -> {
+                if (!permits.tryAcquire()) {
+                    throw new RejectedExecutionException("Too many CELL_WRITE commands in progress");
+                }
+                try {
+                    perTask.execute(() -> {
+                        try {
+                            task.run();
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    permits.release();
+                    throw e;
+                }
+            };
+        } else {
+            this.pool = new ThreadPoolExecutor(config.getCommandThreads(), config.getCommandThreads(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.getCommandQueueCapacity()), workerThreads.factory("ws-command-"));
+            this.executor = fluxMetrics.monitorExecutor(pool, "flux.ws.commands");
+        }
+    }
+
+    /**
+     * Queues a CELL_WRITE command. Never blocks the calling thread.
+     *
+     * @param board         The board of the session, whose cell is written.
+     * @param correlationId The client's correlation id, or null.
+     * @param payload       The raw command payload, converted to a {@link CreateMessageDTO}.
+     * @param ipAddress     The IP address of the session.
+     * @param reply         Receives the reply frame, usually on a worker thread.
+     */
+    public void submit(String board, String correlationId, Object payload, String ipAddress, Consumer<WebSocketMessage<CellWriteReplyDTO>> reply) {
+        long start = System.nanoTime();
+        CreateMessageDTO dto;
+        try {
+            dto = payload != null ? objectMapper.convertValue(payload, CreateMessageDTO.class) : null;
+        } catch (IllegalArgumentException e) {
+            dto = null;
+        }
+        if (dto == null) {
+            complete(reply, start, reply(ERROR, correlationId, null, "Invalid cell write payload", null));
+            return;
+        }
+        String invalid = validate(dto);
+        if (invalid != null) {
+            complete(reply, start, reply(ERROR, correlationId, null, invalid, null));
+            return;
+        }
+
+        CreateMessageDTO command = dto;
+        try {
+            executor.execute(() -> complete(reply, start, execute(board, correlationId, command, ipAddress)));
+        } catch (RejectedExecutionException e) {
+            complete(reply, start, reply(RATE_LIMITED, correlationId, null, "The server is busy. Please retry in a moment.", 1L));
+        }
+    }
+
+    /**
+     * @return the number of commands waiting for a worker.
+     */
+    public int getQueuedCount() {
+        return pool != null ? pool.getQueue().size() : 0;
+    }
+
+    private WebSocketMessage<CellWriteReplyDTO> execute(String board, String correlationId, CreateMessageDTO dto, String ipAddress) {
+        try {
+            MessageNodeDTO cell = messageService.createOrUpdateMessage(board, dto, ipAddress);
+            return reply(ACK, correlationId, cell, null, null);
+        } catch (RateLimitExceededException e) {
+            return reply(RATE_LIMITED, correlationId, null, e.getReason(), e.getRetryAfterSeconds());
+        } catch (ServiceOverloadedException e) {
+            return reply(RATE_LIMITED, correlationId, null, e.getReason(), e.getRetryAfterSeconds());
+        } catch (ResponseStatusException e) {
+            String type = e.getStatusCode().value() == HttpStatus.CONFLICT.value() ? CONFLICT : ERROR;
+            return reply(type, correlationId, null, e.getReason(), null);
+        } catch (RuntimeException e) {
+            log.error("CELL_WRITE {} from {} failed", correlationId, ipAddress, e);
+            return reply(ERROR, correlationId, null, "An internal server error occurred. Please try again later.", null);
+        }
+    }
+
+    /**
+     * Bean validation of the payload plus the rule {@code MessageController} applies to new cells.
+     *
+     * @return the first violation message, or null if the command is valid.
+     */
+    private String validate(CreateMessageDTO dto) {
+        Set<ConstraintViolation<CreateMessageDTO>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            return violations.iterator().next().getMessage();
+        }
+        if (dto.baseVersionId() == null && (dto.content() == null || dto.content().trim().isEmpty()) && dto.bgColor() == null) {
+            return "Content or background color must be provided for new cells";
+        }
+        return null;
+    }
+
+    private void complete(Consumer<WebSocketMessage<CellWriteReplyDTO>> reply, long start, WebSocketMessage<CellWriteReplyDTO> message) {
+        fluxMetrics.recordCommand(CELL_WRITE, message.getType(), start);
+        reply.accept(message);
+    }
+
+    private static WebSocketMessage<CellWriteReplyDTO> reply(String type, String correlationId, MessageNodeDTO cell, String reason, Long retryAfterSeconds) {
+        return new WebSocketMessage<>(type, new CellWriteReplyDTO(correlationId, cell, reason, retryAfterSeconds));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (pool == null) {
+            return;
+        }
+        pool.shutdown();
+        if (!pool.awaitTermination(5, TimeUnit.SECONDS)) {
+            log.warn("{} CELL_WRITE commands were still queued at shutdown", pool.getQueue().size());
+            pool.shutdownNow();
+        }
+    }
+}
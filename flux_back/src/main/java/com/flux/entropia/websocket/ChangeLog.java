@@ -0,0 +1,268 @@
+package com.flux.entropia.websocket;
+
+import com.flux.entropia.common.CellKey;
+import com.flux.entropia.config.FluxProperties;
+import com.flux.entropia.dto.CellBatchDTO;
+import com.flux.entropia.dto.ChangeLogPositionDTO;
+import com.flux.entropia.dto.ChangeLogResumeDTO;
+import com.flux.entropia.dto.MessageNodeDTO;
+import com.flux.entropia.entity.Message;
+import com.flux.entropia.mapper.MessageMapper;
+import com.flux.entropia.metrics.FluxMetrics;
+import com.flux.entropia.state.CanvasStateStore;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Numbers every cell change event of a board with a monotonic sequence number and keeps the most recent ones in a ring,
+ * so a client that reconnects after a drop catches up with {@code RESUME since=<seq>} instead of reloading its chunks.
+ * <p>
+ * Gaps reaching back beyond the ring are replayed from the history table: every row with an id past the start of
+ * the gap, coalesced to the latest per cell, plus the deletions remembered since. Gaps that cannot be replayed -
+ * from before a restart, older than the checkpoints or the deletion log reach, or too large to be worth it - are
+ * answered with FULL_RESYNC.
+ * <p>
+ * Sequence numbers are assigned just before the broadcast, on the single thread of the {@link CellChangeBroadcaster},
+ * so events reach each client in sequence order. Clients still resume from the highest number up to which they have
+ * seen every event, which also covers a frame dropped by an overflowing session.
+ * <p>
+ * There is one log per board with connected clients, see {@link ChangeLogs}.
+ */
+@Slf4j
+public class ChangeLog {
+
+    public static final String CELL_UPDATED = "CELL_UPDATED";
+    public static final String CELL_DELETED = "CELL_DELETED";
+    public static final String CELLS_BATCH = "CELLS_BATCH";
+    public static final String RESUME = "RESUME";
+    static final String POSITION = "CHANGELOG_POSITION";
+    static final String RESUMED = "RESUMED";
+    static final String FULL_RESYNC = "FULL_RESYNC";
+
+    /**
+     * The highest message id broadcast so far is recorded once per this many sequence numbers; it locates the start
+     * of a gap in the history table once the gap's events have left the ring.
+     */
+    private static final int CHECKPOINT_INTERVAL = 256;
+    /**
+     * Checkpoints are kept in proportion to the deletion log, whose reach usually ends a replayable gap first.
+     */
+    private static final int DELETIONS_PER_CHECKPOINT = 16;
+    private static final int MIN_CHECKPOINTS = 64;
+
+    private final String board;
+    private final MessageMapper messageMapper;
+    private final FluxMetrics fluxMetrics;
+    private final int maxFallbackRows;
+
+    /**
+     * Distinguishes the sequence numbers of this process from those of a previous one.
+     */
+    private final long epoch = System.currentTimeMillis();
+
+    // Everything below is guarded by "this".
+    private long seq;
+    private final WebSocketMessage<?>[] events;
+    private long maxMessageId;
+    private final long[] checkpointSeqs;
+    private final long[] checkpointIds;
+    private final long[] deletionSeqs;
+    private final long[] deletionCells;
+    private final long[] deletionIds;
+    private long deletionCount;
+    // The sequence number of the newest deletion that has been dropped from the log.
+    private long deletionFloor;
+
+    /**
+     * @param properties the sizes of this log: {@code flux.change-log} for the main board, {@code flux.boards.change-log}
+     *                   for the others.
+     */
+    public ChangeLog(String board, FluxProperties.ChangeLog properties, MessageMapper messageMapper, FluxMetrics fluxMetrics) {
+        this.board = board;
+        this.messageMapper = messageMapper;
+        this.fluxMetrics = fluxMetrics;
+        this.maxFallbackRows = properties.getMaxFallbackRows();
+        this.events = new WebSocketMessage<?>[properties.getCapacity()];
+        this.deletionSeqs = new long[properties.getDeleteCapacity()];
+        this.deletionCells = new long[properties.getDeleteCapacity()];
+        this.deletionIds = new long[properties.getDeleteCapacity()];
+        int checkpoints = Math.max(MIN_CHECKPOINTS, properties.getDeleteCapacity() / DELETIONS_PER_CHECKPOINT);
+        this.checkpointSeqs = new long[checkpoints];
+        this.checkpointIds = new long[checkpoints];
+    }
+
+    /**
+     * Records a CELL_UPDATED event.
+     * @return The event to broadcast, carrying its sequence number.
+     */
+    public WebSocketMessage<MessageNodeDTO> cellUpdated(MessageNodeDTO cell) {
+        return append(CELL_UPDATED, cell, List.of(cell), List.of());
+    }
+
+    /**
+     * Records a CELL_DELETED event.
+     * @param cell The deleted cell; its id is that of the deleted version.
+     * @return The event to broadcast, carrying its sequence number.
+     */
+    public WebSocketMessage<MessageNodeDTO> cellDeleted(MessageNodeDTO cell) {
+        return append(CELL_DELETED, cell, List.of(), List.of(cell));
+    }
+
+    /**
+     * Records a CELLS_BATCH event.
+     * @return The event to broadcast, carrying its sequence number.
+     */
+    public WebSocketMessage<CellBatchDTO> cellsBatch(CellBatchDTO batch) {
+        return append(CELLS_BATCH, batch, batch.updated(), batch.deleted());
+    }
+
+    private synchronized <T> WebSocketMessage<T> append(String type, T payload, List<MessageNodeDTO> updated, List<MessageNodeDTO> deleted) {
+        long next = ++seq;
+        WebSocketMessage<T> message = new WebSocketMessage<>(type, payload, next);
+        events[(int) (next % events.length)] = message;
+        for (MessageNodeDTO cell : updated) {
+            maxMessageId = Math.max(maxMessageId, cell.id());
+        }
+        for (MessageNodeDTO cell : deleted) {
+            int slot = (int) (deletionCount % deletionSeqs.length);
+            if (deletionCount >= deletionSeqs.length) {
+                deletionFloor = deletionSeqs[slot];
+            }
+            deletionSeqs[slot] = next;
+            deletionCells[slot] = CellKey.pack(cell.rowIndex(), cell.colIndex());
+            deletionIds[slot] = cell.id();
+            deletionCount++;
+        }
+        if (next % CHECKPOINT_INTERVAL == 0) {
+            int slot = (int) (next / CHECKPOINT_INTERVAL % checkpointSeqs.length);
+            checkpointSeqs[slot] = next;
+            checkpointIds[slot] = maxMessageId;
+        }
+        return message;
+    }
+
+    /**
+     * @return The CHANGELOG_POSITION message telling a newly connected client where the log currently stands.
+     */
+    public synchronized WebSocketMessage<ChangeLogPositionDTO> position() {
+        return new WebSocketMessage<>(POSITION, new ChangeLogPositionDTO(epoch, seq));
+    }
+
+    /**
+     * Collects the cell changes after the given position.
+     * The caller must already be receiving live broadcasts, so nothing falls between the replay and the live events.
+     *
+     * @param clientEpoch The epoch of the client's last position.
+     * @param since       The sequence number up to which the client has seen every event.
+     * @return A RESUMED message with the missed events, or FULL_RESYNC if they cannot be replayed.
+     */
+    public WebSocketMessage<?> resume(long clientEpoch, long since) {
+        long head;
+        List<WebSocketMessage<?>> recent;
+        long afterId;
+        List<Deletion> deletions;
+        synchronized (this) {
+            head = seq;
+            if (clientEpoch != epoch || since < 0 || since > head) {
+                return fullResync(head);
+            }
+            long oldest = Math.max(1, head - events.length + 1);
+            recent = new ArrayList<>();
+            for (long s = Math.max(since + 1, oldest); s <= head; s++) {
+                recent.add(events[(int) (s % events.length)]);
+            }
+            if (since >= oldest - 1) {
+                fluxMetrics.recordResume("memory");
+                return resumed(head, recent);
+            }
+
+            long checkpoint = since / CHECKPOINT_INTERVAL * CHECKPOINT_INTERVAL;
+            int slot = (int) (checkpoint / CHECKPOINT_INTERVAL % checkpointSeqs.length);
+            if (checkpoint == 0 || checkpointSeqs[slot] != checkpoint || since < deletionFloor) {
+                return fullResync(head);
+            }
+            // Ids are assigned at insert and sequence numbers at broadcast, so a slow transaction can broadcast a lower
+            // id after a higher one; the extra rows are harmless, since only the latest row of each cell is sent.
+            afterId = Math.max(0, checkpointIds[slot] - CanvasStateStore.ID_REORDER_MARGIN);
+            deletions = deletionsAfter(since);
+        }
+
+        // The database is read outside the lock, so writers are never held up by a resume.
+        LatestRowHandler rows = new LatestRowHandler();
+        messageMapper.streamChangesAfter(board, afterId, Long.MAX_VALUE, null, null, null, null, maxFallbackRows + 1, rows);
+        if (rows.count > maxFallbackRows) {
+            return fullResync(head);
+        }
+
+        // A deletion wins unless the cell has been painted again since: ids grow, so the new row's id is higher.
+        Map<Long, MessageNodeDTO> deleted = new LinkedHashMap<>();
+        for (Deletion deletion : deletions) {
+            MessageNodeDTO current = rows.latest.get(deletion.cell());
+            if (current == null || current.id() < deletion.id()) {
+                rows.latest.remove(deletion.cell());
+                deleted.put(deletion.cell(), new MessageNodeDTO(deletion.id(), CellKey.row(deletion.cell()), CellKey.col(deletion.cell()), null, null));
+            }
+        }
+        List<WebSocketMessage<?>> replay = new ArrayList<>(recent.size() + 1);
+        if (!rows.latest.isEmpty() || !deleted.isEmpty()) {
+            replay.add(new WebSocketMessage<>(CELLS_BATCH, new CellBatchDTO(new ArrayList<>(rows.latest.values()), new ArrayList<>(deleted.values()))));
+        }
+        // The ring covers the end of the gap, so its events are applied on top of the coalesced rows.
+        replay.addAll(recent);
+        fluxMetrics.recordResume("database");
+        log.debug("Resumed board {} from seq {} to {} with {} rows and {} deletions from the database", board, since, head, rows.count, deleted.size());
+        return resumed(head, replay);
+    }
+
+    /**
+     * @return A FULL_RESYNC message for a client whose RESUME command could not be understood.
+     */
+    public synchronized WebSocketMessage<ChangeLogPositionDTO> fullResync() {
+        return fullResync(seq);
+    }
+
+    private WebSocketMessage<ChangeLogResumeDTO> resumed(long head, List<WebSocketMessage<?>> replay) {
+        return new WebSocketMessage<>(RESUMED, new ChangeLogResumeDTO(epoch, head, replay));
+    }
+
+    private WebSocketMessage<ChangeLogPositionDTO> fullResync(long head) {
+        fluxMetrics.recordResume("full_resync");
+        return new WebSocketMessage<>(FULL_RESYNC, new ChangeLogPositionDTO(epoch, head));
+    }
+
+    private List<Deletion> deletionsAfter(long since) {
+        List<Deletion> deletions = new ArrayList<>();
+        for (long i = Math.max(0, deletionCount - deletionSeqs.length); i < deletionCount; i++) {
+            int slot = (int) (i % deletionSeqs.length);
+            if (deletionSeqs[slot] > since) {
+                deletions.add(new Deletion(deletionCells[slot], deletionIds[slot]));
+            }
+        }
+        return deletions;
+    }
+
+    private record Deletion(long cell, long id) {
+    }
+
+    /**
+     * Keeps the latest streamed row of each cell; rows arrive in id order.
+     */
+    private static final class LatestRowHandler implements ResultHandler<Message> {
+        private final Map<Long, MessageNodeDTO> latest = new LinkedHashMap<>();
+        private int count;
+
+        @Override
+        public void handleResult(ResultContext<? extends Message> context) {
+            Message row = context.getResultObject();
+            latest.put(CellKey.pack(row.getRowIndex(), row.getColIndex()),
+                new MessageNodeDTO(row.getId(), row.getRowIndex(), row.getColIndex(), row.getContent(), row.getBgColor()));
+            count++;
+        }
+    }
+}
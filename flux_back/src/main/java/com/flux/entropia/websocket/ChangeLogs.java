@@ -0,0 +1,63 @@
+package com.flux.entropia.websocket;
+
+import com.flux.entropia.board.BoardRegistry;
+import com.flux.entropia.config.FluxProperties;
+import com.flux.entropia.mapper.MessageMapper;
+import com.flux.entropia.metrics.FluxMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link ChangeLog} of each board with connected clients.
+ * <p>
+ * The main board's log lives as long as the process. The log of any other board is created when its first client
+ * connects and dropped by {@link FluxWebSocketHandler} when its last one leaves; a client reconnecting later gets a
+ * log with a new epoch, and so a FULL_RESYNC, as after a restart. Those logs are sized by {@code flux.boards.change-log},
+ * smaller than the main board's, since every board with a client holds one.
+ */
+@Component
+public class ChangeLogs {
+
+    private final FluxProperties fluxProperties;
+    private final MessageMapper messageMapper;
+    private final FluxMetrics fluxMetrics;
+    private final ConcurrentHashMap<String, ChangeLog> logs = new ConcurrentHashMap<>();
+
+    public ChangeLogs(FluxProperties fluxProperties, MessageMapper messageMapper, FluxMetrics fluxMetrics) {
+        this.fluxProperties = fluxProperties;
+        this.messageMapper = messageMapper;
+        this.fluxMetrics = fluxMetrics;
+        logs.put(BoardRegistry.MAIN, create(BoardRegistry.MAIN));
+    }
+
+    /**
+     * @return the board's log, created if it has none.
+     */
+    public ChangeLog get(String board) {
+        return logs.computeIfAbsent(board, this::create);
+    }
+
+    /**
+     * @return the board's log, or null if no client has connected to the board since it was last dropped.
+     */
+    public ChangeLog find(String board) {
+        return logs.get(board);
+    }
+
+    /**
+     * Drops the log of a board other than the main one.
+     */
+    void remove(String board) {
+        if (!BoardRegistry.MAIN.equals(board)) {
+            logs.remove(board);
+        }
+    }
+
+    private ChangeLog create(String board) {
+        FluxProperties.ChangeLog properties = BoardRegistry.MAIN.equals(board)
+            ? fluxProperties.getChangeLog()
+            : fluxProperties.getBoards().getChangeLog();
+        return new ChangeLog(board, properties, messageMapper, fluxMetrics);
+    }
+}
@@ -2,6 +2,10 @@ package com.flux.entropia.websocket;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flux.entropia.analytics.HeavyHitterMonitor;
+import com.flux.entropia.board.BoardRegistry;
+import com.flux.entropia.config.FluxProperties;
+import com.flux.entropia.metrics.FluxMetrics;
 import com.flux.entropia.service.MessageService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,33 +13,73 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.util.Map;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * The {@code /ws/flux} endpoint. Every session is subscribed to the board chosen at the handshake, see
+ * {@link BoardHandshakeInterceptor}, and receives that board's cell changes, online count and statistics only.
+ */
 @Component
 @Slf4j
 public class FluxWebSocketHandler extends TextWebSocketHandler {
 
+    /**
+     * The session attribute holding the board a session is subscribed to; the main board if absent.
+     */
+    public static final String BOARD_ATTRIBUTE = "board";
+
     private final ObjectMapper objectMapper;
-    private static final CopyOnWriteArraySet<WebSocketSession> sessions = new CopyOnWriteArraySet<>();
+    private final FluxProperties fluxProperties;
+    private final FluxMetrics fluxMetrics;
+    private final HeavyHitterMonitor heavyHitterMonitor;
+    private final CellWriteCommandHandler cellWriteCommandHandler;
+    private final ChangeLogs changeLogs;
+    // Keyed by session id. Values are thread-safe decorators, so broadcasts from several request threads
+    // never write to the same socket concurrently; a send to a slow client queues instead of blocking the others.
+    private static final ConcurrentHashMap<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    // The same sessions by board, then session id. A board is only present while it has sessions.
+    private static final ConcurrentHashMap<String, ConcurrentHashMap<String, WebSocketSession>> topics = new ConcurrentHashMap<>();
     
     @Autowired
     private MessageService messageService;
 
-    public FluxWebSocketHandler(ObjectMapper objectMapper) {
+    public FluxWebSocketHandler(ObjectMapper objectMapper, FluxProperties fluxProperties, FluxMetrics fluxMetrics,
+                                HeavyHitterMonitor heavyHitterMonitor, CellWriteCommandHandler cellWriteCommandHandler,
+                                ChangeLogs changeLogs) {
         this.objectMapper = objectMapper;
+        this.fluxProperties = fluxProperties;
+        this.fluxMetrics = fluxMetrics;
+        this.heavyHitterMonitor = heavyHitterMonitor;
+        this.cellWriteCommandHandler = cellWriteCommandHandler;
+        this.changeLogs = changeLogs;
+        fluxMetrics.bindSessions(sessions::values);
         log.warn("FluxWebSocketHandler INSTANCE CREATED. HashCode: {}", this.hashCode());
     }
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) {
-        sessions.add(session);
-        log.info("New WebSocket connection from: {}, Session ID: {}. Total sessions: {}", session.getRemoteAddress(), session.getId(), sessions.size());
-        broadcastOnlineCount();
-        broadcastSystemStats();
+        FluxProperties.WebSocket limits = fluxProperties.getWebsocket();
+        WebSocketSession decorated = new ConcurrentWebSocketSessionDecorator(session, limits.getSendTimeLimitMs(), limits.getBufferSizeLimitBytes());
+        String board = boardOf(session);
+        sessions.put(session.getId(), decorated);
+        topics.compute(board, (key, topic) -> {
+            ConcurrentHashMap<String, WebSocketSession> target = topic != null ? topic : new ConcurrentHashMap<>();
+            target.put(session.getId(), decorated);
+            return target;
+        });
+        // Read only after registering, so every change past this position reaches the session as a live broadcast.
+        sendTo(decorated, changeLogs.get(board).position());
+        log.info("New WebSocket connection from: {}, Session ID: {}, board: {}. Total sessions: {}",
+            session.getRemoteAddress(), session.getId(), board, sessions.size());
+        broadcastOnlineCount(board);
+        broadcastSystemStats(board);
     }
 
     @Override
@@ -43,10 +87,20 @@ public class FluxWebSocketHandler extends TextWebSocketHandler {
         try {
             Map<String, Object> messageMap = objectMapper.readValue(message.getPayload(), new TypeReference<>() {});
             String type = (String) messageMap.get("type");
+            String board = boardOf(session);
 
             if ("USER_IS_EDITING".equals(type) || "USER_STOPPED_EDITING".equals(type)) {
                 // For editing status, broadcast to OTHERS, excluding the sender.
-                broadcastToOthers(session, message);
+                recordRelay(session, messageMap.get("payload"));
+                broadcastToOthers(session, board, message);
+            } else if (CellWriteCommandHandler.CELL_WRITE.equals(type)) {
+                // Replies go through the thread-safe decorator, since they are sent from a worker thread.
+                WebSocketSession replyTarget = sessions.getOrDefault(session.getId(), session);
+                Object correlationId = messageMap.get("correlationId");
+                cellWriteCommandHandler.submit(board, correlationId != null ? correlationId.toString() : null, messageMap.get("payload"),
+                    remoteIp(session), reply -> sendTo(replyTarget, reply));
+            } else if (ChangeLog.RESUME.equals(type)) {
+                sendTo(sessions.getOrDefault(session.getId(), session), resume(board, messageMap.get("payload")));
             } else {
                 log.warn("Received unhandled message type: {}", type);
             }
@@ -56,45 +110,101 @@ public class FluxWebSocketHandler extends TextWebSocketHandler {
     }
 
     /**
-     * Broadcasts a message to all connected WebSocket clients.
+     * Answers a RESUME command of a reconnecting client, whose payload is its last position: {epoch, since}.
+     */
+    private WebSocketMessage<?> resume(String board, Object payload) {
+        ChangeLog changeLog = changeLogs.get(board);
+        if (payload instanceof Map<?, ?> position
+                && position.get("epoch") instanceof Number epoch
+                && position.get("since") instanceof Number since) {
+            return changeLog.resume(epoch.longValue(), since.longValue());
+        }
+        return changeLog.fullResync();
+    }
+
+    /**
+     * Feeds a relayed editing signal into the heavy-hitter monitor; payloads without coordinates are only relayed.
+     */
+    private void recordRelay(WebSocketSession session, Object payload) {
+        if (payload instanceof Map<?, ?> cell
+                && cell.get("rowIndex") instanceof Number rowIndex
+                && cell.get("colIndex") instanceof Number colIndex) {
+            heavyHitterMonitor.recordRelay(rowIndex.intValue(), colIndex.intValue(), remoteIp(session));
+        }
+    }
+
+    /**
+     * @return the board the session is subscribed to.
+     */
+    private static String boardOf(WebSocketSession session) {
+        Map<String, Object> attributes = session.getAttributes();
+        return attributes != null && attributes.get(BOARD_ATTRIBUTE) instanceof String board ? board : BoardRegistry.MAIN;
+    }
+
+    /**
+     * @return the IP address of the client, matching what {@code HttpServletRequest.getRemoteAddr()} reports,
+     *         or "unknown" if the transport does not expose it.
+     */
+    private static String remoteIp(WebSocketSession session) {
+        InetSocketAddress remoteAddress = session.getRemoteAddress();
+        return remoteAddress != null && remoteAddress.getAddress() != null ? remoteAddress.getAddress().getHostAddress() : "unknown";
+    }
+
+    /**
+     * Broadcasts a message to all WebSocket clients subscribed to a board.
+     * @param board The board the message is about.
      * @param message The message object to broadcast.
      */
-    public void broadcast(WebSocketMessage<?> message) {
+    public void broadcast(String board, WebSocketMessage<?> message) {
+        ConcurrentHashMap<String, WebSocketSession> topic = topics.get(board);
+        if (topic == null) {
+            return;
+        }
+        long start = System.nanoTime();
         try {
             String messageJson = objectMapper.writeValueAsString(message);
             TextMessage textMessage = new TextMessage(messageJson);
             int recipientCount = 0;
-            for (WebSocketSession session : sessions) {
-                if (session.isOpen()) {
-                    try {
-                        session.sendMessage(textMessage);
-                        recipientCount++;
-                    } catch (IOException e) {
-                        log.error("Error broadcasting to session {}: {}", session.getId(), e.getMessage());
-                    }
+            for (WebSocketSession session : topic.values()) {
+                if (send(session, textMessage)) {
+                    recipientCount++;
                 }
             }
-            log.info("Broadcasted '{}' message to {} sessions", message.getType(), recipientCount);
+            fluxMetrics.recordBroadcast(message.getType(), start, recipientCount);
+            log.info("Broadcasted '{}' message to {} sessions of board {}", message.getType(), recipientCount, board);
+        } catch (IOException e) {
+            log.error("Error serializing WebSocket message: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Sends a message to a single session.
+     * @param session The (decorated) session.
+     * @param message The message object to send.
+     */
+    private void sendTo(WebSocketSession session, WebSocketMessage<?> message) {
+        try {
+            send(session, new TextMessage(objectMapper.writeValueAsString(message)));
         } catch (IOException e) {
             log.error("Error serializing WebSocket message: {}", e.getMessage(), e);
         }
     }
 
     /**
-     * Broadcasts a message to all clients EXCEPT the sender.
+     * Broadcasts a message to all clients of the sender's board EXCEPT the sender.
      * @param senderSession The session of the client who sent the original message.
+     * @param board The sender's board.
      * @param message The message to broadcast.
      */
-    private void broadcastToOthers(WebSocketSession senderSession, TextMessage message) {
+    private void broadcastToOthers(WebSocketSession senderSession, String board, TextMessage message) {
+        ConcurrentHashMap<String, WebSocketSession> topic = topics.get(board);
+        if (topic == null) {
+            return;
+        }
         int recipientCount = 0;
-        for (WebSocketSession session : sessions) {
-            if (session.isOpen() && !session.getId().equals(senderSession.getId())) {
-                try {
-                    session.sendMessage(message);
-                    recipientCount++;
-                } catch (IOException e) {
-                    log.error("Error broadcasting to other session {}: {}", session.getId(), e.getMessage());
-                }
+        for (WebSocketSession session : topic.values()) {
+            if (!session.getId().equals(senderSession.getId()) && send(session, message)) {
+                recipientCount++;
             }
         }
         if (recipientCount > 0) {
@@ -102,26 +212,64 @@ public class FluxWebSocketHandler extends TextWebSocketHandler {
         }
     }
 
+    /**
+     * Sends a message to one session, timing the hand-off.
+     * @return true if the message was sent or queued.
+     */
+    private boolean send(WebSocketSession session, TextMessage message) {
+        if (!session.isOpen()) {
+            return false;
+        }
+        long start = System.nanoTime();
+        try {
+            session.sendMessage(message);
+            return true;
+        } catch (SessionLimitExceededException e) {
+            // The decorator has already closed the session; afterConnectionClosed removes it.
+            fluxMetrics.sessionOverflow();
+            log.warn("Closed slow WebSocket session {}: {}", session.getId(), e.getMessage());
+            return false;
+        } catch (IOException e) {
+            log.error("Error sending to session {}: {}", session.getId(), e.getMessage());
+            return false;
+        } finally {
+            fluxMetrics.recordSessionSend(start);
+        }
+    }
+
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
-        sessions.remove(session);
+        String board = boardOf(session);
+        sessions.remove(session.getId());
+        topics.computeIfPresent(board, (key, topic) -> {
+            topic.remove(session.getId());
+            if (topic.isEmpty()) {
+                // Under the topic's entry lock, so a client connecting meanwhile gets the log that follows.
+                changeLogs.remove(key);
+                return null;
+            }
+            return topic;
+        });
         log.info("WebSocket connection closed: {} with status: {}. Total sessions: {}", session.getId(), status, sessions.size());
-        broadcastOnlineCount();
-        broadcastSystemStats();
+        broadcastOnlineCount(board);
+        broadcastSystemStats(board);
     }
 
-    private void broadcastOnlineCount() {
-        broadcast(new WebSocketMessage<>("ONLINE_COUNT_UPDATED", getOnlineUserCount()));
+    private void broadcastOnlineCount(String board) {
+        broadcast(board, new WebSocketMessage<>("ONLINE_COUNT_UPDATED", getOnlineUserCount(board)));
     }
 
     /**
-     * Broadcasts system statistics to all connected clients.
-     * This includes online user count and total message count.
+     * Broadcasts the statistics of a board to its clients: their number and the board's message counts.
+     * Nothing is counted for a board without clients.
      */
-    public void broadcastSystemStats() {
-        int onlineCount = getOnlineUserCount();
-        long totalMessages = messageService.getTotalMessageCount();
-        long visibleMessages = messageService.getVisibleMessageCount();
+    public void broadcastSystemStats(String board) {
+        if (!topics.containsKey(board)) {
+            return;
+        }
+        int onlineCount = getOnlineUserCount(board);
+        long totalMessages = messageService.getTotalMessageCount(board);
+        long visibleMessages = messageService.getVisibleMessageCount(board);
         
         // Create a map with statistics data
         Map<String, Object> statsData = Map.of(
@@ -130,13 +278,34 @@ public class FluxWebSocketHandler extends TextWebSocketHandler {
             "visibleMessages", visibleMessages
         );
         
-        broadcast(new WebSocketMessage<>("SYSTEM_STATS_UPDATED", statsData));
+        broadcast(board, new WebSocketMessage<>("SYSTEM_STATS_UPDATED", statsData));
     }
 
     public int getOnlineUserCount() {
         return sessions.size();
     }
 
+    /**
+     * @return the number of clients subscribed to the board.
+     */
+    public int getOnlineUserCount(String board) {
+        ConcurrentHashMap<String, WebSocketSession> topic = topics.get(board);
+        return topic != null ? topic.size() : 0;
+    }
+
+    /**
+     * @return The bytes queued for all sessions behind an in-progress send. Walks every session.
+     */
+    public long getBufferedBytes() {
+        long total = 0;
+        for (WebSocketSession session : sessions.values()) {
+            if (session instanceof ConcurrentWebSocketSessionDecorator decorator) {
+                total += decorator.getBufferSize();
+            }
+        }
+        return total;
+    }
+
     @Override
     public void handleTransportError(WebSocketSession session, Throwable exception) {
         log.error("WebSocket transport error for session {}: {}", session.getId(), exception.getMessage());
@@ -0,0 +1,38 @@
+package com.flux.entropia.websocket;
+
+import com.flux.entropia.event.CellEventBus;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Recounts and broadcasts the system statistics after cell changes, once per {@link CellEventBus} batch rather than
+ * once per write: under a burst of writes the counting queries run as often as they can finish, not once per cell.
+ * Each board changed within the batch is recounted, for its own clients.
+ */
+@Component
+@RequiredArgsConstructor
+public class SystemStatsBroadcaster {
+
+    private final CellEventBus eventBus;
+    private final FluxWebSocketHandler webSocketHandler;
+    // Only touched by the consumer thread.
+    private final Set<String> changedBoards = new HashSet<>();
+
+    @PostConstruct
+    public void subscribe() {
+        eventBus.subscribe("stats", (event, endOfBatch) -> {
+            changedBoards.add(event.getBoard());
+            if (endOfBatch) {
+                try {
+                    changedBoards.forEach(webSocketHandler::broadcastSystemStats);
+                } finally {
+                    changedBoards.clear();
+                }
+            }
+        });
+    }
+}
@@ -1,5 +1,6 @@
 package com.flux.entropia.websocket;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -20,4 +21,14 @@ public class WebSocketMessage<T> {
      * The actual data payload.
      */
     private T payload;
+
+    /**
+     * The position of a cell change event in the {@link ChangeLog}; null (and omitted) for all other messages.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long seq;
+
+    public WebSocketMessage(String type, T payload) {
+        this(type, payload, null);
+    }
 }
@@ -0,0 +1,18 @@
+-- Spatial chunk keys and covering indexes for the heatmap, viewport, stats and hotspot queries.
+--
+-- chunk_y / chunk_x are the 9x9 heatmap chunk of a cell (FLOOR matches Math.floorDiv for negative coordinates).
+-- is_painted materializes the "has content or color" predicate, which cannot be indexed on the TEXT column.
+-- InnoDB appends the primary key to every secondary index, so `id` is covered without being listed.
+ALTER TABLE `messages`
+    ADD COLUMN `chunk_y` int AS (FLOOR(`row_index` / 9)) STORED COMMENT '热力图分块行 (row_index / 9 向下取整)',
+    ADD COLUMN `chunk_x` int AS (FLOOR(`col_index` / 9)) STORED COMMENT '热力图分块列 (col_index / 9 向下取整)',
+    ADD COLUMN `is_painted` tinyint(1) AS ((`content` IS NOT NULL AND `content` != '') OR `bg_color` IS NOT NULL) STORED COMMENT '是否有内容或背景色';
+
+-- Heatmap (chunk IN list) and viewport latest-state (chunk range + MAX(id) per cell) queries.
+CREATE INDEX `idx_chunk_cell` ON `messages` (`chunk_y`, `chunk_x`, `row_index`, `col_index`, `is_painted`);
+
+-- Canvas-wide distinct painted cell count.
+CREATE INDEX `idx_painted_cell` ON `messages` (`is_painted`, `row_index`, `col_index`);
+
+-- Hotspot analysis over the recent activity window.
+CREATE INDEX `idx_updated_painted_cell` ON `messages` (`updated_at`, `is_painted`, `row_index`, `col_index`);
@@ -0,0 +1,11 @@
+-- Store background colors as packed 0xRRGGBB integers instead of "#RRGGBB" strings.
+--
+-- The API still speaks "#RRGGBB"; only the column changes. Values that are not a valid hex color become NULL,
+-- which the is_painted expression from V2 keeps treating as "no color".
+ALTER TABLE `messages` MODIFY `bg_color` varchar(8) COLLATE utf8mb4_unicode_ci DEFAULT NULL;
+
+UPDATE `messages`
+SET `bg_color` = CASE WHEN `bg_color` REGEXP '^#[0-9A-Fa-f]{6}$' THEN CONV(SUBSTRING(`bg_color`, 2), 16, 10) END
+WHERE `bg_color` IS NOT NULL;
+
+ALTER TABLE `messages` MODIFY `bg_color` int unsigned DEFAULT NULL COMMENT '背景色 (0xRRGGBB), 允许为空';
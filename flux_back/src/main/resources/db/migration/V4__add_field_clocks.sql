@@ -0,0 +1,8 @@
+-- Hybrid logical clock timestamps of the last write to each field of a cell, for the last-writer-wins merge mode.
+--
+-- A version row copies the timestamp of every field it carries over from the previous version, so the timestamps of
+-- the latest row tell which write each field comes from. Rows written before this migration have none; they lose
+-- against any later write.
+ALTER TABLE `messages`
+    ADD COLUMN `content_hlc` bigint DEFAULT NULL COMMENT '内容最后写入的混合逻辑时钟时间戳',
+    ADD COLUMN `color_hlc` bigint DEFAULT NULL COMMENT '背景色最后写入的混合逻辑时钟时间戳';
@@ -0,0 +1,18 @@
+-- History of the cells removed by the entropy decay in archive mode (flux.decay.mode: archive).
+--
+-- Rows keep their original id and timestamps; expired_at records when the cell expired, so the rows of one cell
+-- expired at the same time form one tombstoned history. The live queries never read this table.
+CREATE TABLE IF NOT EXISTS `messages_expired` (
+    `id` bigint NOT NULL COMMENT '原主键ID',
+    `row_index` int NOT NULL COMMENT '行坐标',
+    `col_index` int NOT NULL COMMENT '列坐标',
+    `content` text COLLATE utf8mb4_unicode_ci COMMENT '文本内容',
+    `bg_color` int unsigned DEFAULT NULL COMMENT '背景色 (0xRRGGBB)',
+    `ip_address` varchar(45) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '最后修改者的IP地址',
+    `content_hlc` bigint DEFAULT NULL COMMENT '内容最后写入的混合逻辑时钟时间戳',
+    `color_hlc` bigint DEFAULT NULL COMMENT '背景色最后写入的混合逻辑时钟时间戳',
+    `created_at` datetime NOT NULL COMMENT '创建时间',
+    `expired_at` datetime NOT NULL COMMENT '过期时间',
+    PRIMARY KEY (`id`),
+    INDEX `idx_coordinates` (`row_index`, `col_index`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='已过期单元格的历史记录';
@@ -0,0 +1,37 @@
+-- Independent canvases (boards). Every history row belongs to one board; the existing rows form the main board.
+--
+-- The primary key and every secondary index lead with board_id, so a board's rows are clustered together and each
+-- query of a board reads only that board's index ranges. The table is partitioned by board_id on top of that, so a
+-- busy board's pages, and its purges, stay apart from those of the main canvas. MySQL requires the partitioning column
+-- in every unique key, hence the widened primary key; ids remain unique through AUTO_INCREMENT, which idx_id keeps
+-- indexed on its own.
+-- Rebuilding the table takes time proportional to its size; run it in a maintenance window on large canvases.
+CREATE TABLE IF NOT EXISTS `boards` (
+    `id` varchar(32) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '画板标识',
+    `name` varchar(100) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '画板名称',
+    `created_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='画板';
+
+INSERT IGNORE INTO `boards` (`id`, `name`) VALUES ('main', 'Main canvas');
+
+ALTER TABLE `messages`
+    ADD COLUMN `board_id` varchar(32) COLLATE utf8mb4_unicode_ci NOT NULL DEFAULT 'main' COMMENT '所属画板' AFTER `id`,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (`board_id`, `id`),
+    ADD INDEX `idx_id` (`id`),
+    DROP INDEX `idx_coordinates`,
+    ADD INDEX `idx_coordinates` (`board_id`, `row_index`, `col_index`),
+    DROP INDEX `idx_chunk_cell`,
+    ADD INDEX `idx_chunk_cell` (`board_id`, `chunk_y`, `chunk_x`, `row_index`, `col_index`, `is_painted`),
+    DROP INDEX `idx_painted_cell`,
+    ADD INDEX `idx_painted_cell` (`board_id`, `is_painted`, `row_index`, `col_index`),
+    DROP INDEX `idx_updated_painted_cell`,
+    ADD INDEX `idx_updated_painted_cell` (`board_id`, `updated_at`, `is_painted`, `row_index`, `col_index`);
+
+ALTER TABLE `messages` PARTITION BY KEY (`board_id`) PARTITIONS 16;
+
+ALTER TABLE `messages_expired`
+    ADD COLUMN `board_id` varchar(32) COLLATE utf8mb4_unicode_ci NOT NULL DEFAULT 'main' COMMENT '所属画板' AFTER `id`,
+    DROP INDEX `idx_coordinates`,
+    ADD INDEX `idx_coordinates` (`board_id`, `row_index`, `col_index`);
@@ -0,0 +1,17 @@
+-- Log of deleted cell versions: the latest row of a cell removed by clearing the cell or by the entropy decay.
+--
+-- History rows are otherwise only ever inserted, so replaying the rows above a snapshot's high-water mark cannot see
+-- that a cell held by the snapshot was deleted since. A restart from a snapshot replays this log past the snapshot's
+-- deletion mark and re-reads those cells from messages. Entries older than flux.snapshot.deletion-retention-ms are
+-- purged; snapshots older than that are not loaded.
+CREATE TABLE IF NOT EXISTS `cell_deletions` (
+    `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    `board_id` varchar(32) COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '所属画板',
+    `row_index` int NOT NULL COMMENT '行坐标',
+    `col_index` int NOT NULL COMMENT '列坐标',
+    `version_id` bigint NOT NULL COMMENT '被删除的最新版本ID',
+    `deleted_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '删除时间',
+    PRIMARY KEY (`id`),
+    INDEX `idx_board_id` (`board_id`, `id`),
+    INDEX `idx_deleted_at` (`deleted_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='单元格删除日志';
@@ -0,0 +1,5 @@
+-- Supports the replay's lookup of the first history row of a board created at or after a given time: the range of
+-- idx_board_created for that board and time starts at the row sought, whose id the index carries as part of the
+-- primary key, so the lookup reads one index entry instead of scanning the board's rows.
+ALTER TABLE `messages`
+    ADD INDEX `idx_board_created` (`board_id`, `created_at`);
@@ -0,0 +1,103 @@
+package com.flux.entropia.decay;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    @Test
+    void handsOutEntriesOfTheFirstLevelAtTheirDeadlineInOrder() {
+        TimingWheel wheel = new TimingWheel(0);
+        wheel.schedule(3, 30, 7);
+        wheel.schedule(1, 10, 2);
+        wheel.schedule(2, 20, 5);
+        List<Long> due = new ArrayList<>();
+
+        wheel.advance(4, (key, id, deadline) -> due.add(key));
+        assertEquals(List.of(1L), due);
+
+        wheel.advance(7, (key, id, deadline) -> due.add(key));
+        assertEquals(List.of(1L, 2L, 3L), due);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cascadesEntriesOfCoarserLevelsDownToTheirExactDeadline() {
+        TimingWheel wheel = new TimingWheel(0);
+        // Two and three levels up: first moved when the current tick enters their coarse slot.
+        long second = TimingWheel.SLOTS * TimingWheel.SLOTS + 5;
+        long third = (long) TimingWheel.SLOTS * TimingWheel.SLOTS * TimingWheel.SLOTS + 17;
+        wheel.schedule(1, 11, second);
+        wheel.schedule(2, 22, third);
+        Map<Long, Long> dueAt = new HashMap<>();
+
+        wheel.advance(second - 1, (key, id, deadline) -> dueAt.put(key, wheel.currentTick()));
+        assertTrue(dueAt.isEmpty());
+
+        wheel.advance(third, (key, id, deadline) -> {
+            assertEquals(key * 11, id);
+            dueAt.put(key, wheel.currentTick());
+        });
+        assertEquals(Map.of(1L, second, 2L, third), dueAt);
+    }
+
+    @Test
+    void handsOutEveryEntryExactlyOnceAtItsDeadline() {
+        Random random = new Random(42);
+        long start = 1_000;
+        TimingWheel wheel = new TimingWheel(start);
+        Map<Long, Long> deadlines = new HashMap<>();
+        for (long key = 0; key < 10_000; key++) {
+            long deadline = start + 1 + random.nextInt(300_000);
+            deadlines.put(key, deadline);
+            wheel.schedule(key, key, deadline);
+        }
+        Map<Long, Long> dueAt = new HashMap<>();
+
+        for (long tick = start; tick <= start + 300_000; tick += 997) {
+            wheel.advance(tick, (key, id, deadline) -> assertNull(dueAt.put(key, wheel.currentTick())));
+        }
+        wheel.advance(start + 300_000, (key, id, deadline) -> assertNull(dueAt.put(key, wheel.currentTick())));
+
+        assertEquals(deadlines, dueAt);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void handsOutEntriesScheduledInThePastOnTheNextAdvance() {
+        TimingWheel wheel = new TimingWheel(100);
+        wheel.schedule(1, 1, 40);
+        wheel.schedule(2, 2, 100);
+        List<Long> due = new ArrayList<>();
+
+        wheel.advance(100, (key, id, deadline) -> due.add(key));
+
+        assertEquals(List.of(1L, 2L), due);
+    }
+
+    @Test
+    void parksEntriesBeyondTheRangeOfTheWheelsUntilTheyFit() {
+        long span = 1L << (TimingWheel.LEVELS * Integer.numberOfTrailingZeros(TimingWheel.SLOTS));
+        long start = span - 5;
+        TimingWheel wheel = new TimingWheel(start);
+        long deadline = span + 100;
+        wheel.schedule(1, 1, deadline);
+        List<Long> dueAt = new ArrayList<>();
+
+        wheel.advance(deadline - 1, (key, id, due) -> dueAt.add(wheel.currentTick()));
+        assertTrue(dueAt.isEmpty());
+        assertEquals(1, wheel.size());
+
+        wheel.advance(deadline, (key, id, due) -> dueAt.add(wheel.currentTick()));
+        assertEquals(List.of(deadline), dueAt);
+    }
+}
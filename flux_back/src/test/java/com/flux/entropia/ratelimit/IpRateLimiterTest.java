@@ -0,0 +1,80 @@
+package com.flux.entropia.ratelimit;
+
+import com.flux.entropia.config.FluxProperties;
+import com.flux.entropia.metrics.FluxMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IpRateLimiterTest {
+
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long START = TimeUnit.SECONDS.toNanos(1_000);
+
+    @Test
+    void allowsABurstThenOneCellPerInterval() {
+        IpRateLimiter limiter = limiter(100, 10);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, limiter.tryAcquire("10.0.0.1", 1, START));
+        }
+
+        assertEquals(INTERVAL, limiter.tryAcquire("10.0.0.1", 1, START));
+        assertEquals(INTERVAL / 2, limiter.tryAcquire("10.0.0.1", 1, START + INTERVAL / 2));
+        assertEquals(0, limiter.tryAcquire("10.0.0.1", 1, START + INTERVAL));
+        assertEquals(INTERVAL, limiter.tryAcquire("10.0.0.1", 1, START + INTERVAL));
+    }
+
+    @Test
+    void chargesAStrokeByItsCells() {
+        IpRateLimiter limiter = limiter(100, 10);
+
+        assertEquals(0, limiter.tryAcquire("10.0.0.1", 8, START));
+        assertEquals(INTERVAL, limiter.tryAcquire("10.0.0.1", 3, START));
+        assertEquals(0, limiter.tryAcquire("10.0.0.1", 2, START));
+    }
+
+    @Test
+    void chargesNothingForARejectedStroke() {
+        IpRateLimiter limiter = limiter(100, 10);
+
+        assertEquals(5 * INTERVAL, limiter.tryAcquire("10.0.0.1", 15, START));
+        assertEquals(0, limiter.tryAcquire("10.0.0.1", 10, START));
+    }
+
+    @Test
+    void refillsTheBurstAfterIdling() {
+        IpRateLimiter limiter = limiter(100, 10);
+        assertEquals(0, limiter.tryAcquire("10.0.0.1", 10, START));
+
+        long later = START + 10 * INTERVAL;
+        assertEquals(0, limiter.tryAcquire("10.0.0.1", 10, later));
+        assertEquals(INTERVAL, limiter.tryAcquire("10.0.0.1", 1, later));
+    }
+
+    @Test
+    void limitsEachIpOnItsOwn() {
+        IpRateLimiter limiter = limiter(100, 10);
+        assertEquals(0, limiter.tryAcquire("10.0.0.1", 10, START));
+
+        assertEquals(0, limiter.tryAcquire("10.0.0.2", 10, START));
+        assertEquals(INTERVAL, limiter.tryAcquire("10.0.0.1", 1, START));
+    }
+
+    @Test
+    void allowsEverythingWithoutAnInterval() {
+        IpRateLimiter limiter = limiter(0, 10);
+
+        assertEquals(0, limiter.tryAcquire("10.0.0.1", 1_000, START));
+        assertEquals(0, limiter.tryAcquire("10.0.0.1", 1_000, START));
+    }
+
+    private static IpRateLimiter limiter(long durationMs, int burstCells) {
+        FluxProperties properties = new FluxProperties();
+        properties.getRateLimit().setDurationMs(durationMs);
+        properties.getRateLimit().setBurstCells(burstCells);
+        return new IpRateLimiter(properties, new FluxMetrics(new SimpleMeterRegistry()));
+    }
+}
@@ -0,0 +1,90 @@
+package com.flux.entropia.search;
+
+import com.flux.entropia.common.CellKey;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostingsTest {
+
+    @Test
+    void roundTripsMixedSignKeysThroughCompaction() {
+        TreeSet<Long> expected = new TreeSet<>();
+        for (int row = -4; row < 4; row++) {
+            for (int col = -4; col < 4; col++) {
+                expected.add(CellKey.pack(row, col));
+            }
+        }
+        // The first key is zigzag-encoded, and the gap across the sign change spans the whole key range.
+        expected.add(Long.MIN_VALUE);
+        expected.add(Long.MAX_VALUE);
+        expected.add(CellKey.pack(Integer.MIN_VALUE, Integer.MIN_VALUE));
+        expected.add(CellKey.pack(Integer.MAX_VALUE, Integer.MAX_VALUE));
+        Postings postings = new Postings();
+
+        expected.forEach(postings::add);
+
+        assertTrue(postings.packedBytes() > 0, "the keys should have been compacted");
+        assertArrayEquals(toArray(expected), postings.toArray());
+        assertEquals(expected.size(), postings.size());
+    }
+
+    @Test
+    void roundTripsANegativeFirstKey() {
+        Postings postings = new Postings();
+        long[] keys = new long[64];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = CellKey.pack(-1_000_000, -500 + i);
+            postings.add(keys[i]);
+        }
+
+        assertArrayEquals(keys, postings.toArray());
+    }
+
+    @Test
+    void storesNeighboursInARowInAboutAByteEach() {
+        Postings postings = new Postings();
+        for (int col = 0; col < 256; col++) {
+            postings.add(CellKey.pack(12_345, col));
+        }
+
+        assertEquals(256, postings.size());
+        assertTrue(postings.packedBytes() < 256 + 16, "took " + postings.packedBytes() + " bytes");
+    }
+
+    @Test
+    void matchesASetUnderRandomAddsAndRemoves() {
+        Random random = new Random(7);
+        TreeSet<Long> expected = new TreeSet<>();
+        Postings postings = new Postings();
+        for (int i = 0; i < 20_000; i++) {
+            long key = CellKey.pack(random.nextInt(201) - 100, random.nextInt(201) - 100);
+            if (expected.add(key)) {
+                postings.add(key);
+            } else if (random.nextBoolean()) {
+                expected.remove(key);
+                postings.remove(key);
+            }
+            if (i % 1_000 == 0) {
+                assertArrayEquals(toArray(expected), postings.toArray());
+            }
+        }
+
+        assertArrayEquals(toArray(expected), postings.toArray());
+        assertEquals(expected.size(), postings.size());
+        for (long key : toArray(expected)) {
+            postings.remove(key);
+        }
+        assertTrue(postings.isEmpty());
+        assertEquals(0, postings.toArray().length);
+    }
+
+    private static long[] toArray(TreeSet<Long> keys) {
+        return keys.stream().mapToLong(Long::longValue).toArray();
+    }
+}
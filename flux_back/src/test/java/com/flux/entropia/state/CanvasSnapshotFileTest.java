@@ -0,0 +1,83 @@
+package com.flux.entropia.state;
+
+import com.flux.entropia.common.Colors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CanvasSnapshotFileTest {
+
+    // Offset of the cell count in a current snapshot, followed by the first record.
+    private static final int CELL_COUNT_OFFSET = 4 + 4 + 8 + 8 + 8;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripsTheCells() throws IOException {
+        Path path = directory.resolve("canvas.snapshot");
+        CanvasSnapshotFile.write(store(), 7, path);
+        CanvasStateStore loaded = new CanvasStateStore();
+
+        CanvasSnapshotFile.SnapshotInfo info = CanvasSnapshotFile.load(path, loaded, 0);
+
+        assertEquals(2, info.cellCount());
+        assertEquals(7, info.deletionMark());
+        assertEquals(new CellState(11, "hello", 0x336699), loaded.get(-3, 4));
+        assertEquals(new CellState(12, null, Colors.NONE), loaded.get(5, -6));
+    }
+
+    @Test
+    void rejectsATruncatedFile() throws IOException {
+        Path path = directory.resolve("canvas.snapshot");
+        CanvasSnapshotFile.write(store(), 0, path);
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 3));
+
+        assertThrows(IOException.class, () -> CanvasSnapshotFile.load(path, new CanvasStateStore(), 0));
+    }
+
+    @Test
+    void rejectsAGarbageLength() throws IOException {
+        Path path = directory.resolve("canvas.snapshot");
+        CanvasSnapshotFile.write(store(), 0, path);
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(path));
+        // The content length of the first record.
+        bytes.putInt(CELL_COUNT_OFFSET + 4 + 4 + 4 + 8 + 4, Integer.MAX_VALUE);
+        Files.write(path, bytes.array());
+
+        assertThrows(IOException.class, () -> CanvasSnapshotFile.load(path, new CanvasStateStore(), 0));
+    }
+
+    @Test
+    void rejectsAGarbageCellCount() throws IOException {
+        Path path = directory.resolve("canvas.snapshot");
+        CanvasSnapshotFile.write(store(), 0, path);
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(path));
+        bytes.putInt(CELL_COUNT_OFFSET, 1_000_000);
+        Files.write(path, bytes.array());
+
+        assertThrows(IOException.class, () -> CanvasSnapshotFile.load(path, new CanvasStateStore(), 0));
+    }
+
+    @Test
+    void ignoresAMissingFile() throws IOException {
+        assertNull(CanvasSnapshotFile.load(directory.resolve("missing.snapshot"), new CanvasStateStore(), 0));
+    }
+
+    private static CanvasStateStore store() {
+        CanvasStateStore store = new CanvasStateStore();
+        store.apply(11, -3, 4, "hello", 0x336699);
+        store.apply(12, 5, -6, null, Colors.NONE);
+        return store;
+    }
+}
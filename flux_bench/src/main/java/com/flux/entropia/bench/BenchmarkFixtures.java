@@ -0,0 +1,117 @@
+package com.flux.entropia.bench;
+
+import com.flux.entropia.dto.HeatmapChunkDTO;
+import com.flux.entropia.entity.Message;
+import com.flux.entropia.mapper.HeatmapMapper;
+import com.flux.entropia.mapper.MessageMapper;
+import com.flux.entropia.metrics.FluxMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+/**
+ * Shared test data and in-memory stand-ins for the MyBatis mappers.
+ * Mappers are plain interfaces, so a dynamic proxy that answers the handful of calls a benchmark makes
+ * keeps the measured path free of any database or Spring overhead.
+ */
+public final class BenchmarkFixtures {
+
+    private static final Integer[] PALETTE = {0xFF6B6B, 0x4ECDC4, 0x45B7D1, 0x96CEB4, 0xFFEAA7, 0xDDA0DD, null};
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Builds a mapper proxy whose methods are answered by name; unknown methods throw.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T stubMapper(Class<T> mapperType, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(mapperType.getClassLoader(), new Class<?>[]{mapperType}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args);
+            }
+            if (method.getDeclaringClass() == Object.class) {
+                return method.invoke(answers, args);
+            }
+            throw new UnsupportedOperationException("Not stubbed: " + method.getName());
+        });
+    }
+
+    /**
+     * @return a message mapper answering grid reads with the given rows.
+     */
+    public static MessageMapper messageMapper(List<Message> gridRows) {
+        return stubMapper(MessageMapper.class, Map.of(
+            "selectLatestInGrid", args -> gridRows,
+            "countDistinctCoordinates", args -> (long) gridRows.size()
+        ));
+    }
+
+    /**
+     * @return a heatmap mapper answering every chunk request with the given data.
+     */
+    public static HeatmapMapper heatmapMapper(List<HeatmapChunkDTO.HeatmapDataDTO> data) {
+        return stubMapper(HeatmapMapper.class, Map.of("getHeatmapChunks", args -> data));
+    }
+
+    /**
+     * @return application meters backed by an in-memory registry, so instrumentation costs are part of the measurement.
+     */
+    public static FluxMetrics metrics() {
+        return new FluxMetrics(new SimpleMeterRegistry());
+    }
+
+    /**
+     * Generates a dense square of painted cells with realistic content lengths.
+     */
+    public static List<Message> messages(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int side = (int) Math.ceil(Math.sqrt(count));
+        List<Message> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Message message = new Message();
+            message.setId((long) i + 1);
+            message.setRowIndex(i / side);
+            message.setColIndex(i % side);
+            message.setContent(content(random));
+            message.setBgColor(PALETTE[random.nextInt(PALETTE.length)]);
+            message.setIpAddress("10.0." + random.nextInt(256) + "." + random.nextInt(256));
+            message.setCreatedAt(LocalDateTime.of(2025, 1, 1, 0, 0).plusSeconds(i));
+            messages.add(message);
+        }
+        return messages;
+    }
+
+    /**
+     * Builds a heatmap "chunks" request parameter covering a square of chunks around the origin.
+     */
+    public static String chunksParameter(int chunksPerSide) {
+        StringBuilder builder = new StringBuilder();
+        for (int y = 0; y < chunksPerSide; y++) {
+            for (int x = 0; x < chunksPerSide; x++) {
+                if (builder.length() > 0) {
+                    builder.append(';');
+                }
+                builder.append(x - chunksPerSide / 2).append(',').append(y - chunksPerSide / 2);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String content(SplittableRandom random) {
+        int length = random.nextInt(40);
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            // Mix ASCII and CJK, as on the real canvas.
+            builder.append(random.nextInt(4) == 0 ? (char) (0x4E00 + random.nextInt(2000)) : (char) ('a' + random.nextInt(26)));
+        }
+        return builder.toString();
+    }
+}
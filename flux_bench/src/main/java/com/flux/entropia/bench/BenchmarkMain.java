@@ -0,0 +1,36 @@
+package com.flux.entropia.bench;
+
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of benchmarks.jar.
+ * Behaves exactly like the JMH command line, but unless a result format is given explicitly it writes
+ * JSON results to {@code results/jmh-<timestamp>.json}, so every run leaves a file that can be diffed
+ * against earlier runs (e.g. with jmh.morethan.io or {@code jq}).
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        if (!arguments.contains("-rf") && !arguments.contains("-rff")) {
+            Path resultsDir = Path.of("results");
+            Files.createDirectories(resultsDir);
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+            arguments.addAll(List.of("-rf", "json", "-rff", resultsDir.resolve("jmh-" + timestamp + ".json").toString()));
+        }
+        // Validate the arguments up front for a readable error instead of a stack trace from inside JMH.
+        new CommandLineOptions(arguments.toArray(String[]::new));
+        org.openjdk.jmh.Main.main(arguments.toArray(String[]::new));
+    }
+}
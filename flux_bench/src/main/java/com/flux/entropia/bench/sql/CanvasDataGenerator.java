@@ -0,0 +1,177 @@
+package com.flux.entropia.bench.sql;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bulk-loads a realistic synthetic canvas into a local MySQL for {@link MapperQueryBenchmark}.
+ * <p>
+ * The schema is created by running the backend's own Flyway migrations, so the generated table always has the
+ * production columns and indexes. Rows are inserted by several writer threads with batched multi-row inserts
+ * ({@code rewriteBatchedStatements}); timestamps grow with the row number so that, as in production, newer rows have
+ * higher ids. Cell positions follow {@link CanvasDataset}.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.flux.entropia.bench.sql.CanvasDataGenerator --rows=20000000 --truncate
+ * </pre>
+ */
+public final class CanvasDataGenerator {
+
+    private static final String INSERT_SQL = "INSERT INTO messages (row_index, col_index, content, bg_color, ip_address, created_at, updated_at) "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final Integer[] PALETTE = {0xFF6B6B, 0x4ECDC4, 0x45B7D1, 0x96CEB4, 0xFFEAA7, 0xDDA0DD, 0xFFFFFF, 0x2D3436};
+    private static final String[] WORDS = {"hello", "flux", "entropia", "你好", "世界", "画布", "こんにちは", "art", "pixel", "hi"};
+
+    private CanvasDataGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        SqlBenchOptions options = new SqlBenchOptions(args);
+        long rows = options.longValue("rows", 20_000_000);
+        int threads = options.intValue("threads", 4);
+        int batchSize = options.intValue("batch-size", 5000);
+        int days = options.intValue("days", 30);
+        boolean truncate = options.flag("truncate");
+        long seed = options.longValue("seed", 42);
+        CanvasDataset dataset = CanvasDataset.fromOptions(options);
+        String jdbcUrl = withBatchRewrite(options.jdbcUrl());
+        String username = options.username();
+        String password = options.password();
+        options.rejectUnknown();
+
+        try (HikariDataSource dataSource = SqlBenchSupport.dataSource(jdbcUrl, username, password, threads + 1)) {
+            Flyway.configure().dataSource(dataSource).baselineOnMigrate(true).baselineVersion("1").load().migrate();
+            if (truncate) {
+                try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+                    statement.execute("TRUNCATE TABLE messages");
+                }
+            }
+
+            LocalDateTime end = LocalDateTime.now();
+            LocalDateTime start = end.minusDays(days);
+            long spanMillis = Duration.between(start, end).toMillis();
+            AtomicLong inserted = new AtomicLong();
+            long startNanos = System.nanoTime();
+
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long from = rows * t / threads;
+                long to = rows * (t + 1) / threads;
+                Random random = new Random(seed + 31L * (t + 1));
+                futures.add(executor.submit(() -> {
+                    insertRange(dataSource, dataset, random, from, to, rows, start, spanMillis, batchSize, inserted);
+                    return null;
+                }));
+            }
+            executor.shutdown();
+            while (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                long done = inserted.get();
+                double seconds = (System.nanoTime() - startNanos) / 1e9;
+                System.out.printf("%,d / %,d rows (%.0f rows/s)%n", done, rows, done / seconds);
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE TABLE messages");
+            }
+            System.out.printf("Inserted %,d rows in %.1fs%n", inserted.get(), (System.nanoTime() - startNanos) / 1e9);
+        }
+    }
+
+    /**
+     * Inserts rows [from, to) of the global sequence. Threads interleave, so ids are only roughly ordered by
+     * timestamp, which is close enough for the time-window queries.
+     */
+    private static void insertRange(HikariDataSource dataSource, CanvasDataset dataset, Random random, long from, long to,
+                                    long total, LocalDateTime start, long spanMillis, int batchSize, AtomicLong inserted) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement session = connection.createStatement()) {
+                session.execute("SET unique_checks = 0");
+            }
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_SQL)) {
+                int pending = 0;
+                for (long i = from; i < to; i++) {
+                    int[] cell = dataset.nextCell(random);
+                    Timestamp at = Timestamp.valueOf(start.plusNanos(TimeUnit.MILLISECONDS.toNanos(spanMillis * i / total)));
+                    insert.setInt(1, cell[0]);
+                    insert.setInt(2, cell[1]);
+                    bindPaint(insert, random);
+                    insert.setString(5, "10." + random.nextInt(256) + "." + random.nextInt(256) + "." + random.nextInt(256));
+                    insert.setTimestamp(6, at);
+                    insert.setTimestamp(7, at);
+                    insert.addBatch();
+                    if (++pending == batchSize) {
+                        insert.executeBatch();
+                        connection.commit();
+                        inserted.addAndGet(pending);
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                    inserted.addAndGet(pending);
+                }
+            }
+        }
+    }
+
+    /**
+     * Content and color mix: mostly color-only pixels, some short texts (including CJK), a few long texts and a
+     * small share of cleared cells, which exercise the is_painted filter.
+     */
+    private static void bindPaint(PreparedStatement insert, Random random) throws SQLException {
+        double kind = random.nextDouble();
+        String content;
+        Integer color;
+        if (kind < 0.60) {
+            content = "";
+            color = PALETTE[random.nextInt(PALETTE.length)];
+        } else if (kind < 0.90) {
+            content = WORDS[random.nextInt(WORDS.length)];
+            color = random.nextBoolean() ? PALETTE[random.nextInt(PALETTE.length)] : null;
+        } else if (kind < 0.98) {
+            StringBuilder text = new StringBuilder();
+            int words = 10 + random.nextInt(40);
+            for (int w = 0; w < words; w++) {
+                text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            content = text.toString().trim();
+            color = PALETTE[random.nextInt(PALETTE.length)];
+        } else {
+            content = "";
+            color = null;
+        }
+        insert.setString(3, content);
+        insert.setObject(4, color, Types.INTEGER);
+    }
+
+    private static String withBatchRewrite(String jdbcUrl) {
+        if (jdbcUrl.contains("rewriteBatchedStatements")) {
+            return jdbcUrl;
+        }
+        return jdbcUrl + (jdbcUrl.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+    }
+}
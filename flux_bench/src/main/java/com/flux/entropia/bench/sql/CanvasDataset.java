@@ -0,0 +1,101 @@
+package com.flux.entropia.bench.sql;
+
+import java.util.Random;
+
+/**
+ * The shape of a synthetic canvas, derived deterministically from a seed so that {@link CanvasDataGenerator}
+ * and {@link MapperQueryBenchmark} agree on where the dense and the empty regions are.
+ * <p>
+ * Edits fall into three populations, mirroring what production traffic looks like:
+ * <ul>
+ *   <li>popular cells: a small set of cells near the hotspots that receive a power-law share of all edits,
+ *       giving them histories thousands of versions deep;</li>
+ *   <li>hotspots: gaussian clusters where most painting happens;</li>
+ *   <li>background: sparse, uniformly scattered edits over the whole canvas.</li>
+ * </ul>
+ */
+final class CanvasDataset {
+
+    final int canvasRadius;
+    final int hotspotRadius;
+    final double popularShare;
+    final double hotspotShare;
+    final int[][] hotspots;
+    final int[][] popularCells;
+
+    CanvasDataset(long seed, int hotspotCount, int hotspotRadius, int canvasRadius, int popularCellCount,
+                  double popularShare, double hotspotShare) {
+        this.canvasRadius = canvasRadius;
+        this.hotspotRadius = hotspotRadius;
+        this.popularShare = popularShare;
+        this.hotspotShare = hotspotShare;
+
+        Random random = new Random(seed);
+        hotspots = new int[hotspotCount][];
+        for (int i = 0; i < hotspotCount; i++) {
+            // Keep hotspot centers well inside the canvas so their clusters are not clipped.
+            int range = Math.max(1, canvasRadius - 3 * hotspotRadius);
+            hotspots[i] = new int[]{random.nextInt(2 * range) - range, random.nextInt(2 * range) - range};
+        }
+        popularCells = new int[popularCellCount][];
+        for (int i = 0; i < popularCellCount; i++) {
+            int[] hotspot = hotspots[i % hotspotCount];
+            popularCells[i] = new int[]{
+                hotspot[0] + (int) (random.nextGaussian() * hotspotRadius / 4),
+                hotspot[1] + (int) (random.nextGaussian() * hotspotRadius / 4)};
+        }
+    }
+
+    static CanvasDataset fromOptions(SqlBenchOptions options) {
+        return new CanvasDataset(
+            options.longValue("seed", 42),
+            options.intValue("hotspots", 20),
+            options.intValue("hotspot-radius", 60),
+            options.intValue("canvas-radius", 5000),
+            options.intValue("popular-cells", 2000),
+            options.doubleValue("popular-share", 0.05),
+            options.doubleValue("hotspot-share", 0.75));
+    }
+
+    /**
+     * Picks the cell of the next edit.
+     *
+     * @return {row, col}
+     */
+    int[] nextCell(Random random) {
+        double population = random.nextDouble();
+        if (population < popularShare) {
+            // u^4 concentrates picks on the first cells: the top 1% of popular cells get ~30% of these edits.
+            int index = (int) (popularCells.length * Math.pow(random.nextDouble(), 4));
+            return popularCells[Math.min(index, popularCells.length - 1)];
+        }
+        if (population < popularShare + hotspotShare) {
+            int[] hotspot = hotspots[random.nextInt(hotspots.length)];
+            return new int[]{
+                hotspot[0] + (int) (random.nextGaussian() * hotspotRadius),
+                hotspot[1] + (int) (random.nextGaussian() * hotspotRadius)};
+        }
+        return new int[]{random.nextInt(2 * canvasRadius) - canvasRadius, random.nextInt(2 * canvasRadius) - canvasRadius};
+    }
+
+    /**
+     * The densest viewport: the center of the first hotspot.
+     */
+    int[] denseCenter() {
+        return hotspots[0];
+    }
+
+    /**
+     * The cell with the deepest history.
+     */
+    int[] deepestCell() {
+        return popularCells[0];
+    }
+
+    /**
+     * A corner of the canvas where only background edits land.
+     */
+    int[] sparseCenter() {
+        return new int[]{-canvasRadius + 50, canvasRadius - 50};
+    }
+}
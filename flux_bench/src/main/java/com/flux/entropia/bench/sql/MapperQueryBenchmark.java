@@ -0,0 +1,317 @@
+package com.flux.entropia.bench.sql;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.flux.entropia.board.BoardRegistry;
+import com.flux.entropia.dto.CreateMessageDTO;
+import com.flux.entropia.service.impl.HeatmapServiceImpl;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Times every mapper statement against a (generated) canvas, captures its plan and fails on regressions.
+ * <p>
+ * Each case runs the shipped MappedStatement with representative parameters: dense and sparse viewports, the cell
+ * with the deepest history, large heatmap requests, the canvas-wide statistics and the hotspot analysis. For each
+ * case the suite records p50/p95/max latency, the {@code EXPLAIN} plan shape (access type, key and filesort/temporary
+ * per table) and the full {@code EXPLAIN ANALYZE} output.
+ * <p>
+ * Results are compared with a baseline file. A case regresses when its p50 grows beyond
+ * {@code --latency-tolerance} times the baseline (and by more than {@code --min-delta-ms}, to ignore noise on
+ * sub-millisecond queries), or when its plan shape changes. Any regression makes the process exit with status 1.
+ * Without a baseline, or with {@code --update-baseline}, the current run is recorded as the new baseline.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.flux.entropia.bench.sql.MapperQueryBenchmark [--update-baseline]
+ * </pre>
+ */
+public final class MapperQueryBenchmark {
+
+    private static final String MESSAGE_MAPPER = "com.flux.entropia.mapper.MessageMapper.";
+    private static final String HEATMAP_MAPPER = "com.flux.entropia.mapper.HeatmapMapper.";
+
+    private MapperQueryBenchmark() {
+    }
+
+    record QueryCase(String name, String statement, Map<String, Object> params) {
+    }
+
+    record CaseResult(String name, double p50Ms, double p95Ms, double maxMs, int rows, List<String> plan) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        SqlBenchOptions options = new SqlBenchOptions(args);
+        int warmup = options.intValue("warmup", 3);
+        int iterations = options.intValue("iterations", 15);
+        Path baselinePath = Path.of(options.string("baseline", "sql-baseline.json"));
+        boolean updateBaseline = options.flag("update-baseline");
+        double tolerance = options.doubleValue("latency-tolerance", 1.5);
+        double minDeltaMs = options.doubleValue("min-delta-ms", 2.0);
+        Path resultsDir = Path.of(options.string("results-dir", "results"));
+        CanvasDataset dataset = CanvasDataset.fromOptions(options);
+        String jdbcUrl = options.jdbcUrl();
+        String username = options.username();
+        String password = options.password();
+        options.rejectUnknown();
+
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path explainDir = resultsDir.resolve("explain-" + timestamp);
+        Files.createDirectories(explainDir);
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+        List<CaseResult> results = new ArrayList<>();
+        long tableRows;
+        try (HikariDataSource dataSource = SqlBenchSupport.dataSource(jdbcUrl, username, password, 2)) {
+            SqlSessionFactory factory = SqlBenchSupport.sqlSessionFactory(dataSource);
+            try (SqlSession session = factory.openSession(true)) {
+                tableRows = countRows(session.getConnection());
+                System.out.printf("messages: %,d rows%n", tableRows);
+                for (QueryCase queryCase : cases(dataset, session)) {
+                    CaseResult result = run(session, queryCase, warmup, iterations, explainDir);
+                    results.add(result);
+                    System.out.printf("%-34s p50=%9.2fms p95=%9.2fms max=%9.2fms rows=%-6d %s%n", result.name(), result.p50Ms(),
+                        result.p95Ms(), result.maxMs(), result.rows(), String.join(" | ", result.plan()));
+                }
+            }
+        }
+
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("tableRows", tableRows);
+        Map<String, Object> byName = new LinkedHashMap<>();
+        for (CaseResult result : results) {
+            byName.put(result.name(), result);
+        }
+        run.put("cases", byName);
+        objectMapper.writeValue(resultsDir.resolve("sql-" + timestamp + ".json").toFile(), run);
+        System.out.println("EXPLAIN ANALYZE output written to " + explainDir);
+
+        if (updateBaseline || !Files.exists(baselinePath)) {
+            objectMapper.writeValue(baselinePath.toFile(), run);
+            System.out.println("Recorded baseline " + baselinePath);
+            return;
+        }
+
+        List<String> regressions = compare(objectMapper.readTree(baselinePath.toFile()), tableRows, results, tolerance, minDeltaMs);
+        if (!regressions.isEmpty()) {
+            System.out.println();
+            System.out.println("REGRESSIONS against " + baselinePath + ":");
+            regressions.forEach(line -> System.out.println("  " + line));
+            System.exit(1);
+        }
+        System.out.println("No regressions against " + baselinePath);
+    }
+
+    private static List<QueryCase> cases(CanvasDataset dataset, SqlSession session) {
+        int[] dense = dataset.denseCenter();
+        int[] sparse = dataset.sparseCenter();
+        int[] deepest = dataset.deepestCell();
+        Long maxId = session.selectOne(MESSAGE_MAPPER + "selectMaxId", params("board", BoardRegistry.MAIN));
+        long untilId = maxId != null ? maxId : 0L;
+
+        List<QueryCase> cases = new ArrayList<>();
+        cases.add(new QueryCase("selectLatestForCell.deepHistory", MESSAGE_MAPPER + "selectLatestForCell",
+            params("board", BoardRegistry.MAIN, "rowIndex", deepest[0], "colIndex", deepest[1])));
+        cases.add(new QueryCase("selectLatestForCell.empty", MESSAGE_MAPPER + "selectLatestForCell",
+            params("board", BoardRegistry.MAIN, "rowIndex", sparse[0], "colIndex", sparse[1])));
+        cases.add(new QueryCase("selectLatestForCells.stroke200", MESSAGE_MAPPER + "selectLatestForCells", stroke(dense, 200)));
+        cases.add(new QueryCase("selectLatestInGrid.dense27", MESSAGE_MAPPER + "selectLatestInGrid", grid(dense, 27)));
+        cases.add(new QueryCase("selectLatestInGrid.dense81", MESSAGE_MAPPER + "selectLatestInGrid", grid(dense, 81)));
+        cases.add(new QueryCase("selectLatestInGrid.sparse81", MESSAGE_MAPPER + "selectLatestInGrid", grid(sparse, 81)));
+        cases.add(new QueryCase("countDistinctCoordinates", MESSAGE_MAPPER + "countDistinctCoordinates",
+            params("board", BoardRegistry.MAIN)));
+        cases.add(new QueryCase("countDistinctCoordinatesInGrid.dense81", MESSAGE_MAPPER + "countDistinctCoordinatesInGrid", grid(dense, 81)));
+        cases.add(new QueryCase("getHeatmapChunks.dense3x3", HEATMAP_MAPPER + "getHeatmapChunks", chunks(dense, 3)));
+        cases.add(new QueryCase("getHeatmapChunks.dense30x30", HEATMAP_MAPPER + "getHeatmapChunks", chunks(dense, 30)));
+        cases.add(new QueryCase("calculateHotspotPosition", MESSAGE_MAPPER + "calculateHotspotPosition",
+            params("board", BoardRegistry.MAIN, "gridSize", 10, "timeWindowDays", 7)));
+        cases.add(new QueryCase("selectMaxId", MESSAGE_MAPPER + "selectMaxId", params("board", BoardRegistry.MAIN)));
+        cases.add(new QueryCase("selectFirstIdSince.1d", MESSAGE_MAPPER + "selectFirstIdSince",
+            params("board", BoardRegistry.MAIN, "from", LocalDateTime.now().minusDays(1))));
+        Map<String, Object> page = params("board", BoardRegistry.MAIN, "afterId", Math.max(0, untilId - 100_000), "untilId", untilId,
+            "limit", 1000);
+        page.put("startRow", null);
+        page.put("endRow", null);
+        page.put("startCol", null);
+        page.put("endCol", null);
+        cases.add(new QueryCase("streamChangesAfter.page1000", MESSAGE_MAPPER + "streamChangesAfter", page));
+        return cases;
+    }
+
+    private static CaseResult run(SqlSession session, QueryCase queryCase, int warmup, int iterations, Path explainDir) throws Exception {
+        int rows = 0;
+        for (int i = 0; i < warmup; i++) {
+            rows = execute(session, queryCase);
+        }
+        double[] millis = new double[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            rows = execute(session, queryCase);
+            millis[i] = (System.nanoTime() - start) / 1e6;
+        }
+        Arrays.sort(millis);
+
+        MappedStatement statement = session.getConfiguration().getMappedStatement(queryCase.statement());
+        Object parameter = queryCase.params();
+        BoundSql boundSql = statement.getBoundSql(parameter);
+        List<String> plan = new ArrayList<>();
+        try (ResultSet explain = explain(session.getConnection(), "EXPLAIN ", statement, parameter, boundSql)) {
+            while (explain.next()) {
+                plan.add(planStep(explain));
+            }
+        }
+        StringBuilder analyze = new StringBuilder(boundSql.getSql().strip()).append("\n\n");
+        try (ResultSet explain = explain(session.getConnection(), "EXPLAIN ANALYZE ", statement, parameter, boundSql)) {
+            while (explain.next()) {
+                analyze.append(explain.getString(1)).append('\n');
+            }
+        }
+        Files.writeString(explainDir.resolve(queryCase.name() + ".txt"), analyze);
+
+        return new CaseResult(queryCase.name(), round(percentile(millis, 50)), round(percentile(millis, 95)),
+            round(millis[millis.length - 1]), rows, plan);
+    }
+
+    private static int execute(SqlSession session, QueryCase queryCase) {
+        if (queryCase.statement().endsWith("streamChangesAfter")) {
+            int[] count = {0};
+            session.select(queryCase.statement(), queryCase.params(), context -> count[0]++);
+            return count[0];
+        }
+        return session.selectList(queryCase.statement(), queryCase.params()).size();
+    }
+
+    /**
+     * Runs EXPLAIN variants on the statement's SQL with its parameters bound by MyBatis itself.
+     * The statement is closed together with the returned result set.
+     */
+    private static ResultSet explain(Connection connection, String prefix, MappedStatement statement, Object parameter,
+                                     BoundSql boundSql) throws SQLException {
+        PreparedStatement prepared = connection.prepareStatement(prefix + boundSql.getSql());
+        prepared.closeOnCompletion();
+        new DefaultParameterHandler(statement, parameter, boundSql).setParameters(prepared);
+        return prepared.executeQuery();
+    }
+
+    /**
+     * One plan step as "select_type table type key", plus the flags that usually signal a plan regression.
+     */
+    private static String planStep(ResultSet explain) throws SQLException {
+        String extra = explain.getString("Extra");
+        StringBuilder step = new StringBuilder()
+            .append(explain.getString("select_type")).append(' ')
+            .append(explain.getString("table")).append(' ')
+            .append(explain.getString("type")).append(' ')
+            .append(explain.getString("key"));
+        if (extra != null && extra.contains("Using filesort")) {
+            step.append(" +filesort");
+        }
+        if (extra != null && extra.contains("Using temporary")) {
+            step.append(" +temporary");
+        }
+        return step.toString();
+    }
+
+    private static List<String> compare(JsonNode baseline, long tableRows, List<CaseResult> results, double tolerance, double minDeltaMs) {
+        long baselineRows = baseline.path("tableRows").asLong();
+        if (baselineRows > 0 && Math.abs(tableRows - baselineRows) > baselineRows / 10) {
+            System.out.printf("WARNING: the baseline was recorded on %,d rows, this run has %,d%n", baselineRows, tableRows);
+        }
+        List<String> regressions = new ArrayList<>();
+        for (CaseResult result : results) {
+            JsonNode expected = baseline.path("cases").path(result.name());
+            if (expected.isMissingNode()) {
+                System.out.println("New case without baseline: " + result.name());
+                continue;
+            }
+            double baselineP50 = expected.path("p50Ms").asDouble();
+            if (result.p50Ms() > baselineP50 * tolerance && result.p50Ms() - baselineP50 > minDeltaMs) {
+                regressions.add(String.format("%s: p50 %.2fms -> %.2fms", result.name(), baselineP50, result.p50Ms()));
+            }
+            List<String> expectedPlan = new ArrayList<>();
+            expected.path("plan").forEach(step -> expectedPlan.add(step.asText()));
+            if (!expectedPlan.equals(result.plan())) {
+                regressions.add(String.format("%s: plan changed%n      was: %s%n      now: %s", result.name(),
+                    String.join(" | ", expectedPlan), String.join(" | ", result.plan())));
+            }
+        }
+        return regressions;
+    }
+
+    private static long countRows(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM messages")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static Map<String, Object> grid(int[] center, int size) {
+        int half = size / 2;
+        return params("board", BoardRegistry.MAIN, "startRow", center[0] - half, "endRow", center[0] - half + size - 1,
+            "startCol", center[1] - half, "endCol", center[1] - half + size - 1);
+    }
+
+    /**
+     * A diagonal paint stroke through the center, as validated by the stroke endpoint.
+     */
+    private static Map<String, Object> stroke(int[] center, int length) {
+        List<CreateMessageDTO> cells = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            int offset = i - length / 2;
+            cells.add(new CreateMessageDTO(null, null, center[0] + offset / 2, center[1] + offset, null));
+        }
+        return params("board", BoardRegistry.MAIN, "cells", cells);
+    }
+
+    private static Map<String, Object> chunks(int[] center, int perSide) {
+        List<HeatmapServiceImpl.ChunkCoordinate> coordinates = new ArrayList<>();
+        int gridY0 = Math.floorDiv(center[0], 9) - perSide / 2;
+        int gridX0 = Math.floorDiv(center[1], 9) - perSide / 2;
+        for (int y = 0; y < perSide; y++) {
+            for (int x = 0; x < perSide; x++) {
+                coordinates.add(new HeatmapServiceImpl.ChunkCoordinate(gridX0 + x, gridY0 + y));
+            }
+        }
+        return params("board", BoardRegistry.MAIN, "chunkCoordinates", coordinates);
+    }
+
+    /**
+     * Builds the parameter object MyBatis passes for {@code @Param}-annotated mapper methods.
+     */
+    private static Map<String, Object> params(Object... namesAndValues) {
+        MapperMethod.ParamMap<Object> params = new MapperMethod.ParamMap<>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            params.put((String) namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return params;
+    }
+
+    private static double percentile(double[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double round(double millis) {
+        return Math.round(millis * 100) / 100.0;
+    }
+}
@@ -0,0 +1,75 @@
+package com.flux.entropia.bench.sql;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * {@code --name=value} command line options shared by the SQL tools, with defaults for a local MySQL.
+ * Every option that is read is marked as used, so typos are reported instead of silently ignored.
+ */
+final class SqlBenchOptions {
+
+    private final Map<String, String> values = new HashMap<>();
+    private final Set<String> used = new TreeSet<>();
+
+    SqlBenchOptions(String[] args) {
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            if (eq < 0) {
+                values.put(arg.substring(2), "true");
+            } else {
+                values.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+    }
+
+    String jdbcUrl() {
+        return string("jdbc-url", "jdbc:mysql://localhost:3306/flux?useUnicode=true&characterEncoding=utf8&serverTimezone=UTC"
+            + "&useSSL=false&allowPublicKeyRetrieval=true");
+    }
+
+    String username() {
+        return string("user", "root");
+    }
+
+    String password() {
+        return string("password", "123456");
+    }
+
+    String string(String name, String defaultValue) {
+        used.add(name);
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    long longValue(String name, long defaultValue) {
+        return Long.parseLong(string(name, Long.toString(defaultValue)));
+    }
+
+    int intValue(String name, int defaultValue) {
+        return Integer.parseInt(string(name, Integer.toString(defaultValue)));
+    }
+
+    double doubleValue(String name, double defaultValue) {
+        return Double.parseDouble(string(name, Double.toString(defaultValue)));
+    }
+
+    boolean flag(String name) {
+        return Boolean.parseBoolean(string(name, "false"));
+    }
+
+    /**
+     * Fails on options that were given but never read.
+     */
+    void rejectUnknown() {
+        Set<String> unknown = new TreeSet<>(values.keySet());
+        unknown.removeAll(used);
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Unknown option(s): " + unknown + "; known options: " + used);
+        }
+    }
+}
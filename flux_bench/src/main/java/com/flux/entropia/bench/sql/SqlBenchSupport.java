@@ -0,0 +1,52 @@
+package com.flux.entropia.bench.sql;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Connection and MyBatis setup for the SQL tools, without starting the Spring application.
+ * The mapper XML files are loaded from the backend jar, so the benchmarked statements are exactly the shipped ones.
+ */
+final class SqlBenchSupport {
+
+    static final List<String> MAPPER_RESOURCES = List.of("mapper/MessageMapper.xml", "mapper/HeatmapMapper.xml");
+
+    private SqlBenchSupport() {
+    }
+
+    static HikariDataSource dataSource(String jdbcUrl, String username, String password, int poolSize) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(jdbcUrl);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(poolSize);
+        config.setPoolName("flux-sql-bench");
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Builds a SqlSessionFactory configured like the backend's (see mybatis-plus in application.yml).
+     */
+    static SqlSessionFactory sqlSessionFactory(DataSource dataSource) throws IOException {
+        MybatisConfiguration configuration = new MybatisConfiguration(new Environment("sql-bench", new JdbcTransactionFactory(), dataSource));
+        configuration.setMapUnderscoreToCamelCase(true);
+        for (String resource : MAPPER_RESOURCES) {
+            try (InputStream in = Resources.getResourceAsStream(resource)) {
+                new XMLMapperBuilder(in, configuration, resource, configuration.getSqlFragments()).parse();
+            }
+        }
+        return new MybatisSqlSessionFactoryBuilder().build(configuration);
+    }
+}
@@ -0,0 +1,67 @@
+package com.flux.entropia.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flux.entropia.bench.BenchmarkFixtures;
+import com.flux.entropia.common.ApiResponse;
+import com.flux.entropia.websocket.WebSocketMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the payloads sent on every edit and every viewport load,
+ * using an ObjectMapper configured like Spring Boot's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private WebSocketMessage<MessageNodeDTO> cellUpdated;
+    private WebSocketMessage<Map<String, Object>> systemStats;
+    private ApiResponse<List<MessageNodeDTO>> chunkResponse;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        cellUpdated = new WebSocketMessage<>("CELL_UPDATED", new MessageNodeDTO(123456L, 1024, -2048, "你好, canvas!", 0xFF6B6B));
+        systemStats = new WebSocketMessage<>("SYSTEM_STATS_UPDATED", Map.of("onlineCount", 1234, "totalMessages", 987654L, "visibleMessages", 987654L));
+        // One 9x9 chunk, as returned by GET /api/messages.
+        chunkResponse = ApiResponse.success(BenchmarkFixtures.messages(81, 11).stream()
+            .map(m -> new MessageNodeDTO(m.getId(), m.getRowIndex(), m.getColIndex(), m.getContent(), m.getBgColor()))
+            .toList());
+    }
+
+    @Benchmark
+    public byte[] cellUpdatedMessage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(cellUpdated);
+    }
+
+    @Benchmark
+    public byte[] systemStatsMessage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(systemStats);
+    }
+
+    @Benchmark
+    public byte[] chunkApiResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(chunkResponse);
+    }
+}
@@ -0,0 +1,106 @@
+package com.flux.entropia.ratelimit;
+
+import com.flux.entropia.bench.BenchmarkFixtures;
+import com.flux.entropia.config.FluxProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cost of {@link IpRateLimiter} with 8 threads hammering it concurrently:
+ * distinct clients, one hot client, 200-cell strokes, and the rejection path (which allocates an exception per call).
+ * <p>
+ * Per-client benchmarks drive the limiter with a synthetic clock that advances by exactly the cost of each call,
+ * so every call is admitted under the default configuration instead of the budget running out after a few
+ * thousand iterations.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class RateLimitBenchmark {
+
+    private static final long INTERVAL_MS = 100;
+    private static final long INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(INTERVAL_MS);
+
+    @State(Scope.Benchmark)
+    public static class Limiters {
+        IpRateLimiter defaults;
+        IpRateLimiter generous;
+        IpRateLimiter rejecting;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            defaults = limiter(INTERVAL_MS, 256);
+            // 1 ms per cell with a burst of ~2^31 cells: far more than one run can spend on the real clock.
+            generous = limiter(1L, Integer.MAX_VALUE);
+            rejecting = limiter(TimeUnit.HOURS.toMillis(1), 1);
+            rejecting.acquire("10.0.0.1", 1);
+        }
+
+        private static IpRateLimiter limiter(long durationMs, int burstCells) {
+            FluxProperties properties = new FluxProperties();
+            properties.getRateLimit().setDurationMs(durationMs);
+            properties.getRateLimit().setBurstCells(burstCells);
+            return new IpRateLimiter(properties, BenchmarkFixtures.metrics());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        private static final AtomicInteger COUNTER = new AtomicInteger();
+        String ownIp;
+        long clock;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            ownIp = "192.168.1." + COUNTER.incrementAndGet();
+            clock = System.nanoTime();
+        }
+    }
+
+    @Benchmark
+    public long distinctClients(Limiters limiters, Client client) {
+        client.clock += INTERVAL_NANOS;
+        return limiters.defaults.tryAcquire(client.ownIp, 1, client.clock);
+    }
+
+    @Benchmark
+    public long strokeOf200Cells(Limiters limiters, Client client) {
+        client.clock += 200 * INTERVAL_NANOS;
+        return limiters.defaults.tryAcquire(client.ownIp, 200, client.clock);
+    }
+
+    /**
+     * All threads contend on one compare-and-set; retries under contention are part of what this measures.
+     */
+    @Benchmark
+    public void sharedHotClient(Limiters limiters) {
+        limiters.generous.acquire("10.0.0.1", 1);
+    }
+
+    @Benchmark
+    public Object rejectedClient(Limiters limiters) {
+        try {
+            limiters.rejecting.acquire("10.0.0.1", 1);
+            return null;
+        } catch (ResponseStatusException e) {
+            return e;
+        }
+    }
+}
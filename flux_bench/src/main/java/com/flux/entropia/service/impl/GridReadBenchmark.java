@@ -0,0 +1,67 @@
+package com.flux.entropia.service.impl;
+
+import com.flux.entropia.analytics.HeavyHitterMonitor;
+import com.flux.entropia.bench.BenchmarkFixtures;
+import com.flux.entropia.board.BoardRegistry;
+import com.flux.entropia.board.BoardStates;
+import com.flux.entropia.common.HybridLogicalClock;
+import com.flux.entropia.config.FluxProperties;
+import com.flux.entropia.config.WorkerThreads;
+import com.flux.entropia.dto.MessageNodeDTO;
+import com.flux.entropia.event.CellEventBus;
+import com.flux.entropia.mapper.MessageMapper;
+import com.flux.entropia.ratelimit.IpRateLimiter;
+import com.flux.entropia.state.CanvasStateStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The entity-to-DTO mapping path of {@link MessageServiceImpl#getMessagesInGrid}, with the mapper
+ * returning a canned result set: one chunk, a 3x3 chunk viewport and a zoomed-out 9x9 chunk viewport.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GridReadBenchmark {
+
+    @Param({"81", "729", "6561"})
+    public int cellCount;
+
+    private MessageServiceImpl service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        FluxProperties properties = new FluxProperties();
+        properties.getRateLimit().setDurationMs(0L);
+        MessageMapper messageMapper = BenchmarkFixtures.messageMapper(BenchmarkFixtures.messages(cellCount, 3));
+        WorkerThreads workerThreads = new WorkerThreads(new StandardEnvironment());
+        BoardStates boardStates = new BoardStates(new CanvasStateStore(), messageMapper, properties,
+            BenchmarkFixtures.metrics(), workerThreads);
+        service = new MessageServiceImpl(messageMapper, properties,
+            boardStates, BenchmarkFixtures.metrics(), new HeavyHitterMonitor(properties),
+            new IpRateLimiter(properties, BenchmarkFixtures.metrics()), new CellEventBus(properties, BenchmarkFixtures.metrics(), workerThreads),
+            new HybridLogicalClock());
+    }
+
+    @Benchmark
+    public List<MessageNodeDTO> getMessagesInGrid() {
+        return service.getMessagesInGrid(BoardRegistry.MAIN, 0, 80, 0, 80);
+    }
+}
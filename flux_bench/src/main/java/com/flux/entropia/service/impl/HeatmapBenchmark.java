@@ -0,0 +1,80 @@
+package com.flux.entropia.service.impl;
+
+import com.flux.entropia.bench.BenchmarkFixtures;
+import com.flux.entropia.board.BoardRegistry;
+import com.flux.entropia.dto.HeatmapChunkDTO;
+import com.flux.entropia.entity.Message;
+import com.flux.entropia.state.CanvasStateStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heatmap request handling without the database: parsing the {@code chunks} parameter, the full
+ * {@link HeatmapServiceImpl#getHeatmapChunks} path against a canned mapper, and aggregating the same chunks
+ * from the in-memory heat grid of {@link CanvasStateStore}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HeatmapBenchmark {
+
+    // A 3x3 viewport, a zoomed-out 10x10 one and the 30x30 worst case.
+    @Param({"3", "10", "30"})
+    public int chunksPerSide;
+
+    private String chunks;
+    private HeatmapServiceImpl service;
+    private CanvasStateStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        chunks = BenchmarkFixtures.chunksParameter(chunksPerSide);
+
+        List<HeatmapChunkDTO.HeatmapDataDTO> data = new ArrayList<>();
+        for (HeatmapServiceImpl.ChunkCoordinate chunk : new HeatmapServiceImpl(null, null).parseChunksParameter(chunks)) {
+            data.add(new HeatmapChunkDTO.HeatmapDataDTO(chunk.gridY(), chunk.gridX(), 40));
+        }
+        service = new HeatmapServiceImpl(BenchmarkFixtures.heatmapMapper(data), BenchmarkFixtures.metrics());
+
+        store = new CanvasStateStore();
+        for (Message message : BenchmarkFixtures.messages(100_000, 7)) {
+            store.apply(message);
+        }
+    }
+
+    @Benchmark
+    public List<HeatmapServiceImpl.ChunkCoordinate> parseChunks() {
+        return service.parseChunksParameter(chunks);
+    }
+
+    @Benchmark
+    public HeatmapChunkDTO getHeatmapChunks() {
+        return service.getHeatmapChunks(BoardRegistry.MAIN, chunks);
+    }
+
+    @Benchmark
+    public long aggregateFromHeatGrid() {
+        long total = 0;
+        for (HeatmapServiceImpl.ChunkCoordinate chunk : service.parseChunksParameter(chunks)) {
+            total += store.getChunkCount(chunk.gridY(), chunk.gridX());
+        }
+        return total;
+    }
+}
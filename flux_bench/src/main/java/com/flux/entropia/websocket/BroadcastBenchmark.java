@@ -0,0 +1,112 @@
+package com.flux.entropia.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flux.entropia.analytics.HeavyHitterMonitor;
+import com.flux.entropia.bench.BenchmarkFixtures;
+import com.flux.entropia.board.BoardRegistry;
+import com.flux.entropia.board.BoardStates;
+import com.flux.entropia.common.HybridLogicalClock;
+import com.flux.entropia.bench.NoopWebSocketSession;
+import com.flux.entropia.config.FluxProperties;
+import com.flux.entropia.config.WorkerThreads;
+import com.flux.entropia.dto.MessageNodeDTO;
+import com.flux.entropia.event.CellEventBus;
+import com.flux.entropia.mapper.MessageMapper;
+import com.flux.entropia.metrics.FluxMetrics;
+import com.flux.entropia.ratelimit.IpRateLimiter;
+import com.flux.entropia.service.MessageService;
+import com.flux.entropia.service.impl.MessageServiceImpl;
+import com.flux.entropia.state.CanvasStateStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.socket.CloseStatus;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fan-out cost of {@link FluxWebSocketHandler#broadcast} to N sessions connected to the main board.
+ * Sessions discard frames, so this measures serialization plus the per-session send loop
+ * (through the handler's thread-safe session decorators).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BroadcastBenchmark {
+
+    @Param({"10", "100", "1000", "5000"})
+    public int sessionCount;
+
+    private FluxWebSocketHandler handler;
+    private final List<NoopWebSocketSession> sessions = new ArrayList<>();
+    private ChangeLog changeLog;
+    private MessageNodeDTO cell;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        FluxProperties properties = new FluxProperties();
+        properties.getRateLimit().setDurationMs(0L);
+        FluxMetrics metrics = BenchmarkFixtures.metrics();
+        HeavyHitterMonitor heavyHitterMonitor = new HeavyHitterMonitor(properties);
+        MessageMapper messageMapper = BenchmarkFixtures.messageMapper(BenchmarkFixtures.messages(100, 1));
+        ChangeLogs changeLogs = new ChangeLogs(properties, messageMapper, metrics);
+        changeLog = changeLogs.get(BoardRegistry.MAIN);
+        // No CELL_WRITE commands are sent, so no command handler is needed.
+        handler = new FluxWebSocketHandler(objectMapper, properties, metrics, heavyHitterMonitor, null, changeLogs);
+
+        WorkerThreads workerThreads = new WorkerThreads(new StandardEnvironment());
+        BoardStates boardStates = new BoardStates(new CanvasStateStore(), messageMapper, properties, metrics, workerThreads);
+        MessageService messageService = new MessageServiceImpl(messageMapper, properties, boardStates,
+            metrics, heavyHitterMonitor, new IpRateLimiter(properties, metrics), new CellEventBus(properties, metrics, workerThreads),
+            new HybridLogicalClock());
+        // The handler gets its MessageService by field injection; wire it by hand.
+        Field field = FluxWebSocketHandler.class.getDeclaredField("messageService");
+        field.setAccessible(true);
+        field.set(handler, messageService);
+
+        for (int i = 0; i < sessionCount; i++) {
+            NoopWebSocketSession session = new NoopWebSocketSession("s" + i);
+            sessions.add(session);
+            handler.afterConnectionEstablished(session);
+        }
+        cell = new MessageNodeDTO(42L, 10, 20, "hello canvas", 0x4ECDC4);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (NoopWebSocketSession session : sessions) {
+            handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+        }
+        sessions.clear();
+    }
+
+    @Benchmark
+    public void broadcastCellUpdated() {
+        // Includes numbering the event in the change log, as on the write path.
+        handler.broadcast(BoardRegistry.MAIN, changeLog.cellUpdated(cell));
+    }
+
+    @Benchmark
+    public void broadcastSystemStats() {
+        handler.broadcastSystemStats(BoardRegistry.MAIN);
+    }
+}
@@ -19,4 +19,21 @@ export const getInitialPosition = async (): Promise<CanvasInitialPositionDTO> =>
   } else {
     throw new Error(response.data.message || 'Failed to get initial position');
   }
-};
\ No newline at end of file
+};
+
+// Level 0 overview tiles cover TILE_SIZE x TILE_SIZE cells, one pixel per cell; each level up halves the resolution.
+export const TILE_SIZE = 256;
+// Must stay within the backend's flux.tiles.max-level.
+export const MAX_TILE_LEVEL = 4;
+
+/**
+ * Fetch a raster overview tile as a PNG blob.
+ * Tiles are served with a strong ETag and Cache-Control: no-cache, so the browser cache revalidates them
+ * and an unchanged tile only costs a 304.
+ */
+export const getTile = async (level: number, x: number, y: number): Promise<Blob> => {
+  const response = await apiClient.get<Blob>(`/canvas/tiles/${level}/${x}/${y}.png`, {
+    responseType: 'blob',
+  });
+  return response.data;
+};
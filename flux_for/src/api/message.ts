@@ -1,5 +1,5 @@
 import apiClient from '../utils/api';
-import type { MessageNodeDTO, MessageDetailDTO, CreateMessageDTO, StatsDTO } from '../types';
+import type { MessageNodeDTO, MessageDetailDTO, CreateMessageDTO, StatsDTO, PaintStrokeResultDTO, ViewportDTO } from '../types';
 
 // A generic ApiResponse type to match the backend wrapper
 interface ApiResponse<T> {
@@ -35,6 +35,20 @@ export const getMessagesInGrid = async (params: GridParams): Promise<MessageNode
   }
 };
 
+/**
+ * Fetches the contents of a grid area at the level of detail of the given zoom:
+ * the cells, or per-chunk summaries when zoomed out below the backend's flux.lod.summary-below-zoom.
+ * @param params The grid coordinates and zoom factor.
+ * @returns A promise that resolves to the viewport contents.
+ */
+export const getViewport = async (params: GridParams & { zoom: number }): Promise<ViewportDTO> => {
+  const response = await apiClient.get<ApiResponse<ViewportDTO>>('/messages/viewport', { params });
+  if (response.data && response.data.success) {
+    return response.data.data;
+  }
+  throw new Error(response.data.message || 'Failed to fetch viewport');
+};
+
 /**
  * Fetches the detailed information for a single message.
  * @param id The ID of the message.
@@ -62,6 +76,20 @@ export const createMessage = async (messageData: CreateMessageDTO): Promise<Mess
     throw new Error(response.data.message || 'Failed to create message');
 };
 
+/**
+ * Applies a paint stroke: many cell edits in one request.
+ * Conflicting cells are reported in the result rather than failing the request.
+ * @param cells The cell edits of the stroke.
+ * @returns A promise that resolves to the applied and conflicting cells.
+ */
+export const applyStroke = async (cells: CreateMessageDTO[]): Promise<PaintStrokeResultDTO> => {
+    const response = await apiClient.post<ApiResponse<PaintStrokeResultDTO>>('/messages/stroke', { cells });
+    if (response.data && response.data.success) {
+        return response.data.data;
+    }
+    throw new Error(response.data.message || 'Failed to apply paint stroke');
+};
+
 /**
  * Fetches application statistics.
  * @returns A promise that resolves to a StatsDTO object.
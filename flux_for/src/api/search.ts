@@ -0,0 +1,24 @@
+import apiClient from '../utils/api';
+import type { SearchResultDTO } from '../types';
+
+// A generic ApiResponse type to match the backend wrapper
+interface ApiResponse<T> {
+  success: boolean;
+  message: string;
+  data: T;
+}
+
+/**
+ * Search the current contents of the canvas.
+ * Every word of the query must occur in a cell; Chinese text needs no spaces.
+ * @param q The search text.
+ * @param limit The number of cells to return.
+ * @returns A promise that resolves to the matching cells, most recently edited first.
+ */
+export const searchCells = async (q: string, limit = 20): Promise<SearchResultDTO> => {
+  const response = await apiClient.get<ApiResponse<SearchResultDTO>>('/search', { params: { q, limit } });
+  if (response.data && response.data.success) {
+    return response.data.data;
+  }
+  throw new Error(response.data.message || 'Failed to search');
+};
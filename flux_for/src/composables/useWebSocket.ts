@@ -1,21 +1,102 @@
 import { onMounted, onUnmounted, shallowRef } from 'vue';
 import { useFluxStore } from '../store/fluxStore';
 import { useLockStore } from '../store/lockStore';
-import type { MessageNodeDTO } from '../types';
+import type {
+  MessageNodeDTO, CellBatchDTO, CreateMessageDTO, CellWriteReplyDTO,
+  CellChangeEvent, ChangeLogPositionDTO, ChangeLogResumeDTO,
+} from '../types';
+import { createMessage } from '../api/message';
 
 // --- WebSocket Singleton Instance ---
 // This ensures that there is only one WebSocket connection per application instance.
 let socket: WebSocket | null = null;
 const isConnected = shallowRef(false);
 
+// --- Cell Write Commands ---
+// CELL_WRITE commands awaiting their reply, keyed by correlation id.
+const COMMAND_TIMEOUT_MS = 10000;
+let nextCorrelationId = 0;
+const pendingWrites = new Map<string, {
+  resolve: (cell: MessageNodeDTO | null) => void;
+  reject: (error: CellWriteError) => void;
+  timer: ReturnType<typeof setTimeout>;
+}>();
+
+/**
+ * A cell write rejected by the server. `type` is the reply type: CONFLICT, RATE_LIMITED, ERROR, or TIMEOUT.
+ */
+export class CellWriteError extends Error {
+  constructor(public readonly type: string, message: string, public readonly retryAfterSeconds: number | null = null) {
+    super(message);
+    this.name = 'CellWriteError';
+  }
+}
+
+const settleWrite = (type: string, reply: CellWriteReplyDTO) => {
+  const pending = pendingWrites.get(reply.correlationId);
+  if (!pending) return;
+  pendingWrites.delete(reply.correlationId);
+  clearTimeout(pending.timer);
+  if (type === 'ACK') {
+    pending.resolve(reply.cell);
+  } else {
+    pending.reject(new CellWriteError(type, reply.reason || 'Failed to write cell', reply.retryAfterSeconds));
+  }
+};
+
+const failPendingWrites = () => {
+  for (const [correlationId, pending] of pendingWrites) {
+    clearTimeout(pending.timer);
+    pending.reject(new CellWriteError('ERROR', 'WebSocket connection lost'));
+    pendingWrites.delete(correlationId);
+  }
+};
+
+// --- Change Log Position ---
+// Every cell change event carries a sequence number. lastSeq is the highest one up to which every event has been
+// seen (concurrent events can arrive out of order), so a reconnect can RESUME from it instead of refetching all chunks.
+let changeLogEpoch: number | null = null;
+let lastSeq = 0;
+const seenAhead = new Set<number>();
+let hasConnected = false;
+// While a RESUME is outstanding, live change events are held back and applied after the missed ones.
+let resuming = false;
+let heldBack: CellChangeEvent[] = [];
+
+const trackSeq = (seq: number | undefined) => {
+  if (seq === undefined || seq <= lastSeq) return;
+  if (changeLogEpoch !== null && seq === lastSeq + 1) {
+    lastSeq = seq;
+    while (seenAhead.delete(lastSeq + 1)) {
+      lastSeq++;
+    }
+  } else {
+    seenAhead.add(seq);
+  }
+};
+
+const moveTo = (position: ChangeLogPositionDTO) => {
+  changeLogEpoch = position.epoch;
+  lastSeq = position.seq;
+  for (const seq of seenAhead) {
+    if (seq <= lastSeq) seenAhead.delete(seq);
+  }
+  while (seenAhead.delete(lastSeq + 1)) {
+    lastSeq++;
+  }
+};
+
 // --- Message Types ---
 interface InboundMessage {
-  type: 'CELL_UPDATED' | 'CELL_DELETED' | 'USER_IS_EDITING' | 'USER_STOPPED_EDITING' | 'ONLINE_COUNT_UPDATED' | 'SYSTEM_STATS_UPDATED';
+  type: 'CELL_UPDATED' | 'CELL_DELETED' | 'CELLS_BATCH' | 'USER_IS_EDITING' | 'USER_STOPPED_EDITING' | 'ONLINE_COUNT_UPDATED' | 'SYSTEM_STATS_UPDATED'
+    | 'ACK' | 'CONFLICT' | 'RATE_LIMITED' | 'ERROR' | 'CHANGELOG_POSITION' | 'RESUMED' | 'FULL_RESYNC';
   payload: any;
+  seq?: number;
 }
 
 interface OutboundMessage {
-  type: 'USER_IS_EDITING' | 'USER_STOPPED_EDITING';
+  type: 'USER_IS_EDITING' | 'USER_STOPPED_EDITING' | 'CELL_WRITE' | 'RESUME';
+  correlationId?: string;
   payload: any;
 }
 
@@ -26,6 +107,45 @@ export function useWebSocket() {
   const fluxStore = useFluxStore();
   const lockStore = useLockStore();
 
+  const applyChange = (event: CellChangeEvent) => {
+    switch (event.type) {
+      case 'CELL_UPDATED':
+        fluxStore.updateCell(event.payload as MessageNodeDTO);
+        break;
+      case 'CELL_DELETED':
+        fluxStore.deleteCell(event.payload.rowIndex, event.payload.colIndex);
+        break;
+      case 'CELLS_BATCH':
+        fluxStore.applyCellBatch(event.payload as CellBatchDTO);
+        break;
+    }
+  };
+
+  const receiveChange = (event: CellChangeEvent) => {
+    if (resuming) {
+      heldBack.push(event);
+      return;
+    }
+    applyChange(event);
+    trackSeq(event.seq);
+  };
+
+  /**
+   * Ends a RESUME: the server has sent everything up to position.seq, so held-back events up to it are duplicates.
+   */
+  const finishResume = (position: ChangeLogPositionDTO) => {
+    resuming = false;
+    moveTo(position);
+    const pending = heldBack;
+    heldBack = [];
+    for (const event of pending) {
+      if (event.seq !== undefined && event.seq > position.seq) {
+        applyChange(event);
+        trackSeq(event.seq);
+      }
+    }
+  };
+
   const connect = () => {
     // Avoid creating duplicate connections
     if (socket && socket.readyState === WebSocket.OPEN) {
@@ -44,6 +164,16 @@ export function useWebSocket() {
 
     socket.onopen = () => {
       isConnected.value = true;
+      if (changeLogEpoch !== null) {
+        // Catch up on the changes missed while disconnected.
+        resuming = true;
+        heldBack = [];
+        sendMessage({ type: 'RESUME', payload: { epoch: changeLogEpoch, since: lastSeq } });
+      } else if (hasConnected) {
+        // Disconnected before learning the change log position, so there is nothing to resume from.
+        fluxStore.resync();
+      }
+      hasConnected = true;
     };
 
     socket.onmessage = (event) => {
@@ -53,10 +183,21 @@ export function useWebSocket() {
 
         switch (message.type) {
           case 'CELL_UPDATED':
-            fluxStore.updateCell(payload as MessageNodeDTO);
-            break;
           case 'CELL_DELETED':
-            fluxStore.deleteCell(payload.rowIndex, payload.colIndex);
+          case 'CELLS_BATCH':
+            receiveChange(message as CellChangeEvent);
+            break;
+          case 'CHANGELOG_POSITION':
+            // Sent on every connect; after a reconnect, the RESUMED or FULL_RESYNC reply sets the position instead.
+            if (!resuming) moveTo(payload as ChangeLogPositionDTO);
+            break;
+          case 'RESUMED':
+            (payload as ChangeLogResumeDTO).events.forEach(applyChange);
+            finishResume(payload as ChangeLogPositionDTO);
+            break;
+          case 'FULL_RESYNC':
+            fluxStore.resync();
+            finishResume(payload as ChangeLogPositionDTO);
             break;
           case 'USER_IS_EDITING':
             lockStore.addLock(payload.rowIndex, payload.colIndex);
@@ -70,6 +211,12 @@ export function useWebSocket() {
           case 'SYSTEM_STATS_UPDATED':
             fluxStore.updateSystemStats(payload);
             break;
+          case 'ACK':
+          case 'CONFLICT':
+          case 'RATE_LIMITED':
+          case 'ERROR':
+            settleWrite(message.type, payload as CellWriteReplyDTO);
+            break;
           default:
             console.warn('Received unknown WebSocket message type:', message.type);
         }
@@ -80,6 +227,9 @@ export function useWebSocket() {
 
     socket.onclose = (event) => {
       isConnected.value = false;
+      resuming = false;
+      heldBack = [];
+      failPendingWrites();
       if (event.wasClean) {
         console.log(`WebSocket connection closed cleanly, code=${event.code}`);
       } else {
@@ -102,6 +252,25 @@ export function useWebSocket() {
     }
   };
 
+  /**
+   * Writes a cell over the WebSocket with a CELL_WRITE command, falling back to HTTP when not connected.
+   * Resolves with the new cell state on ACK; rejects with a CellWriteError otherwise.
+   */
+  const writeCell = (dto: CreateMessageDTO): Promise<MessageNodeDTO | null> => {
+    if (!socket || !isConnected.value) {
+      return createMessage(dto);
+    }
+    const correlationId = `w${++nextCorrelationId}`;
+    return new Promise((resolve, reject) => {
+      const timer = setTimeout(() => {
+        pendingWrites.delete(correlationId);
+        reject(new CellWriteError('TIMEOUT', 'No reply from the server'));
+      }, COMMAND_TIMEOUT_MS);
+      pendingWrites.set(correlationId, { resolve, reject, timer });
+      sendMessage({ type: 'CELL_WRITE', correlationId, payload: dto });
+    });
+  };
+
   // --- Lifecycle Hooks ---
   // The connection is managed here and will persist for the life of the app.
   onMounted(() => {
@@ -113,5 +282,5 @@ export function useWebSocket() {
   // The disconnect logic can be handled by the browser or when the app is fully closed.
   // onUnmounted is not used here to prevent disconnection when navigating between views.
 
-  return { isConnected, sendMessage };
+  return { isConnected, sendMessage, writeCell };
 }
@@ -1,7 +1,7 @@
 import { defineStore } from 'pinia';
 import { computed, ref } from 'vue'; // Changed reactive to ref
-import type { MessageNodeDTO, MessageDetailDTO } from '../types';
-import { getMessageDetail, getMessagesInGrid, getViewportStats } from '../api/message';
+import type { MessageNodeDTO, MessageDetailDTO, CellBatchDTO, ChunkSummaryDTO } from '../types';
+import { getMessageDetail, getMessagesInGrid, getViewport, getViewportStats } from '../api/message';
 import type { Viewport } from '../composables/useCanvas';
 import { useHeatmap, type HeatmapUpdateFunction } from '../composables/useHeatmap';
 
@@ -26,6 +26,12 @@ export const useFluxStore = defineStore('flux', () => {
 
   // A set to record which chunks have already been fetched from the backend
   const fetchedChunks = new Set<string>();
+  // Incremented when the cache had to be dropped; the view refetches its viewport in response.
+  const resyncCount = ref(0);
+  // Chunk summaries shown instead of cells at low zoom, keyed by a "gridY,gridX" string.
+  // Replaced wholesale on every fetch, since they go stale as soon as cells change.
+  const chunkSummaries = ref(new Map<string, ChunkSummaryDTO>());
+  const summaryChunkSize = ref(9);
 
   const hoveredMessage = ref<MessageDetailDTO | null>(null); // CORRECT: Use ref for primitive/null values
 
@@ -164,6 +170,36 @@ export const useFluxStore = defineStore('flux', () => {
     }
   }
 
+  /**
+   * Loads the chunk summaries of the viewport, for zoom levels too low to show cells.
+   */
+  async function fetchChunkSummaries(viewport: Viewport, canvasElement: HTMLElement | null, cellSize: number) {
+    if (!canvasElement) return;
+
+    const rect = canvasElement.getBoundingClientRect();
+    const worldX = -viewport.x / viewport.zoom;
+    const worldY = -viewport.y / viewport.zoom;
+    const params = {
+      startRow: Math.floor(worldY / cellSize),
+      endRow: Math.ceil((worldY + rect.height / viewport.zoom) / cellSize),
+      startCol: Math.floor(worldX / cellSize),
+      endCol: Math.ceil((worldX + rect.width / viewport.zoom) / cellSize),
+      zoom: viewport.zoom,
+    };
+
+    try {
+      const result = await getViewport(params);
+      const summaries = new Map<string, ChunkSummaryDTO>();
+      for (const chunk of result.chunks ?? []) {
+        summaries.set(`${chunk.gridY},${chunk.gridX}`, chunk);
+      }
+      summaryChunkSize.value = result.chunkSize;
+      chunkSummaries.value = summaries;
+    } catch (error) {
+      console.error("Failed to fetch chunk summaries:", error);
+    }
+  }
+
   async function fetchMessageDetail(id: number) {
     try {
       const detail = await getMessageDetail(id);
@@ -199,6 +235,30 @@ export const useFluxStore = defineStore('flux', () => {
     newCache.delete(key);
     cellsCache.value = newCache;
   }
+
+  /**
+   * Applies the cells of a CELLS_BATCH event with a single cache copy. Used for WebSocket batch updates.
+   */
+  function applyCellBatch(batch: CellBatchDTO) {
+    const newCache = new Map(cellsCache.value);
+    for (const cell of batch.updated) {
+      newCache.set(`${cell.rowIndex},${cell.colIndex}`, cell);
+    }
+    for (const cell of batch.deleted) {
+      newCache.delete(`${cell.rowIndex},${cell.colIndex}`);
+    }
+    cellsCache.value = newCache;
+  }
+
+  /**
+   * Drops every cached cell and chunk, for when the missed WebSocket updates cannot be replayed.
+   */
+  function resync() {
+    fetchedChunks.clear();
+    cellsCache.value = new Map();
+    resyncCount.value++;
+  }
+
   function setCurrentTool(tool: 'text' | 'paint' | 'erase') {
     currentTool.value = tool;
   }
@@ -217,6 +277,9 @@ export const useFluxStore = defineStore('flux', () => {
     totalMessages,
     visibleMessages,
     viewportInfoCount,
+    resyncCount,
+    chunkSummaries,
+    summaryChunkSize,
     // Heatmap
     heatmapInstance,
     updateChunkHeatValue,
@@ -225,10 +288,13 @@ export const useFluxStore = defineStore('flux', () => {
     // Actions
     fetchGridForViewport,
     fetchViewportInfoCount,
+    fetchChunkSummaries,
     fetchMessageDetail,
     clearHoveredMessage,
     updateCell,
     deleteCell,
+    applyCellBatch,
+    resync,
     setCurrentTool,
     setActiveColor,
     setOnlineUsers,
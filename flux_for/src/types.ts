@@ -22,6 +22,61 @@ export interface CreateMessageDTO {
   baseVersionId?: number | null; // Keep for optimistic locking on text
 }
 
+// DTO for sending a paint stroke (many cell edits in one request)
+export interface PaintStrokeDTO {
+  cells: CreateMessageDTO[];
+}
+
+// A stroke cell rejected by the optimistic version check
+export interface CellConflictDTO {
+  rowIndex: number;
+  colIndex: number;
+  baseVersionId: number | null;
+  currentVersionId: number | null;
+  reason: string;
+}
+
+// DTO for the outcome of a paint stroke
+export interface PaintStrokeResultDTO {
+  updated: MessageNodeDTO[];
+  deleted: MessageNodeDTO[];
+  conflicts: CellConflictDTO[];
+}
+
+// Payload of the CELLS_BATCH WebSocket event
+export interface CellBatchDTO {
+  updated: MessageNodeDTO[];
+  deleted: MessageNodeDTO[];
+}
+
+// A cell change event (CELL_UPDATED, CELL_DELETED or CELLS_BATCH); seq is its position in the server's change log
+export interface CellChangeEvent {
+  type: 'CELL_UPDATED' | 'CELL_DELETED' | 'CELLS_BATCH';
+  payload: any;
+  seq?: number;
+}
+
+// Position in the server's change log (CHANGELOG_POSITION and FULL_RESYNC events)
+export interface ChangeLogPositionDTO {
+  epoch: number;
+  seq: number;
+}
+
+// Payload of the RESUMED WebSocket event: the changes missed while disconnected, up to seq
+export interface ChangeLogResumeDTO {
+  epoch: number;
+  seq: number;
+  events: CellChangeEvent[];
+}
+
+// Reply to a CELL_WRITE WebSocket command (ACK, CONFLICT, RATE_LIMITED or ERROR)
+export interface CellWriteReplyDTO {
+  correlationId: string;
+  cell: MessageNodeDTO | null;
+  reason: string | null;
+  retryAfterSeconds: number | null;
+}
+
 // DTO for application statistics
 export interface StatsDTO {
   totalMessages: number;
@@ -48,3 +103,28 @@ export interface HeatmapDataDTO {
   gridX: number;
   heatValue: number;
 }
+
+// DTO summarizing the painted cells of one chunk, returned instead of cells at low zoom
+export interface ChunkSummaryDTO {
+  gridY: number;
+  gridX: number;
+  count: number;
+  dominantColor: string | null;
+  // Base64 bitmap: cell (r, c) of the chunk is bit r * chunkSize + c, least significant bit of the first byte first
+  occupancy: string;
+}
+
+// DTO for the zoom-dependent contents of a viewport; only the list matching `detail` is present
+export interface ViewportDTO {
+  detail: 'cells' | 'summary';
+  chunkSize: number;
+  cells?: MessageNodeDTO[];
+  chunks?: ChunkSummaryDTO[];
+}
+
+// DTO for the result of a content search
+export interface SearchResultDTO {
+  total: number;
+  // Most recently edited first
+  cells: MessageNodeDTO[];
+}
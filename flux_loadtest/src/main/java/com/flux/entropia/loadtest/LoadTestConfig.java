@@ -0,0 +1,115 @@
+package com.flux.entropia.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Command line options of the load test, given as {@code --name=value}.
+ *
+ * @param baseUrl        The backend to test, e.g. http://localhost:8080.
+ * @param users          The number of simulated users (one WebSocket session each).
+ * @param rampUp         The time over which users are started, evenly spaced.
+ * @param duration       How long to run once ramp-up has started.
+ * @param painterRatio   The fraction of users that paint; the others only pan and watch.
+ * @param burstSize      The number of cells a painter paints per stroke.
+ * @param thinkTime      The mean pause between two actions of a user (exponentially distributed).
+ * @param hotspots       The number of popular regions painters cluster around.
+ * @param hotspotRadius  The standard deviation, in cells, of painting positions around a hotspot.
+ * @param writeMode      How painters send cell writes: HTTP POSTs or CELL_WRITE commands on their WebSocket.
+ * @param reportInterval How often an interval line is printed.
+ * @param output         Where the final JSON summary is written.
+ */
+public record LoadTestConfig(
+    URI baseUrl,
+    int users,
+    Duration rampUp,
+    Duration duration,
+    double painterRatio,
+    int burstSize,
+    Duration thinkTime,
+    int hotspots,
+    int hotspotRadius,
+    WriteMode writeMode,
+    Duration reportInterval,
+    Path output
+) {
+
+    // Rows/columns fetched per pan; matches a 3x3 block of 9-cell chunks.
+    public static final int VIEWPORT_CELLS = 27;
+    public static final int CHUNK_SIZE = 9;
+
+    public enum WriteMode { HTTP, WS }
+
+    static final String USAGE = """
+        Usage: java -jar loadtest.jar [--name=value ...]
+          --base-url=http://localhost:8080  backend under test
+          --users=1000                      simulated users (one WebSocket session each)
+          --ramp-up=30                      seconds over which users are started
+          --duration=120                    seconds to run, including ramp-up
+          --painter-ratio=0.2               fraction of users that paint
+          --burst-size=5                    cells per paint stroke
+          --think-ms=2000                   mean pause between actions of one user
+          --hotspots=5                      popular regions painters cluster around
+          --hotspot-radius=40               spread of painting positions, in cells
+          --write-mode=http                 http (POST /api/messages) or ws (CELL_WRITE commands)
+          --report-interval=10              seconds between interval reports
+          --output=results/loadtest-<timestamp>.json
+        """;
+
+    public static LoadTestConfig parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        LoadTestConfig config = new LoadTestConfig(
+            URI.create(stripTrailingSlash(options.remove("base-url"), "http://localhost:8080")),
+            Integer.parseInt(options.getOrDefault("users", "1000")),
+            Duration.ofSeconds(Long.parseLong(options.getOrDefault("ramp-up", "30"))),
+            Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "120"))),
+            Double.parseDouble(options.getOrDefault("painter-ratio", "0.2")),
+            Integer.parseInt(options.getOrDefault("burst-size", "5")),
+            Duration.ofMillis(Long.parseLong(options.getOrDefault("think-ms", "2000"))),
+            Integer.parseInt(options.getOrDefault("hotspots", "5")),
+            Integer.parseInt(options.getOrDefault("hotspot-radius", "40")),
+            WriteMode.valueOf(options.getOrDefault("write-mode", "http").toUpperCase(Locale.ROOT)),
+            Duration.ofSeconds(Long.parseLong(options.getOrDefault("report-interval", "10"))),
+            Path.of(options.getOrDefault("output", "results/loadtest-" + timestamp + ".json"))
+        );
+        for (String known : new String[]{"users", "ramp-up", "duration", "painter-ratio", "burst-size", "think-ms",
+            "hotspots", "hotspot-radius", "write-mode", "report-interval", "output"}) {
+            options.remove(known);
+        }
+        if (!options.isEmpty()) {
+            throw new IllegalArgumentException("Unknown option(s): " + options.keySet());
+        }
+        if (config.users <= 0 || config.burstSize <= 0 || config.hotspots <= 0) {
+            throw new IllegalArgumentException("users, burst-size and hotspots must be positive");
+        }
+        if (config.painterRatio < 0 || config.painterRatio > 1) {
+            throw new IllegalArgumentException("painter-ratio must be between 0 and 1");
+        }
+        return config;
+    }
+
+    public URI webSocketUrl() {
+        String scheme = "https".equals(baseUrl.getScheme()) ? "wss" : "ws";
+        return URI.create(scheme + "://" + baseUrl.getRawAuthority() + "/ws/flux");
+    }
+
+    private static String stripTrailingSlash(String value, String fallback) {
+        String url = value != null ? value : fallback;
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
@@ -0,0 +1,101 @@
+package com.flux.entropia.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entry point of the closed-loop load generator.
+ * <p>
+ * Starts {@code --users} simulated users, one virtual thread each, evenly over {@code --ramp-up}, lets them run
+ * until {@code --duration} has elapsed, prints an interval report every {@code --report-interval} and finally writes
+ * a JSON summary. Run it against a local backend started with the {@code loadtest} profile (see README.md).
+ */
+public final class LoadTestMain {
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config;
+        try {
+            config = LoadTestConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadTestConfig.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        LoadTestMetrics metrics = new LoadTestMetrics();
+        LoadTestReport report = new LoadTestReport(config, metrics);
+        int[][] hotspots = hotspots(config.hotspots());
+
+        ExecutorService users = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(users)
+            .build();
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        long intervalMs = config.reportInterval().toMillis();
+        reporter.scheduleAtFixedRate(report::printInterval, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+
+        long deadline = System.nanoTime() + config.duration().toNanos();
+        System.out.printf("Starting %d users (%.0f%% painters) against %s over %ds, running %ds%n", config.users(),
+            config.painterRatio() * 100, config.baseUrl(), config.rampUp().toSeconds(), config.duration().toSeconds());
+
+        long spacingNanos = config.rampUp().toNanos() / config.users();
+        Random random = new Random();
+        for (int i = 0; i < config.users() && System.nanoTime() < deadline; i++) {
+            boolean painter = random.nextDouble() < config.painterRatio();
+            users.submit(new SimulatedUser(i, painter, config, httpClient, objectMapper, metrics, hotspots,
+                () -> System.nanoTime() < deadline));
+            if (spacingNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(spacingNanos);
+            }
+        }
+
+        TimeUnit.NANOSECONDS.sleep(Math.max(0, deadline - System.nanoTime()));
+        users.shutdown();
+        // Users finish their current action; anything stuck past the request timeout is abandoned.
+        if (!users.awaitTermination(35, TimeUnit.SECONDS)) {
+            users.shutdownNow();
+        }
+        reporter.shutdownNow();
+
+        report.printInterval();
+        report.printSummary();
+        writeSummary(objectMapper, config, report);
+    }
+
+    /**
+     * Picks fixed hotspot centers near the origin, where the canvas opens, so painters of a run collide.
+     */
+    private static int[][] hotspots(int count) {
+        Random random = new Random(42);
+        int[][] hotspots = new int[count][];
+        for (int i = 0; i < count; i++) {
+            hotspots[i] = new int[]{random.nextInt(400) - 200, random.nextInt(400) - 200};
+        }
+        return hotspots;
+    }
+
+    private static void writeSummary(ObjectMapper objectMapper, LoadTestConfig config, LoadTestReport report) throws IOException {
+        if (config.output().toAbsolutePath().getParent() != null) {
+            Files.createDirectories(config.output().toAbsolutePath().getParent());
+        }
+        objectMapper.writeValue(config.output().toFile(), report.summary());
+        System.out.println("Summary written to " + config.output());
+    }
+}
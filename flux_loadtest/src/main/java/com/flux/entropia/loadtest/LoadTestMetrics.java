@@ -0,0 +1,107 @@
+package com.flux.entropia.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shared counters and latency recorders, written concurrently by all simulated users.
+ * <p>
+ * Latencies are recorded in microseconds into HdrHistogram {@link Recorder}s, which are cheap to write from many
+ * threads and hand out interval histograms to the single reporter thread.
+ * <p>
+ * End-to-end delivery latency is measured by tagging every painted cell's content with a unique token
+ * ({@code lt:<userId>:<seq>}). The send time of each token is kept here; when another user's WebSocket receives a
+ * {@code CELL_UPDATED} carrying that token, the elapsed time is one delivery sample.
+ */
+public final class LoadTestMetrics {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    // Tokens older than this are dropped; later deliveries are counted as late instead of recorded.
+    private static final long PENDING_TTL_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    public enum Request { VIEWPORT, HEATMAP, PAINT }
+
+    final Recorder delivery = newRecorder();
+    final Recorder viewport = newRecorder();
+    final Recorder heatmap = newRecorder();
+    final Recorder paint = newRecorder();
+
+    final LongAdder paintsCreated = new LongAdder();
+    final LongAdder conflicts = new LongAdder();
+    final LongAdder rateLimited = new LongAdder();
+    // 503 responses from the server's admission control, for paints and reads alike.
+    final LongAdder shed = new LongAdder();
+    final LongAdder readsOk = new LongAdder();
+    final LongAdder httpErrors = new LongAdder();
+    final LongAdder ioErrors = new LongAdder();
+    final LongAdder wsFailures = new LongAdder();
+    final LongAdder wsMessages = new LongAdder();
+    final LongAdder lateDeliveries = new LongAdder();
+    final LongAdder editingSignals = new LongAdder();
+    final AtomicInteger connectedSessions = new AtomicInteger();
+
+    private final ConcurrentHashMap<String, Long> pendingPaints = new ConcurrentHashMap<>();
+
+    private static Recorder newRecorder() {
+        return new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    }
+
+    void recordRequest(Request request, long startNanos) {
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos), HIGHEST_TRACKABLE_MICROS);
+        switch (request) {
+            case VIEWPORT -> viewport.recordValue(micros);
+            case HEATMAP -> heatmap.recordValue(micros);
+            case PAINT -> paint.recordValue(micros);
+        }
+    }
+
+    /**
+     * Registers a paint that is about to be posted.
+     */
+    void paintSent(String token, long sentNanos) {
+        pendingPaints.put(token, sentNanos);
+    }
+
+    /**
+     * Forgets a paint that was rejected, so no delivery can be attributed to it.
+     */
+    void paintRejected(String token) {
+        pendingPaints.remove(token);
+    }
+
+    /**
+     * Records the arrival of a {@code CELL_UPDATED} at a user other than the one who painted it.
+     */
+    void paintDelivered(String token, long receivedNanos) {
+        Long sentNanos = pendingPaints.get(token);
+        if (sentNanos == null) {
+            lateDeliveries.increment();
+            return;
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(receivedNanos - sentNanos);
+        delivery.recordValue(Math.max(0, Math.min(micros, HIGHEST_TRACKABLE_MICROS)));
+    }
+
+    void expirePendingPaints() {
+        long cutoff = System.nanoTime() - PENDING_TTL_NANOS;
+        pendingPaints.values().removeIf(sent -> sent < cutoff);
+    }
+
+    static String formatPercentiles(Histogram histogram) {
+        if (histogram.getTotalCount() == 0) {
+            return "n=0";
+        }
+        return String.format("p50=%.1fms p99=%.1fms p999=%.1fms max=%.1fms n=%d",
+            histogram.getValueAtPercentile(50) / 1000.0,
+            histogram.getValueAtPercentile(99) / 1000.0,
+            histogram.getValueAtPercentile(99.9) / 1000.0,
+            histogram.getMaxValue() / 1000.0,
+            histogram.getTotalCount());
+    }
+}
@@ -0,0 +1,122 @@
+package com.flux.entropia.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns {@link LoadTestMetrics} into interval lines and a final summary.
+ * Only the reporter thread calls into this class; it owns the accumulated histograms.
+ */
+final class LoadTestReport {
+
+    private final LoadTestConfig config;
+    private final LoadTestMetrics metrics;
+    private final long startNanos = System.nanoTime();
+
+    private final Histogram totalDelivery = new Histogram(3);
+    private final Histogram totalViewport = new Histogram(3);
+    private final Histogram totalHeatmap = new Histogram(3);
+    private final Histogram totalPaint = new Histogram(3);
+
+    private Histogram intervalDelivery;
+    private Histogram intervalViewport;
+    private Histogram intervalHeatmap;
+    private Histogram intervalPaint;
+    private long lastReportNanos = startNanos;
+    private long lastPaintAttempts;
+
+    LoadTestReport(LoadTestConfig config, LoadTestMetrics metrics) {
+        this.config = config;
+        this.metrics = metrics;
+    }
+
+    synchronized void printInterval() {
+        intervalDelivery = metrics.delivery.getIntervalHistogram(intervalDelivery);
+        intervalViewport = metrics.viewport.getIntervalHistogram(intervalViewport);
+        intervalHeatmap = metrics.heatmap.getIntervalHistogram(intervalHeatmap);
+        intervalPaint = metrics.paint.getIntervalHistogram(intervalPaint);
+        totalDelivery.add(intervalDelivery);
+        totalViewport.add(intervalViewport);
+        totalHeatmap.add(intervalHeatmap);
+        totalPaint.add(intervalPaint);
+        metrics.expirePendingPaints();
+
+        long now = System.nanoTime();
+        double seconds = Math.max(1e-9, (now - lastReportNanos) / 1e9);
+        long attempts = intervalPaint.getTotalCount();
+        lastReportNanos = now;
+        lastPaintAttempts += attempts;
+
+        System.out.printf("[%4ds] sessions=%d paints/s=%.1f reads/s=%.1f | delivery %s | post %s%n",
+            TimeUnit.NANOSECONDS.toSeconds(now - startNanos),
+            metrics.connectedSessions.get(),
+            attempts / seconds,
+            (intervalViewport.getTotalCount() + intervalHeatmap.getTotalCount()) / seconds,
+            LoadTestMetrics.formatPercentiles(intervalDelivery),
+            LoadTestMetrics.formatPercentiles(intervalPaint));
+    }
+
+    void printSummary() {
+        Map<String, Object> summary = summary();
+        System.out.println();
+        System.out.println("==== Summary ====");
+        System.out.printf("duration            %.1fs%n", (double) summary.get("elapsedSeconds"));
+        System.out.printf("paint throughput    %.1f/s (created %d)%n", (double) summary.get("paintsPerSecond"), metrics.paintsCreated.sum());
+        System.out.printf("409 conflict rate   %.2f%%%n", (double) summary.get("conflictRatePercent"));
+        System.out.printf("429 rate-limit rate %.2f%%%n", (double) summary.get("rateLimitRatePercent"));
+        System.out.printf("503 shed rate       %.2f%% of all requests%n", (double) summary.get("shedRatePercent"));
+        System.out.printf("error rate          %.2f%% (http %d, io %d, ws %d)%n", (double) summary.get("errorRatePercent"),
+            metrics.httpErrors.sum(), metrics.ioErrors.sum(), metrics.wsFailures.sum());
+        System.out.println("delivery (POST -> CELL_UPDATED at others) " + LoadTestMetrics.formatPercentiles(totalDelivery));
+        System.out.println("POST /api/messages              " + LoadTestMetrics.formatPercentiles(totalPaint));
+        System.out.println("GET  /api/messages              " + LoadTestMetrics.formatPercentiles(totalViewport));
+        System.out.println("GET  /api/heatmap/chunks        " + LoadTestMetrics.formatPercentiles(totalHeatmap));
+    }
+
+    synchronized Map<String, Object> summary() {
+        double elapsed = (System.nanoTime() - startNanos) / 1e9;
+        long attempts = Math.max(1, lastPaintAttempts);
+        long requests = Math.max(1, lastPaintAttempts + totalViewport.getTotalCount() + totalHeatmap.getTotalCount());
+
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("baseUrl", this.config.baseUrl().toString());
+        config.put("users", this.config.users());
+        config.put("painterRatio", this.config.painterRatio());
+        config.put("burstSize", this.config.burstSize());
+        config.put("thinkMs", this.config.thinkTime().toMillis());
+        config.put("hotspots", this.config.hotspots());
+        config.put("writeMode", this.config.writeMode().name().toLowerCase(Locale.ROOT));
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("config", config);
+        summary.put("elapsedSeconds", elapsed);
+        summary.put("paintsPerSecond", lastPaintAttempts / elapsed);
+        summary.put("paintsCreated", metrics.paintsCreated.sum());
+        summary.put("conflictRatePercent", 100.0 * metrics.conflicts.sum() / attempts);
+        summary.put("rateLimitRatePercent", 100.0 * metrics.rateLimited.sum() / attempts);
+        summary.put("shedRatePercent", 100.0 * metrics.shed.sum() / requests);
+        summary.put("errorRatePercent", 100.0 * (metrics.httpErrors.sum() + metrics.ioErrors.sum()) / requests);
+        summary.put("webSocketFailures", metrics.wsFailures.sum());
+        summary.put("webSocketMessages", metrics.wsMessages.sum());
+        summary.put("lateDeliveries", metrics.lateDeliveries.sum());
+        summary.put("deliveryLatencyMs", percentiles(totalDelivery));
+        summary.put("postLatencyMs", percentiles(totalPaint));
+        summary.put("viewportLatencyMs", percentiles(totalViewport));
+        summary.put("heatmapLatencyMs", percentiles(totalHeatmap));
+        return summary;
+    }
+
+    private static Map<String, Object> percentiles(Histogram histogram) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("count", histogram.getTotalCount());
+        values.put("p50", histogram.getValueAtPercentile(50) / 1000.0);
+        values.put("p99", histogram.getValueAtPercentile(99) / 1000.0);
+        values.put("p999", histogram.getValueAtPercentile(99.9) / 1000.0);
+        values.put("max", histogram.getMaxValue() / 1000.0);
+        return values;
+    }
+}
@@ -0,0 +1,358 @@
+package com.flux.entropia.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * One simulated user, driven by its own (virtual) thread in a closed loop: every action waits for the previous
+ * one to complete, so a slow backend lowers the offered load just like it does for real users.
+ * <p>
+ * Each iteration pans to a viewport ({@code GET /api/messages} plus {@code GET /api/heatmap/chunks}) and, for
+ * painters, paints a burst of cells near a hotspot with {@code POST /api/messages} (or {@code CELL_WRITE} commands
+ * on the WebSocket with {@code --write-mode=ws}), framed by {@code USER_IS_EDITING}/{@code USER_STOPPED_EDITING}. Version ids of visible cells are tracked
+ * from the viewport and from incoming {@code CELL_UPDATED}/{@code CELL_DELETED} events, so conflicts (409) arise the
+ * same way they do in the browser.
+ */
+final class SimulatedUser implements Runnable {
+
+    private static final String[] PALETTE = {"#FF6B6B", "#4ECDC4", "#45B7D1", "#96CEB4", "#FFEAA7", "#DDA0DD"};
+
+    private final int userId;
+    private final boolean painter;
+    private final LoadTestConfig config;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final LoadTestMetrics metrics;
+    private final int[][] hotspots;
+    private final BooleanSupplier running;
+
+    // Latest known version id of each cell in the current viewport, keyed by packed (row, col).
+    private final Map<Long, Long> knownVersions = new ConcurrentHashMap<>();
+    // CELL_WRITE commands awaiting their reply, keyed by correlation id (the paint token).
+    private final Map<String, CompletableFuture<JsonNode>> pendingWrites = new ConcurrentHashMap<>();
+    private volatile int viewRow;
+    private volatile int viewCol;
+    private long sequence;
+    private WebSocket webSocket;
+
+    SimulatedUser(int userId, boolean painter, LoadTestConfig config, HttpClient httpClient, ObjectMapper objectMapper,
+                  LoadTestMetrics metrics, int[][] hotspots, BooleanSupplier running) {
+        this.userId = userId;
+        this.painter = painter;
+        this.config = config;
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.hotspots = hotspots;
+        this.running = running;
+    }
+
+    @Override
+    public void run() {
+        try {
+            webSocket = httpClient.newWebSocketBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .buildAsync(config.webSocketUrl(), new Listener())
+                .join();
+            metrics.connectedSessions.incrementAndGet();
+        } catch (RuntimeException e) {
+            metrics.wsFailures.increment();
+            return;
+        }
+        try {
+            while (running.getAsBoolean()) {
+                pan();
+                if (painter) {
+                    paintBurst();
+                }
+                think();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            metrics.connectedSessions.decrementAndGet();
+            webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "done").exceptionally(e -> null);
+        }
+    }
+
+    private void pan() throws InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int[] hotspot = hotspots[random.nextInt(hotspots.length)];
+        int half = LoadTestConfig.VIEWPORT_CELLS / 2;
+        viewRow = hotspot[0] + (int) (random.nextGaussian() * config.hotspotRadius()) - half;
+        viewCol = hotspot[1] + (int) (random.nextGaussian() * config.hotspotRadius()) - half;
+        knownVersions.clear();
+
+        int endRow = viewRow + LoadTestConfig.VIEWPORT_CELLS - 1;
+        int endCol = viewCol + LoadTestConfig.VIEWPORT_CELLS - 1;
+        JsonNode cells = get(LoadTestMetrics.Request.VIEWPORT, String.format("/api/messages?startRow=%d&endRow=%d&startCol=%d&endCol=%d",
+            viewRow, endRow, viewCol, endCol));
+        if (cells != null && cells.isArray()) {
+            for (JsonNode cell : cells) {
+                knownVersions.put(key(cell.path("rowIndex").asInt(), cell.path("colIndex").asInt()), cell.path("id").asLong());
+            }
+        }
+
+        // The heatmap overlay covers the viewport plus one chunk of margin, as "gridX,gridY;..." like the frontend.
+        StringJoiner chunks = new StringJoiner(";");
+        for (int gy = Math.floorDiv(viewRow, LoadTestConfig.CHUNK_SIZE) - 1; gy <= Math.floorDiv(endRow, LoadTestConfig.CHUNK_SIZE) + 1; gy++) {
+            for (int gx = Math.floorDiv(viewCol, LoadTestConfig.CHUNK_SIZE) - 1; gx <= Math.floorDiv(endCol, LoadTestConfig.CHUNK_SIZE) + 1; gx++) {
+                chunks.add(gx + "," + gy);
+            }
+        }
+        get(LoadTestMetrics.Request.HEATMAP, "/api/heatmap/chunks?chunks=" + chunks.toString().replace(";", "%3B").replace(",", "%2C"));
+    }
+
+    private void paintBurst() throws InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // Strokes are small and local: a short run of neighbouring cells inside the viewport.
+        int row = viewRow + random.nextInt(LoadTestConfig.VIEWPORT_CELLS);
+        int col = viewCol + random.nextInt(LoadTestConfig.VIEWPORT_CELLS);
+        String color = PALETTE[random.nextInt(PALETTE.length)];
+
+        sendEditing("USER_IS_EDITING", row, col);
+        for (int i = 0; i < config.burstSize() && running.getAsBoolean(); i++) {
+            paint(row, col + i, color);
+        }
+        sendEditing("USER_STOPPED_EDITING", row, col);
+    }
+
+    private void paint(int row, int col, String color) throws InterruptedException {
+        String token = "lt:" + userId + ":" + (++sequence);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("baseVersionId", knownVersions.get(key(row, col)));
+        body.put("content", token);
+        body.put("rowIndex", row);
+        body.put("colIndex", col);
+        body.put("bgColor", color);
+
+        if (config.writeMode() == LoadTestConfig.WriteMode.WS) {
+            paintOverWebSocket(row, col, token, body);
+            return;
+        }
+
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(uri("/api/messages"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        long start = System.nanoTime();
+        metrics.paintSent(token, start);
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            metrics.recordRequest(LoadTestMetrics.Request.PAINT, start);
+            switch (response.statusCode()) {
+                case 201 -> {
+                    metrics.paintsCreated.increment();
+                    JsonNode data = objectMapper.readTree(response.body()).path("data");
+                    if (data.has("id")) {
+                        knownVersions.put(key(row, col), data.path("id").asLong());
+                    }
+                }
+                case 409 -> {
+                    metrics.conflicts.increment();
+                    metrics.paintRejected(token);
+                }
+                case 429 -> {
+                    metrics.rateLimited.increment();
+                    metrics.paintRejected(token);
+                }
+                case 503 -> {
+                    metrics.shed.increment();
+                    metrics.paintRejected(token);
+                }
+                default -> {
+                    metrics.httpErrors.increment();
+                    metrics.paintRejected(token);
+                }
+            }
+        } catch (IOException e) {
+            metrics.ioErrors.increment();
+            metrics.paintRejected(token);
+        }
+    }
+
+    /**
+     * Sends a paint as a CELL_WRITE command and waits for its ACK / CONFLICT / RATE_LIMITED / ERROR reply.
+     */
+    private void paintOverWebSocket(int row, int col, String token, Map<String, Object> body) throws InterruptedException {
+        CompletableFuture<JsonNode> reply = new CompletableFuture<>();
+        pendingWrites.put(token, reply);
+        long start = System.nanoTime();
+        metrics.paintSent(token, start);
+        try {
+            String command = objectMapper.writeValueAsString(Map.of("type", "CELL_WRITE", "correlationId", token, "payload", body));
+            webSocket.sendText(command, true).join();
+            JsonNode message = reply.get(30, TimeUnit.SECONDS);
+            metrics.recordRequest(LoadTestMetrics.Request.PAINT, start);
+            switch (message.path("type").asText()) {
+                case "ACK" -> {
+                    metrics.paintsCreated.increment();
+                    JsonNode cell = message.path("payload").path("cell");
+                    if (cell.has("id")) {
+                        knownVersions.put(key(row, col), cell.path("id").asLong());
+                    }
+                }
+                case "CONFLICT" -> {
+                    metrics.conflicts.increment();
+                    metrics.paintRejected(token);
+                }
+                case "RATE_LIMITED" -> {
+                    metrics.rateLimited.increment();
+                    metrics.paintRejected(token);
+                }
+                default -> {
+                    metrics.httpErrors.increment();
+                    metrics.paintRejected(token);
+                }
+            }
+        } catch (IOException | ExecutionException | TimeoutException | RuntimeException e) {
+            metrics.wsFailures.increment();
+            metrics.paintRejected(token);
+        } finally {
+            pendingWrites.remove(token);
+        }
+    }
+
+    private JsonNode get(LoadTestMetrics.Request kind, String path) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri(path)).timeout(Duration.ofSeconds(30)).GET().build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            metrics.recordRequest(kind, start);
+            if (response.statusCode() == 503) {
+                metrics.shed.increment();
+                return null;
+            }
+            if (response.statusCode() != 200) {
+                metrics.httpErrors.increment();
+                return null;
+            }
+            metrics.readsOk.increment();
+            return objectMapper.readTree(response.body()).path("data");
+        } catch (IOException e) {
+            metrics.ioErrors.increment();
+            return null;
+        }
+    }
+
+    private void sendEditing(String type, int row, int col) {
+        Map<String, Object> message = Map.of("type", type, "payload", Map.of("rowIndex", row, "colIndex", col));
+        try {
+            // The JDK client allows one outstanding send per WebSocket; wait for it like a browser's send queue would.
+            webSocket.sendText(objectMapper.writeValueAsString(message), true).join();
+            metrics.editingSignals.increment();
+        } catch (IOException | RuntimeException e) {
+            metrics.wsFailures.increment();
+        }
+    }
+
+    private void think() throws InterruptedException {
+        double mean = config.thinkTime().toMillis();
+        long pause = (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * mean);
+        Thread.sleep(pause);
+    }
+
+    private URI uri(String path) {
+        return config.baseUrl().resolve(path);
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Receives broadcasts. Runs on the HTTP client's executor, so it must not block.
+     */
+    private final class Listener implements WebSocket.Listener {
+
+        private final StringBuilder partial = new StringBuilder();
+
+        @Override
+        public void onOpen(WebSocket webSocket) {
+            webSocket.request(1);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            long receivedNanos = System.nanoTime();
+            partial.append(data);
+            if (last) {
+                String text = partial.toString();
+                partial.setLength(0);
+                handle(text, receivedNanos);
+            }
+            webSocket.request(1);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            metrics.wsFailures.increment();
+        }
+
+        private void handle(String text, long receivedNanos) {
+            metrics.wsMessages.increment();
+            try {
+                JsonNode message = objectMapper.readTree(text);
+                String type = message.path("type").asText();
+                JsonNode payload = message.path("payload");
+                if ("CELL_UPDATED".equals(type)) {
+                    String content = payload.path("content").asText("");
+                    if (content.startsWith("lt:") && !content.startsWith("lt:" + userId + ":")) {
+                        metrics.paintDelivered(content, receivedNanos);
+                    }
+                    trackVersion(payload, payload.path("id").asLong());
+                } else if ("CELL_DELETED".equals(type)) {
+                    trackVersion(payload, null);
+                } else if ("ACK".equals(type) || "CONFLICT".equals(type) || "RATE_LIMITED".equals(type) || "ERROR".equals(type)) {
+                    CompletableFuture<JsonNode> reply = pendingWrites.get(payload.path("correlationId").asText());
+                    if (reply != null) {
+                        reply.complete(message);
+                    }
+                }
+            } catch (IOException e) {
+                metrics.wsFailures.increment();
+            }
+        }
+
+        private void trackVersion(JsonNode payload, Long id) {
+            int row = payload.path("rowIndex").asInt();
+            int col = payload.path("colIndex").asInt();
+            if (row < viewRow || row >= viewRow + LoadTestConfig.VIEWPORT_CELLS
+                || col < viewCol || col >= viewCol + LoadTestConfig.VIEWPORT_CELLS) {
+                return;
+            }
+            if (id != null) {
+                knownVersions.put(key(row, col), id);
+            } else {
+                knownVersions.remove(key(row, col));
+            }
+        }
+    }
+}
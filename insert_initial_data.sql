@@ -1,9 +1,10 @@
 -- 插入欢迎信息和使用信息的SQL语句
 -- 执行这些语句来在数据库中添加初始内容
+-- bg_color 是打包的 0xRRGGBB 整数 (见 V3 迁移), 这里用 CONV 从十六进制换算
 
 -- 欢迎信息（位置0,0）
 INSERT INTO messages (content, bg_color, row_index, col_index, ip_address, created_at) 
-VALUES ('欢迎来到Flux画布！🎉', '#87CEEB', 0, 0, '127.0.0.1', NOW());
+VALUES ('欢迎来到Flux画布！🎉', CONV('87CEEB', 16, 10), 0, 0, '127.0.0.1', NOW());
 
 -- 使用说明（垂直排列在左侧）
 INSERT INTO messages (content, bg_color, row_index, col_index, ip_address, created_at) 
@@ -26,13 +27,13 @@ VALUES ('🔍 热力图显示活跃区域', NULL, 6, 0, '127.0.0.1', NOW());
 
 -- 装饰性内容
 INSERT INTO messages (content, bg_color, row_index, col_index, ip_address, created_at) 
-VALUES ('开始创作吧！', '#FFB6C1', 0, 2, '127.0.0.1', NOW());
+VALUES ('开始创作吧！', CONV('FFB6C1', 16, 10), 0, 2, '127.0.0.1', NOW());
 
 INSERT INTO messages (content, bg_color, row_index, col_index, ip_address, created_at) 
-VALUES ('✨', '#FFD700', 0, 3, '127.0.0.1', NOW());
+VALUES ('✨', CONV('FFD700', 16, 10), 0, 3, '127.0.0.1', NOW());
 
 INSERT INTO messages (content, bg_color, row_index, col_index, ip_address, created_at) 
-VALUES ('🚀', '#98FB98', 0, 4, '127.0.0.1', NOW());
+VALUES ('🚀', CONV('98FB98', 16, 10), 0, 4, '127.0.0.1', NOW());
 
 -- 添加一些额外的提示信息
 INSERT INTO messages (content, bg_color, row_index, col_index, ip_address, created_at) 